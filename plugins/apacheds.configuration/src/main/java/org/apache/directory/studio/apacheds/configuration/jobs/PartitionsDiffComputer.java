@@ -22,7 +22,10 @@ package org.apache.directory.studio.apacheds.configuration.jobs;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.directory.api.ldap.model.constants.LdapConstants;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
@@ -60,6 +63,10 @@ import org.eclipse.core.runtime.Status;
  */
 public class PartitionsDiffComputer
 {
+    /** The comparator sorting entries in DN order, parents before their children */
+    private static final Comparator<Entry> DN_ORDER_COMPARATOR = ( entry1, entry2 ) -> compareDns( entry1.getDn(),
+        entry2.getDn() );
+
     /** The original partition */
     private Partition originalPartition;
 
@@ -127,7 +134,7 @@ public class PartitionsDiffComputer
         // Checking partitions
         checkPartitions();
 
-        return comparePartitions( baseDn, attributeIds );
+        return comparePartitionsInDnOrder( baseDn, attributeIds );
     }
 
 
@@ -175,14 +182,17 @@ public class PartitionsDiffComputer
 
 
     /**
-     * Compare the two partitions.
+     * Compare the two partitions, with a lookup in the other partition for each entry.
+     * <p>
+     * This is the former implementation of {@link #comparePartitionsInDnOrder(Dn, String[])}, 
+     * it is only kept to check that both implementations compute the same modifications.
      *
      * @param baseDn the base Dn
      * @param attributeIds the IDs of the attributes
      * @return a list containing LDIF entries with all modifications
      * @throws Exception If the operation failed
      */
-    public List<LdifEntry> comparePartitions( Dn baseDn, String[] attributeIds ) throws PartitionsDiffException
+    List<LdifEntry> comparePartitions( Dn baseDn, String[] attributeIds ) throws PartitionsDiffException
     {
         // Creating the list containing all modifications
         List<LdifEntry> modifications = new ArrayList<>();
@@ -342,6 +352,204 @@ public class PartitionsDiffComputer
     }
 
 
+    /**
+     * Compare the two partitions in a single pass.
+     * <p>
+     * The entries of each partition are read once, sorted in DN order (parents before their 
+     * children) and both sorted lists are merge-joined, so no lookup in the other partition
+     * is done for each entry.
+     *
+     * @param baseDn the base Dn
+     * @param attributeIds the IDs of the attributes
+     * @return a list containing LDIF entries with all modifications
+     * @throws PartitionsDiffException If the operation failed
+     */
+    public List<LdifEntry> comparePartitionsInDnOrder( Dn baseDn, String[] attributeIds ) throws PartitionsDiffException
+    {
+        // Creating the lists containing the deletions and modifications, and the additions
+        List<LdifEntry> modifications = new ArrayList<>();
+        List<LdifEntry> additions = new ArrayList<>();
+
+        try
+        {
+            // Reading both partitions in DN order
+            List<Entry> originalEntries = readEntriesInDnOrder( originalPartition, baseDn, attributeIds );
+            List<Entry> destinationEntries = readEntriesInDnOrder( destinationPartition, baseDn, attributeIds );
+
+            int originalIndex = 0;
+            int destinationIndex = 0;
+
+            // Merging both lists
+            while ( ( originalIndex < originalEntries.size() ) || ( destinationIndex < destinationEntries.size() ) )
+            {
+                int comparison;
+
+                if ( originalIndex == originalEntries.size() )
+                {
+                    comparison = 1;
+                }
+                else if ( destinationIndex == destinationEntries.size() )
+                {
+                    comparison = -1;
+                }
+                else
+                {
+                    comparison = compareDns( originalEntries.get( originalIndex ).getDn(),
+                        destinationEntries.get( destinationIndex ).getDn() );
+                }
+
+                if ( comparison == 0 )
+                {
+                    // The entry is present in both partitions, comparing both entries
+                    Entry originalEntry = originalEntries.get( originalIndex++ );
+                    Entry destinationEntry = destinationEntries.get( destinationIndex++ );
+
+                    LdifEntry modificationEntry = new LdifEntry();
+                    modificationEntry.setDn( originalEntry.getDn() );
+                    modificationEntry.setChangeType( ChangeType.Modify );
+
+                    compareEntries( originalEntry, destinationEntry, modificationEntry );
+
+                    if ( !modificationEntry.getModifications().isEmpty() )
+                    {
+                        modifications.add( modificationEntry );
+                    }
+                }
+                else if ( comparison < 0 )
+                {
+                    // The original entry is no longer present in the destination partition
+                    LdifEntry modificationEntry = new LdifEntry();
+                    modificationEntry.setDn( originalEntries.get( originalIndex++ ).getDn() );
+                    modificationEntry.setChangeType( ChangeType.Delete );
+
+                    modifications.add( modificationEntry );
+                }
+                else
+                {
+                    // The destination entry is not present in the original partition
+                    Entry destinationEntry = destinationEntries.get( destinationIndex++ );
+
+                    LdifEntry modificationEntry = new LdifEntry();
+                    modificationEntry.setDn( destinationEntry.getDn() );
+                    modificationEntry.setChangeType( ChangeType.Add );
+
+                    // Copying attributes
+                    for ( Attribute attribute : destinationEntry )
+                    {
+                        modificationEntry.addAttribute( attribute );
+                    }
+
+                    additions.add( modificationEntry );
+                }
+            }
+
+            // Reversing the list to allow deletion of leafs first (otherwise we would be deleting
+            // higher nodes with children first). Additions are kept in DN order, parents first.
+            // Order for modified entries does not matter.
+            Collections.reverse( modifications );
+            modifications.addAll( additions );
+        }
+        catch ( PartitionsDiffException pde )
+        {
+            throw pde;
+        }
+        catch ( Exception e )
+        {
+            ApacheDS2ConfigurationPlugin.getDefault().getLog().log( 
+                new Status( IStatus.ERROR, ApacheDS2ConfigurationPluginConstants.PLUGIN_ID, 
+                    Messages.getString( "PartitionDiffComputer.ComparePartitions" ) ) );
+
+            throw new PartitionsDiffException( e );
+        }
+
+        return modifications;
+    }
+
+
+    /**
+     * Reads the base entry of the given partition and all its descendants.
+     * <p>
+     * The entries are read with a one-level search for each entry, like the former
+     * implementation did. A subtree search is not used: on a standalone partition a subtree 
+     * search with '(objectClass=*)' returns no entry, and a presence filter on another 
+     * attribute would rely on every entry having that attribute.
+     *
+     * @param partition the partition
+     * @param baseDn the base Dn
+     * @param attributeIds the IDs of the attributes
+     * @return the entries, sorted in DN order
+     * @throws Exception If the operation failed
+     */
+    private List<Entry> readEntriesInDnOrder( Partition partition, Dn baseDn, String[] attributeIds ) throws Exception
+    {
+        Entry baseEntry = partition.lookup( new LookupOperationContext( null, baseDn, attributeIds ) );
+
+        if ( baseEntry == null )
+        {
+            throw new PartitionsDiffException( Messages.getString( "PartitionDiffComputer.PartitionNotFound" ) );
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        entries.add( baseEntry );
+
+        // Looping until the children of all the entries have been read
+        for ( int i = 0; i < entries.size(); i++ )
+        {
+            // Creating a search operation context to get the children of the current entry
+            SearchOperationContext soc = new SearchOperationContext( null, entries.get( i ).getDn(),
+                SearchScope.ONELEVEL,
+                FilterParser.parse( partition.getSchemaManager(), LdapConstants.OBJECT_CLASS_STAR ), attributeIds );
+            soc.setAliasDerefMode( AliasDerefMode.DEREF_ALWAYS );
+
+            EntryFilteringCursor cursor = partition.search( soc );
+
+            try
+            {
+                while ( cursor.next() )
+                {
+                    entries.add( ( ( ClonedServerEntry ) cursor.get() ).getClonedEntry() );
+                }
+            }
+            finally
+            {
+                cursor.close();
+            }
+        }
+
+        entries.sort( DN_ORDER_COMPARATOR );
+
+        return entries;
+    }
+
+
+    /**
+     * Compares two Dns, RDN by RDN starting from the root, so that a parent is always 
+     * sorted before its children.
+     *
+     * @param dn1 the first Dn
+     * @param dn2 the second Dn
+     * @return a negative integer, zero, or a positive integer as the first Dn is sorted 
+     *      before, at the same position as, or after the second Dn
+     */
+    private static int compareDns( Dn dn1, Dn dn2 )
+    {
+        int size1 = dn1.size();
+        int size2 = dn2.size();
+
+        for ( int i = 1; ( i <= size1 ) && ( i <= size2 ); i++ )
+        {
+            int comparison = dn1.getRdn( size1 - i ).getNormName().compareTo( dn2.getRdn( size2 - i ).getNormName() );
+
+            if ( comparison != 0 )
+            {
+                return comparison;
+            }
+        }
+
+        return Integer.compare( size1, size2 );
+    }
+
+
     /**
      * Compares the two given entries.
      *
@@ -352,8 +560,8 @@ public class PartitionsDiffComputer
      */
     private void compareEntries( Entry originalEntry, Entry destinationEntry, LdifEntry modificationEntry )
     {
-        // Creating a list to store the already evaluated attribute type
-        List<AttributeType> evaluatedATs = new ArrayList<>();
+        // Creating a set to store the already evaluated attribute type
+        Set<AttributeType> evaluatedATs = new HashSet<>();
 
         // Checking attributes of the original entry
         for ( Attribute originalAttribute : originalEntry )
@@ -436,8 +644,8 @@ public class PartitionsDiffComputer
     private void compareAttributes( Attribute originalAttribute, Attribute destinationAttribute,
         LdifEntry modificationEntry )
     {
-        // Creating a list to store the already evaluated values
-        List<Value> evaluatedValues = new ArrayList<>();
+        // Creating a set to store the already evaluated values
+        Set<Value> evaluatedValues = new HashSet<>();
 
         // Checking values of the original attribute
         for ( Value originalValue : originalAttribute )
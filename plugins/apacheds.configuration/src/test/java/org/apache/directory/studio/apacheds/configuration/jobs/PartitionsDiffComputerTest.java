@@ -0,0 +1,219 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.apacheds.configuration.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.ldif.ChangeType;
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.apache.directory.server.core.api.interceptor.context.AddOperationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the {@link PartitionsDiffComputer}, the modifications computed in DN order are 
+ * compared with the ones computed by the former implementation.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PartitionsDiffComputerTest
+{
+    private static final String[] ALL_USER_ATTRIBUTES = new String[]
+        { SchemaConstants.ALL_USER_ATTRIBUTES };
+
+    private SchemaManager schemaManager;
+    private EntryBasedConfigurationPartition originalPartition;
+    private EntryBasedConfigurationPartition destinationPartition;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        schemaManager = new DefaultSchemaManager();
+        originalPartition = new EntryBasedConfigurationPartition( schemaManager );
+        originalPartition.initialize();
+        destinationPartition = new EntryBasedConfigurationPartition( schemaManager );
+        destinationPartition.initialize();
+    }
+
+
+    @Test
+    public void testSamePartitions() throws Exception
+    {
+        addEntries( originalPartition );
+        addEntries( destinationPartition );
+
+        assertTrue( computeModifications().isEmpty() );
+    }
+
+
+    @Test
+    public void testModifications() throws Exception
+    {
+        addEntry( originalPartition, "ou=config" );
+        addEntry( originalPartition, "ou=a,ou=config", "description: x", "description: y" );
+        addEntry( originalPartition, "ou=b,ou=config" );
+        addEntry( originalPartition, "ou=c,ou=b,ou=config" );
+        addEntry( originalPartition, "ou=d,ou=c,ou=b,ou=config" );
+        addEntry( originalPartition, "ou=z,ou=config" );
+
+        addEntry( destinationPartition, "ou=config" );
+        addEntry( destinationPartition, "ou=a,ou=config", "description: y", "description: w" );
+        addEntry( destinationPartition, "ou=z,ou=config", "description: z" );
+        addEntry( destinationPartition, "ou=e,ou=z,ou=config" );
+        addEntry( destinationPartition, "ou=f,ou=e,ou=z,ou=config" );
+        addEntry( destinationPartition, "ou=b2,ou=config" );
+
+        List<LdifEntry> modifications = computeModifications();
+
+        assertEquals( 8, modifications.size() );
+        assertChangeType( modifications, ChangeType.Delete, "ou=b,ou=config" );
+        assertChangeType( modifications, ChangeType.Delete, "ou=c,ou=b,ou=config" );
+        assertChangeType( modifications, ChangeType.Delete, "ou=d,ou=c,ou=b,ou=config" );
+        assertChangeType( modifications, ChangeType.Modify, "ou=a,ou=config" );
+        assertChangeType( modifications, ChangeType.Modify, "ou=z,ou=config" );
+        assertChangeType( modifications, ChangeType.Add, "ou=b2,ou=config" );
+        assertChangeType( modifications, ChangeType.Add, "ou=e,ou=z,ou=config" );
+        assertChangeType( modifications, ChangeType.Add, "ou=f,ou=e,ou=z,ou=config" );
+
+        // The deleted subtree is deleted leaves first
+        assertBefore( modifications, "ou=d,ou=c,ou=b,ou=config", "ou=c,ou=b,ou=config" );
+        assertBefore( modifications, "ou=c,ou=b,ou=config", "ou=b,ou=config" );
+
+        // The entries are added after the deletions and modifications, parents first
+        assertBefore( modifications, "ou=b,ou=config", "ou=b2,ou=config" );
+        assertBefore( modifications, "ou=a,ou=config", "ou=b2,ou=config" );
+        assertBefore( modifications, "ou=z,ou=config", "ou=e,ou=z,ou=config" );
+        assertBefore( modifications, "ou=e,ou=z,ou=config", "ou=f,ou=e,ou=z,ou=config" );
+    }
+
+
+    @Test
+    public void testEntriesWithoutEntryUuid() throws Exception
+    {
+        addEntry( originalPartition, "ou=config" );
+        addEntry( destinationPartition, "ou=config" );
+        addEntryWithoutEntryUuid( originalPartition, "ou=a,ou=config", "description: x" );
+        addEntryWithoutEntryUuid( destinationPartition, "ou=a,ou=config", "description: x" );
+        addEntryWithoutEntryUuid( originalPartition, "ou=b,ou=a,ou=config" );
+
+        List<LdifEntry> modifications = computeModifications();
+
+        // The entries are compared and not reported as deleted
+        assertEquals( 1, modifications.size() );
+        assertChangeType( modifications, ChangeType.Delete, "ou=b,ou=a,ou=config" );
+    }
+
+
+    /**
+     * Computes the modifications between both partitions, and checks the former
+     * implementation computes the same modifications.
+     */
+    private List<LdifEntry> computeModifications() throws Exception
+    {
+        PartitionsDiffComputer partitionsDiffComputer = new PartitionsDiffComputer( originalPartition,
+            destinationPartition );
+        List<LdifEntry> modifications = partitionsDiffComputer.computeModifications( ALL_USER_ATTRIBUTES );
+        List<LdifEntry> formerModifications = partitionsDiffComputer.comparePartitions(
+            originalPartition.getSuffixDn(), ALL_USER_ATTRIBUTES );
+
+        assertEquals( new HashSet<>( formerModifications ), new HashSet<>( modifications ) );
+        assertEquals( formerModifications.size(), modifications.size() );
+
+        return modifications;
+    }
+
+
+    private static void assertChangeType( List<LdifEntry> modifications, ChangeType changeType, String dn )
+    {
+        assertEquals( changeType, modifications.get( indexOf( modifications, dn ) ).getChangeType() );
+    }
+
+
+    private static void assertBefore( List<LdifEntry> modifications, String dn1, String dn2 )
+    {
+        assertTrue( indexOf( modifications, dn1 ) < indexOf( modifications, dn2 ), dn1 + " before " + dn2 );
+    }
+
+
+    private static int indexOf( List<LdifEntry> modifications, String dn )
+    {
+        for ( int i = 0; i < modifications.size(); i++ )
+        {
+            if ( modifications.get( i ).getDn().getName().equals( dn ) )
+            {
+                return i;
+            }
+        }
+
+        throw new AssertionError( "No modification for " + dn );
+    }
+
+
+    private void addEntries( EntryBasedConfigurationPartition partition ) throws Exception
+    {
+        addEntry( partition, "ou=config" );
+        addEntry( partition, "ou=a,ou=config", "description: x" );
+        addEntry( partition, "ou=b,ou=a,ou=config" );
+    }
+
+
+    private void addEntry( EntryBasedConfigurationPartition partition, String dn, String... attributes )
+        throws Exception
+    {
+        partition.addEntry( createEntry( dn, attributes ) );
+    }
+
+
+    private void addEntryWithoutEntryUuid( EntryBasedConfigurationPartition partition, String dn,
+        String... attributes ) throws Exception
+    {
+        Entry entry = createEntry( dn, attributes );
+        entry.add( SchemaConstants.ENTRY_CSN_AT, "20260101000000.000000Z#000000#000#000000" );
+        partition.add( new AddOperationContext( null, entry ) );
+    }
+
+
+    private Entry createEntry( String dn, String... attributes ) throws Exception
+    {
+        Entry entry = new DefaultEntry( schemaManager, dn, "objectClass: organizationalUnit" );
+        entry.add( "ou", entry.getDn().getRdn().getValue() );
+
+        for ( String attribute : attributes )
+        {
+            int colon = attribute.indexOf( ':' );
+            entry.add( attribute.substring( 0, colon ), attribute.substring( colon + 2 ) );
+        }
+
+        return entry;
+    }
+}
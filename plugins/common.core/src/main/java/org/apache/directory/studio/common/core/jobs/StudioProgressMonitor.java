@@ -26,6 +26,8 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,6 +35,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
 
 
 /**
@@ -60,6 +63,27 @@ public class StudioProgressMonitor extends ProgressMonitorWrapper
      * it to true once a second. This way too many updates are prevented. */
     protected AtomicBoolean allowMessageReporting;
 
+    /** The number of processed items, see {@link #incrementProgressCount()} */
+    protected AtomicLong progressCount;
+
+    /** The number of failed items, see {@link #incrementProgressErrorCount()} */
+    protected AtomicLong progressErrorCount;
+
+    /** The message pattern of the progress count, {0} is replaced by the count and {1} by the error count */
+    protected volatile String progressMessagePattern;
+
+    /** The expected total number of items, 0 or less if unknown */
+    protected volatile long progressTotal;
+
+    /** The time in milliseconds when the progress count was started */
+    protected volatile long progressStartTime;
+
+    /** The number of processed items of the last progress message, used to avoid building the same message twice */
+    protected volatile long lastProgressMessageCount;
+
+    /** The progress message built by the {@link StudioProgressMonitorWatcherJob}, waiting to be forwarded */
+    protected AtomicReference<String> pendingProgressMessage;
+
 
     /**
      * Creates a new instance of ExtendedProgressMonitor.
@@ -85,6 +109,9 @@ public class StudioProgressMonitor extends ProgressMonitorWrapper
         isDone = false;
         CommonCorePlugin.getDefault().getStudioProgressMonitorWatcherJob().addMonitor(this);
         allowMessageReporting = new AtomicBoolean( true );
+        progressCount = new AtomicLong();
+        progressErrorCount = new AtomicLong();
+        pendingProgressMessage = new AtomicReference<String>();
     }
 
 
@@ -178,6 +205,184 @@ public class StudioProgressMonitor extends ProgressMonitorWrapper
     }
 
 
+    /**
+     * Starts counting the progress of a bulk operation with an unknown number of items.
+     * 
+     * @param messagePattern the message pattern, {0} is replaced by the count and {1} by the error count
+     * @see #beginProgressCount(String, long)
+     */
+    public void beginProgressCount( String messagePattern )
+    {
+        beginProgressCount( messagePattern, -1 );
+    }
+
+
+    /**
+     * Starts counting the progress of a bulk operation. Hot loops should call
+     * {@link #incrementProgressCount()} for each processed item instead of formatting
+     * a message and calling {@link #reportProgress(String)}. The message is built by the
+     * {@link StudioProgressMonitorWatcherJob} at most once per interval, together with the
+     * throughput and, if the total is known, the estimated remaining time.
+     * 
+     * @param messagePattern the message pattern, {0} is replaced by the count and {1} by the error count
+     * @param total the expected total number of items, 0 or less if unknown
+     */
+    public void beginProgressCount( String messagePattern, long total )
+    {
+        progressCount.set( 0 );
+        progressErrorCount.set( 0 );
+        progressTotal = total;
+        progressStartTime = System.currentTimeMillis();
+        lastProgressMessageCount = -1;
+        pendingProgressMessage.set( null );
+        progressMessagePattern = messagePattern;
+    }
+
+
+    /**
+     * Stops counting the progress, no more progress messages are built.
+     */
+    public void endProgressCount()
+    {
+        progressMessagePattern = null;
+        pendingProgressMessage.set( null );
+    }
+
+
+    /**
+     * Increments the number of processed items.
+     */
+    public void incrementProgressCount()
+    {
+        progressCount.incrementAndGet();
+        forwardPendingProgressMessage();
+    }
+
+
+    /**
+     * Increments the number of failed items.
+     */
+    public void incrementProgressErrorCount()
+    {
+        progressErrorCount.incrementAndGet();
+        forwardPendingProgressMessage();
+    }
+
+
+    /**
+     * Gets the number of processed items.
+     * 
+     * @return the number of processed items
+     */
+    public long getProgressCount()
+    {
+        return progressCount.get();
+    }
+
+
+    /**
+     * Gets the number of failed items.
+     * 
+     * @return the number of failed items
+     */
+    public long getProgressErrorCount()
+    {
+        return progressErrorCount.get();
+    }
+
+
+    /**
+     * Forwards the progress message built by the watcher job, if any. This is 
+     * done in the working thread to not call the wrapped monitor concurrently. 
+     */
+    private void forwardPendingProgressMessage()
+    {
+        if ( pendingProgressMessage.get() != null )
+        {
+            String message = pendingProgressMessage.getAndSet( null );
+
+            if ( message != null )
+            {
+                subTask( message );
+            }
+        }
+    }
+
+
+    /**
+     * Builds the progress message from the current counters. Called 
+     * periodically by the {@link StudioProgressMonitorWatcherJob}.
+     * 
+     * @param now the current time in milliseconds
+     */
+    /* Package protected */void buildProgressMessage( long now )
+    {
+        String messagePattern = progressMessagePattern;
+
+        if ( messagePattern == null )
+        {
+            return;
+        }
+
+        long count = progressCount.get();
+        long errorCount = progressErrorCount.get();
+        long processed = count + errorCount;
+
+        if ( processed == lastProgressMessageCount )
+        {
+            return;
+        }
+
+        lastProgressMessageCount = processed;
+        String message = NLS.bind( messagePattern, Long.toString( count ), Long.toString( errorCount ) );
+
+        long elapsed = now - progressStartTime;
+
+        if ( elapsed > 0 )
+        {
+            long rate = processed * 1000L / elapsed;
+            long total = progressTotal;
+
+            if ( ( total > 0 ) && ( rate > 0 ) && ( total > processed ) )
+            {
+                message = NLS.bind( Messages.getString( "StudioProgressMonitor.ThroughputEta" ), new String[] //$NON-NLS-1$
+                    { message, Long.toString( rate ), formatDuration( ( total - processed ) / rate ) } );
+            }
+            else
+            {
+                message = NLS.bind( Messages.getString( "StudioProgressMonitor.Throughput" ), message, //$NON-NLS-1$
+                    Long.toString( rate ) );
+            }
+        }
+
+        pendingProgressMessage.set( message );
+    }
+
+
+    /**
+     * Formats a duration as h:mm:ss or m:ss.
+     * 
+     * @param seconds the duration in seconds
+     * 
+     * @return the formatted duration
+     */
+    private static String formatDuration( long seconds )
+    {
+        long hours = seconds / 3600;
+        long minutes = ( seconds % 3600 ) / 60;
+        long secs = seconds % 60;
+
+        if ( hours > 0 )
+        {
+            return String.format( "%d:%02d:%02d", hours, minutes, secs ); //$NON-NLS-1$
+        }
+        else
+        {
+            return String.format( "%d:%02d", minutes, secs ); //$NON-NLS-1$
+        }
+    }
+
+
     /**
      * Report error.
      * 
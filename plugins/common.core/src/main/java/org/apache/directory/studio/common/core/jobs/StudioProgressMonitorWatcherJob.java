@@ -37,6 +37,8 @@ import org.eclipse.core.runtime.jobs.Job;
  */
 public class StudioProgressMonitorWatcherJob extends Job
 {
+    /** The interval in milliseconds between two checks, also the minimum interval between two progress messages */
+    private static final long WATCH_INTERVAL = 1000L;
 
     /** The running flag */
     private final AtomicBoolean running;
@@ -84,6 +86,8 @@ public class StudioProgressMonitorWatcherJob extends Job
     {
         while ( running.get() )
         {
+            long now = System.currentTimeMillis();
+
             for ( Iterator<StudioProgressMonitor> it = monitors.iterator(); it.hasNext(); )
             {
                 StudioProgressMonitor next = it.next();
@@ -95,6 +99,7 @@ public class StudioProgressMonitorWatcherJob extends Job
                     if ( !spm.isCanceled() && !spm.isDone )
                     {
                         spm.allowMessageReporting.set( true );
+                        spm.buildProgressMessage( now );
                     }
 
                     // check if canceled
@@ -123,7 +128,7 @@ public class StudioProgressMonitorWatcherJob extends Job
 
             try
             {
-                Thread.sleep( 1000 );
+                Thread.sleep( WATCH_INTERVAL );
             }
             catch ( InterruptedException e )
             {
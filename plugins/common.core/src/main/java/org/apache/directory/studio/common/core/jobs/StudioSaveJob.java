@@ -0,0 +1,221 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.common.core.jobs;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+
+/**
+ * Job to persist a store file in the background.
+ * <p>
+ * The stores are modified by the thread that requests the save, so the
+ * content of the store is serialized by {@link #requestSave()} in the
+ * calling thread and the job only writes that snapshot. Save requests are
+ * coalesced: the job is scheduled after a short delay and writes the latest
+ * snapshot, so a burst of changes results in a single write. The content is
+ * written to a temporary file which then atomically replaces the store file,
+ * a crash during the write never leaves a truncated store behind.
+ * <p>
+ * Pending changes must be written with {@link #flush()} before the owning
+ * plugin stops.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public abstract class StudioSaveJob extends Job
+{
+    /** The default delay in ms between a save request and the write */
+    public static final long DEFAULT_DELAY = 500L;
+
+    /** The suffix of the temporary file */
+    public static final String TEMP_SUFFIX = "-temp"; //$NON-NLS-1$
+
+    /** The store file */
+    private final File file;
+
+    /** The delay in ms between a save request and the write */
+    private final long delay;
+
+    /** The latest snapshot of the store which was not written yet, null if there are no pending changes */
+    private final AtomicReference<byte[]> pendingContent = new AtomicReference<>();
+
+
+    /**
+     * Creates a new instance of StudioSaveJob.
+     *
+     * @param file the store file
+     * @param delay the delay in ms between a save request and the write
+     */
+    protected StudioSaveJob( File file, long delay )
+    {
+        super( MessageFormat.format( Messages.getString( "StudioSaveJob.Saving" ), file.getName() ) ); //$NON-NLS-1$
+        this.file = file;
+        this.delay = delay;
+        setSystem( true );
+    }
+
+
+    /**
+     * Writes the content of the store to the given stream. This method is
+     * called in the thread which requests the save.
+     *
+     * @param out the output stream
+     * @throws IOException if the content can't be written
+     */
+    protected abstract void write( OutputStream out ) throws IOException;
+
+
+    /**
+     * Takes a snapshot of the store and schedules the write. Requests issued
+     * before the job runs are coalesced into a single write of the latest
+     * snapshot.
+     */
+    public void requestSave()
+    {
+        try
+        {
+            pendingContent.set( snapshot() );
+            schedule( delay );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            CommonCorePlugin.getDefault().getLog().log(
+                new Status( IStatus.ERROR, CommonCoreConstants.PLUGIN_ID, MessageFormat.format(
+                    Messages.getString( "StudioSaveJob.ErrorSaving" ), file.getName(), e.getMessage() ), e ) ); //$NON-NLS-1$
+        }
+    }
+
+
+    /**
+     * Writes pending changes immediately in the calling thread.
+     *
+     * @throws IOException if the store can't be written
+     */
+    public void flush() throws IOException
+    {
+        cancel();
+        writePendingContent();
+    }
+
+
+    /**
+     * Writes the store immediately in the calling thread, regardless
+     * whether there are pending changes or not.
+     *
+     * @throws IOException if the store can't be written
+     */
+    public void save() throws IOException
+    {
+        pendingContent.set( snapshot() );
+        writePendingContent();
+    }
+
+
+    /**
+     * Serializes the content of the store.
+     *
+     * @return the content of the store
+     * @throws IOException if the content can't be serialized
+     */
+    private byte[] snapshot() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write( out );
+
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Writes the latest snapshot, if any. If the write fails the snapshot
+     * is kept, unless a newer one was taken in the meantime.
+     *
+     * @throws IOException if the store can't be written
+     */
+    private synchronized void writePendingContent() throws IOException
+    {
+        byte[] content = pendingContent.getAndSet( null );
+
+        if ( content == null )
+        {
+            return;
+        }
+
+        File tempFile = new File( file.getPath() + TEMP_SUFFIX );
+
+        try
+        {
+            // To avoid a corrupt file, save the content to a temp file first
+            try ( OutputStream out = new FileOutputStream( tempFile ) )
+            {
+                out.write( content );
+            }
+
+            // then replace the store file
+            try
+            {
+                Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING );
+            }
+            catch ( AtomicMoveNotSupportedException e )
+            {
+                Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        catch ( IOException e )
+        {
+            pendingContent.compareAndSet( null, content );
+            throw e;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    protected IStatus run( IProgressMonitor monitor )
+    {
+        try
+        {
+            writePendingContent();
+            return Status.OK_STATUS;
+        }
+        catch ( IOException e )
+        {
+            return new Status( IStatus.ERROR, CommonCoreConstants.PLUGIN_ID, MessageFormat.format(
+                Messages.getString( "StudioSaveJob.ErrorSaving" ), file.getName(), e.getMessage() ), e ); //$NON-NLS-1$
+        }
+    }
+}
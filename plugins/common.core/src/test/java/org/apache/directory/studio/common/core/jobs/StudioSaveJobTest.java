@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.studio.common.core.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * Tests the {@link StudioSaveJob}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class StudioSaveJobTest
+{
+    @TempDir
+    public File tempDir;
+
+    private File file;
+
+    private List<String> store;
+
+    private StudioSaveJob saveJob;
+
+
+    @BeforeEach
+    public void setup()
+    {
+        file = new File( tempDir, "store.txt" );
+        store = new ArrayList<>();
+        saveJob = new StudioSaveJob( file, 60000L )
+        {
+            protected void write( OutputStream out ) throws IOException
+            {
+                out.write( String.join( ",", store ).getBytes( StandardCharsets.UTF_8 ) );
+            }
+        };
+    }
+
+
+    @Test
+    public void testFlushWritesTheSnapshotOfTheRequest() throws Exception
+    {
+        store.add( "a" );
+        saveJob.requestSave();
+
+        // changed without a save request, the job must not see it
+        store.add( "b" );
+        saveJob.flush();
+
+        assertEquals( "a", read() );
+        assertFalse( new File( file.getPath() + StudioSaveJob.TEMP_SUFFIX ).exists() );
+    }
+
+
+    @Test
+    public void testRequestsAreCoalesced() throws Exception
+    {
+        store.add( "a" );
+        saveJob.requestSave();
+        store.add( "b" );
+        saveJob.requestSave();
+        saveJob.flush();
+
+        assertEquals( "a,b", read() );
+
+        // nothing pending anymore
+        Files.delete( file.toPath() );
+        saveJob.flush();
+        assertFalse( file.exists() );
+    }
+
+
+    @Test
+    public void testSaveWritesTheCurrentContent() throws Exception
+    {
+        store.add( "a" );
+        saveJob.requestSave();
+        store.add( "b" );
+        saveJob.save();
+
+        assertEquals( "a,b", read() );
+
+        // the older snapshot of the request was replaced
+        Files.delete( file.toPath() );
+        saveJob.flush();
+        assertFalse( file.exists() );
+    }
+
+
+    @Test
+    public void testFailedWriteIsKept() throws Exception
+    {
+        store.add( "a" );
+        saveJob.requestSave();
+
+        // the store file can't be replaced by the temporary file
+        file.mkdir();
+        new File( file, "child" ).createNewFile();
+        assertThrows( IOException.class, () -> saveJob.flush() );
+
+        new File( file, "child" ).delete();
+        file.delete();
+        saveJob.flush();
+
+        assertEquals( "a", read() );
+    }
+
+
+    private String read() throws IOException
+    {
+        return new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+    }
+}
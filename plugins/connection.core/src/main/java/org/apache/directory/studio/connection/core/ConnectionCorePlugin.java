@@ -21,6 +21,7 @@ package org.apache.directory.studio.connection.core;
 
 
 import java.io.IOException;
+import java.security.KeyStoreException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -125,6 +126,8 @@ public class ConnectionCorePlugin extends Plugin
             connectionManager = new ConnectionManager();
         }
 
+        // the connection folders must be loaded after the connections: without a folder store 
+        // the root folder is built from the loaded connections
         if ( connectionFolderManager == null )
         {
             connectionFolderManager = new ConnectionFolderManager();
@@ -133,6 +136,7 @@ public class ConnectionCorePlugin extends Plugin
         if ( passwordsKeyStoreManager == null )
         {
             passwordsKeyStoreManager = new PasswordsKeyStoreManager();
+            passwordsKeyStoreManager.setWriteBehind( true );
         }
 
         if ( permanentTrustStoreManager == null )
@@ -158,6 +162,30 @@ public class ConnectionCorePlugin extends Plugin
      */
     public void stop( BundleContext context ) throws Exception
     {
+        // write pending changes while the plugin is still available
+        if ( connectionManager != null )
+        {
+            connectionManager.flushConnections();
+        }
+
+        if ( connectionFolderManager != null )
+        {
+            connectionFolderManager.flushConnectionFolders();
+        }
+
+        if ( passwordsKeyStoreManager != null )
+        {
+            try
+            {
+                passwordsKeyStoreManager.flush();
+            }
+            catch ( KeyStoreException e )
+            {
+                getLog().log( new Status( IStatus.ERROR, ConnectionCoreConstants.PLUGIN_ID,
+                    Messages.StudioKeyStoreManager_CantSavePasswordsKeyStore + e.getMessage(), e ) );
+            }
+        }
+
         plugin = null;
         super.stop( context );
 
@@ -172,6 +200,7 @@ public class ConnectionCorePlugin extends Plugin
             for ( int i = 0; i < connections.length; i++ )
             {
                 connections[i].getConnectionWrapper().disconnect();
+                connections[i].getConnectionWrapper().getStatistics().unregisterMBean();
             }
             connectionManager = null;
         }
@@ -23,14 +23,14 @@ package org.apache.directory.studio.connection.core;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.directory.api.util.FileUtils;
+import org.apache.directory.studio.common.core.jobs.StudioSaveJob;
 import org.apache.directory.studio.connection.core.event.ConnectionEventRegistry;
 import org.apache.directory.studio.connection.core.event.ConnectionUpdateListener;
 import org.apache.directory.studio.connection.core.io.ConnectionIO;
@@ -55,6 +55,9 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
     /** The list of folders. */
     private Set<ConnectionFolder> folderList;
 
+    /** The job to save the connection folders in the background. */
+    private StudioSaveJob saveJob;
+
 
     /**
      * Creates a new instance of ConnectionFolderManager.
@@ -64,6 +67,13 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
         this.root = new ConnectionFolder( "" ); //$NON-NLS-1$s
         this.root.setId( ROOT_ID ); //$NON-NLS-1$s
         this.folderList = new HashSet<ConnectionFolder>();
+        this.saveJob = new StudioSaveJob( new File( getConnectionFolderStoreFileName() ), StudioSaveJob.DEFAULT_DELAY )
+        {
+            protected void write( OutputStream out ) throws IOException
+            {
+                ConnectionIO.saveConnectionFolders( folderList, out );
+            }
+        };
 
         loadConnectionFolders();
         ConnectionEventRegistry.addConnectionUpdateListener( this, ConnectionCorePlugin.getDefault().getEventRunner() );
@@ -295,7 +305,7 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionAdded( Connection connection )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
@@ -304,7 +314,7 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionRemoved( Connection connection )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
@@ -313,7 +323,7 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionUpdated( Connection connection )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
@@ -338,7 +348,7 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionFolderModified( ConnectionFolder connectionFolder )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
@@ -347,7 +357,7 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionFolderAdded( ConnectionFolder connectionFolder )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
@@ -356,48 +366,24 @@ public class ConnectionFolderManager implements ConnectionUpdateListener
      */
     public void connectionFolderRemoved( ConnectionFolder connectionFolder )
     {
-        saveConnectionFolders();
+        saveJob.requestSave();
     }
 
 
     /**
-     * Saves the Connection Folders
+     * Writes pending changes of the Connection Folders, if any.
      */
-    private synchronized void saveConnectionFolders()
+    public void flushConnectionFolders()
     {
-        File file = new File( getConnectionFolderStoreFileName() );
-        File tempFile = new File( getConnectionFolderStoreFileName() + ConnectionManager.TEMP_SUFFIX );
-
-        // To avoid a corrupt file, save object to a temp file first 
-        try ( FileOutputStream fileOutputStream = new FileOutputStream( tempFile ) )
-        {
-            ConnectionIO.saveConnectionFolders( folderList, fileOutputStream );
-        }
-        catch ( IOException e )
-        {
-            Status status = new Status( IStatus.ERROR, ConnectionCoreConstants.PLUGIN_ID,
-                Messages.error__saving_connections + e.getMessage(), e );
-            ConnectionCorePlugin.getDefault().getLog().log( status );
-            return;
-        }
-
-        // move temp file to good file
-        if ( file.exists() )
-        {
-            file.delete();
-        }
-
         try
         {
-            String content = FileUtils.readFileToString( tempFile, ConnectionManager.ENCODING_UTF8 );
-            FileUtils.writeStringToFile( file, content, ConnectionManager.ENCODING_UTF8 );
+            saveJob.flush();
         }
         catch ( IOException e )
         {
             Status status = new Status( IStatus.ERROR, ConnectionCoreConstants.PLUGIN_ID,
                 Messages.error__saving_connections + e.getMessage(), e );
             ConnectionCorePlugin.getDefault().getLog().log( status );
-            return;
         }
     }
 
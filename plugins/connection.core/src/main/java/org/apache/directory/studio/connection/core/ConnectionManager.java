@@ -23,12 +23,12 @@ package org.apache.directory.studio.connection.core;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.apache.directory.api.util.FileUtils;
+import org.apache.directory.studio.common.core.jobs.StudioSaveJob;
 import org.apache.directory.studio.connection.core.event.ConnectionEventRegistry;
 import org.apache.directory.studio.connection.core.event.ConnectionUpdateListener;
 import org.apache.directory.studio.connection.core.io.ConnectionIO;
@@ -65,6 +65,9 @@ public class ConnectionManager implements ConnectionUpdateListener
     /** The list of connections. */
     private Set<Connection> connectionList;
 
+    /** The job to save the connections in the background. */
+    private StudioSaveJob saveJob;
+
 
     /**
      * Creates a new instance of ConnectionManager.
@@ -72,6 +75,20 @@ public class ConnectionManager implements ConnectionUpdateListener
     public ConnectionManager()
     {
         this.connectionList = new HashSet<>();
+        this.saveJob = new StudioSaveJob( new File( getConnectionStoreFileName() ), StudioSaveJob.DEFAULT_DELAY )
+        {
+            protected void write( OutputStream out ) throws IOException
+            {
+                Set<ConnectionParameter> connectionParameters = new HashSet<>();
+
+                for ( Connection connection : getConnections() )
+                {
+                    connectionParameters.add( connection.getConnectionParameter() );
+                }
+
+                ConnectionIO.save( connectionParameters, out );
+            }
+        };
         loadInitializers();
         loadConnections();
         ConnectionEventRegistry.addConnectionUpdateListener( this, ConnectionCorePlugin.getDefault().getEventRunner() );
@@ -202,6 +219,7 @@ public class ConnectionManager implements ConnectionUpdateListener
         }
 
         connectionList.add( connection );
+        connection.getConnectionWrapper().getStatistics().registerMBean();
         ConnectionEventRegistry.fireConnectionAdded( connection, this );
     }
 
@@ -257,6 +275,7 @@ public class ConnectionManager implements ConnectionUpdateListener
     public void removeConnection( Connection connection )
     {
         connectionList.remove( connection );
+        connection.getConnectionWrapper().getStatistics().unregisterMBean();
         ConnectionEventRegistry.fireConnectionRemoved( connection, this );
     }
 
@@ -290,7 +309,7 @@ public class ConnectionManager implements ConnectionUpdateListener
      */
     public void connectionAdded( Connection connection )
     {
-        saveConnections();
+        saveJob.requestSave();
     }
 
 
@@ -299,7 +318,7 @@ public class ConnectionManager implements ConnectionUpdateListener
      */
     public void connectionRemoved( Connection connection )
     {
-        saveConnections();
+        saveJob.requestSave();
     }
 
 
@@ -308,7 +327,7 @@ public class ConnectionManager implements ConnectionUpdateListener
      */
     public void connectionUpdated( Connection connection )
     {
-        saveConnections();
+        saveJob.requestSave();
     }
 
 
@@ -353,50 +372,37 @@ public class ConnectionManager implements ConnectionUpdateListener
 
 
     /**
-     * Saves the Connections
+     * Saves the Connections immediately.
      */
-    public synchronized void saveConnections()
+    public void saveConnections()
     {
-        Set<ConnectionParameter> connectionParameters = new HashSet<>();
-
-        for ( Connection connection : connectionList )
-        {
-            connectionParameters.add( connection.getConnectionParameter() );
-        }
-
-        File file = new File( getConnectionStoreFileName() );
-        File tempFile = new File( getConnectionStoreFileName() + TEMP_SUFFIX );
-
-        // To avoid a corrupt file, save object to a temp file first 
-        try ( FileOutputStream fileOutputStream = new FileOutputStream( tempFile ) )
+        try
         {
-            ConnectionIO.save( connectionParameters, fileOutputStream );
+            saveJob.save();
         }
         catch ( IOException e )
         {
             Status status = new Status( IStatus.ERROR, ConnectionCoreConstants.PLUGIN_ID,
                 Messages.error__saving_connections + e.getMessage(), e );
             ConnectionCorePlugin.getDefault().getLog().log( status );
-            return;
         }
+    }
 
-        // move temp file to good file
-        if ( file.exists() )
-        {
-            file.delete();
-        }
 
+    /**
+     * Writes pending changes of the Connections, if any.
+     */
+    public void flushConnections()
+    {
         try
         {
-            String content = FileUtils.readFileToString( tempFile, ENCODING_UTF8 );
-            FileUtils.writeStringToFile( file, content, ENCODING_UTF8 );
+            saveJob.flush();
         }
         catch ( IOException e )
         {
             Status status = new Status( IStatus.ERROR, ConnectionCoreConstants.PLUGIN_ID,
                 Messages.error__saving_connections + e.getMessage(), e );
             ConnectionCorePlugin.getDefault().getLog().log( status );
-            return;
         }
     }
 
@@ -429,6 +435,7 @@ public class ConnectionManager implements ConnectionUpdateListener
             {
                 Connection conn = new Connection( connectionParameter );
                 connectionList.add( conn );
+                conn.getConnectionWrapper().getStatistics().registerMBean();
             }
         }
     }
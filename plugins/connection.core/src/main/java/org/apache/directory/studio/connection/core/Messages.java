@@ -86,8 +86,11 @@ public class Messages extends NLS
     public static String StudioKeyStoreManager_CantAddCertificateToTrustStore;
     public static String StudioKeyStoreManager_CantRemoveCertificateFromTrustStore;
     public static String StudioKeyStoreManager_CantReadTrustStore;
+    public static String StudioKeyStoreManager_CantSavePasswordsKeyStore;
 
     public static String DirectoryApiConnectionWrapper_NoConnection;
+    public static String DirectoryApiConnectionWrapper_Reconnecting;
+    public static String DirectoryApiConnectionWrapper_ResponseTimeout;
     public static String DirectoryApiConnectionWrapper_UnableToConnect;
     public static String DirectoryApiConnectionWrapper_UnsecuredConnection;
 
@@ -22,8 +22,8 @@ package org.apache.directory.studio.connection.core;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStore.SecretKeyEntry;
@@ -32,12 +32,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
 import org.apache.directory.api.util.FileUtils;
+import org.apache.directory.studio.common.core.jobs.StudioSaveJob;
 
 
 /**
@@ -59,6 +61,15 @@ public class PasswordsKeyStoreManager
     /** The keystore */
     private KeyStore keystore;
 
+    /** The decrypted passwords of this session, by connection id */
+    private Map<String, String> passwordCache = new ConcurrentHashMap<>();
+
+    /** Whether saving the keystore is deferred and coalesced */
+    private boolean writeBehind;
+
+    /** The job to save the keystore in write-behind mode */
+    private StudioSaveJob saveJob;
+
 
     /**
      * Creates a new instance of PasswordsKeyStoreManager.
@@ -91,9 +102,25 @@ public class PasswordsKeyStoreManager
     }
 
 
+    /**
+     * Enables or disables the write-behind mode.
+     * <p>
+     * In write-behind mode stored passwords are kept in memory, the keystore
+     * is written once after a burst of updates instead of for each password.
+     * Pending updates must be written with {@link #flush()}.
+     *
+     * @param writeBehind <code>true</code> to defer saving the keystore
+     */
+    public void setWriteBehind( boolean writeBehind )
+    {
+        this.writeBehind = writeBehind;
+    }
+
+
     public void load( String masterPassword ) throws KeyStoreException
     {
         this.masterPassword = masterPassword;
+        passwordCache.clear();
 
         try
         {
@@ -148,31 +175,80 @@ public class PasswordsKeyStoreManager
     {
         if ( isLoaded() && ( masterPassword != null ) )
         {
-            try ( FileOutputStream fos = new FileOutputStream( getKeyStoreFile() ) )
+            try
             {
-                keystore.store( fos, masterPassword.toCharArray() );
+                getSaveJob().save();
             }
-            // Catch for the following exceptions that may be raised while
-            // handling the keystore:
-            // - java.security.KeyStoreException
-            // - java.security.NoSuchAlgorithmException
-            // - java.security.cert.CertificateException
-            catch ( GeneralSecurityException e )
+            catch ( IOException e )
             {
-                throw new KeyStoreException( e );
+                throw new KeyStoreException( e.getCause() instanceof GeneralSecurityException ? e.getCause() : e );
+            }
+        }
+    }
+
+
+    /**
+     * Writes pending updates of the write-behind mode to disk, if any.
+     */
+    public void flush() throws KeyStoreException
+    {
+        if ( isLoaded() && ( masterPassword != null ) && ( saveJob != null ) )
+        {
+            try
+            {
+                saveJob.flush();
             }
-            // Catch for the following exceptions that may be raised while
-            // handling the file:
-            // - java.io.IOException
-            // - java.io.FileNotFoundException
             catch ( IOException e )
             {
-                throw new KeyStoreException( e );
+                throw new KeyStoreException( e.getCause() instanceof GeneralSecurityException ? e.getCause() : e );
             }
         }
     }
 
 
+    /**
+     * Gets the job to save the keystore, the content is written to a
+     * temporary file first which then replaces the keystore file.
+     *
+     * @return the job to save the keystore
+     */
+    private synchronized StudioSaveJob getSaveJob()
+    {
+        if ( saveJob == null )
+        {
+            saveJob = new StudioSaveJob( getKeyStoreFile(), StudioSaveJob.DEFAULT_DELAY )
+            {
+                protected void write( OutputStream out ) throws IOException
+                {
+                    KeyStore currentKeystore = keystore;
+                    String currentMasterPassword = masterPassword;
+
+                    if ( ( currentKeystore == null ) || ( currentMasterPassword == null ) )
+                    {
+                        throw new IOException( "The keystore is not loaded" ); //$NON-NLS-1$
+                    }
+
+                    try
+                    {
+                        currentKeystore.store( out, currentMasterPassword.toCharArray() );
+                    }
+                    // Catch for the following exceptions that may be raised while
+                    // handling the keystore:
+                    // - java.security.KeyStoreException
+                    // - java.security.NoSuchAlgorithmException
+                    // - java.security.cert.CertificateException
+                    catch ( GeneralSecurityException e )
+                    {
+                        throw new IOException( e );
+                    }
+                }
+            };
+        }
+
+        return saveJob;
+    }
+
+
     /**
      * Checks the master password.
      *
@@ -286,6 +362,8 @@ public class PasswordsKeyStoreManager
         File keystoreFile = getKeyStoreFile();
 
         // Checking if the keystore file is available on disk
+        cancelPendingSave();
+
         if ( keystoreFile.exists() && keystoreFile.isFile() && keystoreFile.canRead() && keystoreFile.canWrite() )
         {
             keystoreFile.delete();
@@ -342,7 +420,7 @@ public class PasswordsKeyStoreManager
     {
         if ( connection != null )
         {
-            storeConnectionPassword( connection.getId(), password, true );
+            storeConnectionPassword( connection.getId(), password, saveKeystore );
         }
     }
 
@@ -380,6 +458,8 @@ public class PasswordsKeyStoreManager
                     {
                         keystore.deleteEntry( connectionId );
                     }
+
+                    passwordCache.remove( connectionId );
                 }
                 else
                 {
@@ -390,10 +470,16 @@ public class PasswordsKeyStoreManager
                     // Setting the entry in the keystore
                     keystore.setEntry( connectionId, new KeyStore.SecretKeyEntry( generatedSecret ),
                         new KeyStore.PasswordProtection( masterPassword.toCharArray() ) );
+
+                    passwordCache.put( connectionId, password );
                 }
 
                 // Saving
-                if ( saveKeystore )
+                if ( saveKeystore && writeBehind )
+                {
+                    getSaveJob().requestSave();
+                }
+                else if ( saveKeystore )
                 {
                     save();
                 }
@@ -433,6 +519,14 @@ public class PasswordsKeyStoreManager
     {
         if ( isLoaded() && ( connectionId != null ) )
         {
+            // Decrypting an entry is expensive, use the password of this session if known
+            String cachedPassword = passwordCache.get( connectionId );
+
+            if ( cachedPassword != null )
+            {
+                return cachedPassword;
+            }
+
             try
             {
                 SecretKeyFactory factory = SecretKeyFactory.getInstance( "PBE" );
@@ -449,7 +543,10 @@ public class PasswordsKeyStoreManager
 
                         if ( password != null )
                         {
-                            return new String( password );
+                            String connectionPassword = new String( password );
+                            passwordCache.put( connectionId, connectionPassword );
+
+                            return connectionPassword;
                         }
                     }
                 }
@@ -469,9 +566,11 @@ public class PasswordsKeyStoreManager
      */
     public void reset()
     {
-        // Reseting the fields
+        // Reseting the fields, pending updates are discarded
         this.keystore = null;
         this.masterPassword = null;
+        passwordCache.clear();
+        cancelPendingSave();
 
         // Getting the keystore file
         File keystoreFile = getKeyStoreFile();
@@ -487,9 +586,23 @@ public class PasswordsKeyStoreManager
 
     public void unload()
     {
-        // Reseting the fields
+        // Reseting the fields, pending updates are discarded
         this.keystore = null;
         this.masterPassword = null;
+        passwordCache.clear();
+        cancelPendingSave();
+    }
+
+
+    /**
+     * Discards pending updates of the write-behind mode.
+     */
+    private void cancelPendingSave()
+    {
+        if ( saveJob != null )
+        {
+            saveJob.cancel();
+        }
     }
 
 
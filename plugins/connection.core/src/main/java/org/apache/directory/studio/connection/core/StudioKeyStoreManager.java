@@ -31,6 +31,7 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
@@ -59,6 +60,9 @@ public class StudioKeyStoreManager
     /** The in-memory key store, only relevant for type Memory */
     private KeyStore memoryKeyStore;
 
+    /** The number of modifications, used to invalidate cached trust decisions */
+    private final AtomicInteger modificationCount = new AtomicInteger();
+
 
     /**
      * Creates a key store manager, backed by a key store on disk.
@@ -97,6 +101,17 @@ public class StudioKeyStoreManager
     }
 
 
+    /**
+     * Gets the number of modifications of this key store.
+     * 
+     * @return the modification count
+     */
+    public int getModificationCount()
+    {
+        return modificationCount.get();
+    }
+
+
     /**
      * Gets the underlying key store.
      * 
@@ -185,6 +200,8 @@ public class StudioKeyStoreManager
         {
             addToMemoryKeyStore( certificate );
         }
+
+        modificationCount.incrementAndGet();
     }
 
 
@@ -286,6 +303,8 @@ public class StudioKeyStoreManager
         {
             removeFromMemoryKeyStore( certificate );
         }
+
+        modificationCount.incrementAndGet();
     }
 
 
@@ -21,6 +21,7 @@ package org.apache.directory.studio.connection.core.io;
 
 
 import java.util.Collection;
+import java.util.List;
 
 import javax.naming.directory.SearchControls;
 import javax.net.ssl.SSLSession;
@@ -35,6 +36,7 @@ import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.Connection.AliasDereferencingMethod;
 import org.apache.directory.studio.connection.core.Connection.ReferralHandlingMethod;
 import org.apache.directory.studio.connection.core.ReferralsInfo;
+import org.apache.directory.studio.connection.core.io.api.ConnectionStatistics;
 import org.apache.directory.studio.connection.core.io.api.StudioSearchResultEnumeration;
 
 
@@ -138,6 +140,26 @@ public interface ConnectionWrapper
         final StudioProgressMonitor monitor, final ReferralsInfo referralsInfo );
 
 
+    /**
+     * Modifies the given entries. The modify requests are pipelined: up to
+     * <code>window</code> requests are sent before the response of the oldest
+     * request is awaited, so the modifications must not depend on each other.
+     * Referrals are not followed.
+     * 
+     * Errors of single modifications are not reported to the monitor but returned,
+     * only errors that abort the whole operation are reported to the monitor.
+     * 
+     * @param dns the Dns of the entries to modify
+     * @param modifications the modification items, one collection for each Dn in the same order
+     * @param controls the controls
+     * @param window the maximum number of outstanding modify requests
+     * @param monitor the progress monitor
+     * @return the exceptions, one for each Dn in the same order, null if the entry was modified
+     */
+    StudioLdapException[] modifyEntries( final List<Dn> dns, final List<Collection<Modification>> modifications,
+        final Control[] controls, final int window, final StudioProgressMonitor monitor );
+
+
     /**
      * Renames an entry.
      * 
@@ -164,6 +186,25 @@ public interface ConnectionWrapper
         final ReferralsInfo referralsInfo );
 
 
+    /**
+     * Creates the given entries. The add requests are pipelined: up to
+     * <code>window</code> requests are sent before the response of the oldest
+     * request is awaited, so the entries must not depend on each other.
+     * Referrals are not followed.
+     * 
+     * Errors of single adds are not reported to the monitor but returned,
+     * only errors that abort the whole operation are reported to the monitor.
+     * 
+     * @param entries the entries to create
+     * @param controls the controls
+     * @param window the maximum number of outstanding add requests
+     * @param monitor the progress monitor
+     * @return the exceptions, one for each entry in the same order, null if the entry was created
+     */
+    StudioLdapException[] createEntries( final List<Entry> entries, final Control[] controls, final int window,
+        final StudioProgressMonitor monitor );
+
+
     /**
      * Deletes an entry.
      * 
@@ -176,6 +217,32 @@ public interface ConnectionWrapper
         final ReferralsInfo referralsInfo );
 
 
+    /**
+     * Deletes the given entries. The delete requests are pipelined: up to
+     * <code>window</code> requests are sent before the response of the oldest
+     * request is awaited. Referrals are not followed.
+     * 
+     * Errors of single deletes are not reported to the monitor but returned,
+     * only errors that abort the whole operation are reported to the monitor.
+     * 
+     * @param dns the Dns of the entries to delete
+     * @param controls the controls
+     * @param window the maximum number of outstanding delete requests
+     * @param monitor the progress monitor
+     * @return the exceptions, one for each Dn in the same order, null if the entry was deleted
+     */
+    StudioLdapException[] deleteEntries( final List<Dn> dns, final Control[] controls, final int window,
+        final StudioProgressMonitor monitor );
+
+
     ExtendedResponse extended( ExtendedRequest request, final StudioProgressMonitor monitor );
 
+
+    /**
+     * Gets the statistics of the operations performed with this connection.
+     * 
+     * @return the operation statistics
+     */
+    ConnectionStatistics getStatistics();
+
 }
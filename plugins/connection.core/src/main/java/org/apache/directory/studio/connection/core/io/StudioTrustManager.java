@@ -25,9 +25,13 @@ import java.security.KeyStore;
 import java.security.cert.CertPathValidatorException.Reason;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.net.ssl.SSLException;
 import javax.net.ssl.TrustManager;
@@ -54,6 +58,12 @@ public class StudioTrustManager implements X509TrustManager
     private X509TrustManager jvmTrustManager;
     private String host;
 
+    /** The certificate chains already trusted for the host, keyed by the certificates of the chain */
+    private final Set<List<X509Certificate>> trustedChains = new HashSet<>();
+
+    /** The modification count of the trust stores when the trusted chains were recorded */
+    private int trustStoreModificationCount = -1;
+
     /**
      * Creates a new instance of StudioTrustManager.
      * 
@@ -72,8 +82,13 @@ public class StudioTrustManager implements X509TrustManager
      * 
      * @param host the new host
      */
-    public void setHost( String host )
+    public synchronized void setHost( String host )
     {
+        if ( this.host != null && !this.host.equals( host ) )
+        {
+            trustedChains.clear();
+        }
+
         this.host = host;
     }
 
@@ -91,6 +106,89 @@ public class StudioTrustManager implements X509TrustManager
      * {@inheritDoc}
      */
     public void checkServerTrusted( X509Certificate[] chain, String authType ) throws CertificateException
+    {
+        // check the chains already trusted, return on success
+        List<X509Certificate> chainList = Arrays.asList( chain.clone() );
+
+        if ( isTrustedChain( chainList, getTrustStoreModificationCount() ) )
+        {
+            return;
+        }
+
+        doCheckServerTrusted( chain, authType );
+        addTrustedChain( chainList, getTrustStoreModificationCount() );
+    }
+
+
+    /**
+     * Checks if the given chain was already trusted. The recorded chains are
+     * discarded if the permanent or session trust store has been modified. 
+     * A recorded chain is only trusted as long as all its certificates are 
+     * valid, otherwise it is discarded and checked again.
+     *
+     * @param chain the certificate chain
+     * @param modificationCount the current modification count of the trust stores
+     * @return true if the chain was already trusted
+     */
+    synchronized boolean isTrustedChain( List<X509Certificate> chain, int modificationCount )
+    {
+        if ( modificationCount != trustStoreModificationCount )
+        {
+            trustedChains.clear();
+            trustStoreModificationCount = modificationCount;
+            return false;
+        }
+
+        if ( !trustedChains.contains( chain ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            for ( X509Certificate certificate : chain )
+            {
+                certificate.checkValidity();
+            }
+        }
+        catch ( CertificateException ce )
+        {
+            // expired or not yet valid, the full check decides
+            trustedChains.remove( chain );
+            return false;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Records a trusted chain.
+     *
+     * @param chain the certificate chain
+     * @param modificationCount the current modification count of the trust stores
+     */
+    synchronized void addTrustedChain( List<X509Certificate> chain, int modificationCount )
+    {
+        // the user may have added the certificate to a trust store meanwhile
+        if ( modificationCount != trustStoreModificationCount )
+        {
+            trustedChains.clear();
+            trustStoreModificationCount = modificationCount;
+        }
+
+        trustedChains.add( chain );
+    }
+
+
+    private int getTrustStoreModificationCount()
+    {
+        return ConnectionCorePlugin.getDefault().getPermanentTrustStoreManager().getModificationCount()
+            + ConnectionCorePlugin.getDefault().getSessionTrustStoreManager().getModificationCount();
+    }
+
+
+    private void doCheckServerTrusted( X509Certificate[] chain, String authType ) throws CertificateException
     {
         // check permanent trusted certificates, return on success
         try
@@ -0,0 +1,266 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.core.io.api;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.ResultResponse;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.ConnectionCoreConstants;
+import org.apache.directory.studio.connection.core.ConnectionCorePlugin;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+
+/**
+ * Collects the operation statistics of a connection, so client-side slowness can be told 
+ * apart from directory slowness. The statistics are shown on the connection property page
+ * and exposed via JMX.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConnectionStatistics implements ConnectionStatisticsMXBean
+{
+    /** The JMX domain */
+    private static final String JMX_DOMAIN = "org.apache.directory.studio"; //$NON-NLS-1$
+
+    /**
+     * The instrumented operations.
+     */
+    public enum Operation
+    {
+        /** The bind operation */
+        BIND,
+
+        /** The time until the first entry of a search is received */
+        SEARCH_FIRST_ENTRY,
+
+        /** The time until a search is done */
+        SEARCH,
+
+        /** The add operation */
+        ADD,
+
+        /** The modify operation */
+        MODIFY,
+
+        /** The modify Dn operation */
+        MODIFY_DN,
+
+        /** The delete operation */
+        DELETE,
+
+        /** The extended operation */
+        EXTENDED
+    }
+
+    /** The connection */
+    private final Connection connection;
+
+    /** The statistics of each operation */
+    private final Map<Operation, OperationStatistics> operationStatistics;
+
+    /** The JMX name, null if not registered */
+    private ObjectName objectName;
+
+
+    /**
+     * Creates a new instance of ConnectionStatistics.
+     *
+     * @param connection the connection
+     */
+    public ConnectionStatistics( Connection connection )
+    {
+        this.connection = connection;
+        operationStatistics = new EnumMap<>( Operation.class );
+
+        for ( Operation operation : Operation.values() )
+        {
+            operationStatistics.put( operation, new OperationStatistics( operation ) );
+        }
+    }
+
+
+    /**
+     * Records an operation.
+     *
+     * @param operation the operation
+     * @param startNanos the {@link System#nanoTime()} when the operation was started
+     * @param response the response, may be null
+     * @param exception the exception, may be null
+     * @param read the number of received bytes
+     * @param written the number of sent bytes
+     */
+    public void record( Operation operation, long startNanos, ResultResponse response, Exception exception,
+        long read, long written )
+    {
+        operationStatistics.get( operation ).record( System.nanoTime() - startNanos,
+            getResultCode( response, exception ), read, written );
+    }
+
+
+    /**
+     * Gets the statistics of an operation.
+     *
+     * @param operation the operation
+     * @return the statistics of the operation
+     */
+    public OperationStatistics getOperationStatistics( Operation operation )
+    {
+        return operationStatistics.get( operation );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<OperationStatistics> getOperationStatistics()
+    {
+        return new ArrayList<>( operationStatistics.values() );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getConnectionName()
+    {
+        return connection.getName();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getConnectionUrl()
+    {
+        return connection.getUrl().toString();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void reset()
+    {
+        for ( OperationStatistics statistics : operationStatistics.values() )
+        {
+            statistics.reset();
+        }
+    }
+
+
+    /**
+     * Registers this statistics in the platform MBean server.
+     */
+    public synchronized void registerMBean()
+    {
+        if ( objectName != null )
+        {
+            return;
+        }
+
+        try
+        {
+            ObjectName name = new ObjectName( JMX_DOMAIN + ":type=ConnectionStatistics,id=" //$NON-NLS-1$
+                + ObjectName.quote( connection.getId() ) );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            if ( !server.isRegistered( name ) )
+            {
+                server.registerMBean( this, name );
+                objectName = name;
+            }
+        }
+        catch ( Exception e )
+        {
+            ConnectionCorePlugin.getDefault().getLog().log(
+                new Status( IStatus.WARNING, ConnectionCoreConstants.PLUGIN_ID, e.getMessage(), e ) );
+        }
+    }
+
+
+    /**
+     * Unregisters this statistics from the platform MBean server.
+     */
+    public synchronized void unregisterMBean()
+    {
+        if ( objectName == null )
+        {
+            return;
+        }
+
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean( objectName );
+        }
+        catch ( Exception e )
+        {
+            // Nothing to do
+        }
+        finally
+        {
+            objectName = null;
+        }
+    }
+
+
+    /**
+     * Gets the result code of an operation.
+     *
+     * @param response the response, may be null
+     * @param exception the exception, may be null
+     * @return the result code, null if unknown
+     */
+    private static ResultCodeEnum getResultCode( ResultResponse response, Exception exception )
+    {
+        if ( ( response != null ) && ( response.getLdapResult() != null ) )
+        {
+            return response.getLdapResult().getResultCode();
+        }
+
+        if ( exception != null )
+        {
+            int index = ExceptionUtils.indexOfThrowable( exception, LdapOperationException.class );
+
+            if ( index > -1 )
+            {
+                return ( ( LdapOperationException ) ExceptionUtils.getThrowableList( exception ).get( index ) )
+                    .getResultCode();
+            }
+
+            return ResultCodeEnum.OTHER;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.core.io.api;
+
+
+import java.util.List;
+
+
+/**
+ * The JMX management interface of the {@link ConnectionStatistics}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface ConnectionStatisticsMXBean
+{
+    /**
+     * @return the name of the connection
+     */
+    String getConnectionName();
+
+
+    /**
+     * @return the LDAP URL of the connection
+     */
+    String getConnectionUrl();
+
+
+    /**
+     * @return the statistics of each operation
+     */
+    List<OperationStatistics> getOperationStatistics();
+
+
+    /**
+     * Clears all statistics.
+     */
+    void reset();
+}
@@ -21,11 +21,16 @@ package org.apache.directory.studio.connection.core.io.api;
 
 
 import java.security.KeyStore;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.naming.directory.SearchControls;
 import javax.net.ssl.SSLSession;
@@ -77,6 +82,7 @@ import org.apache.directory.ldap.client.api.SaslCramMd5Request;
 import org.apache.directory.ldap.client.api.SaslDigestMd5Request;
 import org.apache.directory.ldap.client.api.SaslGssApiRequest;
 import org.apache.directory.ldap.client.api.exception.InvalidConnectionException;
+import org.apache.directory.ldap.client.api.future.ResponseFuture;
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.Connection.AliasDereferencingMethod;
@@ -94,7 +100,14 @@ import org.apache.directory.studio.connection.core.io.ConnectionWrapper;
 import org.apache.directory.studio.connection.core.io.ConnectionWrapperUtils;
 import org.apache.directory.studio.connection.core.io.StudioLdapException;
 import org.apache.directory.studio.connection.core.io.StudioTrustManager;
+import org.apache.directory.studio.connection.core.io.api.ConnectionStatistics.Operation;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.transport.socket.SocketSessionConfig;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Preferences;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.osgi.util.NLS;
 
 
@@ -120,6 +133,30 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
     /** The current job thread */
     private Thread jobThread;
 
+    /** The operation statistics */
+    private ConnectionStatistics statistics;
+
+    /** The network session of the LDAP connection, used to count the transferred bytes */
+    private volatile IoSession ioSession;
+
+    /** The trust managers, kept to remember the trust decisions over reconnects */
+    private StudioTrustManager[] trustManagers;
+
+    /** Whether the connection was bound successfully and may be re-established in background */
+    private volatile boolean reconnectable;
+
+    /** The credentials of the last successful bind, used for the background reconnect */
+    private volatile ICredentials reconnectCredentials;
+
+    /** Whether the connection was closed by a disconnect, it is then not re-established until the next connect */
+    private volatile boolean closedByUser;
+
+    /** The job to re-establish a dropped connection */
+    private Job reconnectJob;
+
+    /** Operations hold the read lock, connect, disconnect and the background reconnect the write lock */
+    private final ReadWriteLock reconnectLock = new ReentrantReadWriteLock();
+
     /**
      * Creates a new instance of DirectoryApiConnectionWrapper.
      * 
@@ -128,6 +165,7 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
     public DirectoryApiConnectionWrapper( Connection connection )
     {
         this.connection = connection;
+        this.statistics = new ConnectionStatistics( connection );
     }
 
 
@@ -136,17 +174,27 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
      */
     public void connect( StudioProgressMonitor monitor )
     {
-        ldapConnection = null;
-        jobThread = null;
+        reconnectLock.writeLock().lock();
 
         try
         {
-            doConnect( monitor );
+            closedByUser = false;
+            ldapConnection = null;
+            jobThread = null;
+
+            try
+            {
+                doConnect( monitor );
+            }
+            catch ( Exception e )
+            {
+                disconnect();
+                monitor.reportError( e );
+            }
         }
-        catch ( Exception e )
+        finally
         {
-            disconnect();
-            monitor.reportError( e );
+            reconnectLock.writeLock().unlock();
         }
     }
 
@@ -171,39 +219,12 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         binaryAttributeDetector = new DefaultConfigurableBinaryAttributeDetector();
         ldapConnectionConfig.setBinaryAttributeDetector( binaryAttributeDetector );
 
-        AtomicReference<StudioTrustManager> studioTrustmanager = new AtomicReference<>();
-
         if ( ( connection.getEncryptionMethod() == EncryptionMethod.LDAPS )
             || ( connection.getEncryptionMethod() == EncryptionMethod.START_TLS ) )
         {
             ldapConnectionConfig.setUseSsl( connection.getEncryptionMethod() == EncryptionMethod.LDAPS );
             ldapConnectionConfig.setUseTls( connection.getEncryptionMethod() == EncryptionMethod.START_TLS );
-
-            try
-            {
-                // get default trust managers (using JVM "cacerts" key store)
-                TrustManagerFactory factory = TrustManagerFactory.getInstance( TrustManagerFactory
-                    .getDefaultAlgorithm() );
-                factory.init( ( KeyStore ) null );
-                TrustManager[] defaultTrustManagers = factory.getTrustManagers();
-
-                // create wrappers around the trust managers
-                StudioTrustManager[] trustManagers = new StudioTrustManager[defaultTrustManagers.length];
-
-                for ( int i = 0; i < defaultTrustManagers.length; i++ )
-                {
-                    trustManagers[i] = new StudioTrustManager( ( X509TrustManager ) defaultTrustManagers[i] );
-                    trustManagers[i].setHost( connection.getHost() );
-                }
-                studioTrustmanager.set( trustManagers[0] );
-
-                ldapConnectionConfig.setTrustManagers( trustManagers );
-            }
-            catch ( Exception e )
-            {
-                e.printStackTrace();
-                throw new RuntimeException( e );
-            }
+            ldapConnectionConfig.setTrustManagers( getTrustManagers() );
         }
 
         InnerRunnable runnable = new InnerRunnable()
@@ -223,7 +244,21 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     ldapConnectionConfig.setTimeout( Math.min( oldTimeout, 5000L ) );
 
                     // Connecting
-                    ldapConnectionUnderConstruction = new LdapNetworkConnection( ldapConnectionConfig );
+                    ldapConnectionUnderConstruction = new LdapNetworkConnection( ldapConnectionConfig )
+                    {
+                        @Override
+                        public void sessionCreated( IoSession session ) throws Exception
+                        {
+                            super.sessionCreated( session );
+                            ioSession = session;
+
+                            // detect dropped connections
+                            if ( session.getConfig() instanceof SocketSessionConfig )
+                            {
+                                ( ( SocketSessionConfig ) session.getConfig() ).setKeepAlive( true );
+                            }
+                        }
+                    };
                     ldapConnectionUnderConstruction.connect();
 
                     // DIRSTUDIO-1219: Establish TLS layer if TLS is enabled and SSL is not
@@ -252,6 +287,11 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                             throw new Exception( Messages.DirectoryApiConnectionWrapper_UnsecuredConnection );
                         }
                     }
+
+                    // re-establish the connection in background when it gets dropped
+                    final LdapNetworkConnection establishedConnection = ldapConnectionUnderConstruction;
+                    establishedConnection.addConnectionClosedEventListener(
+                        () -> connectionClosed( establishedConnection ) );
                 }
                 catch ( Exception e )
                 {
@@ -291,28 +331,134 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
      */
     public void disconnect()
     {
+        closedByUser = true;
+        reconnectable = false;
+        reconnectCredentials = null;
+
+        if ( reconnectJob != null )
+        {
+            reconnectJob.cancel();
+        }
+
         if ( jobThread != null )
         {
             Thread t = jobThread;
             jobThread = null;
             t.interrupt();
         }
-        if ( ldapConnection != null )
+
+        // wait for a running operation and for a running reconnect, both don't reconnect anymore
+        reconnectLock.writeLock().lock();
+
+        try
+        {
+            closeConnection();
+        }
+        finally
         {
+            reconnectLock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Closes the LDAP connection, if any. The field is cleared before closing
+     * so the closed connection isn't taken as a dropped one.
+     */
+    private void closeConnection()
+    {
+        LdapNetworkConnection closingConnection = ldapConnection;
+
+        if ( closingConnection != null )
+        {
+            ldapConnection = null;
+            binaryAttributeDetector = null;
+
             try
             {
-                ldapConnection.close();
+                closingConnection.close();
             }
             catch ( Exception e )
             {
                 // ignore
             }
-            ldapConnection = null;
-            binaryAttributeDetector = null;
         }
     }
 
 
+    /**
+     * Gets the trust managers. They are created once and reused for
+     * all connects, so already validated certificates are not checked
+     * again and the user is not asked twice.
+     *
+     * @return the trust managers
+     */
+    private synchronized StudioTrustManager[] getTrustManagers()
+    {
+        if ( trustManagers == null )
+        {
+            try
+            {
+                // get default trust managers (using JVM "cacerts" key store)
+                TrustManagerFactory factory = TrustManagerFactory.getInstance( TrustManagerFactory
+                    .getDefaultAlgorithm() );
+                factory.init( ( KeyStore ) null );
+                TrustManager[] defaultTrustManagers = factory.getTrustManagers();
+
+                // create wrappers around the trust managers
+                StudioTrustManager[] studioTrustManagers = new StudioTrustManager[defaultTrustManagers.length];
+
+                for ( int i = 0; i < defaultTrustManagers.length; i++ )
+                {
+                    studioTrustManagers[i] = new StudioTrustManager( ( X509TrustManager ) defaultTrustManagers[i] );
+                }
+
+                trustManagers = studioTrustManagers;
+            }
+            catch ( Exception e )
+            {
+                e.printStackTrace();
+                throw new RuntimeException( e );
+            }
+        }
+
+        // the host may have been changed in the connection parameters
+        for ( StudioTrustManager trustManager : trustManagers )
+        {
+            trustManager.setHost( connection.getHost() );
+        }
+
+        return trustManagers;
+    }
+
+
+    /**
+     * Called when an established LDAP connection was closed. If it is still the
+     * current connection it has been dropped by the server or the network, so it
+     * is re-established in background, before the next operation needs it.
+     *
+     * @param closedConnection the closed connection
+     */
+    private void connectionClosed( LdapNetworkConnection closedConnection )
+    {
+        if ( reconnectable && !closedByUser && ( ldapConnection == closedConnection ) )
+        {
+            getReconnectJob().schedule();
+        }
+    }
+
+
+    private synchronized Job getReconnectJob()
+    {
+        if ( reconnectJob == null )
+        {
+            reconnectJob = new ReconnectJob();
+        }
+
+        return reconnectJob;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -341,6 +487,21 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
 
 
     private void doBind( final StudioProgressMonitor monitor ) throws Exception
+    {
+        doBind( monitor, null, false );
+    }
+
+
+    /**
+     * Binds the connection.
+     *
+     * @param monitor the progress monitor
+     * @param reusedCredentials the credentials to use, null to get them from the auth handler
+     * @param reconnect true for the background reconnect, it keeps the reconnectable flag as is
+     * @throws Exception if the bind failed
+     */
+    private void doBind( final StudioProgressMonitor monitor, final ICredentials reusedCredentials,
+        final boolean reconnect ) throws Exception
     {
         if ( isConnected() )
         {
@@ -348,36 +509,41 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
             {
                 public void run()
                 {
+                    OperationSample sample = null;
+                    BindResponse bindResponse = null;
+                    ICredentials credentials = reusedCredentials;
+
                     try
                     {
-                        BindResponse bindResponse = null;
-
                         // No Authentication
                         if ( connection.getConnectionParameter()
                             .getAuthMethod() == ConnectionParameter.AuthenticationMethod.NONE )
                         {
                             BindRequest bindRequest = new BindRequestImpl();
+                            sample = new OperationSample();
                             bindResponse = ldapConnection.bind( bindRequest );
                         }
                         else
                         {
                             // Setup credentials
-                            IAuthHandler authHandler = ConnectionCorePlugin.getDefault().getAuthHandler();
-                            if ( authHandler == null )
-                            {
-                                Exception exception = new Exception( Messages.model__no_auth_handler );
-                                monitor.setCanceled( true );
-                                monitor.reportError( Messages.model__no_auth_handler, exception );
-                                throw exception;
-                            }
-                            ICredentials credentials = authHandler
-                                .getCredentials( connection.getConnectionParameter() );
                             if ( credentials == null )
                             {
-                                Exception exception = new Exception();
-                                monitor.setCanceled( true );
-                                monitor.reportError( Messages.model__no_credentials, exception );
-                                throw exception;
+                                IAuthHandler authHandler = ConnectionCorePlugin.getDefault().getAuthHandler();
+                                if ( authHandler == null )
+                                {
+                                    Exception exception = new Exception( Messages.model__no_auth_handler );
+                                    monitor.setCanceled( true );
+                                    monitor.reportError( Messages.model__no_auth_handler, exception );
+                                    throw exception;
+                                }
+                                credentials = authHandler.getCredentials( connection.getConnectionParameter() );
+                                if ( credentials == null )
+                                {
+                                    Exception exception = new Exception();
+                                    monitor.setCanceled( true );
+                                    monitor.reportError( Messages.model__no_credentials, exception );
+                                    throw exception;
+                                }
                             }
                             if ( credentials.getBindPrincipal() == null || credentials.getBindPassword() == null )
                             {
@@ -387,6 +553,7 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                             }
                             String bindPrincipal = credentials.getBindPrincipal();
                             String bindPassword = credentials.getBindPassword();
+                            sample = new OperationSample();
 
                             switch ( connection.getConnectionParameter().getAuthMethod() )
                             {
@@ -477,11 +644,24 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                         }
 
                         checkResponse( bindResponse );
+
+                        // remember the credentials to re-establish a dropped connection, a background
+                        // reconnect keeps the flag as is so a concurrent disconnect isn't undone
+                        if ( !reconnect )
+                        {
+                            reconnectCredentials = credentials;
+                            reconnectable = true;
+                        }
                     }
                     catch ( Exception e )
                     {
                         exception = toStudioLdapException( e );
                     }
+
+                    if ( sample != null )
+                    {
+                        sample.done( Operation.BIND, bindResponse, exception );
+                    }
                 }
             };
 
@@ -566,6 +746,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = new OperationSample();
+
                 try
                 {
                     // Preparing the search request
@@ -593,10 +775,12 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     searchResultEnumeration = new StudioSearchResultEnumeration( connection, cursor, searchBase, filter,
                         searchControls, aliasesDereferencingMethod, referralsHandlingMethod, controls, requestNum,
                         monitor, referralsInfo );
+                    searchResultEnumeration.setOperationSample( sample );
                 }
                 catch ( Exception e )
                 {
                     exception = toStudioLdapException( e );
+                    sample.done( Operation.SEARCH, null, exception );
                 }
 
                 for ( ILdapLogger logger : getLdapLoggers() )
@@ -716,6 +900,9 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = null;
+                ModifyResponse modifyResponse = null;
+
                 try
                 {
                     // Preparing the modify request
@@ -734,7 +921,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     }
 
                     // Performing the modify operation
-                    ModifyResponse modifyResponse = ldapConnection.modify( request );
+                    sample = new OperationSample();
+                    modifyResponse = ldapConnection.modify( request );
 
                     // Handle referral
                     ReferralHandlingDataConsumer consumer = referralHandlingData -> referralHandlingData.connectionWrapper
@@ -753,6 +941,13 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                 {
                     exception = toStudioLdapException( e );
                 }
+                finally
+                {
+                    if ( sample != null )
+                    {
+                        sample.done( Operation.MODIFY, modifyResponse, exception );
+                    }
+                }
 
                 for ( ILdapLogger logger : getLdapLoggers() )
                 {
@@ -799,6 +994,9 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = null;
+                ModifyDnResponse modifyDnResponse = null;
+
                 try
                 {
                     // Preparing the rename request
@@ -813,7 +1011,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     }
 
                     // Performing the rename operation
-                    ModifyDnResponse modifyDnResponse = ldapConnection.modifyDn( request );
+                    sample = new OperationSample();
+                    modifyDnResponse = ldapConnection.modifyDn( request );
 
                     // Handle referral
                     ReferralHandlingDataConsumer consumer = referralHandlingData -> referralHandlingData.connectionWrapper
@@ -832,6 +1031,13 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                 {
                     exception = toStudioLdapException( e );
                 }
+                finally
+                {
+                    if ( sample != null )
+                    {
+                        sample.done( Operation.MODIFY_DN, modifyDnResponse, exception );
+                    }
+                }
 
                 for ( ILdapLogger logger : getLdapLoggers() )
                 {
@@ -878,6 +1084,9 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = null;
+                AddResponse addResponse = null;
+
                 try
                 {
                     // Preparing the add request
@@ -889,7 +1098,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     }
 
                     // Performing the add operation
-                    AddResponse addResponse = ldapConnection.add( request );
+                    sample = new OperationSample();
+                    addResponse = ldapConnection.add( request );
 
                     // Handle referral
                     ReferralHandlingDataConsumer consumer = referralHandlingData -> {
@@ -911,6 +1121,13 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                 {
                     exception = toStudioLdapException( e );
                 }
+                finally
+                {
+                    if ( sample != null )
+                    {
+                        sample.done( Operation.ADD, addResponse, exception );
+                    }
+                }
 
                 for ( ILdapLogger logger : getLdapLoggers() )
                 {
@@ -957,6 +1174,9 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = null;
+                DeleteResponse deleteResponse = null;
+
                 try
                 {
                     // Preparing the delete request
@@ -968,7 +1188,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     }
 
                     // Performing the delete operation
-                    DeleteResponse deleteResponse = ldapConnection.delete( request );
+                    sample = new OperationSample();
+                    deleteResponse = ldapConnection.delete( request );
 
                     // Handle referral
                     ReferralHandlingDataConsumer consumer = referralHandlingData -> referralHandlingData.connectionWrapper
@@ -987,6 +1208,13 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                 {
                     exception = toStudioLdapException( e );
                 }
+                finally
+                {
+                    if ( sample != null )
+                    {
+                        sample.done( Operation.DELETE, deleteResponse, exception );
+                    }
+                }
 
                 for ( ILdapLogger logger : getLdapLoggers() )
                 {
@@ -1015,6 +1243,260 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    public StudioLdapException[] createEntries( final List<Entry> entries, final Control[] controls,
+        final int window, final StudioProgressMonitor monitor )
+    {
+        return runPipelined( entries.size(), window, Operation.ADD, new PipelinedOperation()
+        {
+            public ResponseFuture<? extends ResultResponse> send( int index ) throws LdapException
+            {
+                AddRequest request = new AddRequestImpl();
+                request.setEntry( entries.get( index ) );
+                if ( controls != null )
+                {
+                    request.addAllControls( controls );
+                }
+
+                return ldapConnection.addAsync( request );
+            }
+
+
+            public Dn getDn( int index )
+            {
+                return entries.get( index ).getDn();
+            }
+
+
+            public void log( int index, StudioLdapException exception )
+            {
+                for ( ILdapLogger logger : getLdapLoggers() )
+                {
+                    logger.logChangetypeAdd( connection, entries.get( index ), controls, exception );
+                }
+            }
+        }, monitor );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public StudioLdapException[] modifyEntries( final List<Dn> dns, final List<Collection<Modification>> modifications,
+        final Control[] controls, final int window, final StudioProgressMonitor monitor )
+    {
+        return runPipelined( dns.size(), window, Operation.MODIFY, new PipelinedOperation()
+        {
+            public ResponseFuture<? extends ResultResponse> send( int index ) throws LdapException
+            {
+                ModifyRequest request = new ModifyRequestImpl();
+                request.setName( dns.get( index ) );
+                for ( Modification modification : modifications.get( index ) )
+                {
+                    request.addModification( modification );
+                }
+                if ( controls != null )
+                {
+                    request.addAllControls( controls );
+                }
+
+                return ldapConnection.modifyAsync( request );
+            }
+
+
+            public Dn getDn( int index )
+            {
+                return dns.get( index );
+            }
+
+
+            public void log( int index, StudioLdapException exception )
+            {
+                for ( ILdapLogger logger : getLdapLoggers() )
+                {
+                    logger.logChangetypeModify( connection, dns.get( index ), modifications.get( index ), controls,
+                        exception );
+                }
+            }
+        }, monitor );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public StudioLdapException[] deleteEntries( final List<Dn> dns, final Control[] controls, final int window,
+        final StudioProgressMonitor monitor )
+    {
+        return runPipelined( dns.size(), window, Operation.DELETE, new PipelinedOperation()
+        {
+            public ResponseFuture<? extends ResultResponse> send( int index ) throws LdapException
+            {
+                DeleteRequest request = new DeleteRequestImpl();
+                request.setName( dns.get( index ) );
+                if ( controls != null )
+                {
+                    request.addAllControls( controls );
+                }
+
+                return ldapConnection.deleteAsync( request );
+            }
+
+
+            public Dn getDn( int index )
+            {
+                return dns.get( index );
+            }
+
+
+            public void log( int index, StudioLdapException exception )
+            {
+                for ( ILdapLogger logger : getLdapLoggers() )
+                {
+                    logger.logChangetypeDelete( connection, dns.get( index ), controls, exception );
+                }
+            }
+        }, monitor );
+    }
+
+
+    /**
+     * Runs the requests of a pipelined operation: up to <code>window</code> requests
+     * are sent before the response of the oldest request is awaited.
+     * 
+     * @param size the number of requests
+     * @param window the maximum number of outstanding requests
+     * @param operation the operation, used for the statistics
+     * @param pipelinedOperation the pipelined operation
+     * @param monitor the progress monitor
+     * @return the exceptions, one for each request in the same order, null if the request succeeded
+     */
+    private StudioLdapException[] runPipelined( final int size, final int window, final Operation operation,
+        final PipelinedOperation pipelinedOperation, final StudioProgressMonitor monitor )
+    {
+        final StudioLdapException[] results = new StudioLdapException[size];
+
+        if ( connection.isReadOnly() )
+        {
+            Exception readOnlyException = new Exception(
+                NLS.bind( Messages.error__connection_is_readonly, connection.getName() ) );
+            monitor.reportError( readOnlyException );
+            Arrays.fill( results, new StudioLdapException( readOnlyException ) );
+            return results;
+        }
+
+        // remembers which requests got a response, in case the runnable is run again after a reconnect
+        final boolean[] done = new boolean[size];
+
+        InnerRunnable runnable = new InnerRunnable()
+        {
+            public void run()
+            {
+                Deque<PendingRequest> pendingRequests = new ArrayDeque<>();
+                int next = 0;
+
+                try
+                {
+                    long timeout = ldapConnection.getConfig().getTimeout();
+
+                    while ( next < size || !pendingRequests.isEmpty() )
+                    {
+                        if ( next < size && pendingRequests.size() < Math.max( 1, window ) )
+                        {
+                            if ( !done[next] )
+                            {
+                                // Sending the next request without waiting for the response
+                                OperationSample sample = new OperationSample();
+                                ResponseFuture<? extends ResultResponse> future = pipelinedOperation.send( next );
+                                pendingRequests.add( new PendingRequest( next, future, sample ) );
+                            }
+
+                            next++;
+                        }
+                        else
+                        {
+                            // Waiting for the response of the oldest pending request
+                            PendingRequest pendingRequest = pendingRequests.poll();
+                            ResultResponse response = null;
+                            StudioLdapException requestException = null;
+
+                            try
+                            {
+                                response = pendingRequest.future.get( timeout, TimeUnit.MILLISECONDS );
+
+                                if ( response == null )
+                                {
+                                    throw new LdapException( NLS.bind(
+                                        Messages.DirectoryApiConnectionWrapper_ResponseTimeout,
+                                        pipelinedOperation.getDn( pendingRequest.index ).getName() ) );
+                                }
+
+                                checkResponse( response );
+                            }
+                            catch ( InterruptedException e )
+                            {
+                                throw e;
+                            }
+                            catch ( Exception e )
+                            {
+                                requestException = toStudioLdapException( e );
+                            }
+                            finally
+                            {
+                                pendingRequest.sample.done( operation, response, requestException );
+                            }
+
+                            results[pendingRequest.index] = requestException;
+                            done[pendingRequest.index] = true;
+                            pipelinedOperation.log( pendingRequest.index, requestException );
+                        }
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    canceled = true;
+                }
+                catch ( Exception e )
+                {
+                    exception = toStudioLdapException( e );
+                }
+            }
+        };
+
+        try
+        {
+            checkConnectionAndRunAndMonitor( runnable, monitor );
+        }
+        catch ( Exception e )
+        {
+            monitor.reportError( e );
+        }
+
+        if ( runnable.isCanceled() )
+        {
+            monitor.setCanceled( true );
+        }
+        if ( runnable.getException() != null )
+        {
+            monitor.reportError( runnable.getException() );
+        }
+
+        // requests without response failed together with the whole operation
+        for ( int i = 0; i < results.length; i++ )
+        {
+            if ( !done[i] )
+            {
+                results[i] = runnable.getException() != null ? ( StudioLdapException ) runnable.getException()
+                    : new StudioLdapException( new CancelException() );
+            }
+        }
+
+        return results;
+    }
+
+
     @Override
     public ExtendedResponse extended( ExtendedRequest request, StudioProgressMonitor monitor )
     {
@@ -1031,6 +1513,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         {
             public void run()
             {
+                OperationSample sample = new OperationSample();
+
                 try
                 {
                     ExtendedResponse response = ldapConnection.extended( request );
@@ -1046,6 +1530,8 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                     exception = toStudioLdapException( e );
                 }
 
+                sample.done( Operation.EXTENDED, outerResponse[0], exception );
+
                 for ( ILdapLogger logger : getLdapLoggers() )
                 {
                 }
@@ -1073,6 +1559,134 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         return outerResponse[0];
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public ConnectionStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+
+    /**
+     * Gets the number of bytes received over the current network session.
+     * 
+     * @return the number of received bytes
+     */
+    private long getBytesRead()
+    {
+        IoSession session = ioSession;
+
+        return session != null ? session.getReadBytes() : 0L;
+    }
+
+
+    /**
+     * Gets the number of bytes sent over the current network session.
+     * 
+     * @return the number of sent bytes
+     */
+    private long getBytesWritten()
+    {
+        IoSession session = ioSession;
+
+        return session != null ? session.getWrittenBytes() : 0L;
+    }
+
+    /**
+     * A sample of a running operation, it remembers the start time and the
+     * transferred bytes to record the operation statistics once done.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+     */
+    class OperationSample
+    {
+        private final long startNanos;
+        private final long startBytesRead;
+        private final long startBytesWritten;
+        private boolean firstEntryRecorded;
+        private boolean done;
+
+
+        /**
+         * Creates a new instance of OperationSample, starting now.
+         */
+        OperationSample()
+        {
+            startNanos = System.nanoTime();
+            startBytesRead = getBytesRead();
+            startBytesWritten = getBytesWritten();
+        }
+
+
+        /**
+         * Records the time until the first search result entry, only once.
+         */
+        void firstEntry()
+        {
+            if ( !firstEntryRecorded )
+            {
+                firstEntryRecorded = true;
+                statistics.record( Operation.SEARCH_FIRST_ENTRY, startNanos, null, null, 0L, 0L );
+            }
+        }
+
+
+        /**
+         * Records the operation, only once.
+         * 
+         * @param operation the operation
+         * @param response the response, may be null
+         * @param exception the exception, may be null
+         */
+        void done( Operation operation, ResultResponse response, Exception exception )
+        {
+            if ( !done )
+            {
+                done = true;
+                statistics.record( operation, startNanos, response, exception,
+                    Math.max( 0L, getBytesRead() - startBytesRead ),
+                    Math.max( 0L, getBytesWritten() - startBytesWritten ) );
+            }
+        }
+    }
+
+    /**
+     * A pipelined operation, sends the requests and logs the results.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+     */
+    private interface PipelinedOperation
+    {
+        ResponseFuture<? extends ResultResponse> send( int index ) throws LdapException;
+
+
+        Dn getDn( int index );
+
+
+        void log( int index, StudioLdapException exception );
+    }
+
+    /**
+     * A request that was sent but whose response was not yet received.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+     */
+    static class PendingRequest
+    {
+        final int index;
+        final ResponseFuture<? extends ResultResponse> future;
+        final OperationSample sample;
+
+
+        PendingRequest( int index, ResponseFuture<? extends ResultResponse> future, OperationSample sample )
+        {
+            this.index = index;
+            this.future = future;
+            this.sample = sample;
+        }
+    }
+
     /**
      * Inner runnable used in connection wrapper operations.
      *
@@ -1192,34 +1806,44 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
     private void checkConnectionAndRunAndMonitor( final InnerRunnable runnable, final StudioProgressMonitor monitor )
         throws Exception
     {
-        // check connection
-        if ( !isConnected() )
-        {
-            doConnect( monitor );
-            doBind( monitor );
-        }
-        if ( ldapConnection == null )
-        {
-            throw new InvalidConnectionException( Messages.DirectoryApiConnectionWrapper_NoConnection );
-        }
+        // wait for a running background reconnect
+        reconnectLock.readLock().lock();
 
-        // loop for reconnection
-        for ( int i = 0; i <= 1; i++ )
+        try
         {
-            runAndMonitor( runnable, monitor );
-
-            // check reconnection
-            if ( ( i == 0 ) && ( runnable.getException() instanceof InvalidConnectionException ) )
+            // check connection, a connection closed by a disconnect meanwhile is not re-established
+            if ( !isConnected() && !closedByUser )
             {
                 doConnect( monitor );
                 doBind( monitor );
-                runnable.reset();
             }
-            else
+            if ( ldapConnection == null )
+            {
+                throw new InvalidConnectionException( Messages.DirectoryApiConnectionWrapper_NoConnection );
+            }
+
+            // loop for reconnection
+            for ( int i = 0; i <= 1; i++ )
             {
-                break;
+                runAndMonitor( runnable, monitor );
+
+                // check reconnection
+                if ( ( i == 0 ) && ( runnable.getException() instanceof InvalidConnectionException ) && !closedByUser )
+                {
+                    doConnect( monitor );
+                    doBind( monitor );
+                    runnable.reset();
+                }
+                else
+                {
+                    break;
+                }
             }
         }
+        finally
+        {
+            reconnectLock.readLock().unlock();
+        }
     }
 
 
@@ -1237,18 +1861,7 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
                         jobThread.interrupt();
                     }
 
-                    if ( ldapConnection != null )
-                    {
-                        try
-                        {
-                            ldapConnection.close();
-                        }
-                        catch ( Exception e )
-                        {
-                        }
-
-                        ldapConnection = null;
-                    }
+                    closeConnection();
                 }
             };
 
@@ -1273,6 +1886,65 @@ public class DirectoryApiConnectionWrapper implements ConnectionWrapper
         }
     }
 
+    /**
+     * Job to re-establish a dropped connection in background, using the
+     * credentials of the last successful bind. If an operation is running
+     * it reconnects itself, otherwise the next operation waits for this job.
+     */
+    private final class ReconnectJob extends Job
+    {
+        private ReconnectJob()
+        {
+            super( NLS.bind( Messages.DirectoryApiConnectionWrapper_Reconnecting, connection.getName() ) );
+            setSystem( true );
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        protected IStatus run( IProgressMonitor ipm )
+        {
+            if ( reconnectLock.writeLock().tryLock() )
+            {
+                try
+                {
+                    // read before the flag, a disconnect clears the flag first
+                    ICredentials credentials = reconnectCredentials;
+
+                    if ( reconnectable && !closedByUser && !isConnected() )
+                    {
+                        StudioProgressMonitor monitor = new StudioProgressMonitor( ipm );
+
+                        try
+                        {
+                            doConnect( monitor );
+                            doBind( monitor, credentials, true );
+
+                            // disconnected meanwhile, the new connection must not stay open
+                            if ( !reconnectable || closedByUser )
+                            {
+                                closeConnection();
+                            }
+                        }
+                        catch ( Exception e )
+                        {
+                            // the next operation tries again and reports the error
+                            closeConnection();
+                        }
+                    }
+                }
+                finally
+                {
+                    reconnectLock.writeLock().unlock();
+                }
+            }
+
+            return Status.OK_STATUS;
+        }
+    }
+
+
     private final class InnerConfiguration extends Configuration
     {
         private String krb5LoginModule;
@@ -0,0 +1,217 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.core.io.api;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A lock-free latency histogram with logarithmic buckets, similar to a HDR histogram.
+ * Each power of two is divided into {@value #SUB_BUCKET_COUNT} linear sub-buckets, so 
+ * recorded values are precise to about 3%, from one microsecond up to several hours,
+ * using a fixed amount of memory.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LatencyHistogram
+{
+    /** The number of bits used for the sub-buckets */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** The number of linear sub-buckets per power of two */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** The highest trackable value in microseconds (about 19 hours), bigger values are clamped */
+    private static final long MAX_VALUE = ( 1L << 36 ) - 1;
+
+    /** The number of buckets */
+    private static final int BUCKET_COUNT = bucketIndex( MAX_VALUE ) + 1;
+
+    /** The bucket counts */
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKET_COUNT );
+
+    /** The total number of recorded values */
+    private final AtomicLong totalCount = new AtomicLong();
+
+    /** The sum of all recorded values in microseconds */
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    /** The highest recorded value in microseconds */
+    private final AtomicLong maxMicros = new AtomicLong();
+
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record( long nanos )
+    {
+        long micros = Math.min( Math.max( TimeUnit.NANOSECONDS.toMicros( nanos ), 0L ), MAX_VALUE );
+
+        counts.incrementAndGet( bucketIndex( micros ) );
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet( micros );
+        maxMicros.accumulateAndGet( micros, Math::max );
+    }
+
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset()
+    {
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            counts.set( i, 0L );
+        }
+
+        totalCount.set( 0L );
+        totalMicros.set( 0L );
+        maxMicros.set( 0L );
+    }
+
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount()
+    {
+        return totalCount.get();
+    }
+
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return the mean latency in milliseconds, 0 if nothing was recorded
+     */
+    public double getMeanMillis()
+    {
+        long count = totalCount.get();
+
+        if ( count == 0L )
+        {
+            return 0d;
+        }
+
+        return totalMicros.get() / 1000d / count;
+    }
+
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return the highest recorded latency in milliseconds
+     */
+    public double getMaxMillis()
+    {
+        return maxMicros.get() / 1000d;
+    }
+
+
+    /**
+     * Gets the latency at the given percentile. The returned value is the upper
+     * bound of the bucket containing the percentile, but never more than the
+     * highest recorded value.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in milliseconds, 0 if nothing was recorded
+     */
+    public double getPercentileMillis( double percentile )
+    {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0L;
+
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            count += snapshot[i];
+        }
+
+        if ( count == 0L )
+        {
+            return 0d;
+        }
+
+        long rank = Math.max( 1L, ( long ) Math.ceil( Math.min( Math.max( percentile, 0d ), 100d ) / 100d * count ) );
+        long seen = 0L;
+
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            seen += snapshot[i];
+
+            if ( seen >= rank )
+            {
+                return Math.min( bucketUpperBound( i ), maxMicros.get() ) / 1000d;
+            }
+        }
+
+        return getMaxMillis();
+    }
+
+
+    /**
+     * Computes the bucket index of a value. Values lower than two sub-bucket
+     * ranges get their own bucket, higher values share a bucket with values
+     * having the same highest {@value #SUB_BUCKET_BITS} + 1 bits.
+     *
+     * @param micros the value in microseconds
+     * @return the bucket index
+     */
+    static int bucketIndex( long micros )
+    {
+        if ( micros < ( SUB_BUCKET_COUNT << 1 ) )
+        {
+            return ( int ) micros;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros( micros ) - SUB_BUCKET_BITS;
+        int subBucket = ( int ) ( micros >>> shift );
+
+        return ( shift + 1 ) * SUB_BUCKET_COUNT + subBucket - SUB_BUCKET_COUNT;
+    }
+
+
+    /**
+     * Computes the highest value of a bucket.
+     *
+     * @param index the bucket index
+     * @return the highest value in microseconds
+     */
+    static long bucketUpperBound( int index )
+    {
+        if ( index < ( SUB_BUCKET_COUNT << 1 ) )
+        {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+        return ( ( subBucket + 1 ) << shift ) - 1;
+    }
+}
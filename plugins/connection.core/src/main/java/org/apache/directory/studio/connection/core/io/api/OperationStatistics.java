@@ -0,0 +1,221 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.core.io.api;
+
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+
+
+/**
+ * The statistics of one kind of LDAP operation: the number of operations, the number 
+ * of bytes sent and received, the result codes and the latency distribution.
+ * The getters follow the MXBean conventions, so instances are exposed via JMX as 
+ * composite data.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class OperationStatistics
+{
+    /** The operation */
+    private final ConnectionStatistics.Operation operation;
+
+    /** The number of operations */
+    private final LongAdder count = new LongAdder();
+
+    /** The number of failed operations */
+    private final LongAdder errorCount = new LongAdder();
+
+    /** The number of received bytes */
+    private final LongAdder bytesRead = new LongAdder();
+
+    /** The number of sent bytes */
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /** The number of operations per result code */
+    private final ConcurrentMap<ResultCodeEnum, LongAdder> resultCodes = new ConcurrentHashMap<>();
+
+    /** The latencies */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+
+    /**
+     * Creates a new instance of OperationStatistics.
+     *
+     * @param operation the operation
+     */
+    OperationStatistics( ConnectionStatistics.Operation operation )
+    {
+        this.operation = operation;
+    }
+
+
+    /**
+     * Records an operation.
+     *
+     * @param nanos the latency in nanoseconds
+     * @param resultCode the result code, may be null if the result code is unknown
+     * @param read the number of received bytes
+     * @param written the number of sent bytes
+     */
+    void record( long nanos, ResultCodeEnum resultCode, long read, long written )
+    {
+        count.increment();
+        latencies.record( nanos );
+        bytesRead.add( read );
+        bytesWritten.add( written );
+
+        if ( resultCode != null )
+        {
+            resultCodes.computeIfAbsent( resultCode, rc -> new LongAdder() ).increment();
+
+            if ( resultCode != ResultCodeEnum.SUCCESS )
+            {
+                errorCount.increment();
+            }
+        }
+    }
+
+
+    /**
+     * Clears the statistics.
+     */
+    void reset()
+    {
+        count.reset();
+        errorCount.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+        resultCodes.clear();
+        latencies.reset();
+    }
+
+
+    /**
+     * @return the name of the operation
+     */
+    public String getOperation()
+    {
+        return operation.name();
+    }
+
+
+    /**
+     * @return the number of operations
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+
+    /**
+     * @return the number of operations that didn't complete with a success result code
+     */
+    public long getErrorCount()
+    {
+        return errorCount.sum();
+    }
+
+
+    /**
+     * @return the number of bytes received from the server
+     */
+    public long getBytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+
+    /**
+     * @return the number of bytes sent to the server
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+
+    /**
+     * @return the mean latency in milliseconds
+     */
+    public double getMeanMillis()
+    {
+        return latencies.getMeanMillis();
+    }
+
+
+    /**
+     * @return the median latency in milliseconds
+     */
+    public double getMedianMillis()
+    {
+        return latencies.getPercentileMillis( 50d );
+    }
+
+
+    /**
+     * @return the 90th percentile of the latency in milliseconds
+     */
+    public double getPercentile90Millis()
+    {
+        return latencies.getPercentileMillis( 90d );
+    }
+
+
+    /**
+     * @return the 99th percentile of the latency in milliseconds
+     */
+    public double getPercentile99Millis()
+    {
+        return latencies.getPercentileMillis( 99d );
+    }
+
+
+    /**
+     * @return the highest latency in milliseconds
+     */
+    public double getMaxMillis()
+    {
+        return latencies.getMaxMillis();
+    }
+
+
+    /**
+     * @return the number of operations per result code, sorted by result code name
+     */
+    public Map<String, Long> getResultCodes()
+    {
+        Map<String, Long> map = new TreeMap<>();
+
+        for ( Map.Entry<ResultCodeEnum, LongAdder> entry : resultCodes.entrySet() )
+        {
+            map.put( entry.getKey().name(), entry.getValue().sum() );
+        }
+
+        return map;
+    }
+}
@@ -75,6 +75,7 @@ public class StudioSearchResultEnumeration
     private List<String> currentReferralUrlsList;
     private StudioSearchResultEnumeration referralEnumeration;
     private SearchResultDone searchResultDone;
+    private DirectoryApiConnectionWrapper.OperationSample operationSample;
 
 
     /**
@@ -120,8 +121,24 @@ public class StudioSearchResultEnumeration
     }
 
 
+    /**
+     * Sets the sample used to record the search statistics.
+     * 
+     * @param operationSample the operation sample
+     */
+    void setOperationSample( DirectoryApiConnectionWrapper.OperationSample operationSample )
+    {
+        this.operationSample = operationSample;
+    }
+
+
     public void close() throws LdapException
     {
+        if ( operationSample != null )
+        {
+            operationSample.done( ConnectionStatistics.Operation.SEARCH, searchResultDone, null );
+        }
+
         try
         {
             cursor.close();
@@ -150,6 +167,11 @@ public class StudioSearchResultEnumeration
                 {
                     currentSearchResultEntry = ( SearchResultEntry ) currentResponse;
 
+                    if ( operationSample != null )
+                    {
+                        operationSample.firstEntry();
+                    }
+
                     // return true if the current response is a search result entry
                     return true;
                 }
@@ -169,6 +191,12 @@ public class StudioSearchResultEnumeration
             if ( searchResultDone == null )
             {
                 searchResultDone = ( ( SearchCursor ) cursor ).getSearchResultDone();
+
+                if ( operationSample != null )
+                {
+                    operationSample.done( ConnectionStatistics.Operation.SEARCH, searchResultDone, null );
+                }
+
                 Referral referral = searchResultDone.getLdapResult().getReferral();
                 if ( referralsHandlingMethod != ReferralHandlingMethod.IGNORE && referral != null )
                 {
@@ -253,6 +281,11 @@ public class StudioSearchResultEnumeration
         }
         catch ( CursorException e )
         {
+            if ( operationSample != null )
+            {
+                operationSample.done( ConnectionStatistics.Operation.SEARCH, null, e );
+            }
+
             throw new LdapException( e.getMessage(), e );
         }
     }
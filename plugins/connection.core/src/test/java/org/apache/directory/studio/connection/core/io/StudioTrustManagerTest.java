@@ -0,0 +1,132 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.connection.core.io;
+
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+public class StudioTrustManagerTest
+{
+    /** A self-signed certificate, valid from 2020 to 2119 */
+    private static final String VALID_CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+        + "MIIBTjCB9qADAgECAgkApOl9mEUpVyMwCgYIKoZIzj0EAwIwGzEZMBcGA1UEAxMQ\n"
+        + "bGRhcC5leGFtcGxlLmNvbTAgFw0yMDAxMDExNDM5MTBaGA8yMTE5MTIwODE0Mzkx\n"
+        + "MFowGzEZMBcGA1UEAxMQbGRhcC5leGFtcGxlLmNvbTBZMBMGByqGSM49AgEGCCqG\n"
+        + "SM49AwEHA0IABAP6nbQjqKQ70QeMPq4Iw0fvqfJ7LveBZrAiKA7l1VWl4zeYAxU9\n"
+        + "+rrTBVuqjUnTtUhst/QPnQQTjD+xF1upEzGjITAfMB0GA1UdDgQWBBQYazFcnN5b\n"
+        + "R5zuXtvwLpVzO5z1HjAKBggqhkjOPQQDAgNHADBEAiAokIBFAiV/gMBIMDcjKhm6\n"
+        + "n8Di5bccIaT2gnvnD0/VUQIgGRi6Y2DF/qukrQ3WD9S6u1Ypi0+nVfMgqegI2ckB\n"
+        + "8Pk=\n"
+        + "-----END CERTIFICATE-----\n";
+
+    /** A self-signed certificate, expired on 2000-01-02 */
+    private static final String EXPIRED_CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+        + "MIIBTTCB9KADAgECAgkA1dRLYyYwb9QwCgYIKoZIzj0EAwIwGzEZMBcGA1UEAxMQ\n"
+        + "bGRhcC5leGFtcGxlLmNvbTAeFw0wMDAxMDExNDM5MTFaFw0wMDAxMDIxNDM5MTFa\n"
+        + "MBsxGTAXBgNVBAMTEGxkYXAuZXhhbXBsZS5jb20wWTATBgcqhkjOPQIBBggqhkjO\n"
+        + "PQMBBwNCAAQ8WGzcrvqPDspjzhWdBSky1LnD8VRdyj4JiFgeuKsH2aR30ttz14wu\n"
+        + "yaihxHR15z1fwHcsLyOX0poXRm9ZXWiCoyEwHzAdBgNVHQ4EFgQUuXNheQS0r1RL\n"
+        + "jDhaEMv26ZN/R/IwCgYIKoZIzj0EAwIDSAAwRQIgIFQPH7v/or0+o09VoekcJGMz\n"
+        + "HZS08dALyNZX8K1SGEwCIQCXdLNP/vvhfGRTkxS/dPBpFkBoDrNnF2nHeNSzF8A6\n"
+        + "NQ==\n"
+        + "-----END CERTIFICATE-----\n";
+
+    private StudioTrustManager trustManager;
+    private List<X509Certificate> validChain;
+    private List<X509Certificate> expiredChain;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        trustManager = new StudioTrustManager( null );
+        trustManager.setHost( "ldap.example.com" );
+        validChain = Collections.singletonList( parse( VALID_CERTIFICATE ) );
+        expiredChain = Collections.singletonList( parse( EXPIRED_CERTIFICATE ) );
+    }
+
+
+    @Test
+    public void testTrustedChainIsRemembered() throws Exception
+    {
+        assertFalse( trustManager.isTrustedChain( validChain, 0 ) );
+
+        trustManager.addTrustedChain( validChain, 0 );
+        assertTrue( trustManager.isTrustedChain( validChain, 0 ) );
+
+        // an equal chain, parsed again
+        assertTrue( trustManager.isTrustedChain( Collections.singletonList( parse( VALID_CERTIFICATE ) ), 0 ) );
+
+        // another chain
+        assertFalse( trustManager.isTrustedChain( expiredChain, 0 ) );
+    }
+
+
+    @Test
+    public void testExpiredChainIsCheckedAgain() throws Exception
+    {
+        // e.g. accepted by the user although expired
+        trustManager.addTrustedChain( expiredChain, 0 );
+
+        assertFalse( trustManager.isTrustedChain( expiredChain, 0 ) );
+    }
+
+
+    @Test
+    public void testTrustStoreModificationDiscardsTrustedChains() throws Exception
+    {
+        trustManager.addTrustedChain( validChain, 0 );
+
+        assertFalse( trustManager.isTrustedChain( validChain, 1 ) );
+        assertFalse( trustManager.isTrustedChain( validChain, 1 ) );
+    }
+
+
+    @Test
+    public void testHostChangeDiscardsTrustedChains() throws Exception
+    {
+        trustManager.addTrustedChain( validChain, 0 );
+
+        trustManager.setHost( "ldap.example.com" );
+        assertTrue( trustManager.isTrustedChain( validChain, 0 ) );
+
+        trustManager.setHost( "ldap.example.org" );
+        assertFalse( trustManager.isTrustedChain( validChain, 0 ) );
+    }
+
+
+    private static X509Certificate parse( String pem ) throws Exception
+    {
+        return ( X509Certificate ) CertificateFactory.getInstance( "X.509" ).generateCertificate(
+            new ByteArrayInputStream( pem.getBytes( StandardCharsets.US_ASCII ) ) );
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.core.io.api;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void testBucketsAreContiguous()
+    {
+        long lowerBound = 0L;
+
+        for ( int index = 0; index < LatencyHistogram.bucketIndex( 1L << 30 ); index++ )
+        {
+            long upperBound = LatencyHistogram.bucketUpperBound( index );
+            assertEquals( index, LatencyHistogram.bucketIndex( lowerBound ) );
+            assertEquals( index, LatencyHistogram.bucketIndex( upperBound ) );
+            assertEquals( index + 1, LatencyHistogram.bucketIndex( upperBound + 1 ) );
+            lowerBound = upperBound + 1;
+        }
+    }
+
+
+    @Test
+    public void testPrecision()
+    {
+        for ( long micros = 1L; micros < ( 1L << 34 ); micros = micros * 3 + 1 )
+        {
+            long upperBound = LatencyHistogram.bucketUpperBound( LatencyHistogram.bucketIndex( micros ) );
+            assertTrue( upperBound >= micros );
+            assertTrue( upperBound - micros <= micros / 32, "Imprecise bucket for " + micros );
+        }
+    }
+
+
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0d, histogram.getPercentileMillis( 50d ) );
+
+        for ( int i = 1; i <= 1000; i++ )
+        {
+            histogram.record( TimeUnit.MILLISECONDS.toNanos( i ) );
+        }
+
+        assertEquals( 1000L, histogram.getCount() );
+        assertEquals( 500.5d, histogram.getMeanMillis(), 0.001d );
+        assertEquals( 1000d, histogram.getMaxMillis() );
+        assertEquals( 500d, histogram.getPercentileMillis( 50d ), 500d / 32 );
+        assertEquals( 990d, histogram.getPercentileMillis( 99d ), 990d / 32 );
+        assertEquals( 1000d, histogram.getPercentileMillis( 100d ) );
+
+        histogram.reset();
+        assertEquals( 0L, histogram.getCount() );
+        assertEquals( 0d, histogram.getMaxMillis() );
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.connection.ui.properties;
+
+
+import java.text.NumberFormat;
+import java.util.Map;
+
+import org.apache.directory.studio.common.ui.widgets.BaseWidgetUtils;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.io.api.ConnectionStatistics;
+import org.apache.directory.studio.connection.core.io.api.OperationStatistics;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.IWorkbenchPropertyPage;
+import org.eclipse.ui.dialogs.PropertyPage;
+
+
+/**
+ * Property page to show the statistics of the LDAP operations performed with
+ * a connection: counts, latency percentiles, transferred bytes and result codes.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConnectionStatisticsPropertyPage extends PropertyPage implements IWorkbenchPropertyPage
+{
+    /** The column keys */
+    private static final String[] COLUMNS =
+        { "Operation", "Count", "Errors", "Mean", "Median", "Percentile90", "Percentile99", "Max", "BytesSent", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+            "BytesReceived", "ResultCodes" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+    /** The table containing the statistics */
+    private Table table;
+
+    /** The statistics */
+    private ConnectionStatistics statistics;
+
+
+    /**
+     * Creates a new instance of ConnectionStatisticsPropertyPage.
+     */
+    public ConnectionStatisticsPropertyPage()
+    {
+        super();
+        super.noDefaultAndApplyButton();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    protected Control createContents( Composite parent )
+    {
+        Connection connection = ConnectionPropertyPage.getConnection( getElement() );
+
+        if ( connection == null )
+        {
+            return BaseWidgetUtils.createLabel( parent, Messages.getString( "ConnectionPropertyPage.NoConnection" ), 1 ); //$NON-NLS-1$
+        }
+
+        statistics = connection.getConnectionWrapper().getStatistics();
+
+        Composite composite = BaseWidgetUtils.createColumnContainer( parent, 1, 1 );
+        BaseWidgetUtils.createLabel( composite,
+            Messages.getString( "ConnectionStatisticsPropertyPage.Description" ), 1 ); //$NON-NLS-1$
+
+        table = new Table( composite, SWT.BORDER | SWT.FULL_SELECTION );
+        table.setHeaderVisible( true );
+        table.setLinesVisible( true );
+        GridData gd = new GridData( SWT.FILL, SWT.FILL, true, true );
+        gd.widthHint = 500;
+        gd.heightHint = 200;
+        table.setLayoutData( gd );
+
+        for ( String column : COLUMNS )
+        {
+            TableColumn tableColumn = new TableColumn( table, column.equals( COLUMNS[0] ) ? SWT.LEFT : SWT.RIGHT );
+            tableColumn.setText( Messages.getString( "ConnectionStatisticsPropertyPage." + column ) ); //$NON-NLS-1$
+        }
+
+        Composite buttonComposite = BaseWidgetUtils.createColumnContainer( composite, 2, 1 );
+        Button refreshButton = BaseWidgetUtils.createButton( buttonComposite,
+            Messages.getString( "ConnectionStatisticsPropertyPage.Refresh" ), 1 ); //$NON-NLS-1$
+        refreshButton.addSelectionListener( new SelectionAdapter()
+        {
+            public void widgetSelected( SelectionEvent e )
+            {
+                update();
+            }
+        } );
+
+        Button resetButton = BaseWidgetUtils.createButton( buttonComposite,
+            Messages.getString( "ConnectionStatisticsPropertyPage.Reset" ), 1 ); //$NON-NLS-1$
+        resetButton.addSelectionListener( new SelectionAdapter()
+        {
+            public void widgetSelected( SelectionEvent e )
+            {
+                statistics.reset();
+                update();
+            }
+        } );
+
+        update();
+
+        return composite;
+    }
+
+
+    /**
+     * Updates the table from the statistics.
+     */
+    private void update()
+    {
+        if ( table.isDisposed() )
+        {
+            return;
+        }
+
+        table.removeAll();
+        NumberFormat countFormat = NumberFormat.getIntegerInstance();
+        NumberFormat millisFormat = NumberFormat.getNumberInstance();
+        millisFormat.setMinimumFractionDigits( 1 );
+        millisFormat.setMaximumFractionDigits( 1 );
+
+        for ( OperationStatistics operationStatistics : statistics.getOperationStatistics() )
+        {
+            StringBuilder resultCodes = new StringBuilder();
+
+            for ( Map.Entry<String, Long> entry : operationStatistics.getResultCodes().entrySet() )
+            {
+                if ( resultCodes.length() > 0 )
+                {
+                    resultCodes.append( ", " ); //$NON-NLS-1$
+                }
+
+                resultCodes.append( entry.getKey() ).append( '=' ).append( entry.getValue() );
+            }
+
+            TableItem item = new TableItem( table, SWT.NONE );
+            item.setText( new String[]
+                {
+                    operationStatistics.getOperation(),
+                    countFormat.format( operationStatistics.getCount() ),
+                    countFormat.format( operationStatistics.getErrorCount() ),
+                    millisFormat.format( operationStatistics.getMeanMillis() ),
+                    millisFormat.format( operationStatistics.getMedianMillis() ),
+                    millisFormat.format( operationStatistics.getPercentile90Millis() ),
+                    millisFormat.format( operationStatistics.getPercentile99Millis() ),
+                    millisFormat.format( operationStatistics.getMaxMillis() ),
+                    countFormat.format( operationStatistics.getBytesWritten() ),
+                    countFormat.format( operationStatistics.getBytesRead() ),
+                    resultCodes.toString() } );
+        }
+
+        for ( TableColumn column : table.getColumns() )
+        {
+            column.pack();
+        }
+    }
+}
@@ -67,9 +67,9 @@ public class EntryExistsCopyStrategyDialogImpl extends Dialog implements EntryEx
 
     /** The rename button. */
     private Button renameButton;
-    //
-    //    /** The remember check box. */
-    //    private Button rememberCheckbox;
+
+    /** The remember check box. */
+    private Button rememberCheckbox;
 
     /** The Dn builder widget. */
     private DnBuilderWidget dnBuilderWidget;
@@ -119,7 +119,7 @@ public class EntryExistsCopyStrategyDialogImpl extends Dialog implements EntryEx
     protected void okPressed()
     {
         rdn = null;
-        //        isRememberStrategy = rememberCheckbox.getSelection() && rememberCheckbox.isEnabled();
+        isRememberStrategy = rememberCheckbox.getSelection() && rememberCheckbox.isEnabled();
 
         if ( breakButton.getSelection() )
         {
@@ -207,7 +207,8 @@ public class EntryExistsCopyStrategyDialogImpl extends Dialog implements EntryEx
         dnBuilderWidget.setInput( browserConnection, SchemaUtils.getNamesAsArray( browserConnection.getSchema()
             .getAttributeTypeDescriptions() ), dn.getRdn(), null );
 
-        //        rememberCheckbox = BaseWidgetUtils.createCheckbox( composite, "Remember decision", 2 );
+        rememberCheckbox = BaseWidgetUtils.createCheckbox( composite, Messages
+            .getString( "EntryExistsCopyStrategyDialogImpl.RememberDecision" ), 1 ); //$NON-NLS-1$
 
         validate();
 
@@ -227,7 +228,7 @@ public class EntryExistsCopyStrategyDialogImpl extends Dialog implements EntryEx
         {
             dnBuilderWidget.setEnabled( false );
         }
-        //        rememberCheckbox.setEnabled( overwriteButton.getSelection() || ignoreButton.getSelection() );
+        rememberCheckbox.setEnabled( overwriteButton.getSelection() || ignoreButton.getSelection() );
     }
 
 
@@ -31,7 +31,9 @@ import org.apache.directory.studio.ldapbrowser.core.model.IAttribute;
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.IValue;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
 
 
 /**
@@ -43,6 +45,8 @@ import org.eclipse.jface.viewers.Viewer;
  */
 public class EntryEditorWidgetContentProvider implements ITreeContentProvider
 {
+    /** The maximum number of values shown below an expanded attribute, more values are split into pages. */
+    public static final int VALUE_PAGE_SIZE = 1000;
 
     /** The preferences. */
     protected EntryEditorWidgetPreferences preferences;
@@ -50,6 +54,9 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
     /** The main widget. */
     protected EntryEditorWidget mainWidget;
 
+    /** The viewer. */
+    private Viewer viewer;
+
 
     /**
      * Creates a new instance of EntryEditorWidgetContentProvider.
@@ -71,6 +78,8 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
      */
     public void inputChanged( Viewer viewer, Object oldInput, Object newInput )
     {
+        this.viewer = viewer;
+
         if ( mainWidget != null )
         {
             String dn = ""; //$NON-NLS-1$
@@ -117,6 +126,7 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
     {
         preferences = null;
         mainWidget = null;
+        viewer = null;
     }
 
 
@@ -175,12 +185,17 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
         {
             for ( IAttribute attribute : attributes )
             {
-                IValue[] values = attribute.getValues();
+                int valueSize = attribute.getValueSize();
                 
-                if ((  preferences == null ) || !preferences.isUseFolding()
-                    || ( values.length <= preferences.getFoldingThreshold() ) )
+                if ( valueSize > VALUE_PAGE_SIZE )
                 {
-                    for ( IValue value : values )
+                    // always fold attributes with many values, the values are split into pages
+                    valueList.add( attribute );
+                }
+                else if ((  preferences == null ) || !preferences.isUseFolding()
+                    || ( valueSize <= preferences.getFoldingThreshold() ) )
+                {
+                    for ( IValue value : attribute.getValues() )
                     {
                         valueList.add( value );
                     }
@@ -205,15 +220,52 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
         if ( parentElement instanceof IAttribute )
         {
             IAttribute attribute = ( IAttribute ) parentElement;
+            int valueSize = attribute.getValueSize();
+
+            if ( valueSize > VALUE_PAGE_SIZE )
+            {
+                return getValuePages( attribute, valueSize );
+            }
+
             IValue[] values = attribute.getValues();
             
             return values;
         }
+        else if ( parentElement instanceof EntryEditorWidgetValuePage )
+        {
+            return ( ( EntryEditorWidgetValuePage ) parentElement ).getChildren();
+        }
         
         return null;
     }
 
 
+    /**
+     * Splits the values of an attribute into pages, the values of a page
+     * are only retrieved when the page is expanded.
+     * 
+     * @param attribute the attribute
+     * @param valueSize the number of values
+     * 
+     * @return the pages
+     */
+    private EntryEditorWidgetValuePage[] getValuePages( IAttribute attribute, int valueSize )
+    {
+        ViewerComparator comparator = ( viewer instanceof StructuredViewer ) ? ( ( StructuredViewer ) viewer )
+            .getComparator() : null;
+        EntryEditorWidgetValuePage[] pages = new EntryEditorWidgetValuePage[( valueSize - 1 ) / VALUE_PAGE_SIZE + 1];
+
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            int first = i * VALUE_PAGE_SIZE;
+            int last = Math.min( first + VALUE_PAGE_SIZE, valueSize ) - 1;
+            pages[i] = new EntryEditorWidgetValuePage( attribute, first, last, viewer, comparator );
+        }
+
+        return pages;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -223,6 +275,10 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
         {
             return ( ( IValue ) element ).getAttribute();
         }
+        else if ( element instanceof EntryEditorWidgetValuePage )
+        {
+            return ( ( EntryEditorWidgetValuePage ) element ).getAttribute();
+        }
         
         return null;
     }
@@ -233,6 +289,6 @@ public class EntryEditorWidgetContentProvider implements ITreeContentProvider
      */
     public boolean hasChildren( Object element )
     {
-        return ( element instanceof IAttribute );
+        return ( element instanceof IAttribute ) || ( element instanceof EntryEditorWidgetValuePage );
     }
 }
\ No newline at end of file
@@ -124,6 +124,12 @@ public class EntryEditorWidgetLabelProvider extends LabelProvider implements ITa
                 return ""; //$NON-NLS-1$
             }
         }
+        else if ( ( obj instanceof EntryEditorWidgetValuePage )
+            && ( index == EntryEditorWidgetTableMetadata.KEY_COLUMN_INDEX ) )
+        {
+            EntryEditorWidgetValuePage page = ( EntryEditorWidgetValuePage ) obj;
+            return "[" + ( page.getFirst() + 1 ) + "..." + ( page.getLast() + 1 ) + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
         else
         {
             return ""; //$NON-NLS-1$
@@ -139,13 +145,12 @@ public class EntryEditorWidgetLabelProvider extends LabelProvider implements ITa
      */
     private int getNumberOfValues( IAttribute attribute )
     {
-        EntryEditorWidgetContentProvider contentProvider = ( EntryEditorWidgetContentProvider ) viewer
-            .getContentProvider();
         EntryEditorWidgetFilter filter = ( EntryEditorWidgetFilter ) viewer.getFilters()[0];
 
         int count = 0;
 
-        for ( Object child : contentProvider.getChildren( attribute ) )
+        // count the values directly, the children may be value pages
+        for ( IValue child : attribute.getValues() )
         {
             if ( filter.select( viewer, attribute, child ) )
             {
@@ -207,11 +207,14 @@ public class EntryEditorWidgetSorter extends ViewerSorter implements SelectionLi
      */
     public void sort( final Viewer viewer, Object[] elements )
     {
+        // create the comparator only once, attributes with many values are sorted as a whole
+        final AttributeComparator comparator = getAttributeComparator();
+
         Arrays.sort( elements, new Comparator<Object>()
         {
             public int compare( Object a, Object b )
             {
-                return EntryEditorWidgetSorter.this.compare( viewer, a, b );
+                return EntryEditorWidgetSorter.this.compare( comparator, a, b );
             }
         } );
 
@@ -222,13 +225,44 @@ public class EntryEditorWidgetSorter extends ViewerSorter implements SelectionLi
      * {@inheritDoc}
      */
     public int compare( Viewer viewer, Object o1, Object o2 )
+    {
+        return compare( getAttributeComparator(), o1, o2 );
+    }
+
+
+    /**
+     * Compares two elements, value pages are kept in their order.
+     *
+     * @param comparator the attribute comparator
+     * @param o1 the first element
+     * @param o2 the second element
+     * @return the comparison result
+     */
+    private int compare( AttributeComparator comparator, Object o1, Object o2 )
+    {
+        if ( ( o1 instanceof EntryEditorWidgetValuePage ) && ( o2 instanceof EntryEditorWidgetValuePage ) )
+        {
+            return Integer.compare( ( ( EntryEditorWidgetValuePage ) o1 ).getFirst(),
+                ( ( EntryEditorWidgetValuePage ) o2 ).getFirst() );
+        }
+
+        return comparator.compare( o1, o2 );
+    }
+
+
+    /**
+     * Creates the attribute comparator for the current sort settings.
+     *
+     * @return the attribute comparator
+     */
+    private AttributeComparator getAttributeComparator()
     {
         boolean objectClassAndMustAttributesFirst = preferences == null
             || preferences.isObjectClassAndMustAttributesFirst();
         boolean operationalAttributesLast = preferences == null || preferences.isOperationalAttributesLast();
-        AttributeComparator comparator = new AttributeComparator( sortBy, getDefaultSortBy(), sortOrder,
-            getDefaultSortOrder(), objectClassAndMustAttributesFirst, operationalAttributesLast );
-        return comparator.compare( o1, o2 );
+
+        return new AttributeComparator( sortBy, getDefaultSortBy(), sortOrder, getDefaultSortOrder(),
+            objectClassAndMustAttributesFirst, operationalAttributesLast );
     }
 
 
@@ -0,0 +1,161 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.common.widgets.entryeditor;
+
+
+import java.util.Arrays;
+
+import org.apache.directory.studio.ldapbrowser.core.model.IAttribute;
+import org.apache.directory.studio.ldapbrowser.core.model.IValue;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+
+
+/**
+ * A EntryEditorWidgetValuePage is a container for a range of values of an attribute.
+ * It is used when folding attributes with many values, the values of a page are 
+ * only materialized as tree items when the page is expanded. 
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class EntryEditorWidgetValuePage
+{
+    /** The parent attribute */
+    private IAttribute attribute;
+
+    /** The index of the first value in this page */
+    private int first;
+
+    /** The index of the last value in this page */
+    private int last;
+
+    /** The viewer, used to sort the values */
+    private Viewer viewer;
+
+    /** The comparator of the viewer, may be null */
+    private ViewerComparator comparator;
+
+
+    /**
+     * Creates a new instance of EntryEditorWidgetValuePage.
+     *
+     * @param attribute the parent attribute
+     * @param first the index of the first value in this page
+     * @param last the index of the last value in this page
+     * @param viewer the viewer
+     * @param comparator the comparator of the viewer, may be null
+     */
+    public EntryEditorWidgetValuePage( IAttribute attribute, int first, int last, Viewer viewer,
+        ViewerComparator comparator )
+    {
+        this.attribute = attribute;
+        this.first = first;
+        this.last = last;
+        this.viewer = viewer;
+        this.comparator = comparator;
+    }
+
+
+    /**
+     * Gets the values contained in this page.
+     *
+     * @return the values
+     */
+    public IValue[] getChildren()
+    {
+        // 1. get values
+        IValue[] values = attribute.getValues();
+
+        // 2. sort
+        if ( comparator != null )
+        {
+            comparator.sort( viewer, values );
+        }
+
+        // 3. extract range, values may have been deleted in the meantime
+        int from = Math.min( first, values.length );
+        int to = Math.min( last + 1, values.length );
+
+        return Arrays.copyOfRange( values, from, to );
+    }
+
+
+    /**
+     * Gets the first.
+     * 
+     * @return the first
+     */
+    public int getFirst()
+    {
+        return first;
+    }
+
+
+    /**
+     * Gets the last.
+     * 
+     * @return the last
+     */
+    public int getLast()
+    {
+        return last;
+    }
+
+
+    /**
+     * Gets the parent attribute.
+     * 
+     * @return the parent attribute
+     */
+    public IAttribute getAttribute()
+    {
+        return attribute;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Pages are recreated on each refresh, they are equal if they
+     * contain the same range of the same attribute. This keeps the 
+     * expanded state of the tree.
+     */
+    public boolean equals( Object obj )
+    {
+        if ( !( obj instanceof EntryEditorWidgetValuePage ) )
+        {
+            return false;
+        }
+
+        EntryEditorWidgetValuePage other = ( EntryEditorWidgetValuePage ) obj;
+
+        return ( attribute == other.attribute ) && ( first == other.first ) && ( last == other.last );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hashCode()
+    {
+        return System.identityHashCode( attribute ) * 31 + first;
+    }
+}
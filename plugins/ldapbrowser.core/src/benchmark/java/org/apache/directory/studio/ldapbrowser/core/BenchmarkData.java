@@ -0,0 +1,133 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+import org.apache.directory.studio.ldifparser.model.lines.LdifAttrValLine;
+import org.apache.directory.studio.ldifparser.model.lines.LdifSepLine;
+
+
+/**
+ * Generates synthetic data for the benchmarks: DNs of a three level deep
+ * tree, entry records and search filters.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class BenchmarkData
+{
+    private BenchmarkData()
+    {
+    }
+
+
+    /**
+     * Generates the DN of an entry.
+     *
+     * @param i the number of the entry
+     * @return the DN
+     */
+    public static String generateDnString( int i )
+    {
+        return "uid=user." + i + ",ou=unit" + ( i % 100 ) + ",ou=Users,dc=example,dc=com"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+
+    /**
+     * Generates the given number of DNs.
+     *
+     * @param count the number of DNs
+     * @return the DNs
+     */
+    public static List<Dn> generateDns( int count )
+    {
+        List<Dn> dns = new ArrayList<>( count );
+
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                dns.add( new Dn( generateDnString( i ) ) );
+            }
+        }
+        catch ( LdapInvalidDnException e )
+        {
+            throw new IllegalStateException( e );
+        }
+
+        return dns;
+    }
+
+
+    /**
+     * Generates the given number of entry records.
+     *
+     * @param count the number of records
+     * @return the records
+     */
+    public static List<LdifContentRecord> generateRecords( int count )
+    {
+        List<LdifContentRecord> records = new ArrayList<>( count );
+
+        for ( int i = 0; i < count; i++ )
+        {
+            LdifContentRecord record = LdifContentRecord.create( generateDnString( i ) );
+            record.addAttrVal( LdifAttrValLine.create( "objectClass", "inetOrgPerson" ) ); //$NON-NLS-1$ //$NON-NLS-2$
+            record.addAttrVal( LdifAttrValLine.create( "uid", "user." + i ) ); //$NON-NLS-1$ //$NON-NLS-2$
+            record.addAttrVal( LdifAttrValLine.create( "cn", "User " + i ) ); //$NON-NLS-1$ //$NON-NLS-2$
+            record.addAttrVal( LdifAttrValLine.create( "sn", String.valueOf( i ) ) ); //$NON-NLS-1$
+            record.addAttrVal( LdifAttrValLine.create( "mail", "user." + i + "@example.com" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            record.addAttrVal( LdifAttrValLine.create( "mail", "u" + i + "@example.org" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            record.addAttrVal( LdifAttrValLine.create( "telephoneNumber", "+1 555 " + i ) ); //$NON-NLS-1$ //$NON-NLS-2$
+            record.addAttrVal( LdifAttrValLine.create( "jpegPhoto", new byte[] //$NON-NLS-1$
+                { ( byte ) 0xFF, ( byte ) 0xD8, ( byte ) i } ) );
+            record.finish( LdifSepLine.create() );
+            records.add( record );
+        }
+
+        return records;
+    }
+
+
+    /**
+     * Generates an OR filter with the given number of equality assertions.
+     *
+     * @param terms the number of assertions
+     * @return the filter
+     */
+    public static String generateFilter( int terms )
+    {
+        StringBuilder sb = new StringBuilder( "(&(objectClass=inetOrgPerson)(|" ); //$NON-NLS-1$
+
+        for ( int i = 0; i < terms; i++ )
+        {
+            sb.append( "(uid=user." ).append( i ).append( ')' ); //$NON-NLS-1$
+        }
+
+        sb.append( "))" ); //$NON-NLS-1$
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.ldapbrowser.core.BenchmarkData;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCoreConstants;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
+import org.apache.directory.studio.ldifparser.LdifFormatParameters;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks the formatting of search results for the CSV and LDIF export.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ExportBenchmark
+{
+    @Param({ "10000", "100000" })
+    public int entries;
+
+    private BrowserConnection browserConnection;
+
+    private List<LdifContentRecord> records;
+
+
+    @Setup
+    public void setup()
+    {
+        browserConnection = new BrowserConnection( new Connection( new ConnectionParameter() ) );
+        records = BenchmarkData.generateRecords( entries );
+    }
+
+
+    @Benchmark
+    public void csvAttributeMap( Blackhole blackhole )
+    {
+        for ( LdifContentRecord record : records )
+        {
+            blackhole.consume( ExportCsvRunnable.getAttributeMap( browserConnection, record, "|", "UTF-8", //$NON-NLS-1$ //$NON-NLS-2$
+                BrowserCoreConstants.BINARYENCODING_BASE64 ) );
+        }
+    }
+
+
+    @Benchmark
+    public void ldifFormat( Blackhole blackhole )
+    {
+        for ( LdifContentRecord record : records )
+        {
+            blackhole.consume( record.toFormattedString( LdifFormatParameters.DEFAULT ) );
+        }
+    }
+}
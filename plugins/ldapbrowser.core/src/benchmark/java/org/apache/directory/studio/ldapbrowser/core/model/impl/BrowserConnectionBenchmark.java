@@ -0,0 +1,108 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.impl;
+
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.ldapbrowser.core.BenchmarkData;
+import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the entry cache of the {@link BrowserConnection}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BrowserConnectionBenchmark
+{
+    @Param({ "10000", "100000", "1000000" })
+    public int entries;
+
+    private BrowserConnection browserConnection;
+
+    private IEntry[] cachedEntries;
+
+    private Dn[] dns;
+
+    private int index;
+
+
+    @Setup
+    public void setup()
+    {
+        browserConnection = new BrowserConnection( new Connection( new ConnectionParameter() ) );
+        List<Dn> dnList = BenchmarkData.generateDns( entries );
+        dns = dnList.toArray( new Dn[0] );
+        cachedEntries = new IEntry[dns.length];
+
+        for ( int i = 0; i < dns.length; i++ )
+        {
+            cachedEntries[i] = new DummyEntry( dns[i], browserConnection );
+            browserConnection.cacheEntry( cachedEntries[i] );
+        }
+    }
+
+
+    private int nextIndex()
+    {
+        // step through the entries in a cache unfriendly order
+        index = ( index + 7919 ) % dns.length;
+        return index;
+    }
+
+
+    @Benchmark
+    public IEntry getEntryFromCache()
+    {
+        return browserConnection.getEntryFromCache( dns[nextIndex()] );
+    }
+
+
+    @Benchmark
+    public IEntry cacheEntry()
+    {
+        IEntry entry = cachedEntries[nextIndex()];
+        browserConnection.cacheEntry( entry );
+        return entry;
+    }
+}
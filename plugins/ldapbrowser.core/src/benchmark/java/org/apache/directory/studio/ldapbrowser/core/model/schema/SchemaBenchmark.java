@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.schema;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the lookups of schema elements by name or OID in the {@link Schema}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaBenchmark
+{
+    private Schema schema;
+
+    private String[] attributeTypeNames;
+
+    private String[] objectClassNames;
+
+    private int index;
+
+
+    @Setup
+    public void setup()
+    {
+        schema = Schema.DEFAULT_SCHEMA;
+
+        // names in different cases and numeric OIDs, as they occur in entries and filters
+        List<String> names = new ArrayList<>();
+
+        for ( AttributeType attributeType : schema.getAttributeTypeDescriptions() )
+        {
+            names.add( attributeType.getOid() );
+
+            for ( String name : attributeType.getNames() )
+            {
+                names.add( name );
+                names.add( name.toUpperCase( Locale.ROOT ) );
+            }
+        }
+
+        attributeTypeNames = names.toArray( new String[0] );
+        names.clear();
+
+        for ( ObjectClass objectClass : schema.getObjectClassDescriptions() )
+        {
+            names.add( objectClass.getOid() );
+            names.addAll( objectClass.getNames() );
+        }
+
+        objectClassNames = names.toArray( new String[0] );
+    }
+
+
+    private int nextIndex( int length )
+    {
+        index = ( index + 1 ) % length;
+        return index;
+    }
+
+
+    @Benchmark
+    public AttributeType getAttributeTypeDescription()
+    {
+        return schema.getAttributeTypeDescription( attributeTypeNames[nextIndex( attributeTypeNames.length )] );
+    }
+
+
+    @Benchmark
+    public AttributeType getUnknownAttributeTypeDescription()
+    {
+        return schema.getAttributeTypeDescription( "unknownAttribute" ); //$NON-NLS-1$
+    }
+
+
+    @Benchmark
+    public ObjectClass getObjectClassDescription()
+    {
+        return schema.getObjectClassDescription( objectClassNames[nextIndex( objectClassNames.length )] );
+    }
+}
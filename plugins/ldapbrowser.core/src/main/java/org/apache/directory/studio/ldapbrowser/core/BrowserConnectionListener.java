@@ -32,7 +32,10 @@ import org.apache.directory.studio.connection.core.IConnectionListener;
 import org.apache.directory.studio.ldapbrowser.core.events.BrowserConnectionUpdateEvent;
 import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
 import org.apache.directory.studio.ldapbrowser.core.jobs.InitializeAttributesRunnable;
+import org.apache.directory.studio.ldapbrowser.core.jobs.InitializeRootDSERunnable;
 import org.apache.directory.studio.ldapbrowser.core.jobs.ReloadSchemaRunnable;
+import org.apache.directory.studio.ldapbrowser.core.jobs.RevalidateRootDSERunnable;
+import org.apache.directory.studio.ldapbrowser.core.jobs.StudioBrowserJob;
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.IRootDSE;
 import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
@@ -58,10 +61,12 @@ public class BrowserConnectionListener implements IConnectionListener
             .getBrowserConnection( connection );
         if ( browserConnection != null )
         {
+            boolean rootDSEFromCache = false;
+
             try
             {
                 EventRegistry.suspendEventFiringInCurrentThread();
-                openBrowserConnection( browserConnection, monitor );
+                rootDSEFromCache = openBrowserConnection( browserConnection, monitor );
                 setBinaryAttributes( browserConnection, monitor );
             }
             finally
@@ -74,6 +79,12 @@ public class BrowserConnectionListener implements IConnectionListener
                     BrowserConnectionUpdateEvent.Detail.SCHEMA_UPDATED );
                 EventRegistry.fireBrowserConnectionUpdated( schemaUpdateEvent, this );
             }
+
+            if ( rootDSEFromCache )
+            {
+                // the cached Root DSE is shown immediately, check in background if it is still up to date
+                new StudioBrowserJob( new RevalidateRootDSERunnable( browserConnection ) ).schedule();
+            }
         }
     }
 
@@ -104,17 +115,27 @@ public class BrowserConnectionListener implements IConnectionListener
 
 
     /**
-     * Opens the browser connection.
+     * Opens the browser connection. The Root DSE is taken from the local cache 
+     * if available, otherwise it is read from the directory.
      * 
      * @param browserConnection the browser connection
      * @param monitor the progress monitor
+     * 
+     * @return true if the Root DSE was loaded from the cache
      */
-    private static void openBrowserConnection( IBrowserConnection browserConnection, StudioProgressMonitor monitor )
+    private static boolean openBrowserConnection( IBrowserConnection browserConnection, StudioProgressMonitor monitor )
     {
         ReloadSchemaRunnable.reloadSchema( false, browserConnection, monitor );
 
+        if ( InitializeRootDSERunnable.loadRootDSEFromCache( browserConnection, monitor ) )
+        {
+            return true;
+        }
+
         IRootDSE rootDSE = browserConnection.getRootDSE();
         InitializeAttributesRunnable.initializeAttributes( rootDSE, monitor );
+
+        return false;
     }
 
 
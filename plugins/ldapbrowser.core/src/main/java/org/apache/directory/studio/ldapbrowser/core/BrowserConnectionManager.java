@@ -33,12 +33,16 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.api.util.FileUtils;
+import org.apache.directory.studio.common.core.jobs.StudioSaveJob;
 import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.ConnectionCorePlugin;
 import org.apache.directory.studio.connection.core.ConnectionFolder;
@@ -62,6 +66,7 @@ import org.apache.directory.studio.ldapbrowser.core.model.impl.Bookmark;
 import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.impl.Search;
 import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.SchemaCacheIO;
 
 
 /**
@@ -76,6 +81,9 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
     /** The list of connections. */
     private Map<String, IBrowserConnection> connectionMap;
 
+    /** The job to save the browser connections in the background. */
+    private StudioSaveJob saveJob;
+
 
     /**
      * Creates a new instance of ConnectionManager.
@@ -83,6 +91,14 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
     public BrowserConnectionManager()
     {
         this.connectionMap = new HashMap<String, IBrowserConnection>();
+        this.saveJob = new StudioSaveJob( new File( getBrowserConnectionStoreFileName() ),
+            StudioSaveJob.DEFAULT_DELAY )
+        {
+            protected void write( OutputStream out ) throws IOException
+            {
+                BrowserConnectionIO.save( out, connectionMap );
+            }
+        };
 
         // no need to fire events while loading connections
         EventRegistry.suspendEventFiringInCurrentThread();
@@ -111,6 +127,56 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
     }
 
 
+    /**
+     * Gets the binary Schema Cache filename for the corresponding browser connection.
+     *
+     * @param id
+     *      the id of the connection
+     * @return
+     *      the binary Schema Cache filename for the corresponding browser connection
+     */
+    public static final String getSchemaBinaryCacheFileName( String id )
+    {
+        return BrowserCorePlugin.getDefault().getStateLocation().append(
+            "schema-" + Utils.getFilenameString( id ) + ".bin" ).toOSString(); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+
+    /**
+     * Gets the Root DSE Cache filename for the corresponding browser connection.
+     *
+     * @param id
+     *      the id of the connection
+     * @return
+     *      the Root DSE Cache filename for the corresponding browser connection
+     */
+    public static final String getRootDSECacheFileName( String id )
+    {
+        return BrowserCorePlugin.getDefault().getStateLocation().append(
+            "rootdse-" + Utils.getFilenameString( id ) + ".ldif" ).toOSString(); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+
+    /**
+     * Gets the filename of the checkpoint of a simulated move.
+     *
+     * @param id
+     *      the id of the connection
+     * @param sourceDn
+     *      the Dn of the moved entry
+     * @param targetDn
+     *      the new Dn of the moved entry
+     * @return
+     *      the filename of the checkpoint of the simulated move
+     */
+    public static final String getMoveCheckpointFileName( String id, Dn sourceDn, Dn targetDn )
+    {
+        String hash = Integer.toHexString( ( sourceDn.getNormName() + '\u0000' + targetDn.getNormName() ).hashCode() );
+        return BrowserCorePlugin.getDefault().getStateLocation().append(
+            "move-" + Utils.getFilenameString( id ) + "-" + hash + ".ckpt" ).toOSString(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+
     /**
      * Gets the filename of the Connection Store.
      *
@@ -225,6 +291,30 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
         {
             schemaFile.delete();
         }
+        File schemaBinaryFile = new File( getSchemaBinaryCacheFileName( connection.getId() ) );
+        if ( schemaBinaryFile.exists() )
+        {
+            schemaBinaryFile.delete();
+        }
+
+        // remove Root DSE file
+        File rootDSEFile = new File( getRootDSECacheFileName( connection.getId() ) );
+        if ( rootDSEFile.exists() )
+        {
+            rootDSEFile.delete();
+        }
+
+        // remove checkpoints of interrupted moves
+        String checkpointPrefix = "move-" + Utils.getFilenameString( connection.getId() ) + "-"; //$NON-NLS-1$ //$NON-NLS-2$
+        File[] checkpointFiles = BrowserCorePlugin.getDefault().getStateLocation().toFile()
+            .listFiles( ( dir, name ) -> name.startsWith( checkpointPrefix ) );
+        if ( checkpointFiles != null )
+        {
+            for ( File checkpointFile : checkpointFiles )
+            {
+                checkpointFile.delete();
+            }
+        }
 
         // make persistent
         saveBrowserConnections();
@@ -252,6 +342,13 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
     {
         saveBrowserConnections();
         saveSchema( getBrowserConnection( connection ) );
+
+        // remove Root DSE file, the updated connection parameters may point to another directory
+        File rootDSEFile = new File( getRootDSECacheFileName( connection.getId() ) );
+        if ( rootDSEFile.exists() )
+        {
+            rootDSEFile.delete();
+        }
     }
 
 
@@ -337,40 +434,28 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
 
 
     /**
-     * Saves the browser Connections
+     * Writes pending changes of the browser Connections, if any.
      */
-    private void saveBrowserConnections()
+    public void flushBrowserConnections()
     {
-        // To avoid a corrupt file, save object to a temp file first 
         try
         {
-            BrowserConnectionIO.save( new FileOutputStream( getBrowserConnectionStoreFileName() + "-temp" ), //$NON-NLS-1$
-                connectionMap );
+            saveJob.flush();
         }
         catch ( IOException e )
         {
-            // TODO Auto-generated catch block
             e.printStackTrace();
         }
+    }
 
-        // move temp file to good file
-        File file = new File( getBrowserConnectionStoreFileName() );
-        File tempFile = new File( getBrowserConnectionStoreFileName() + "-temp" ); //$NON-NLS-1$
-        if ( file.exists() )
-        {
-            file.delete();
-        }
 
-        try
-        {
-            String content = FileUtils.readFileToString( tempFile, "UTF-8" ); //$NON-NLS-1$
-            FileUtils.writeStringToFile( file, content, "UTF-8" ); //$NON-NLS-1$
-        }
-        catch ( IOException e )
-        {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
+    /**
+     * Saves the browser Connections. The write is deferred and coalesced
+     * with other changes, see {@link #flushBrowserConnections()}.
+     */
+    private void saveBrowserConnections()
+    {
+        saveJob.requestSave();
 
         //        Object[][] object = new Object[connectionMap.size()][3];
         //
@@ -426,6 +511,56 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
         {
             e.printStackTrace();
         }
+
+        // the binary cache is written after the LDIF cache, it is only used if it is not older
+        File binaryFile = new File( getSchemaBinaryCacheFileName( browserConnection.getConnection().getId() ) );
+        try ( OutputStream out = new FileOutputStream( binaryFile ) )
+        {
+            SchemaCacheIO.save( browserConnection.getSchema(), out );
+        }
+        catch ( Exception e )
+        {
+            binaryFile.delete();
+        }
+    }
+
+
+    /**
+     * Loads the cached Schema of the Connection. The binary cache is used if it
+     * is up to date, otherwise the schema is parsed from the LDIF cache.
+     *
+     * @param connection
+     *      the Connection
+     * @return
+     *      the cached Schema, or null if there is no cached schema
+     */
+    private Schema loadSchema( Connection connection )
+    {
+        File ldifFile = new File( getSchemaCacheFileName( connection.getId() ) );
+        File binaryFile = new File( getSchemaBinaryCacheFileName( connection.getId() ) );
+
+        if ( binaryFile.exists() && ( !ldifFile.exists() || binaryFile.lastModified() >= ldifFile.lastModified() ) )
+        {
+            try ( InputStream in = new FileInputStream( binaryFile ) )
+            {
+                return SchemaCacheIO.load( in );
+            }
+            catch ( Exception e )
+            {
+                // unknown version or corrupt file, fall back to the LDIF cache
+            }
+        }
+
+        try ( FileReader reader = new FileReader( ldifFile ) )
+        {
+            Schema schema = new Schema();
+            schema.loadFromLdif( reader );
+            return schema;
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
     }
 
 
@@ -441,17 +576,8 @@ public class BrowserConnectionManager implements ConnectionUpdateListener, Brows
             BrowserConnection browserConnection = new BrowserConnection( connection );
             connectionMap.put( connection.getId(), browserConnection );
 
-            try
-            {
-                String schemaFilename = getSchemaCacheFileName( connection.getId() );
-                FileReader reader = new FileReader( schemaFilename );
-                Schema schema = new Schema();
-                schema.loadFromLdif( reader );
-                browserConnection.setSchema( schema );
-            }
-            catch ( Exception e )
-            {
-            }
+            // the cached schema is loaded on first use
+            browserConnection.setSchemaLoader( () -> loadSchema( connection ) );
         }
 
         // java.beans.XMLDecoder
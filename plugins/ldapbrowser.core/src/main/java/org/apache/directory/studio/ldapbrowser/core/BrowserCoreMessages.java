@@ -83,6 +83,8 @@ public class BrowserCoreMessages extends NLS
 
     public static String jobs__copy_entries_source_and_target_are_equal;
 
+    public static String jobs__copy_entries_parent_not_copied;
+
     public static String model__empty_connection;
 
     public static String model__empty_entry;
@@ -156,6 +158,7 @@ public class BrowserCoreMessages extends NLS
     public static String model__loading_schema;
 
     public static String model__no_schema_information;
+    public static String model__invalid_cached_schema_record;
 
     public static String model__missing_schema_location;
 
@@ -381,6 +384,12 @@ public class BrowserCoreMessages extends NLS
 
     public static String jobs__reload_schemas_error_n;
 
+    public static String jobs__revalidate_rootdse_name;
+
+    public static String jobs__revalidate_rootdse_task;
+
+    public static String jobs__revalidate_rootdse_error;
+
     public static String jobs__move_entry_name_1;
 
     public static String jobs__move_entry_name_n;
@@ -393,6 +402,8 @@ public class BrowserCoreMessages extends NLS
 
     public static String jobs__move_entry_error_n;
 
+    public static String jobs__move_entry_resume;
+
     public static String jobs__rename_entry_name;
 
     public static String jobs__rename_entry_task;
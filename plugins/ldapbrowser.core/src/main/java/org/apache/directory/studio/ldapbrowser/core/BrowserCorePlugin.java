@@ -89,6 +89,12 @@ public class BrowserCorePlugin extends Plugin
      */
     public void stop( BundleContext context ) throws Exception
     {
+        // write pending changes while the plugin is still available
+        if ( connectionManager != null )
+        {
+            connectionManager.flushBrowserConnections();
+        }
+
         super.stop( context );
 
         if ( eventRunner != null )
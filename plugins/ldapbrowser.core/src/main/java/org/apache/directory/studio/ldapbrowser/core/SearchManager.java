@@ -23,12 +23,21 @@ package org.apache.directory.studio.ldapbrowser.core;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
 import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
 import org.apache.directory.studio.ldapbrowser.core.events.SearchUpdateEvent;
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
+import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
 import org.eclipse.osgi.util.NLS;
 
 
@@ -49,6 +58,15 @@ public class SearchManager implements Serializable
     /** The connection. */
     private IBrowserConnection connection;
 
+    /**
+     * The index of the search results, the key is the Dn of a search result with
+     * the RDNs in reversed order, so that the keys of a subtree form a range.
+     */
+    private transient TreeMap<String, Set<ISearch>> searchResultIndex;
+
+    /** The search results that are indexed, to detect changed search results, the Searches are compared by identity. */
+    private transient Map<ISearch, ISearchResult[]> indexedSearchResults;
+
 
     /**
      * Creates a new instance of SearchManager.
@@ -209,4 +227,113 @@ public class SearchManager implements Serializable
     {
         return searchList.size();
     }
+
+
+    /**
+     * Gets the Searches that contain a search result with the given Dn or with
+     * a Dn below the given Dn. An index of the search results is used, it is
+     * updated for the Searches whose results have changed since the last call.
+     *
+     * @param dn
+     *      the Dn
+     * @return
+     *      the Searches with search results in the subtree of the Dn
+     */
+    public synchronized Set<ISearch> getSearchesWithResultsInSubtree( Dn dn )
+    {
+        updateSearchResultIndex();
+
+        String key = getIndexKey( dn );
+        Set<ISearch> searches = new HashSet<ISearch>();
+        for ( Set<ISearch> indexedSearches : searchResultIndex.subMap( key, true, key + '\uffff', false ).values() )
+        {
+            searches.addAll( indexedSearches );
+        }
+
+        return searches;
+    }
+
+
+    /**
+     * Updates the index for all Searches whose search results have changed.
+     */
+    private void updateSearchResultIndex()
+    {
+        if ( searchResultIndex == null )
+        {
+            searchResultIndex = new TreeMap<String, Set<ISearch>>();
+            indexedSearchResults = new IdentityHashMap<ISearch, ISearchResult[]>();
+        }
+
+        Map<ISearch, ISearchResult[]> currentSearchResults = new IdentityHashMap<ISearch, ISearchResult[]>();
+        for ( ISearch search : searchList )
+        {
+            currentSearchResults.put( search, search.getSearchResults() );
+        }
+
+        // remove the changed and removed searches from the index
+        for ( Map.Entry<ISearch, ISearchResult[]> indexed : new IdentityHashMap<ISearch, ISearchResult[]>(
+            indexedSearchResults ).entrySet() )
+        {
+            ISearch search = indexed.getKey();
+            if ( !currentSearchResults.containsKey( search ) || currentSearchResults.get( search ) != indexed.getValue() )
+            {
+                for ( ISearchResult searchResult : indexed.getValue() )
+                {
+                    String key = getIndexKey( searchResult.getDn() );
+                    Set<ISearch> searches = searchResultIndex.get( key );
+                    if ( searches != null )
+                    {
+                        searches.remove( search );
+                        if ( searches.isEmpty() )
+                        {
+                            searchResultIndex.remove( key );
+                        }
+                    }
+                }
+
+                indexedSearchResults.remove( search );
+            }
+        }
+
+        // add the new and changed searches to the index
+        for ( Map.Entry<ISearch, ISearchResult[]> current : currentSearchResults.entrySet() )
+        {
+            ISearch search = current.getKey();
+            ISearchResult[] searchResults = current.getValue();
+            if ( searchResults != null && !indexedSearchResults.containsKey( search ) )
+            {
+                for ( ISearchResult searchResult : searchResults )
+                {
+                    searchResultIndex.computeIfAbsent( getIndexKey( searchResult.getDn() ),
+                        k -> Collections.newSetFromMap( new IdentityHashMap<ISearch, Boolean>() ) ).add( search );
+                }
+
+                indexedSearchResults.put( search, searchResults );
+            }
+        }
+    }
+
+
+    /**
+     * Gets the index key of the Dn, the normalized RDNs in reversed order, each
+     * followed by a separator.
+     *
+     * @param dn
+     *      the Dn
+     * @return
+     *      the index key
+     */
+    private static String getIndexKey( Dn dn )
+    {
+        StringBuilder sb = new StringBuilder();
+        List<Rdn> rdns = dn.getRdns();
+
+        for ( int i = rdns.size() - 1; i >= 0; i-- )
+        {
+            sb.append( rdns.get( i ).getNormName() ).append( '\u0000' );
+        }
+
+        return sb.toString();
+    }
 }
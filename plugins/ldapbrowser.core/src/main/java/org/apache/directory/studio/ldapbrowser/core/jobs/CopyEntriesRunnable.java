@@ -24,7 +24,9 @@ package org.apache.directory.studio.ldapbrowser.core.jobs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.naming.directory.SearchControls;
 
@@ -53,14 +55,15 @@ import org.apache.directory.studio.ldapbrowser.core.jobs.EntryExistsCopyStrategy
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
+import org.apache.directory.studio.ldapbrowser.core.model.SearchParameter;
 import org.apache.directory.studio.ldapbrowser.core.utils.ModelConverter;
+import org.eclipse.osgi.util.NLS;
 
 
 /**
  * Runnable to copy entries asynchronously.
  * 
  * TODO: implement overwrite strategy
- * TODO: implement remember selection
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -154,32 +157,40 @@ public class CopyEntriesRunnable implements StudioConnectionBulkRunnableWithProg
 
         monitor.reportProgress( " " ); //$NON-NLS-1$
         monitor.worked( 1 );
+        monitor.beginProgressCount( BrowserCoreMessages.model__copied_n_entries );
 
-        if ( scope == SearchScope.OBJECT || scope == SearchScope.ONELEVEL || scope == SearchScope.SUBTREE )
+        try
         {
-            StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
-            int copyScope = scope == SearchScope.SUBTREE ? SearchControls.SUBTREE_SCOPE
-                : scope == SearchScope.ONELEVEL ? SearchControls.ONELEVEL_SCOPE : SearchControls.OBJECT_SCOPE;
-
-            int num = 0;
-            for ( int i = 0; !monitor.isCanceled() && i < entriesToCopy.length; i++ )
+            if ( scope == SearchScope.OBJECT || scope == SearchScope.ONELEVEL || scope == SearchScope.SUBTREE )
             {
-                IEntry entryToCopy = entriesToCopy[i];
+                StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
+                int copyScope = scope == SearchScope.SUBTREE ? SearchControls.SUBTREE_SCOPE
+                    : scope == SearchScope.ONELEVEL ? SearchControls.ONELEVEL_SCOPE : SearchControls.OBJECT_SCOPE;
 
-                if ( scope == SearchScope.OBJECT
-                    || !parent.getDn().getNormName().endsWith( entryToCopy.getDn().getNormName() ) )
+                int num = 0;
+                for ( int i = 0; !monitor.isCanceled() && i < entriesToCopy.length; i++ )
                 {
-                    dummyMonitor.reset();
-                    num = copyEntry( entryToCopy, parent, null, copyScope, num, dialog, dummyMonitor, monitor );
-                }
-                else
-                {
-                    monitor.reportError( BrowserCoreMessages.jobs__copy_entries_source_and_target_are_equal );
+                    IEntry entryToCopy = entriesToCopy[i];
+
+                    if ( scope == SearchScope.OBJECT
+                        || !parent.getDn().getNormName().endsWith( entryToCopy.getDn().getNormName() ) )
+                    {
+                        dummyMonitor.reset();
+                        num = copyEntry( entryToCopy, parent, null, copyScope, num, dialog, dummyMonitor, monitor );
+                    }
+                    else
+                    {
+                        monitor.reportError( BrowserCoreMessages.jobs__copy_entries_source_and_target_are_equal );
+                    }
                 }
-            }
 
-            parent.setChildrenInitialized( false );
-            parent.setHasChildrenHint( true );
+                parent.setChildrenInitialized( false );
+                parent.setHasChildrenHint( true );
+            }
+        }
+        finally
+        {
+            monitor.endProgressCount();
         }
     }
 
@@ -216,6 +227,34 @@ public class CopyEntriesRunnable implements StudioConnectionBulkRunnableWithProg
      */
     static int copyEntry( IEntry entryToCopy, IEntry parent, Rdn newRdn, int scope, int numberOfCopiedEntries,
         EntryExistsCopyStrategyDialog dialog, StudioProgressMonitor dummyMonitor, StudioProgressMonitor monitor )
+    {
+        return copyEntry( entryToCopy, parent, newRdn, scope, numberOfCopiedEntries, dialog, null, dummyMonitor,
+            monitor );
+    }
+
+
+    /**
+     * Copy entry. If scope is SearchControls.SUBTREE_SCOPE the entry is copied
+     * recursively. The copied entries are recorded in the given checkpoint, entries
+     * already recorded by an interrupted copy aren't copied again.
+     * 
+     * @param entryToCopy the entry to copy
+     * @param parent the parent entry
+     * @param newRdn the new Rdn, if null the Rdn of the entry is used
+     * @param scope the copy scope
+     * @param numberOfCopiedEntries the number of copied entries
+     * @param dialog the dialog to ask for the copy strategy, if null the user won't be
+     *        asked instead the NameAlreadyBoundException it reported to the monitor
+     * @param checkpoint the checkpoint, may be null
+     * @param dummyMonitor the dummy monitor, used for I/O that causes exceptions that 
+     *        should be handled
+     * @param monitor the real monitor
+     * 
+     * @return the number of copied entries
+     */
+    static int copyEntry( IEntry entryToCopy, IEntry parent, Rdn newRdn, int scope, int numberOfCopiedEntries,
+        EntryExistsCopyStrategyDialog dialog, MoveCheckpoint checkpoint, StudioProgressMonitor dummyMonitor,
+        StudioProgressMonitor monitor )
     {
         SearchControls searchControls = new SearchControls();
         searchControls.setCountLimit( 1 );
@@ -251,184 +290,518 @@ public class CopyEntriesRunnable implements StudioConnectionBulkRunnableWithProg
         {
             parentDn = entryToCopy.getDn().getParent();
         }
-        numberOfCopiedEntries = copyEntryRecursive( entryToCopy.getBrowserConnection(), result,
-            parent.getBrowserConnection(), parentDn, newRdn, scope, numberOfCopiedEntries, dialog, dummyMonitor,
-            monitor );
 
-        return numberOfCopiedEntries;
-    }
+        PipelinedCopy copy = new PipelinedCopy( entryToCopy.getBrowserConnection(), parent.getBrowserConnection(),
+            scope, dialog, dummyMonitor, monitor );
+        copy.setCheckpoint( checkpoint );
+        copy.copy( result, parentDn, newRdn );
 
+        return numberOfCopiedEntries + copy.getNumberOfCopiedEntries();
+    }
 
     /**
-     * Copy the entries. If scope is SearchControls.SUBTREE_SCOPE the entries are copied
-     * recursively.
+     * Copies an entry and, depending on the scope, its children or its subtree.
      * 
-     * @param sourceBrowserConnection the source browser connection
-     * @param entries the source entries to copy
-     * @param targetBrowserConnection the target browser connection
-     * @param parentDn the target parent Dn
-     * @param newRdn the new Rdn, if null the original Rdn of each entry is used
-     * @param scope the copy scope
-     * @param numberOfCopiedEntries the number of copied entries
-     * @param dialog the dialog to ask for the copy strategy, if null the user won't be
-     *        asked instead the NameAlreadyBoundException it reported to the monitor
-     * @param dummyMonitor the dummy monitor, used for I/O that causes exceptions that 
-     *        should be handled
-     * @param monitor the real monitor
+     * The source entries are read with a single paged search and streamed into
+     * batches of add requests that are pipelined on the target connection. An
+     * entry is only added after its parent was created, entries whose parent 
+     * isn't created yet wait until the batch containing the parent is done,
+     * an error is reported for entries whose parent is never created.
+     * The search responses are buffered by the source connection while the
+     * add requests of a batch are in flight, so reads and writes overlap.
      * 
-     * @return the number of copied entries
+     * Entries that already exist are collected and resolved after each batch, 
+     * a remembered copy strategy is applied to all following conflicts.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
      */
-    static int copyEntryRecursive( IBrowserConnection sourceBrowserConnection, StudioSearchResultEnumeration entries,
-        IBrowserConnection targetBrowserConnection, Dn parentDn, Rdn forceNewRdn, int scope,
-        int numberOfCopiedEntries, EntryExistsCopyStrategyDialog dialog, StudioProgressMonitor dummyMonitor,
-        StudioProgressMonitor monitor )
+    static class PipelinedCopy
     {
-        try
+        /** The number of entries of a batch. */
+        private static final int BATCH_SIZE = 500;
+
+        /** The maximum number of outstanding add requests. */
+        private static final int ADD_PIPELINE_WINDOW = 32;
+
+        /** The page size of the source search if the connection doesn't use paged searches. */
+        private static final int SEARCH_PAGE_SIZE = 1000;
+
+        private IBrowserConnection sourceBrowserConnection;
+        private IBrowserConnection targetBrowserConnection;
+        private int scope;
+        private EntryExistsCopyStrategyDialog dialog;
+        private StudioProgressMonitor dummyMonitor;
+        private StudioProgressMonitor monitor;
+
+        /** The target Dns of the created entries whose children must be copied, key is the normalized source Dn */
+        private Map<String, Dn> targetDns = new HashMap<>();
+
+        /** The entries whose parent isn't created yet, key is the normalized source Dn of the parent */
+        private Map<String, List<Entry>> waitingEntries = new HashMap<>();
+
+        /** The entries whose parent was created, with target Dn and attributes */
+        private List<CopyItem> readyItems = new ArrayList<>();
+
+        /** The checkpoint to record the copied entries, may be null */
+        private MoveCheckpoint checkpoint;
+
+        private int numberOfCopiedEntries;
+
+
+        /**
+         * Creates a new instance of PipelinedCopy.
+         * 
+         * @param sourceBrowserConnection the source browser connection
+         * @param targetBrowserConnection the target browser connection
+         * @param scope the copy scope
+         * @param dialog the dialog to ask for the copy strategy, if null the user won't be
+         *        asked instead the NameAlreadyBoundException it reported to the monitor
+         * @param dummyMonitor the dummy monitor, used for I/O that causes exceptions that 
+         *        should be handled
+         * @param monitor the real monitor
+         */
+        PipelinedCopy( IBrowserConnection sourceBrowserConnection, IBrowserConnection targetBrowserConnection,
+            int scope, EntryExistsCopyStrategyDialog dialog, StudioProgressMonitor dummyMonitor,
+            StudioProgressMonitor monitor )
+        {
+            this.sourceBrowserConnection = sourceBrowserConnection;
+            this.targetBrowserConnection = targetBrowserConnection;
+            this.scope = scope;
+            this.dialog = dialog;
+            this.dummyMonitor = dummyMonitor;
+            this.monitor = monitor;
+        }
+
+
+        /**
+         * Sets the checkpoint to record the copied entries. Entries that are
+         * already recorded in the checkpoint aren't copied again.
+         * 
+         * @param checkpoint the checkpoint, may be null
+         */
+        void setCheckpoint( MoveCheckpoint checkpoint )
         {
-            while ( !monitor.isCanceled() && entries.hasMore() )
+            this.checkpoint = checkpoint;
+        }
+
+
+        /**
+         * Gets the number of copied entries.
+         * 
+         * @return the number of copied entries
+         */
+        int getNumberOfCopiedEntries()
+        {
+            return numberOfCopiedEntries;
+        }
+
+
+        /**
+         * Copies the entries. If scope is SearchControls.ONELEVEL_SCOPE or SearchControls.SUBTREE_SCOPE
+         * the children or the subtrees of the entries are copied too.
+         * 
+         * @param entries the source entries to copy
+         * @param parentDn the target parent Dn
+         * @param forceNewRdn the new Rdn, if null the original Rdn of each entry is used
+         */
+        void copy( StudioSearchResultEnumeration entries, Dn parentDn, Rdn forceNewRdn )
+        {
+            try
             {
-                // get next entry to copy
-                Entry entry = entries.next().getEntry();
-                Dn oldLdapDn = entry.getDn();
-                Rdn oldRdn = oldLdapDn.getRdn();
-
-                // compose new Dn
-                Rdn newRdn = oldLdapDn.getRdn();
-                if ( forceNewRdn != null )
+                while ( !monitor.isCanceled() && !monitor.errorsReported() && entries.hasMore() )
                 {
-                    newRdn = forceNewRdn;
-                }
-                Dn newLdapDn = parentDn.add( newRdn );
-                entry.setDn( newLdapDn );
+                    Entry entry = entries.next().getEntry();
+                    Dn sourceDn = entry.getDn();
 
-                // apply new Rdn to the attributes
-                applyNewRdn( entry, oldRdn, newRdn );
+                    // compose new Dn and apply new Rdn to the attributes
+                    Rdn newRdn = forceNewRdn != null ? forceNewRdn : sourceDn.getRdn();
+                    applyNewRdn( entry, sourceDn.getRdn(), newRdn );
+                    readyItems.add( new CopyItem( sourceDn, entry, parentDn.add( newRdn ),
+                        scope == SearchControls.ONELEVEL_SCOPE || scope == SearchControls.SUBTREE_SCOPE ) );
 
-                // ManageDsaIT control
-                Control[] controls = null;
-                if ( entry.hasObjectClass( SchemaConstants.REFERRAL_OC ) )
-                {
-                    controls = new Control[]
-                        { Controls.MANAGEDSAIT_CONTROL };
+                    if ( !flush() )
+                    {
+                        return;
+                    }
+
+                    if ( scope == SearchControls.ONELEVEL_SCOPE || scope == SearchControls.SUBTREE_SCOPE )
+                    {
+                        copyChildren( sourceDn );
+                    }
                 }
+            }
+            catch ( Exception e )
+            {
+                monitor.reportError( e );
+            }
+        }
 
-                // create entry
-                targetBrowserConnection.getConnection().getConnectionWrapper()
-                    .createEntry( entry, controls, dummyMonitor, null );
 
-                while ( dummyMonitor.errorsReported() )
+        /**
+         * Copies the children or the subtree of the given source entry, the entry
+         * itself must be created already.
+         * 
+         * @param sourceDn the source Dn
+         */
+        private void copyChildren( Dn sourceDn ) throws Exception
+        {
+            if ( !targetDns.containsKey( sourceDn.getNormName() ) )
+            {
+                // the entry wasn't created
+                return;
+            }
+
+            SearchParameter parameter = new SearchParameter();
+            parameter.setSearchBase( sourceDn );
+            parameter.setFilter( ISearch.FILTER_TRUE );
+            parameter.setScope( scope == SearchControls.SUBTREE_SCOPE ? SearchScope.SUBTREE : SearchScope.ONELEVEL );
+            parameter.setReturningAttributes( new String[]
+                { SchemaConstants.ALL_USER_ATTRIBUTES, SchemaConstants.REF_AT } );
+            parameter.setAliasesDereferencingMethod( AliasDereferencingMethod.NEVER );
+            parameter.setReferralsHandlingMethod( ReferralHandlingMethod.IGNORE );
+            SearchRunnable.addPagedResultsControl( sourceBrowserConnection, parameter, SEARCH_PAGE_SIZE );
+
+            StudioSearchResultEnumeration result = SearchRunnable.search( sourceBrowserConnection, parameter,
+                monitor );
+
+            while ( result != null && !monitor.isCanceled() && !monitor.errorsReported() )
+            {
+                while ( !monitor.isCanceled() && result.hasMore() )
                 {
-                    if ( dialog != null
-                        && StudioLdapException.isEntryAlreadyExistsException( dummyMonitor.getException() ) )
+                    Entry entry = result.next().getEntry();
+
+                    if ( !sourceDn.equals( entry.getDn() ) )
                     {
-                        // open dialog
-                        dialog.setExistingEntry( targetBrowserConnection, newLdapDn );
-                        dialog.open();
-                        EntryExistsCopyStrategy strategy = dialog.getStrategy();
+                        addEntry( entry );
 
-                        if ( strategy != null )
+                        if ( readyItems.size() >= BATCH_SIZE && !flush() )
                         {
-                            dummyMonitor.reset();
+                            return;
+                        }
+                    }
+                }
 
-                            switch ( strategy )
-                            {
-                                case BREAK:
-                                    monitor.setCanceled( true );
-                                    break;
+                result = SearchRunnable.searchNextPage( sourceBrowserConnection, parameter, result, monitor );
+            }
 
-                                case IGNORE_AND_CONTINUE:
-                                    break;
+            // copy the remaining entries, each batch may release the children of its entries
+            while ( !readyItems.isEmpty() )
+            {
+                if ( !flush() )
+                {
+                    return;
+                }
+            }
 
-                                case OVERWRITE_AND_CONTINUE:
-                                    // create modifications
-                                    Collection<Modification> modifications = ModelConverter
-                                        .toReplaceModifications( entry );
+            // entries whose parent wasn't returned by the search can't be copied
+            reportWaitingEntries();
+        }
 
-                                    // modify entry
-                                    targetBrowserConnection
-                                        .getConnection()
-                                        .getConnectionWrapper()
-                                        .modifyEntry( newLdapDn, modifications, null, dummyMonitor, null );
 
-                                    // force reload of attributes
-                                    IEntry newEntry = targetBrowserConnection.getEntryFromCache( newLdapDn );
-                                    if ( newEntry != null )
-                                    {
-                                        newEntry.setAttributesInitialized( false );
-                                    }
+        /**
+         * Reports an error for each entry that still waits for its parent and removes
+         * these entries. They can't be copied as their parent wasn't returned by the
+         * search, e.g. because it isn't readable.
+         */
+        private void reportWaitingEntries()
+        {
+            for ( List<Entry> entries : waitingEntries.values() )
+            {
+                for ( Entry entry : entries )
+                {
+                    monitor.reportError( NLS.bind( BrowserCoreMessages.jobs__copy_entries_parent_not_copied,
+                        entry.getDn().getName() ) );
+                }
+            }
 
-                                    break;
+            waitingEntries.clear();
+        }
 
-                                case RENAME_AND_CONTINUE:
-                                    Rdn renamedRdn = dialog.getRdn();
 
-                                    // apply renamed Rdn to the attributes
-                                    applyNewRdn( entry, newRdn, renamedRdn );
+        /**
+         * Adds a source entry, it is ready to be created if its parent was created,
+         * otherwise it waits for its parent.
+         * 
+         * @param entry the source entry
+         */
+        private void addEntry( Entry entry )
+        {
+            Dn sourceDn = entry.getDn();
+            String parentKey = sourceDn.getParent().getNormName();
+            Dn targetParentDn = targetDns.get( parentKey );
 
-                                    // compose new Dn
-                                    newLdapDn = parentDn.add( renamedRdn );
-                                    entry.setDn( newLdapDn );
+            if ( targetParentDn != null )
+            {
+                try
+                {
+                    readyItems.add( new CopyItem( sourceDn, entry, targetParentDn.add( sourceDn.getRdn() ),
+                        scope == SearchControls.SUBTREE_SCOPE ) );
+                }
+                catch ( LdapException e )
+                {
+                    monitor.reportError( e );
+                }
+            }
+            else
+            {
+                waitingEntries.computeIfAbsent( parentKey, k -> new ArrayList<>() ).add( entry );
+            }
+        }
 
-                                    // create entry
-                                    targetBrowserConnection.getConnection().getConnectionWrapper()
-                                        .createEntry( entry, null, dummyMonitor, null );
 
-                                    break;
-                            }
-                        }
-                        else
+        /**
+         * Creates the ready entries with pipelined add requests and resolves the conflicts.
+         * 
+         * @return false if the copy process must be stopped
+         */
+        private boolean flush()
+        {
+            List<CopyItem> batch = readyItems;
+            readyItems = new ArrayList<>();
+
+            // referrals are created with the ManageDsaIT control
+            List<CopyItem> items = new ArrayList<>();
+            List<CopyItem> referralItems = new ArrayList<>();
+            for ( CopyItem item : batch )
+            {
+                if ( checkpoint != null && checkpoint.isCopied( item.sourceDn ) )
+                {
+                    // already copied by an interrupted copy process
+                    entryCreated( item );
+                }
+                else
+                {
+                    ( item.entry.hasObjectClass( SchemaConstants.REFERRAL_OC ) ? referralItems : items ).add( item );
+                }
+            }
+
+            List<CopyItem> conflicts = new ArrayList<>();
+            if ( !createEntries( items, null, conflicts )
+                || !createEntries( referralItems, new Control[]
+                    { Controls.MANAGEDSAIT_CONTROL }, conflicts ) )
+            {
+                return false;
+            }
+
+            for ( CopyItem conflict : conflicts )
+            {
+                if ( !resolveConflict( conflict ) )
+                {
+                    return false;
+                }
+            }
+
+            if ( checkpoint != null )
+            {
+                checkpoint.flush();
+            }
+
+            return !monitor.isCanceled();
+        }
+
+
+        private boolean createEntries( List<CopyItem> items, Control[] controls, List<CopyItem> conflicts )
+        {
+            if ( items.isEmpty() )
+            {
+                return true;
+            }
+
+            List<Entry> entries = new ArrayList<>( items.size() );
+            for ( CopyItem item : items )
+            {
+                entries.add( item.entry );
+            }
+
+            dummyMonitor.reset();
+            StudioLdapException[] results = targetBrowserConnection.getConnection().getConnectionWrapper()
+                .createEntries( entries, controls, ADD_PIPELINE_WINDOW, dummyMonitor );
+
+            if ( dummyMonitor.isCanceled() )
+            {
+                monitor.setCanceled( true );
+                return false;
+            }
+            else if ( dummyMonitor.errorsReported() )
+            {
+                monitor.reportError( dummyMonitor.getException() );
+                return false;
+            }
+
+            for ( int i = 0; i < results.length; i++ )
+            {
+                if ( results[i] == null )
+                {
+                    entryCreated( items.get( i ) );
+                }
+                else if ( checkpoint != null && checkpoint.isAlreadyCopied( results[i] ) )
+                {
+                    // added by the interrupted copy process after its last checkpoint
+                    entryCreated( items.get( i ) );
+                }
+                else if ( dialog != null && StudioLdapException.isEntryAlreadyExistsException( results[i] ) )
+                {
+                    conflicts.add( items.get( i ) );
+                }
+                else
+                {
+                    monitor.reportError( results[i] );
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+
+        /**
+         * Resolves the conflict of an already existing entry, using the remembered
+         * copy strategy or the strategy selected in the dialog.
+         * 
+         * @param item the entry that already exists
+         * @return false if the copy process must be stopped
+         */
+        private boolean resolveConflict( CopyItem item )
+        {
+            dummyMonitor.reset();
+            dummyMonitor.reportError( new StudioLdapException( new LdapEntryAlreadyExistsException() ) );
+
+            while ( dummyMonitor.errorsReported() )
+            {
+                if ( !StudioLdapException.isEntryAlreadyExistsException( dummyMonitor.getException() ) )
+                {
+                    monitor.reportError( dummyMonitor.getException() );
+                    return false;
+                }
+
+                // open dialog, unless the selected strategy should be remembered
+                if ( !dialog.isRememberSelection() )
+                {
+                    dialog.setExistingEntry( targetBrowserConnection, item.targetDn );
+                    dialog.open();
+                }
+                EntryExistsCopyStrategy strategy = dialog.getStrategy();
+
+                if ( strategy == null )
+                {
+                    monitor.reportError( dummyMonitor.getException() );
+                    return false;
+                }
+
+                dummyMonitor.reset();
+
+                switch ( strategy )
+                {
+                    case BREAK:
+                        monitor.setCanceled( true );
+                        return false;
+
+                    case IGNORE_AND_CONTINUE:
+                        break;
+
+                    case OVERWRITE_AND_CONTINUE:
+                        // create modifications
+                        Collection<Modification> modifications = ModelConverter
+                            .toReplaceModifications( item.entry );
+
+                        // modify entry
+                        targetBrowserConnection.getConnection().getConnectionWrapper()
+                            .modifyEntry( item.targetDn, modifications, null, dummyMonitor, null );
+
+                        // force reload of attributes
+                        IEntry newEntry = targetBrowserConnection.getEntryFromCache( item.targetDn );
+                        if ( newEntry != null )
                         {
-                            monitor.reportError( dummyMonitor.getException() );
-                            break;
+                            newEntry.setAttributesInitialized( false );
                         }
-                    }
-                    else
-                    {
-                        monitor.reportError( dummyMonitor.getException() );
+
                         break;
-                    }
-                }
 
-                if ( !monitor.isCanceled() && !monitor.errorsReported() )
-                {
-                    numberOfCopiedEntries++;
+                    case RENAME_AND_CONTINUE:
+                        Rdn renamedRdn = dialog.getRdn();
 
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.model__copied_n_entries,
-                        new String[]
-                            { Integer.toString( numberOfCopiedEntries ) } ) ); //$NON-NLS-1$
+                        try
+                        {
+                            // apply renamed Rdn to the attributes
+                            applyNewRdn( item.entry, item.targetDn.getRdn(), renamedRdn );
 
-                    // copy recursively
-                    if ( scope == SearchControls.ONELEVEL_SCOPE || scope == SearchControls.SUBTREE_SCOPE )
-                    {
-                        SearchControls searchControls = new SearchControls();
-                        searchControls.setCountLimit( 0 );
-                        searchControls.setReturningAttributes( new String[]
-                            { SchemaConstants.ALL_USER_ATTRIBUTES, SchemaConstants.REF_AT } );
-                        searchControls.setSearchScope( SearchControls.ONELEVEL_SCOPE );
-                        StudioSearchResultEnumeration childEntries = sourceBrowserConnection
-                            .getConnection()
-                            .getConnectionWrapper()
-                            .search( oldLdapDn.getName(), ISearch.FILTER_TRUE, searchControls,
-                                AliasDereferencingMethod.NEVER, ReferralHandlingMethod.IGNORE, null, monitor, null );
-
-                        if ( scope == SearchControls.ONELEVEL_SCOPE )
+                            // compose new Dn
+                            item.targetDn = item.targetDn.getParent().add( renamedRdn );
+                            item.entry.setDn( item.targetDn );
+                        }
+                        catch ( LdapException e )
                         {
-                            scope = SearchControls.OBJECT_SCOPE;
+                            monitor.reportError( e );
+                            return false;
                         }
 
-                        numberOfCopiedEntries = copyEntryRecursive( sourceBrowserConnection, childEntries,
-                            targetBrowserConnection, newLdapDn, null, scope, numberOfCopiedEntries, dialog,
-                            dummyMonitor, monitor );
-                    }
+                        // create entry
+                        targetBrowserConnection.getConnection().getConnectionWrapper()
+                            .createEntry( item.entry, null, dummyMonitor, null );
+
+                        break;
                 }
             }
+
+            entryCreated( item );
+
+            return true;
         }
-        catch ( Exception e )
+
+
+        /**
+         * Counts the created entry and releases its waiting children.
+         * 
+         * @param item the created entry
+         */
+        private void entryCreated( CopyItem item )
         {
-            monitor.reportError( e );
+            numberOfCopiedEntries++;
+            monitor.incrementProgressCount();
+
+            if ( checkpoint != null )
+            {
+                checkpoint.copied( item.sourceDn );
+            }
+
+            if ( item.copyChildren )
+            {
+                String key = item.sourceDn.getNormName();
+                targetDns.put( key, item.targetDn );
+
+                List<Entry> children = waitingEntries.remove( key );
+                if ( children != null )
+                {
+                    for ( Entry child : children )
+                    {
+                        addEntry( child );
+                    }
+                }
+            }
         }
+    }
 
-        return numberOfCopiedEntries;
+    /**
+     * An entry to copy, the source Dn and the entry with the target Dn.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+     */
+    private static class CopyItem
+    {
+        private Dn sourceDn;
+        private Entry entry;
+        private Dn targetDn;
+        private boolean copyChildren;
+
+
+        private CopyItem( Dn sourceDn, Entry entry, Dn targetDn, boolean copyChildren )
+        {
+            this.sourceDn = sourceDn;
+            this.entry = entry;
+            this.targetDn = targetDn;
+            this.copyChildren = copyChildren;
+            entry.setDn( targetDn );
+        }
     }
 
 
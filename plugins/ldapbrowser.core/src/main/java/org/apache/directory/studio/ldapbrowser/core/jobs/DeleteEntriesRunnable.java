@@ -24,14 +24,18 @@ package org.apache.directory.studio.ldapbrowser.core.jobs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import javax.naming.directory.SearchControls;
 
 import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.Connection;
@@ -50,17 +54,20 @@ import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
+import org.apache.directory.studio.ldapbrowser.core.model.SearchParameter;
 import org.apache.directory.studio.ldapbrowser.core.utils.JNDIUtils;
 
 
 /**
  * Runnable to delete entries.
  * 
- * Deletes the entry recursively in a optimistic way:
+ * Deletes the entry recursively:
  * <ol>
- * <li>Delete the entry
- * <li>If that fails with error code 66 then perform a one-level search
- *     and start from 1. for each entry. 
+ * <li>Delete the entry, using the tree delete control if requested and supported
+ * <li>If that fails with error code 66 then enumerate the subtree with a paged
+ *     subtree search and delete the found entries level by level, deepest level
+ *     first, pipelining the deletes of each level
+ * <li>Delete the entry again
  * </ol>
  *
  * TODO: delete subentries?
@@ -81,6 +88,12 @@ public class DeleteEntriesRunnable implements StudioConnectionBulkRunnableWithPr
     /** The use tree delete control flag. */
     private boolean useTreeDeleteControl;
 
+    /** The page size of the subtree search if the connection doesn't use paged searches. */
+    private static final int SUBTREE_SEARCH_PAGE_SIZE = 1000;
+
+    /** The maximum number of outstanding delete requests. */
+    private static final int DELETE_PIPELINE_WINDOW = 32;
+
 
     /**
      * Creates a new instance of DeleteEntriesRunnable. 
@@ -157,69 +170,77 @@ public class DeleteEntriesRunnable implements StudioConnectionBulkRunnableWithPr
                     { Integer.toString( entriesToDelete.size() ) } ), 2 + entriesToDelete.size() );
         monitor.reportProgress( " " ); //$NON-NLS-1$
         monitor.worked( 1 );
+        monitor.beginProgressCount( BrowserCoreMessages.model__deleted_n_entries );
 
-        int num = 0;
-        StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
-        for ( Iterator<IEntry> iterator = entriesToDelete.iterator(); !monitor.isCanceled()
-            && !monitor.errorsReported() && iterator.hasNext(); )
+        try
         {
-            IEntry entryToDelete = iterator.next();
-            IBrowserConnection browserConnection = entryToDelete.getBrowserConnection();
+            int num = 0;
+            StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
+            for ( Iterator<IEntry> iterator = entriesToDelete.iterator(); !monitor.isCanceled()
+                && !monitor.errorsReported() && iterator.hasNext(); )
+            {
+                IEntry entryToDelete = iterator.next();
+                IBrowserConnection browserConnection = entryToDelete.getBrowserConnection();
 
-            // delete from directory
-            int errorStatusSize1 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
-            num = optimisticDeleteEntryRecursive( browserConnection, entryToDelete.getDn(), entryToDelete.isReferral(),
-                useTreeDeleteControl, num, dummyMonitor, monitor );
-            int errorStatusSize2 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
+                // delete from directory
+                int errorStatusSize1 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
+                num = deleteEntryRecursive( browserConnection, entryToDelete.getDn(), entryToDelete.isReferral(),
+                    useTreeDeleteControl, num, dummyMonitor, monitor );
+                int errorStatusSize2 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
 
-            if ( !monitor.isCanceled() )
-            {
-                if ( errorStatusSize1 == errorStatusSize2 )
+                if ( !monitor.isCanceled() )
                 {
-                    // delete
-                    deletedEntriesSet.add( entryToDelete );
-                    //entryToDelete.setChildrenInitialized( false );
+                    if ( errorStatusSize1 == errorStatusSize2 )
+                    {
+                        // delete
+                        deletedEntriesSet.add( entryToDelete );
+                        //entryToDelete.setChildrenInitialized( false );
 
-                    // delete from parent entry
-                    entryToDelete.getParententry().setChildrenInitialized( false );
-                    entryToDelete.getParententry().deleteChild( entryToDelete );
+                        // delete from parent entry
+                        entryToDelete.getParententry().setChildrenInitialized( false );
+                        entryToDelete.getParententry().deleteChild( entryToDelete );
 
-                    // delete from searches
-                    List<ISearch> searches = browserConnection.getSearchManager().getSearches();
-                    for ( ISearch search : searches )
-                    {
-                        if ( search.getSearchResults() != null )
+                        // delete from searches
+                        List<ISearch> searches = browserConnection.getSearchManager().getSearches();
+                        for ( ISearch search : searches )
                         {
-                            ISearchResult[] searchResults = search.getSearchResults();
-                            List<ISearchResult> searchResultList = new ArrayList<ISearchResult>();
-                            searchResultList.addAll( Arrays.asList( searchResults ) );
-                            for ( Iterator<ISearchResult> it = searchResultList.iterator(); it.hasNext(); )
+                            if ( search.getSearchResults() != null )
                             {
-                                ISearchResult result = it.next();
-                                if ( entryToDelete.equals( result.getEntry() ) )
+                                ISearchResult[] searchResults = search.getSearchResults();
+                                List<ISearchResult> searchResultList = new ArrayList<ISearchResult>();
+                                searchResultList.addAll( Arrays.asList( searchResults ) );
+                                for ( Iterator<ISearchResult> it = searchResultList.iterator(); it.hasNext(); )
                                 {
-                                    it.remove();
-                                    searchesToUpdateSet.add( search );
+                                    ISearchResult result = it.next();
+                                    if ( entryToDelete.equals( result.getEntry() ) )
+                                    {
+                                        it.remove();
+                                        searchesToUpdateSet.add( search );
+                                    }
+                                }
+                                if ( searchesToUpdateSet.contains( search ) )
+                                {
+                                    search.setSearchResults( searchResultList
+                                        .toArray( new ISearchResult[searchResultList.size()] ) );
                                 }
-                            }
-                            if ( searchesToUpdateSet.contains( search ) )
-                            {
-                                search.setSearchResults( searchResultList.toArray( new ISearchResult[searchResultList
-                                    .size()] ) );
                             }
                         }
-                    }
 
-                    // delete from cache
-                    browserConnection.uncacheEntryRecursive( entryToDelete );
+                        // delete from cache
+                        browserConnection.uncacheEntryRecursive( entryToDelete );
+                    }
+                }
+                else
+                {
+                    entryToDelete.setChildrenInitialized( false );
                 }
-            }
-            else
-            {
-                entryToDelete.setChildrenInitialized( false );
-            }
 
-            monitor.worked( 1 );
+                monitor.worked( 1 );
+            }
+        }
+        finally
+        {
+            monitor.endProgressCount();
         }
     }
 
@@ -243,6 +264,185 @@ public class DeleteEntriesRunnable implements StudioConnectionBulkRunnableWithPr
     }
 
 
+    /**
+     * Deletes the entry recursively:
+     * <ol>
+     * <li>Deletes the entry, if the tree delete control is used the whole subtree is deleted
+     * <li>If that fails because the entry has children then enumerates the subtree once
+     * with a paged subtree search and deletes the found entries level by level, deepest
+     * level first, the deletes of one level are pipelined
+     * <li>Deletes the entry again
+     * </ol>
+     * Entries that couldn't be deleted that way are deleted with
+     * {@link #optimisticDeleteEntryRecursive(IBrowserConnection, Dn, boolean, boolean, int, StudioProgressMonitor, StudioProgressMonitor)}.
+     * 
+     * @param browserConnection the browser connection
+     * @param dn the Dn to delete
+     * @param useManageDsaItControl true to use the ManageDsaIT control
+     * @param useTreeDeleteControl true to use the tree delete control
+     * @param numberOfDeletedEntries the number of deleted entries
+     * @param dummyMonitor the dummy monitor
+     * @param monitor the progress monitor
+     * 
+     * @return the cumulative number of deleted entries
+     */
+    static int deleteEntryRecursive( IBrowserConnection browserConnection, Dn dn, boolean useManageDsaItControl,
+        boolean useTreeDeleteControl, int numberOfDeletedEntries, StudioProgressMonitor dummyMonitor,
+        StudioProgressMonitor monitor )
+    {
+        // try to delete entry
+        dummyMonitor.reset();
+        deleteEntry( browserConnection, dn, useManageDsaItControl, useTreeDeleteControl, dummyMonitor );
+
+        if ( !dummyMonitor.errorsReported() )
+        {
+            numberOfDeletedEntries++;
+            monitor.incrementProgressCount();
+            return numberOfDeletedEntries;
+        }
+        else if ( !StudioLdapException.isContextNotEmptyException( dummyMonitor.getException() ) )
+        {
+            // we have another exception, report it to the real monitor
+            monitor.reportError( dummyMonitor.getException() );
+            return numberOfDeletedEntries;
+        }
+
+        boolean complete;
+        do
+        {
+            // enumerate the subtree, the Dns are grouped by level, deepest level first
+            dummyMonitor.reset();
+            SortedMap<Integer, List<Dn>> levels = new TreeMap<Integer, List<Dn>>( Collections.reverseOrder() );
+            complete = searchSubtree( browserConnection, dn, levels, dummyMonitor );
+
+            if ( dummyMonitor.isCanceled() )
+            {
+                return numberOfDeletedEntries;
+            }
+            else if ( dummyMonitor.errorsReported() )
+            {
+                // the subtree can't be enumerated, fall back to one-level searches
+                return optimisticDeleteEntryRecursive( browserConnection, dn, false, false, numberOfDeletedEntries,
+                    dummyMonitor, monitor );
+            }
+            else if ( levels.isEmpty() )
+            {
+                break;
+            }
+
+            // delete level by level, the entries of a level don't depend on each other
+            for ( List<Dn> level : levels.values() )
+            {
+                dummyMonitor.reset();
+                StudioLdapException[] results = browserConnection.getConnection().getConnectionWrapper()
+                    .deleteEntries( level, null, DELETE_PIPELINE_WINDOW, dummyMonitor );
+
+                if ( dummyMonitor.isCanceled() || monitor.isCanceled() )
+                {
+                    return numberOfDeletedEntries;
+                }
+                else if ( dummyMonitor.errorsReported() )
+                {
+                    monitor.reportError( dummyMonitor.getException() );
+                    return numberOfDeletedEntries;
+                }
+
+                for ( int i = 0; i < results.length; i++ )
+                {
+                    if ( results[i] == null )
+                    {
+                        numberOfDeletedEntries++;
+                        monitor.incrementProgressCount();
+                    }
+                    else
+                    {
+                        // e.g. a child was added in the meantime or the entry is a referral
+                        numberOfDeletedEntries = optimisticDeleteEntryRecursive( browserConnection, level.get( i ),
+                            false, false, numberOfDeletedEntries, dummyMonitor, monitor );
+
+                        if ( dummyMonitor.errorsReported() )
+                        {
+                            return numberOfDeletedEntries;
+                        }
+                    }
+                }
+            }
+        }
+        while ( !complete && !monitor.isCanceled() );
+
+        // try to delete the entry again
+        if ( !monitor.isCanceled() )
+        {
+            numberOfDeletedEntries = optimisticDeleteEntryRecursive( browserConnection, dn, false, false,
+                numberOfDeletedEntries, dummyMonitor, monitor );
+        }
+
+        return numberOfDeletedEntries;
+    }
+
+
+    /**
+     * Enumerates the subtree below the given Dn with a paged subtree search
+     * that doesn't return any attributes.
+     * 
+     * @param browserConnection the browser connection
+     * @param dn the Dn of the subtree
+     * @param levels the map to add the found Dns, grouped by the number of RDNs
+     * @param monitor the progress monitor
+     * 
+     * @return false if the search was stopped by a limit and didn't return the whole subtree
+     */
+    private static boolean searchSubtree( IBrowserConnection browserConnection, Dn dn,
+        SortedMap<Integer, List<Dn>> levels, StudioProgressMonitor monitor )
+    {
+        // do not follow referrals or dereference aliases when deleting entries
+        SearchParameter parameter = new SearchParameter();
+        parameter.setSearchBase( dn );
+        parameter.setFilter( ISearch.FILTER_TRUE );
+        parameter.setScope( SearchScope.SUBTREE );
+        parameter.setReturningAttributes( new String[0] );
+        parameter.setAliasesDereferencingMethod( AliasDereferencingMethod.NEVER );
+        parameter.setReferralsHandlingMethod( ReferralHandlingMethod.IGNORE );
+
+        SearchRunnable.addPagedResultsControl( browserConnection, parameter, SUBTREE_SEARCH_PAGE_SIZE );
+
+        try
+        {
+            StudioSearchResultEnumeration result = SearchRunnable.search( browserConnection, parameter, monitor );
+
+            while ( result != null && !monitor.isCanceled() && !monitor.errorsReported() )
+            {
+                while ( !monitor.isCanceled() && result.hasMore() )
+                {
+                    Dn childDn = result.next().getDn();
+
+                    if ( !dn.equals( childDn ) )
+                    {
+                        levels.computeIfAbsent( childDn.size(), k -> new ArrayList<Dn>() ).add( childDn );
+                    }
+                }
+
+                result = SearchRunnable.searchNextPage( browserConnection, parameter, result, monitor );
+            }
+        }
+        catch ( Exception e )
+        {
+            int ldapStatusCode = JNDIUtils.getLdapStatusCode( e );
+            if ( ldapStatusCode == 3 || ldapStatusCode == 4 || ldapStatusCode == 11 )
+            {
+                // delete the found entries and search again
+                return false;
+            }
+            else
+            {
+                monitor.reportError( e );
+            }
+        }
+
+        return true;
+    }
+
+
     /**
      * Deletes the entry recursively in a optimistic way:
      * <ol>
@@ -272,9 +472,7 @@ public class DeleteEntriesRunnable implements StudioConnectionBulkRunnableWithPr
         if ( !dummyMonitor.errorsReported() )
         {
             numberOfDeletedEntries++;
-            monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.model__deleted_n_entries,
-                new String[]
-                    { "" + numberOfDeletedEntries } ) ); //$NON-NLS-1$
+            monitor.incrementProgressCount();
         }
         else if ( StudioLdapException.isContextNotEmptyException( dummyMonitor.getException() ) )
         {
@@ -335,9 +533,7 @@ public class DeleteEntriesRunnable implements StudioConnectionBulkRunnableWithPr
             if ( !dummyMonitor.errorsReported() )
             {
                 numberOfDeletedEntries++;
-                monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.model__deleted_n_entries,
-                    new String[]
-                        { "" + numberOfDeletedEntries } ) ); //$NON-NLS-1$
+                monitor.incrementProgressCount();
             }
         }
         else
@@ -171,8 +171,7 @@ public class ExportCsvRunnable implements StudioConnectionRunnableWithProgress
             bufferedWriter.write( BrowserCoreConstants.LINE_SEPARATOR );
 
             // export
-            int count = 0;
-            exportToCsv( browserConnection, searchParameter, bufferedWriter, count, monitor, exportAttributes,
+            exportToCsv( browserConnection, searchParameter, bufferedWriter, monitor, exportAttributes,
                 attributeDelimiter, valueDelimiter, quoteCharacter, lineSeparator, encoding, binaryEncoding, exportDn );
 
             // close file
@@ -194,7 +193,6 @@ public class ExportCsvRunnable implements StudioConnectionRunnableWithProgress
      * @param browserConnection the browser connection
      * @param searchParameter the search parameter
      * @param bufferedWriter the buffered writer
-     * @param count the count
      * @param monitor the monitor
      * @param attributes the attributes
      * @param attributeDelimiter the attribute delimiter
@@ -208,13 +206,14 @@ public class ExportCsvRunnable implements StudioConnectionRunnableWithProgress
      * @throws IOException Signals that an I/O exception has occurred.
      */
     private static void exportToCsv( IBrowserConnection browserConnection, SearchParameter searchParameter,
-        BufferedWriter bufferedWriter, int count, StudioProgressMonitor monitor, String[] attributes,
+        BufferedWriter bufferedWriter, StudioProgressMonitor monitor, String[] attributes,
         String attributeDelimiter, String valueDelimiter, String quoteCharacter, String lineSeparator, String encoding,
         int binaryEncoding, boolean exportDn ) throws IOException
     {
         try
         {
             LdifEnumeration enumeration = ExportLdifRunnable.search( browserConnection, searchParameter, monitor );
+            monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
             while ( !monitor.isCanceled() && !monitor.errorsReported() && enumeration.hasNext() )
             {
                 LdifContainer container = enumeration.next();
@@ -226,10 +225,7 @@ public class ExportCsvRunnable implements StudioConnectionRunnableWithProgress
                     bufferedWriter.write( recordToCsv( browserConnection, record, attributes, attributeDelimiter,
                         valueDelimiter, quoteCharacter, lineSeparator, encoding, binaryEncoding, exportDn ) );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
         }
@@ -245,6 +241,10 @@ public class ExportCsvRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( ce );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
     }
 
 
@@ -274,20 +274,16 @@ public class ExportDsmlRunnable implements StudioConnectionRunnableWithProgress
 
         try
         {
-            int count = 0;
-
             if ( !monitor.errorsReported() )
             {
                 // Creating and adding a search result entry or reference for each result
+                monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
                 while ( sre.hasMore() )
                 {
                     Entry entry = sre.next().getEntry();
                     sr.addResponse( convertSearchResultToDsml( entry ) );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
         }
@@ -303,6 +299,10 @@ public class ExportDsmlRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( e );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
 
         // Creating and adding a search result done at the end of the results
         SearchResultDone srd = new SearchResultDoneImpl();
@@ -425,21 +425,17 @@ public class ExportDsmlRunnable implements StudioConnectionRunnableWithProgress
 
         try
         {
-            int count = 0;
-
             if ( !monitor.errorsReported() )
             {
                 // Creating and adding an add request for each result
+                monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
                 while ( sre.hasMore() )
                 {
                     Entry entry = sre.next().getEntry();
                     AddRequestDsml arDsml = convertToAddRequestDsml( entry );
                     batchRequest.addRequest( arDsml );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
         }
@@ -455,6 +451,10 @@ public class ExportDsmlRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( e );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
 
         // Returning the associated DSML
         return batchRequest.toDsml();
@@ -149,8 +149,7 @@ public class ExportLdifRunnable implements StudioConnectionRunnableWithProgress
             BufferedWriter bufferedWriter = new BufferedWriter( fileWriter );
 
             // export
-            int count = 0;
-            export( browserConnection, searchParameter, bufferedWriter, count, monitor );
+            export( browserConnection, searchParameter, bufferedWriter, monitor );
 
             // close file
             bufferedWriter.close();
@@ -165,7 +164,7 @@ public class ExportLdifRunnable implements StudioConnectionRunnableWithProgress
 
 
     private static void export( IBrowserConnection browserConnection, SearchParameter searchParameter,
-        BufferedWriter bufferedWriter, int count, StudioProgressMonitor monitor ) throws IOException
+        BufferedWriter bufferedWriter, StudioProgressMonitor monitor ) throws IOException
     {
         try
         {
@@ -185,6 +184,7 @@ public class ExportLdifRunnable implements StudioConnectionRunnableWithProgress
             }
 
             // add the records
+            monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
             while ( !monitor.isCanceled() && !monitor.errorsReported() && enumeration.hasNext() )
             {
                 LdifContainer container = enumeration.next();
@@ -209,10 +209,7 @@ public class ExportLdifRunnable implements StudioConnectionRunnableWithProgress
                     // String s = record.toFormattedString();
                     bufferedWriter.write( s );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
         }
@@ -228,6 +225,10 @@ public class ExportLdifRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( loe );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
     }
 
 
@@ -175,8 +175,7 @@ public class ExportOdfRunnable implements StudioConnectionRunnableWithProgress
                 searchParameter.setCountLimit( MAX_COUNT_LIMIT );
             }
 
-            int count = 0;
-            exportToOdf( browserConnection, searchParameter, table, headerRow, count, monitor,
+            exportToOdf( browserConnection, searchParameter, table, headerRow, monitor,
                 attributeNameMap, valueDelimiter, binaryEncoding, this.exportDn );
 
             // remove default rows
@@ -198,7 +197,6 @@ public class ExportOdfRunnable implements StudioConnectionRunnableWithProgress
      * @param searchParameter the search parameter
      * @param table the table
      * @param headerRow the header row
-     * @param count the count
      * @param monitor the monitor
      * @param attributeNameMap the attribute name map
      * @param valueDelimiter the value delimiter
@@ -208,13 +206,14 @@ public class ExportOdfRunnable implements StudioConnectionRunnableWithProgress
      * @throws IOException Signals that an I/O exception has occurred.
      */
     private static void exportToOdf( IBrowserConnection browserConnection, SearchParameter searchParameter,
-        Table table, Row headerRow, int count, StudioProgressMonitor monitor,
+        Table table, Row headerRow, StudioProgressMonitor monitor,
         LinkedHashMap<String, Short> attributeNameMap, String valueDelimiter, int binaryEncoding, boolean exportDn )
         throws IOException
     {
         try
         {
             LdifEnumeration enumeration = ExportLdifRunnable.search( browserConnection, searchParameter, monitor );
+            monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
             while ( !monitor.isCanceled() && !monitor.errorsReported() && enumeration.hasNext() )
             {
                 LdifContainer container = enumeration.next();
@@ -225,10 +224,7 @@ public class ExportOdfRunnable implements StudioConnectionRunnableWithProgress
                     recordToOdfRow( browserConnection, record, table, headerRow, attributeNameMap,
                         valueDelimiter, binaryEncoding, exportDn );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
 
@@ -245,6 +241,10 @@ public class ExportOdfRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( ne );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
     }
 
 
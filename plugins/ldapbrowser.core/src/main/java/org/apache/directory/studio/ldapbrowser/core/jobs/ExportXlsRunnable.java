@@ -170,8 +170,7 @@ public class ExportXlsRunnable implements StudioConnectionRunnableWithProgress
         // export
         try
         {
-            int count = 0;
-            exportToXls( browserConnection, searchParameter, sheet, headerRow, count, monitor, attributeNameMap,
+            exportToXls( browserConnection, searchParameter, sheet, headerRow, monitor, attributeNameMap,
                 valueDelimiter, binaryEncoding, this.exportDn );
         }
         catch ( Exception e )
@@ -218,7 +217,6 @@ public class ExportXlsRunnable implements StudioConnectionRunnableWithProgress
      * @param searchParameter the search parameter
      * @param sheet the sheet
      * @param headerRow the header row
-     * @param count the count
      * @param monitor the monitor
      * @param attributeNameMap the attribute name map
      * @param valueDelimiter the value delimiter
@@ -228,13 +226,14 @@ public class ExportXlsRunnable implements StudioConnectionRunnableWithProgress
      * @throws IOException Signals that an I/O exception has occurred.
      */
     private static void exportToXls( IBrowserConnection browserConnection, SearchParameter searchParameter,
-        HSSFSheet sheet, HSSFRow headerRow, int count, StudioProgressMonitor monitor,
+        HSSFSheet sheet, HSSFRow headerRow, StudioProgressMonitor monitor,
         LinkedHashMap<String, Integer> attributeNameMap, String valueDelimiter, int binaryEncoding, boolean exportDn )
         throws IOException
     {
         try
         {
             LdifEnumeration enumeration = ExportLdifRunnable.search( browserConnection, searchParameter, monitor );
+            monitor.beginProgressCount( BrowserCoreMessages.jobs__export_progress );
             while ( !monitor.isCanceled() && !monitor.errorsReported() && enumeration.hasNext() )
             {
                 LdifContainer container = enumeration.next();
@@ -245,10 +244,7 @@ public class ExportXlsRunnable implements StudioConnectionRunnableWithProgress
                     recordToHSSFRow( browserConnection, record, sheet, headerRow, attributeNameMap, valueDelimiter,
                         binaryEncoding, exportDn );
 
-                    count++;
-                    monitor.reportProgress( BrowserCoreMessages.bind( BrowserCoreMessages.jobs__export_progress,
-                        new String[]
-                            { Integer.toString( count ) } ) );
+                    monitor.incrementProgressCount();
                 }
             }
 
@@ -265,6 +261,10 @@ public class ExportXlsRunnable implements StudioConnectionRunnableWithProgress
                 monitor.reportError( ne );
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
     }
 
 
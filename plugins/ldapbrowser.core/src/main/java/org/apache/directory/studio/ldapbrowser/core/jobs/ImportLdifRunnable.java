@@ -255,10 +255,9 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
         }
 
         StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
-        int importedCount = 0;
-        int errorCount = 0;
         try
         {
+            monitor.beginProgressCount( BrowserCoreMessages.ldif__imported_n_entries_m_errors );
             while ( !monitor.isCanceled() && enumeration.hasNext() )
             {
                 LdifContainer container = enumeration.next();
@@ -272,7 +271,7 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
                         importLdifRecord( browserConnection, record, updateIfEntryExists, dummyMonitor );
                         if ( dummyMonitor.errorsReported() )
                         {
-                            errorCount++;
+                            monitor.incrementProgressErrorCount();
                             logModificationError( browserConnection, logWriter, record, dummyMonitor.getException(),
                                 monitor );
 
@@ -284,7 +283,7 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
                         }
                         else
                         {
-                            importedCount++;
+                            monitor.incrementProgressCount();
                             logModification( browserConnection, logWriter, record, monitor );
 
                             // update cache and adjust attribute/children initialization flags
@@ -357,7 +356,7 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
                     catch ( Exception e )
                     {
                         logModificationError( browserConnection, logWriter, record, e, monitor );
-                        errorCount++;
+                        monitor.incrementProgressErrorCount();
 
                         if ( !continueOnError )
                         {
@@ -365,10 +364,6 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
                             return;
                         }
                     }
-
-                    monitor.reportProgress( BrowserCoreMessages.bind(
-                        BrowserCoreMessages.ldif__imported_n_entries_m_errors, new String[]
-                            { "" + importedCount, "" + errorCount } ) ); //$NON-NLS-1$ //$NON-NLS-2$
                 }
                 else
                 {
@@ -376,17 +371,21 @@ public class ImportLdifRunnable implements StudioConnectionBulkRunnableWithProgr
                 }
             }
 
-            if ( errorCount > 0 )
+            if ( monitor.getProgressErrorCount() > 0 )
             {
                 monitor.reportError( BrowserCoreMessages.bind( BrowserCoreMessages.ldif__n_errors_see_logfile,
                     new String[]
-                        { "" + errorCount } ) ); //$NON-NLS-1$
+                        { "" + monitor.getProgressErrorCount() } ) ); //$NON-NLS-1$
             }
         }
         catch ( Exception e )
         {
             monitor.reportError( e );
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
     }
 
 
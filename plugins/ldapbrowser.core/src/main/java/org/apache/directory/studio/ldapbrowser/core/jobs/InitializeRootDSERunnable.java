@@ -21,6 +21,13 @@
 package org.apache.directory.studio.ldapbrowser.core.jobs;
 
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -30,16 +37,20 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
 import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.util.Strings;
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.Connection.AliasDereferencingMethod;
 import org.apache.directory.studio.connection.core.Connection.ReferralHandlingMethod;
 import org.apache.directory.studio.connection.core.ConnectionCorePlugin;
 import org.apache.directory.studio.connection.core.DetectedConnectionProperties;
+import org.apache.directory.studio.connection.core.io.api.StudioSearchResultEnumeration;
 import org.apache.directory.studio.connection.core.jobs.StudioConnectionBulkRunnableWithProgress;
+import org.apache.directory.studio.ldapbrowser.core.BrowserConnectionManager;
 import org.apache.directory.studio.ldapbrowser.core.BrowserCoreMessages;
 import org.apache.directory.studio.ldapbrowser.core.events.AttributesInitializedEvent;
 import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
@@ -49,9 +60,19 @@ import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.IRootDSE;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
+import org.apache.directory.studio.ldapbrowser.core.model.SearchParameter;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Attribute;
 import org.apache.directory.studio.ldapbrowser.core.model.impl.BaseDNEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.impl.DirectoryMetadataEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.impl.Search;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Value;
+import org.apache.directory.studio.ldapbrowser.core.utils.ModelConverter;
+import org.apache.directory.studio.ldifparser.LdifFormatParameters;
+import org.apache.directory.studio.ldifparser.model.LdifEnumeration;
+import org.apache.directory.studio.ldifparser.model.container.LdifContainer;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+import org.apache.directory.studio.ldifparser.model.lines.LdifAttrValLine;
+import org.apache.directory.studio.ldifparser.parser.LdifParser;
 
 
 /**
@@ -75,6 +96,12 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
             SchemaConstants.VENDOR_VERSION_AT,
             SchemaConstants.ALL_OPERATIONAL_ATTRIBUTES };
 
+    /** The attributes used to check if a cached Root DSE is still up to date. */
+    private static final String[] REVALIDATION_ATTRIBUTES =
+        {
+            SchemaConstants.MODIFY_TIMESTAMP_AT,
+            SchemaConstants.CONTEXT_CSN_AT };
+
     private IRootDSE rootDSE;
 
 
@@ -166,19 +193,7 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
      */
     public static synchronized void loadRootDSE( IBrowserConnection browserConnection, StudioProgressMonitor monitor )
     {
-        // clear old children
-        InitializeChildrenRunnable.clearCaches( browserConnection.getRootDSE(), true );
-
-        // delete old attributes
-        IAttribute[] oldAttributes = browserConnection.getRootDSE().getAttributes();
-        
-        if ( oldAttributes != null )
-        {
-            for ( IAttribute oldAttribute : oldAttributes )
-            {
-                browserConnection.getRootDSE().deleteAttribute( oldAttribute );
-            }
-        }
+        clearRootDSE( browserConnection );
 
         // load well-known Root DSE attributes and operational attributes
         ISearch search = new Search( null, browserConnection, Dn.EMPTY_DN, ISearch.FILTER_TRUE,
@@ -194,6 +209,232 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
             Connection.AliasDereferencingMethod.NEVER, Connection.ReferralHandlingMethod.IGNORE, false, null, false );
         SearchRunnable.searchAndUpdateModel( browserConnection, search, monitor );
 
+        initRootDSEChildren( browserConnection, true, monitor );
+
+        // only cache a completely loaded Root DSE
+        if ( !monitor.errorsReported() && !monitor.isCanceled() )
+        {
+            saveRootDSECache( browserConnection );
+        }
+    }
+
+
+    /**
+     * Loads the Root DSE from the local cache of the last successful load, without 
+     * contacting the directory server. The base DNs are added as they were known 
+     * at that time, they are not read from the directory but verified by 
+     * {@link #revalidateRootDSE(IBrowserConnection, StudioProgressMonitor)}.
+     * 
+     * @param browserConnection the browser connection
+     * @param monitor the progress monitor
+     * 
+     * @return true if the Root DSE was loaded from the cache, false if there is no usable cache
+     */
+    public static synchronized boolean loadRootDSEFromCache( IBrowserConnection browserConnection,
+        StudioProgressMonitor monitor )
+    {
+        LdifContentRecord record = readRootDSECache( new File( BrowserConnectionManager
+            .getRootDSECacheFileName( browserConnection.getConnection().getId() ) ) );
+
+        if ( record == null )
+        {
+            return false;
+        }
+
+        clearRootDSE( browserConnection );
+        setRootDSEAttributes( browserConnection.getRootDSE(), record );
+        initRootDSEChildren( browserConnection, false, monitor );
+
+        return true;
+    }
+
+
+    /**
+     * Checks if the cached Root DSE is still up to date. The modifyTimestamp and contextCSN 
+     * attributes of the Root DSE are read and compared with the current values. If they 
+     * differ, or if the server provides none of them, the Root DSE is loaded again. 
+     * Otherwise only the entries under the Root DSE, which were taken from the cache, 
+     * are read from the directory; the ones that don't exist anymore are removed.
+     * 
+     * @param browserConnection the browser connection
+     * @param monitor the progress monitor
+     * 
+     * @return true if the Root DSE was loaded again or if entries were removed, 
+     *         false if it is up to date
+     */
+    public static synchronized boolean revalidateRootDSE( IBrowserConnection browserConnection,
+        StudioProgressMonitor monitor )
+    {
+        Map<String, Set<String>> cachedMarkers = getMarkers( browserConnection.getRootDSE() );
+        Map<String, Set<String>> serverMarkers = new HashMap<String, Set<String>>();
+
+        try
+        {
+            SearchParameter sp = new SearchParameter();
+            sp.setSearchBase( Dn.EMPTY_DN );
+            sp.setScope( SearchScope.OBJECT );
+            sp.setReturningAttributes( REVALIDATION_ATTRIBUTES );
+            StudioSearchResultEnumeration enumeration = SearchRunnable.search( browserConnection, sp, monitor );
+
+            while ( enumeration != null && enumeration.hasMore() )
+            {
+                Entry entry = enumeration.next().getEntry();
+
+                for ( String attributeName : REVALIDATION_ATTRIBUTES )
+                {
+                    org.apache.directory.api.ldap.model.entry.Attribute attribute = entry.get( attributeName );
+
+                    if ( attribute != null )
+                    {
+                        Set<String> values = new HashSet<String>();
+
+                        for ( org.apache.directory.api.ldap.model.entry.Value value : attribute )
+                        {
+                            values.add( value.getString() );
+                        }
+
+                        serverMarkers.put( Strings.toLowerCaseAscii( attributeName ), values );
+                    }
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            // ignore, the Root DSE is loaded again below
+        }
+
+        if ( monitor.isCanceled() )
+        {
+            return false;
+        }
+
+        if ( isUpToDate( cachedMarkers, serverMarkers ) )
+        {
+            return verifyRootDSEChildren( browserConnection, monitor );
+        }
+
+        loadRootDSE( browserConnection, monitor );
+
+        return true;
+    }
+
+
+    /**
+     * Checks if the revalidation markers of the cached Root DSE match the ones 
+     * read from the directory.
+     * 
+     * @param cachedMarkers the markers of the cached Root DSE
+     * @param serverMarkers the markers read from the directory
+     * 
+     * @return true if the cached Root DSE is up to date
+     */
+    static boolean isUpToDate( Map<String, Set<String>> cachedMarkers, Map<String, Set<String>> serverMarkers )
+    {
+        return !serverMarkers.isEmpty() && serverMarkers.equals( cachedMarkers );
+    }
+
+
+    /**
+     * Reads the entries under the Root DSE from the directory and removes 
+     * the ones that don't exist anymore.
+     * 
+     * @param browserConnection the browser connection
+     * @param monitor the progress monitor
+     * 
+     * @return true if entries were removed
+     */
+    private static boolean verifyRootDSEChildren( IBrowserConnection browserConnection,
+        StudioProgressMonitor monitor )
+    {
+        IRootDSE rootDSE = browserConnection.getRootDSE();
+        IEntry[] children = rootDSE.getChildren();
+        boolean removed = false;
+
+        if ( children != null )
+        {
+            StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
+
+            for ( IEntry entry : children )
+            {
+                if ( monitor.isCanceled() )
+                {
+                    break;
+                }
+
+                if ( readBaseEntry( entry, dummyMonitor ) == null )
+                {
+                    rootDSE.deleteChild( entry );
+                    browserConnection.uncacheEntryRecursive( entry );
+                    removed = true;
+                }
+            }
+        }
+
+        if ( removed )
+        {
+            rootDSE.setHasMoreChildren( false );
+            rootDSE.setChildrenInitialized( true );
+        }
+
+        return removed;
+    }
+
+
+    /**
+     * Gets the values of the revalidation markers of the Root DSE.
+     * 
+     * @param rootDSE the Root DSE
+     * 
+     * @return the marker values, mapped by the lower-cased attribute name
+     */
+    static Map<String, Set<String>> getMarkers( IRootDSE rootDSE )
+    {
+        Map<String, Set<String>> markers = new HashMap<String, Set<String>>();
+
+        for ( String attributeName : REVALIDATION_ATTRIBUTES )
+        {
+            IAttribute attribute = rootDSE.getAttribute( attributeName );
+
+            if ( attribute != null )
+            {
+                markers.put( Strings.toLowerCaseAscii( attributeName ),
+                    new HashSet<String>( Arrays.asList( attribute.getStringValues() ) ) );
+            }
+        }
+
+        return markers;
+    }
+
+
+    private static void clearRootDSE( IBrowserConnection browserConnection )
+    {
+        // clear old children
+        InitializeChildrenRunnable.clearCaches( browserConnection.getRootDSE(), true );
+
+        // delete old attributes
+        IAttribute[] oldAttributes = browserConnection.getRootDSE().getAttributes();
+        
+        if ( oldAttributes != null )
+        {
+            for ( IAttribute oldAttribute : oldAttributes )
+            {
+                browserConnection.getRootDSE().deleteAttribute( oldAttribute );
+            }
+        }
+    }
+
+
+    /**
+     * Adds the base DNs and directory metadata entries of the loaded Root DSE attributes, 
+     * sets the Root DSE flags and the detected connection properties.
+     * 
+     * @param browserConnection the browser connection
+     * @param initEntries true to read the base entries from the directory
+     * @param monitor the progress monitor
+     */
+    private static void initRootDSEChildren( IBrowserConnection browserConnection, boolean initEntries,
+        StudioProgressMonitor monitor )
+    {
         // the list of entries under the Root DSE
         Map<Dn, IEntry> rootDseEntries = new HashMap<Dn, IEntry>();
 
@@ -302,12 +543,23 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
             }
         }
 
-        // try to init entries
-        StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
-        
-        for ( IEntry entry : rootDseEntries.values() )
+        if ( initEntries )
         {
-            initBaseEntry( entry, dummyMonitor );
+            // try to init entries
+            StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
+            
+            for ( IEntry entry : rootDseEntries.values() )
+            {
+                initBaseEntry( entry, dummyMonitor );
+            }
+        }
+        else
+        {
+            // use the entries as they are, they are read from the directory when the Root DSE is revalidated
+            for ( IEntry entry : rootDseEntries.values() )
+            {
+                browserConnection.getRootDSE().addChild( entry );
+            }
         }
 
         // set flags
@@ -367,7 +619,133 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
     }
 
 
+    /**
+     * Writes the attributes of the Root DSE to the cache file of the connection.
+     * 
+     * @param browserConnection the browser connection
+     */
+    private static void saveRootDSECache( IBrowserConnection browserConnection )
+    {
+        File file = new File( BrowserConnectionManager.getRootDSECacheFileName( browserConnection.getConnection()
+            .getId() ) );
+
+        try
+        {
+            writeRootDSECache( browserConnection.getRootDSE(), file );
+        }
+        catch ( Exception e )
+        {
+            // the cache is optional, the Root DSE is read from the directory next time
+            file.delete();
+        }
+    }
+
+
+    /**
+     * Writes the attributes of the Root DSE to the given file.
+     * 
+     * @param rootDSE the Root DSE
+     * @param file the cache file
+     * 
+     * @throws Exception if the file can't be written
+     */
+    static void writeRootDSECache( IRootDSE rootDSE, File file ) throws Exception
+    {
+        try ( Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) ) //$NON-NLS-1$
+        {
+            LdifContentRecord record = ModelConverter.entryToLdifContentRecord( rootDSE );
+            writer.write( record.toFormattedString( LdifFormatParameters.DEFAULT ) );
+        }
+    }
+
+
+    /**
+     * Reads the Root DSE record from the given cache file.
+     * 
+     * @param file the cache file
+     * 
+     * @return the cached Root DSE record, null if there is no usable cache
+     */
+    static LdifContentRecord readRootDSECache( File file )
+    {
+        if ( !file.exists() )
+        {
+            return null;
+        }
+
+        try ( Reader reader = new InputStreamReader( new FileInputStream( file ), "UTF-8" ) ) //$NON-NLS-1$
+        {
+            LdifEnumeration enumeration = new LdifParser().parse( reader );
+
+            while ( enumeration.hasNext() )
+            {
+                LdifContainer container = enumeration.next();
+
+                if ( container instanceof LdifContentRecord && container.isValid() )
+                {
+                    return ( LdifContentRecord ) container;
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            // ignore, the Root DSE is read from the directory
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Adds the attributes of the cached Root DSE record to the Root DSE.
+     * 
+     * @param rootDSE the Root DSE
+     * @param record the cached Root DSE record
+     */
+    static void setRootDSEAttributes( IRootDSE rootDSE, LdifContentRecord record )
+    {
+        for ( LdifAttrValLine line : record.getAttrVals() )
+        {
+            String attributeName = line.getUnfoldedAttributeDescription();
+            IAttribute attribute = rootDSE.getAttribute( attributeName );
+
+            if ( attribute == null )
+            {
+                attribute = new Attribute( rootDSE, attributeName );
+                rootDSE.addAttribute( attribute );
+            }
+
+            attribute.addValue( new Value( attribute, line.getValueAsObject() ) );
+        }
+    }
+
+
     private static void initBaseEntry( IEntry entry, StudioProgressMonitor monitor )
+    {
+        IEntry baseEntry = readBaseEntry( entry, monitor );
+
+        if ( baseEntry != null )
+        {
+            // add entry to Root DSE
+            entry.getBrowserConnection().getRootDSE().addChild( baseEntry );
+        }
+        else
+        {
+            // Dn exists in the Root DSE, but doesn't exist in directory
+            entry.getBrowserConnection().uncacheEntryRecursive( entry );
+        }
+    }
+
+
+    /**
+     * Reads the given entry under the Root DSE from the directory.
+     * 
+     * @param entry the entry
+     * @param monitor the progress monitor
+     * 
+     * @return the read entry, null if it doesn't exist in the directory
+     */
+    private static IEntry readBaseEntry( IEntry entry, StudioProgressMonitor monitor )
     {
         IBrowserConnection browserConnection = entry.getBrowserConnection();
         Dn dn = entry.getDn();
@@ -383,16 +761,10 @@ public class InitializeRootDSERunnable implements StudioConnectionBulkRunnableWi
         
         if ( results != null && results.length == 1 )
         {
-            // add entry to Root DSE
-            ISearchResult result = results[0];
-            entry = result.getEntry();
-            browserConnection.getRootDSE().addChild( entry );
-        }
-        else
-        {
-            // Dn exists in the Root DSE, but doesn't exist in directory
-            browserConnection.uncacheEntryRecursive( entry );
+            return results[0].getEntry();
         }
+
+        return null;
     }
 
 
@@ -0,0 +1,481 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.connection.core.io.StudioLdapException;
+import org.apache.directory.studio.ldapbrowser.core.BrowserConnectionManager;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+
+
+/**
+ * The checkpoint of a simulated move. It records the copied entries and the
+ * start of the delete phase, so that an interrupted move can be resumed by
+ * moving the same entry to the same location again.
+ * 
+ * The checkpoint is an append-only log that is flushed after each batch of
+ * the copy process. Checkpointing is best effort: if the log can't be written
+ * it is deleted and the move continues without checkpoint. A truncated last 
+ * record of an interrupted move is cut off before the log is continued.
+ * 
+ * The entries added after the last flush aren't recorded, a resumed move 
+ * must treat these entries as copied when they already exist.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+class MoveCheckpoint
+{
+    /** The magic number of the checkpoint file, "ADSM". */
+    private static final int MAGIC = 0x4144534D;
+
+    /** The record of a copied entry, followed by the normalized source Dn. */
+    private static final byte COPIED_RECORD = 'C';
+
+    /** The record of the start of the delete phase. */
+    private static final byte DELETE_PHASE_RECORD = 'D';
+
+    /** The checkpoint file. */
+    private File file;
+
+    /** The normalized source Dns of the copied entries. */
+    private Set<String> copiedEntries = new HashSet<>();
+
+    /** The delete phase flag. */
+    private boolean deletePhase;
+
+    /** The resumed flag. */
+    private boolean resumed;
+
+    /** The output stream, null if not opened yet or if checkpointing failed. */
+    private DataOutputStream out;
+
+    /** The failed flag. */
+    private boolean failed;
+
+
+    /**
+     * Checks if there is a checkpoint of an interrupted move of the given entry.
+     * 
+     * @param browserConnection the browser connection
+     * @param sourceDn the Dn of the moved entry
+     * @param targetDn the new Dn of the moved entry
+     * @return true, if there is a checkpoint
+     */
+    static boolean exists( IBrowserConnection browserConnection, Dn sourceDn, Dn targetDn )
+    {
+        return new File( BrowserConnectionManager.getMoveCheckpointFileName(
+            browserConnection.getConnection().getId(), sourceDn, targetDn ) ).exists();
+    }
+
+
+    /**
+     * Opens the checkpoint of the move of the given entry. An existing checkpoint
+     * of an interrupted move is loaded.
+     * 
+     * @param browserConnection the browser connection
+     * @param sourceDn the Dn of the moved entry
+     * @param targetDn the new Dn of the moved entry
+     * @return the checkpoint
+     */
+    static MoveCheckpoint open( IBrowserConnection browserConnection, Dn sourceDn, Dn targetDn )
+    {
+        return open( new File( BrowserConnectionManager.getMoveCheckpointFileName(
+            browserConnection.getConnection().getId(), sourceDn, targetDn ) ), sourceDn, targetDn );
+    }
+
+
+    /**
+     * Opens the checkpoint in the given file. An existing checkpoint of an 
+     * interrupted move of the same entry to the same location is loaded.
+     * 
+     * @param file the checkpoint file
+     * @param sourceDn the Dn of the moved entry
+     * @param targetDn the new Dn of the moved entry
+     * @return the checkpoint
+     */
+    static MoveCheckpoint open( File file, Dn sourceDn, Dn targetDn )
+    {
+        MoveCheckpoint checkpoint = new MoveCheckpoint();
+        checkpoint.file = file;
+
+        if ( file.exists() )
+        {
+            long validLength = 0L;
+
+            try ( CountingInputStream counter = new CountingInputStream( new BufferedInputStream(
+                new FileInputStream( file ) ) );
+                DataInputStream in = new DataInputStream( counter ) )
+            {
+                if ( in.readInt() == MAGIC && in.readUTF().equals( sourceDn.getNormName() )
+                    && in.readUTF().equals( targetDn.getNormName() ) )
+                {
+                    checkpoint.resumed = true;
+                    validLength = checkpoint.read( in, counter );
+                }
+            }
+            catch ( IOException e )
+            {
+                // unknown or truncated header, start again
+            }
+
+            if ( checkpoint.resumed )
+            {
+                // cut off a truncated last record, the log is continued after the last complete record
+                try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) ) //$NON-NLS-1$
+                {
+                    raf.setLength( validLength );
+                }
+                catch ( IOException e )
+                {
+                    checkpoint.resumed = false;
+                }
+            }
+
+            if ( !checkpoint.resumed )
+            {
+                checkpoint.copiedEntries.clear();
+                checkpoint.deletePhase = false;
+                file.delete();
+            }
+        }
+
+        try
+        {
+            checkpoint.out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( checkpoint.file,
+                checkpoint.resumed ) ) );
+
+            if ( !checkpoint.resumed )
+            {
+                checkpoint.out.writeInt( MAGIC );
+                checkpoint.out.writeUTF( sourceDn.getNormName() );
+                checkpoint.out.writeUTF( targetDn.getNormName() );
+            }
+        }
+        catch ( IOException e )
+        {
+            checkpoint.fail();
+        }
+
+        return checkpoint;
+    }
+
+
+    /**
+     * Reads the records of the log.
+     * 
+     * @param in the input stream, positioned after the header
+     * @param counter the counter of the read bytes
+     * @return the length of the log up to the end of the last complete record
+     * @throws IOException if the log can't be read
+     */
+    private long read( DataInputStream in, CountingInputStream counter ) throws IOException
+    {
+        long validLength = counter.getCount();
+
+        try
+        {
+            while ( true )
+            {
+                byte record = in.readByte();
+
+                if ( record == COPIED_RECORD )
+                {
+                    copiedEntries.add( in.readUTF() );
+                }
+                else if ( record == DELETE_PHASE_RECORD )
+                {
+                    deletePhase = true;
+                }
+                else
+                {
+                    // unknown record, the rest of the log can't be used
+                    break;
+                }
+
+                validLength = counter.getCount();
+            }
+        }
+        catch ( EOFException e )
+        {
+            // end of the log, a truncated last record is ignored
+        }
+
+        return validLength;
+    }
+
+
+    /**
+     * Checks if the checkpoint was written by an interrupted move.
+     * 
+     * @return true, if the move is resumed
+     */
+    boolean isResumed()
+    {
+        return resumed;
+    }
+
+
+    /**
+     * Checks if a failed add of the given entry means that the entry was already 
+     * copied: the entries added by an interrupted move after its last flush 
+     * aren't recorded in the checkpoint, adding them again fails.
+     * 
+     * @param exception the exception of the add request
+     * @return true, if the move is resumed and the entry already exists
+     */
+    boolean isAlreadyCopied( StudioLdapException exception )
+    {
+        return resumed && StudioLdapException.isEntryAlreadyExistsException( exception );
+    }
+
+
+    /**
+     * Checks if the given entry was already copied.
+     * 
+     * @param sourceDn the source Dn
+     * @return true, if the entry was already copied
+     */
+    boolean isCopied( Dn sourceDn )
+    {
+        return copiedEntries.contains( sourceDn.getNormName() );
+    }
+
+
+    /**
+     * Records that the given entry was copied.
+     * 
+     * @param sourceDn the source Dn
+     */
+    void copied( Dn sourceDn )
+    {
+        if ( out != null && copiedEntries.add( sourceDn.getNormName() ) )
+        {
+            try
+            {
+                out.writeByte( COPIED_RECORD );
+                out.writeUTF( sourceDn.getNormName() );
+            }
+            catch ( IOException e )
+            {
+                fail();
+            }
+        }
+    }
+
+
+    /**
+     * Checks if the copy process is done and the delete phase was started.
+     * 
+     * @return true, if the delete phase was started
+     */
+    boolean isDeletePhase()
+    {
+        return deletePhase;
+    }
+
+
+    /**
+     * Records the start of the delete phase, the copied entries aren't needed anymore.
+     */
+    void startDeletePhase()
+    {
+        deletePhase = true;
+        copiedEntries.clear();
+
+        if ( out != null )
+        {
+            try
+            {
+                out.writeByte( DELETE_PHASE_RECORD );
+            }
+            catch ( IOException e )
+            {
+                fail();
+            }
+        }
+
+        flush();
+    }
+
+
+    /**
+     * Writes the recorded progress to the checkpoint file.
+     */
+    void flush()
+    {
+        if ( out != null )
+        {
+            try
+            {
+                out.flush();
+            }
+            catch ( IOException e )
+            {
+                fail();
+            }
+        }
+    }
+
+
+    /**
+     * Closes the checkpoint and keeps the checkpoint file, to resume the move later.
+     */
+    void close()
+    {
+        if ( out != null )
+        {
+            try
+            {
+                out.close();
+            }
+            catch ( IOException e )
+            {
+                fail();
+            }
+
+            out = null;
+        }
+    }
+
+
+    /**
+     * Closes the checkpoint and deletes the checkpoint file, the move is done.
+     */
+    void delete()
+    {
+        close();
+        file.delete();
+    }
+
+
+    /**
+     * Stops checkpointing, a partial checkpoint file must not be used.
+     */
+    private void fail()
+    {
+        if ( !failed )
+        {
+            failed = true;
+
+            try
+            {
+                if ( out != null )
+                {
+                    out.close();
+                }
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+
+            out = null;
+            file.delete();
+        }
+    }
+
+
+    /**
+     * An input stream that counts the read bytes.
+     */
+    private static class CountingInputStream extends FilterInputStream
+    {
+        /** The number of read bytes. */
+        private long count;
+
+
+        private CountingInputStream( InputStream in )
+        {
+            super( in );
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        public int read() throws IOException
+        {
+            int b = super.read();
+
+            if ( b >= 0 )
+            {
+                count++;
+            }
+
+            return b;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        public int read( byte[] b, int off, int len ) throws IOException
+        {
+            int n = super.read( b, off, len );
+
+            if ( n > 0 )
+            {
+                count += n;
+            }
+
+            return n;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        public long skip( long n ) throws IOException
+        {
+            long skipped = super.skip( n );
+            count += skipped;
+
+            return skipped;
+        }
+
+
+        /**
+         * Gets the number of read bytes.
+         * 
+         * @return the number of read bytes
+         */
+        private long getCount()
+        {
+            return count;
+        }
+    }
+}
@@ -37,14 +37,17 @@ import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.Controls;
 import org.apache.directory.studio.connection.core.io.StudioLdapException;
 import org.apache.directory.studio.connection.core.jobs.StudioConnectionBulkRunnableWithProgress;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCoreConstants;
 import org.apache.directory.studio.ldapbrowser.core.BrowserCoreMessages;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCorePlugin;
 import org.apache.directory.studio.ldapbrowser.core.events.BulkModificationEvent;
 import org.apache.directory.studio.ldapbrowser.core.events.EntryMovedEvent;
 import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
-import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 
 
 /**
@@ -52,8 +55,12 @@ import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
  * 
  * First it tries to move an entry using an moddn operation. If
  * that operation fails with an LDAP error 66 (ContextNotEmptyException)
- * the use is asked if s/he wants to simulate such a move by recursively
- * searching/creating/deleting entries.
+ * the use is asked if s/he wants to simulate such a move by copying the
+ * subtree and deleting the old subtree afterwards.
+ * 
+ * The progress of a simulated move is recorded in a {@link MoveCheckpoint}.
+ * If the same entry is moved to the same parent again after an interrupted
+ * simulated move, the simulated move is resumed.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -77,6 +84,12 @@ public class MoveEntriesRunnable implements StudioConnectionBulkRunnableWithProg
     /** The dialog to ask for simulated renaming */
     private SimulateRenameDialog dialog;
 
+    /** The number of entries copied by simulated moves. */
+    private int numberOfCopiedEntries;
+
+    /** The number of entries deleted by simulated moves. */
+    private int numberOfDeletedEntries;
+
 
     /**
      * Creates a new instance of MoveEntriesRunnable.
@@ -152,8 +165,6 @@ public class MoveEntriesRunnable implements StudioConnectionBulkRunnableWithProg
         // use a dummy monitor to be able to handle exceptions
         StudioProgressMonitor dummyMonitor = new StudioProgressMonitor( monitor );
 
-        int numAdd = 0;
-        int numDel = 0;
         boolean isSimulatedRename = false;
         Dn parentDn = newParent.getDn();
 
@@ -175,57 +186,55 @@ public class MoveEntriesRunnable implements StudioConnectionBulkRunnableWithProg
                 newDn = Dn.EMPTY_DN;
             }
 
-            // try to move entry
-            RenameEntryRunnable.renameEntry( browserConnection, oldEntry, newDn, dummyMonitor );
-
-            // do a simulated rename, if renaming of a non-leaf entry is not supported.
-            if ( dummyMonitor.errorsReported() )
+            if ( MoveCheckpoint.exists( browserConnection, oldDn, newDn ) )
             {
-                if ( dialog != null && StudioLdapException.isContextNotEmptyException( dummyMonitor.getException() ) )
-                {
-                    // open dialog
-                    if ( numAdd == 0 )
-                    {
-                        dialog.setEntryInfo( browserConnection, oldDn, newDn );
-                        dialog.open();
-                        isSimulatedRename = dialog.isSimulateRename();
-                    }
+                // resume an interrupted simulated move
+                simulateMove( oldEntry, newDn, dummyMonitor, monitor );
+            }
+            else
+            {
+                // try to move entry
+                RenameEntryRunnable.renameEntry( browserConnection, oldEntry, newDn, dummyMonitor );
 
-                    if ( isSimulatedRename )
+                // do a simulated rename, if renaming of a non-leaf entry is not supported.
+                if ( dummyMonitor.errorsReported() )
+                {
+                    if ( dialog != null
+                        && StudioLdapException.isContextNotEmptyException( dummyMonitor.getException() ) )
                     {
-                        // do simulated rename operation
-                        dummyMonitor.reset();
-
-                        numAdd = CopyEntriesRunnable.copyEntry( oldEntry, newParent, null,
-                            SearchControls.SUBTREE_SCOPE,
-                            numAdd, null, dummyMonitor, monitor );
+                        // open dialog
+                        if ( numberOfCopiedEntries == 0 )
+                        {
+                            dialog.setEntryInfo( browserConnection, oldDn, newDn );
+                            dialog.open();
+                            isSimulatedRename = dialog.isSimulateRename();
+                        }
 
-                        if ( !dummyMonitor.errorsReported() )
+                        if ( isSimulatedRename )
+                        {
+                            // do simulated rename operation
+                            simulateMove( oldEntry, newDn, dummyMonitor, monitor );
+                        }
+                        else
                         {
-                            dummyMonitor.reset();
-                            numDel = DeleteEntriesRunnable.optimisticDeleteEntryRecursive( browserConnection, oldDn,
-                                oldEntry.isReferral(), false, numDel, dummyMonitor, monitor );
+                            // no simulated rename operation
+                            // report the exception to the real monitor
+                            Exception exception = dummyMonitor.getException();
+                            monitor.reportError( exception );
                         }
                     }
                     else
                     {
-                        // no simulated rename operation
-                        // report the exception to the real monitor
+                        // we have another exception
+                        // report it to the real monitor
                         Exception exception = dummyMonitor.getException();
                         monitor.reportError( exception );
                     }
                 }
-                else
-                {
-                    // we have another exception
-                    // report it to the real monitor
-                    Exception exception = dummyMonitor.getException();
-                    monitor.reportError( exception );
-                }
             }
 
             // update model
-            if ( !dummyMonitor.errorsReported() )
+            if ( !dummyMonitor.errorsReported() && !monitor.isCanceled() )
             {
                 // uncache old entry
                 browserConnection.uncacheEntryRecursive( oldEntry );
@@ -245,26 +254,104 @@ public class MoveEntriesRunnable implements StudioConnectionBulkRunnableWithProg
                 newParent.addChild( newEntry );
                 newParent.setHasMoreChildren( hasMoreChildren );
 
-                // reset searches, if the moved entry is a result of a search
-                List<ISearch> searches = browserConnection.getSearchManager().getSearches();
-                for ( ISearch search : searches )
+                // reset searches, if the moved entry or an entry below is a result of a search
+                for ( ISearch search : browserConnection.getSearchManager().getSearchesWithResultsInSubtree( oldDn ) )
                 {
-                    if ( search.getSearchResults() != null )
-                    {
-                        ISearchResult[] searchResults = search.getSearchResults();
-                        for ( ISearchResult result : searchResults )
-                        {
-                            if ( oldEntry.equals( result.getEntry() ) )
-                            {
-                                search.setSearchResults( null );
-                                searchesToUpdateSet.add( search );
-                                break;
-                            }
-                        }
-                    }
+                    search.setSearchResults( null );
+                    searchesToUpdateSet.add( search );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Simulates the move of an entry: copies the subtree to the new location
+     * and deletes the old subtree afterwards. The progress is recorded in a
+     * checkpoint, an interrupted simulated move is resumed. Errors are 
+     * reported to the dummy monitor and to the real monitor.
+     * 
+     * @param oldEntry the entry to move
+     * @param newDn the new Dn
+     * @param dummyMonitor the dummy monitor
+     * @param monitor the real monitor
+     */
+    private void simulateMove( IEntry oldEntry, Dn newDn, StudioProgressMonitor dummyMonitor,
+        StudioProgressMonitor monitor )
+    {
+        Dn oldDn = oldEntry.getDn();
+        MoveCheckpoint checkpoint = MoveCheckpoint.open( browserConnection, oldDn, newDn );
+
+        if ( checkpoint.isResumed() )
+        {
+            String message = BrowserCoreMessages.bind( BrowserCoreMessages.jobs__move_entry_resume, new String[]
+                { oldDn.getName(), newDn.getName() } );
+            monitor.reportProgress( message );
+            BrowserCorePlugin.getDefault().getLog().log(
+                new Status( IStatus.INFO, BrowserCoreConstants.PLUGIN_ID, message ) );
+        }
+
+        try
+        {
+            if ( !checkpoint.isDeletePhase() )
+            {
+                dummyMonitor.reset();
+                monitor.beginProgressCount( BrowserCoreMessages.model__copied_n_entries );
+
+                int errorStatusSize1 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
+                numberOfCopiedEntries = CopyEntriesRunnable.copyEntry( oldEntry, newParent, null,
+                    SearchControls.SUBTREE_SCOPE, numberOfCopiedEntries, null, checkpoint, dummyMonitor, monitor );
+
+                if ( !isDone( errorStatusSize1, dummyMonitor, monitor ) )
+                {
+                    // keep the checkpoint and the old entries, the move can be resumed
+                    checkpoint.close();
+                    return;
                 }
+
+                checkpoint.startDeletePhase();
+            }
+
+            dummyMonitor.reset();
+            monitor.beginProgressCount( BrowserCoreMessages.model__deleted_n_entries );
+            int errorStatusSize1 = monitor.getErrorStatus( "" ).getChildren().length; //$NON-NLS-1$
+            numberOfDeletedEntries = DeleteEntriesRunnable.deleteEntryRecursive( browserConnection, oldDn,
+                oldEntry.isReferral(), true, numberOfDeletedEntries, dummyMonitor, monitor );
+
+            if ( isDone( errorStatusSize1, dummyMonitor, monitor ) )
+            {
+                checkpoint.delete();
+            }
+            else
+            {
+                checkpoint.close();
             }
         }
+        finally
+        {
+            monitor.endProgressCount();
+        }
+    }
+
+
+    /**
+     * Checks if a step of a simulated move is done without errors. The step is
+     * failed if errors were reported to the dummy monitor or to the real monitor,
+     * in that case the dummy monitor contains an error afterwards.
+     * 
+     * @param errorStatusSize the number of errors of the real monitor before the step
+     * @param dummyMonitor the dummy monitor
+     * @param monitor the real monitor
+     * @return true, if the step is done without errors
+     */
+    private boolean isDone( int errorStatusSize, StudioProgressMonitor dummyMonitor, StudioProgressMonitor monitor )
+    {
+        if ( !dummyMonitor.errorsReported() && monitor.getErrorStatus( "" ).getChildren().length != errorStatusSize ) //$NON-NLS-1$
+        {
+            dummyMonitor.reportError( monitor.getException() );
+        }
+
+        return !dummyMonitor.errorsReported() && !monitor.isCanceled();
     }
 
 
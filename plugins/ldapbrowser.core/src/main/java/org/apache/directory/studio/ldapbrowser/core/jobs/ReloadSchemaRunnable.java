@@ -216,11 +216,11 @@ public class ReloadSchemaRunnable implements StudioConnectionBulkRunnableWithPro
                 String modifyTimestamp = null;
 
                 Entry entry = enumeration.next().getEntry();
-                if ( entry.hasObjectClass( SchemaConstants.MODIFY_TIMESTAMP_AT ) )
+                if ( entry.containsAttribute( SchemaConstants.MODIFY_TIMESTAMP_AT ) )
                 {
                     modifyTimestamp = entry.get( SchemaConstants.MODIFY_TIMESTAMP_AT ).getString();
                 }
-                if ( entry.hasObjectClass( SchemaConstants.CREATE_TIMESTAMP_AT ) )
+                if ( entry.containsAttribute( SchemaConstants.CREATE_TIMESTAMP_AT ) )
                 {
                     createTimestamp = entry.get( SchemaConstants.CREATE_TIMESTAMP_AT ).getString();
                 }
@@ -44,7 +44,6 @@ import org.apache.directory.studio.ldapbrowser.core.events.SearchUpdateEvent;
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
-import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
 
 
 /**
@@ -177,14 +176,24 @@ public class RenameEntryRunnable implements StudioConnectionBulkRunnableWithProg
                 {
                     // do simulated rename operation
                     dummyMonitor.reset();
-                    CopyEntriesRunnable.copyEntry( oldEntry, oldEntry.getParententry(), newRdn,
-                        SearchControls.SUBTREE_SCOPE, 0, null, dummyMonitor, monitor );
+                    monitor.beginProgressCount( BrowserCoreMessages.model__copied_n_entries );
 
-                    if ( !dummyMonitor.errorsReported() )
+                    try
                     {
-                        dummyMonitor.reset();
-                        DeleteEntriesRunnable.optimisticDeleteEntryRecursive( browserConnection, oldDn,
-                            oldEntry.isReferral(), false, 0, dummyMonitor, monitor );
+                        CopyEntriesRunnable.copyEntry( oldEntry, oldEntry.getParententry(), newRdn,
+                            SearchControls.SUBTREE_SCOPE, 0, null, dummyMonitor, monitor );
+
+                        if ( !dummyMonitor.errorsReported() )
+                        {
+                            dummyMonitor.reset();
+                            monitor.beginProgressCount( BrowserCoreMessages.model__deleted_n_entries );
+                            DeleteEntriesRunnable.deleteEntryRecursive( browserConnection, oldDn,
+                                oldEntry.isReferral(), true, 0, dummyMonitor, monitor );
+                        }
+                    }
+                    finally
+                    {
+                        monitor.endProgressCount();
                     }
                 }
                 else
@@ -236,23 +245,11 @@ public class RenameEntryRunnable implements StudioConnectionBulkRunnableWithProg
                 }
                 parent.setHasMoreChildren( hasMoreChildren );
 
-                // reset searches, if the renamed entry is a result of a search
-                List<ISearch> searches = browserConnection.getSearchManager().getSearches();
-                for ( ISearch search : searches )
+                // reset searches, if the renamed entry or an entry below is a result of a search
+                for ( ISearch search : browserConnection.getSearchManager().getSearchesWithResultsInSubtree( oldDn ) )
                 {
-                    if ( search.getSearchResults() != null )
-                    {
-                        ISearchResult[] searchResults = search.getSearchResults();
-                        for ( ISearchResult result : searchResults )
-                        {
-                            if ( oldEntry.equals( result.getEntry() ) )
-                            {
-                                search.setSearchResults( null );
-                                searchesToUpdateSet.add( search );
-                                break;
-                            }
-                        }
-                    }
+                    search.setSearchResults( null );
+                    searchesToUpdateSet.add( search );
                 }
             }
         }
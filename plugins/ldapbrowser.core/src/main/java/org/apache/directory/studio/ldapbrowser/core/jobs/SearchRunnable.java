@@ -26,8 +26,12 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.naming.directory.SearchControls;
 
@@ -77,6 +81,10 @@ import org.apache.directory.studio.ldapbrowser.core.utils.Utils;
  */
 public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
 {
+    /** The range option of a partially returned attribute, e.g. member;range=0-1499 */
+    private static final Pattern RANGE_OPTION_PATTERN = Pattern.compile( ";range=(\\d+)-(\\d+|\\*)", //$NON-NLS-1$
+        Pattern.CASE_INSENSITIVE );
+
     /** The searches. */
     protected ISearch[] searches;
 
@@ -314,6 +322,7 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                 try
                 {
                     enumeration = search( browserConnection, searchParameter, monitor );
+                    monitor.beginProgressCount( BrowserCoreMessages.model__retrieved_n_entries );
 
                     // iterate through the search result
                     while ( !monitor.isCanceled() && enumeration != null && enumeration.hasMore() )
@@ -353,7 +362,7 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                             initFlags( entry, sr, searchParameter );
 
                             // fill the attributes
-                            fillAttributes( entry, sr, search.getSearchParameter() );
+                            fillAttributes( entry, sr, search.getSearchParameter(), monitor );
 
                             if ( isContinuedSearchResult )
                             {
@@ -365,6 +374,7 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                             searchResultList
                                 .add( new org.apache.directory.studio.ldapbrowser.core.model.impl.SearchResult( entry,
                                     search ) );
+                            monitor.incrementProgressCount();
                         }
                         else
                         {
@@ -373,12 +383,6 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                                 searchContinuationUrl );
                             searchContinuationList.add( searchContinuation );
                         }
-
-                        monitor
-                            .reportProgress( searchResultList.size() == 1 ? BrowserCoreMessages.model__retrieved_1_entry
-                                : BrowserCoreMessages.bind( BrowserCoreMessages.model__retrieved_n_entries,
-                                    new String[]
-                                    { Integer.toString( searchResultList.size() ) } ) );
                     }
                 }
                 catch ( Exception e )
@@ -393,6 +397,10 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                         monitor.reportError( e );
                     }
                 }
+                finally
+                {
+                    monitor.endProgressCount();
+                }
 
                 // check for response controls
                 try
@@ -492,6 +500,61 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
     }
 
 
+    /**
+     * Adds a paged results control to the search parameter if the server supports it.
+     * The paged search size of the connection is used if the connection is configured
+     * to use paged searches, otherwise the given page size is used.
+     * 
+     * @param browserConnection the browser connection
+     * @param parameter the search parameter
+     * @param defaultPageSize the page size if the connection doesn't use paged searches
+     */
+    public static void addPagedResultsControl( IBrowserConnection browserConnection, SearchParameter parameter,
+        int defaultPageSize )
+    {
+        if ( browserConnection.getRootDSE().isControlSupported( PagedResults.OID ) )
+        {
+            parameter.getControls().add( Controls.newPagedResultsControl( browserConnection.isPagedSearch()
+                ? browserConnection.getPagedSearchSize() : defaultPageSize ) );
+        }
+    }
+
+
+    /**
+     * Searches the next page of a paged search, the cookie of the given result
+     * is passed to the paged results control of the search parameter.
+     * 
+     * @param browserConnection the browser connection
+     * @param parameter the search parameter
+     * @param result the result of the current page
+     * @param monitor the progress monitor
+     * 
+     * @return the result of the next page, null if the search isn't paged or the last page was reached
+     */
+    public static StudioSearchResultEnumeration searchNextPage( IBrowserConnection browserConnection,
+        SearchParameter parameter, StudioSearchResultEnumeration result, StudioProgressMonitor monitor )
+    {
+        for ( Control responseControl : result.getResponseControls() )
+        {
+            if ( responseControl instanceof PagedResults
+                && ArrayUtils.isNotEmpty( ( ( PagedResults ) responseControl ).getCookie() ) )
+            {
+                for ( Control requestControl : parameter.getControls() )
+                {
+                    if ( requestControl instanceof PagedResults )
+                    {
+                        ( ( PagedResults ) requestControl ).setCookie( ( ( PagedResults ) responseControl )
+                            .getCookie() );
+                        return search( browserConnection, parameter, monitor );
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+
     private static SearchParameter getSearchParameter( ISearch search )
     {
         SearchParameter searchParameter = ( SearchParameter ) search.getSearchParameter().clone();
@@ -764,7 +827,8 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
      * @param sr the JNDI search result
      * @param searchParameter the search parameters
      */
-    private static void fillAttributes( IEntry entry, StudioSearchResult sr, SearchParameter searchParameter )
+    private static void fillAttributes( IEntry entry, StudioSearchResult sr, SearchParameter searchParameter,
+        StudioProgressMonitor monitor )
     {
         if ( searchParameter.getReturningAttributes() == null || searchParameter.getReturningAttributes().length > 0 )
         {
@@ -828,7 +892,7 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
             // additional clear old attributes if the record contains the attribute
             for ( Attribute attribute : sr.getEntry() )
             {
-                String attributeDescription = attribute.getUpId();
+                String attributeDescription = removeRangeOption( attribute.getUpId() );
                 IAttribute oldAttribute = entry.getAttribute( attributeDescription );
                 if ( oldAttribute != null )
                 {
@@ -837,9 +901,18 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
             }
 
             // set new attributes and values
+            Map<String, Integer> rangedAttributes = new LinkedHashMap<String, Integer>();
+
             for ( Attribute attribute : sr.getEntry() )
             {
-                String attributeDescription = attribute.getUpId();
+                String attributeDescription = removeRangeOption( attribute.getUpId() );
+                int nextRangeStart = getNextRangeStart( attribute.getUpId() );
+
+                if ( nextRangeStart > 0 )
+                {
+                    // only a range of the values was returned, e.g. by Active Directory
+                    rangedAttributes.put( attributeDescription, nextRangeStart );
+                }
 
                 if ( attribute.iterator().hasNext() )
                 {
@@ -855,19 +928,135 @@ public class SearchRunnable implements StudioConnectionBulkRunnableWithProgress
                         studioAttribute = entry.getAttribute( attributeDescription );
                     }
 
-                    for ( org.apache.directory.api.ldap.model.entry.Value value : attribute )
+                    addValues( studioAttribute, attribute );
+                }
+            }
+
+            // retrieve the remaining values of ranged attributes
+            for ( Map.Entry<String, Integer> rangedAttribute : rangedAttributes.entrySet() )
+            {
+                IAttribute studioAttribute = entry.getAttribute( rangedAttribute.getKey() );
+
+                if ( studioAttribute != null )
+                {
+                    fillRangedAttribute( studioAttribute, rangedAttribute.getValue(), monitor );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adds the values of an attribute to the given attribute.
+     *
+     * @param studioAttribute the attribute to fill
+     * @param attribute the attribute returned by the server
+     */
+    private static void addValues( IAttribute studioAttribute, Attribute attribute )
+    {
+        for ( org.apache.directory.api.ldap.model.entry.Value value : attribute )
+        {
+            if ( value.isHumanReadable() )
+            {
+                studioAttribute.addValue( new Value( studioAttribute, value.getString() ) );
+            }
+            else
+            {
+                studioAttribute.addValue( new Value( studioAttribute, value.getBytes() ) );
+            }
+        }
+    }
+
+
+    /**
+     * Retrieves the remaining values of an attribute which was only partially returned.
+     * The ranges are requested one after the other using the range option, e.g.
+     * member;range=1500-*, until the server returns the last range.
+     *
+     * @param studioAttribute the attribute to fill
+     * @param first the index of the first value to retrieve
+     * @param monitor the progress monitor
+     */
+    private static void fillRangedAttribute( IAttribute studioAttribute, int first, StudioProgressMonitor monitor )
+    {
+        IEntry entry = studioAttribute.getEntry();
+        String attributeDescription = studioAttribute.getDescription();
+
+        while ( first > 0 && !monitor.isCanceled() )
+        {
+            SearchParameter parameter = new SearchParameter();
+            parameter.setSearchBase( entry.getDn() );
+            parameter.setFilter( ISearch.FILTER_TRUE );
+            parameter.setScope( SearchScope.OBJECT );
+            parameter.setReturningAttributes( new String[]
+                { attributeDescription + ";range=" + first + "-*" } ); //$NON-NLS-1$ //$NON-NLS-2$
+            parameter.setAliasesDereferencingMethod( AliasDereferencingMethod.NEVER );
+            parameter.setReferralsHandlingMethod( ReferralHandlingMethod.IGNORE );
+
+            StudioSearchResultEnumeration result = search( entry.getBrowserConnection(), parameter, monitor );
+            int next = -1;
+
+            try
+            {
+                while ( result != null && result.hasMore() )
+                {
+                    for ( Attribute attribute : result.next().getEntry() )
                     {
-                        if ( value.isHumanReadable() )
+                        if ( attributeDescription.equalsIgnoreCase( removeRangeOption( attribute.getUpId() ) ) )
                         {
-                            studioAttribute.addValue( new Value( studioAttribute, value.getString() ) );
-                        }
-                        else
-                        {
-                            studioAttribute.addValue( new Value( studioAttribute, value.getBytes() ) );
+                            addValues( studioAttribute, attribute );
+                            next = getNextRangeStart( attribute.getUpId() );
                         }
                     }
                 }
             }
+            catch ( LdapException e )
+            {
+                monitor.reportError( e );
+                return;
+            }
+
+            // stop if the server didn't return a further range
+            first = ( next > first ) ? next : -1;
+        }
+    }
+
+
+    /**
+     * Removes the range option from an attribute description.
+     *
+     * @param attributeDescription the attribute description, e.g. member;range=0-1499
+     * @return the attribute description without range option, e.g. member
+     */
+    private static String removeRangeOption( String attributeDescription )
+    {
+        Matcher matcher = RANGE_OPTION_PATTERN.matcher( attributeDescription );
+
+        if ( matcher.find() )
+        {
+            return attributeDescription.substring( 0, matcher.start() ) + attributeDescription.substring( matcher.end() );
+        }
+
+        return attributeDescription;
+    }
+
+
+    /**
+     * Gets the index of the first value of the next range.
+     *
+     * @param attributeDescription the attribute description, e.g. member;range=0-1499
+     * @return the index of the first value of the next range, e.g. 1500, 
+     *         or -1 if there is no range option or it is the last range
+     */
+    private static int getNextRangeStart( String attributeDescription )
+    {
+        Matcher matcher = RANGE_OPTION_PATTERN.matcher( attributeDescription );
+
+        if ( matcher.find() && !"*".equals( matcher.group( 2 ) ) ) //$NON-NLS-1$
+        {
+            return Integer.parseInt( matcher.group( 2 ) ) + 1;
         }
+
+        return -1;
     }
 }
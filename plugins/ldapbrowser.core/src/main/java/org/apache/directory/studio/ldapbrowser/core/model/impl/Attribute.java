@@ -21,10 +21,13 @@
 package org.apache.directory.studio.ldapbrowser.core.model.impl;
 
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.schema.AttributeType;
@@ -65,7 +68,19 @@ public class Attribute implements IAttribute
     private IEntry entry;
 
     /** The values */
-    private List<IValue> valueList;
+    private ValueStore valueStore;
+
+    /** The attribute this attribute was copied from, null if this attribute is no copy */
+    private transient WeakReference<Attribute> origin;
+
+    /** The modification count of the origin attribute at the time of the copy */
+    private transient long originModificationCount;
+
+    /** The number of modifications of the values */
+    private transient long modificationCount;
+
+    /** The values added or deleted since the copy, keyed like the value store */
+    private transient Map<Object, IValue> changedValues;
 
 
     /**
@@ -84,7 +99,7 @@ public class Attribute implements IAttribute
 
         this.entry = entry;
         this.attributeDescription = new AttributeDescription( description );
-        this.valueList = new ArrayList<IValue>();
+        this.valueStore = new ValueStore();
 
     }
 
@@ -103,12 +118,12 @@ public class Attribute implements IAttribute
      */
     public boolean isConsistent()
     {
-        if ( valueList.isEmpty() )
+        if ( valueStore.isEmpty() )
         {
             return false;
         }
 
-        for ( IValue value : valueList )
+        for ( IValue value : valueStore )
         {
             if ( value.isEmpty() )
             {
@@ -188,7 +203,8 @@ public class Attribute implements IAttribute
     public void addEmptyValue()
     {
         IValue emptyValue = new Value( this );
-        valueList.add( emptyValue );
+        valueStore.add( emptyValue );
+        valueChanged( emptyValue );
         attributeModified( new EmptyValueAddedEvent( getEntry().getBrowserConnection(), getEntry(), this, emptyValue ) );
     }
 
@@ -198,12 +214,12 @@ public class Attribute implements IAttribute
      */
     public void deleteEmptyValue()
     {
-        for ( Iterator<IValue> it = this.valueList.iterator(); it.hasNext(); )
+        for ( IValue value : valueStore )
         {
-            IValue value = it.next();
             if ( value.isEmpty() )
             {
-                it.remove();
+                valueStore.remove( value );
+                valueChanged( value );
                 attributeModified( new EmptyValueDeletedEvent( getEntry().getBrowserConnection(), getEntry(), this,
                     value ) );
                 return;
@@ -223,6 +239,23 @@ public class Attribute implements IAttribute
     }
 
 
+    /**
+     * Counts a modification and records the added or deleted value in
+     * the change log, if this attribute is a copy.
+     *
+     * @param value the added or deleted value
+     */
+    private void valueChanged( IValue value )
+    {
+        modificationCount++;
+
+        if ( changedValues != null )
+        {
+            changedValues.putIfAbsent( ValueStore.getKey( value ), value );
+        }
+    }
+
+
     /**
      * Checks if the given value is valid.
      *
@@ -250,15 +283,14 @@ public class Attribute implements IAttribute
      */
     private boolean internalDeleteValue( IValue valueToDelete )
     {
-        for ( Iterator<IValue> it = valueList.iterator(); it.hasNext(); )
+        IValue deletedValue = valueStore.remove( valueToDelete );
+
+        if ( deletedValue != null )
         {
-            IValue value = it.next();
-            if ( value.equals( valueToDelete ) )
-            {
-                it.remove();
-                return true;
-            }
+            valueChanged( deletedValue );
+            return true;
         }
+
         return false;
     }
 
@@ -269,7 +301,8 @@ public class Attribute implements IAttribute
     public void addValue( IValue valueToAdd ) throws IllegalArgumentException
     {
         checkValue( valueToAdd );
-        valueList.add( valueToAdd );
+        valueStore.add( valueToAdd );
+        valueChanged( valueToAdd );
         attributeModified( new ValueAddedEvent( getEntry().getBrowserConnection(), getEntry(), this, valueToAdd ) );
     }
 
@@ -298,18 +331,144 @@ public class Attribute implements IAttribute
         checkValue( newValue );
 
         internalDeleteValue( oldValue );
-        valueList.add( newValue );
+        valueStore.add( newValue );
+        valueChanged( newValue );
         attributeModified( new ValueModifiedEvent( getEntry().getBrowserConnection(), getEntry(), this, oldValue,
             newValue ) );
     }
 
 
+    /**
+     * Gets the stored value equal to the given value.
+     *
+     * @param value the value
+     * @return the equal value of this attribute, null if there is no equal value
+     */
+    public IValue getValue( IValue value )
+    {
+        return valueStore.get( value );
+    }
+
+
+    /**
+     * Marks this attribute as a copy of the given attribute. Values added or deleted
+     * afterwards are recorded, so the differences to the origin attribute could
+     * be computed without comparing all values, see {@link #getChangedValues(Attribute)}.
+     * The values of both attributes are verified to be equal first, if they differ
+     * (e.g. a copy created from LDIF lacks empty values) the origin is not set and
+     * all values are compared when computing the differences.
+     *
+     * @param originAttribute the attribute this attribute was copied from
+     * @return true if the origin was set, false if the values of both attributes differ
+     */
+    public boolean setOrigin( Attribute originAttribute )
+    {
+        if ( !hasSameValues( originAttribute ) )
+        {
+            origin = null;
+            changedValues = null;
+            return false;
+        }
+
+        origin = new WeakReference<>( originAttribute );
+        originModificationCount = originAttribute.modificationCount;
+        changedValues = new LinkedHashMap<>();
+        return true;
+    }
+
+
+    /**
+     * Checks if this attribute contains the same values as the given attribute,
+     * values contained more than once must be contained equally often.
+     *
+     * @param other the other attribute
+     * @return true if both attributes contain the same values
+     */
+    private boolean hasSameValues( Attribute other )
+    {
+        if ( valueStore.size() != other.valueStore.size() )
+        {
+            return false;
+        }
+
+        Map<Object, Integer> counts = new HashMap<>();
+
+        for ( IValue value : valueStore )
+        {
+            counts.merge( ValueStore.getKey( value ), 1, Integer::sum );
+        }
+
+        for ( IValue value : other.valueStore )
+        {
+            Object key = ValueStore.getKey( value );
+            Integer count = counts.get( key );
+
+            if ( count == null )
+            {
+                return false;
+            }
+            else if ( count == 1 )
+            {
+                counts.remove( key );
+            }
+            else
+            {
+                counts.put( key, count - 1 );
+            }
+        }
+
+        return counts.isEmpty();
+    }
+
+
+    /**
+     * Gets the values that may differ between this attribute and the given attribute.
+     * This is possible if one attribute is an unmodified copy of the other one, or if
+     * both attributes are copies of the same state of a common origin attribute.
+     * The returned values are candidates only, a value added and deleted again is
+     * included, so each value must be looked up in both attributes.
+     *
+     * @param other the other attribute
+     * @return the values that may differ, null if unknown and all values must be compared
+     */
+    public Collection<IValue> getChangedValues( Attribute other )
+    {
+        Attribute myOrigin = origin != null ? origin.get() : null;
+        Attribute otherOrigin = other.origin != null ? other.origin.get() : null;
+
+        if ( myOrigin == other && originModificationCount == other.modificationCount )
+        {
+            return changedValues.values();
+        }
+        else if ( otherOrigin == this && other.originModificationCount == modificationCount )
+        {
+            return other.changedValues.values();
+        }
+        else if ( myOrigin != null && myOrigin == otherOrigin
+            && originModificationCount == other.originModificationCount )
+        {
+            Map<Object, IValue> values = new LinkedHashMap<>( changedValues );
+
+            for ( Map.Entry<Object, IValue> entry : other.changedValues.entrySet() )
+            {
+                values.putIfAbsent( entry.getKey(), entry.getValue() );
+            }
+
+            return values.values();
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+
     /**
      * {@inheritDoc}
      */
     public IValue[] getValues()
     {
-        return ( IValue[] ) valueList.toArray( new IValue[0] );
+        return valueStore.toArray();
     }
 
 
@@ -318,7 +477,7 @@ public class Attribute implements IAttribute
      */
     public int getValueSize()
     {
-        return valueList.size();
+        return valueStore.size();
     }
 
 
@@ -405,7 +564,7 @@ public class Attribute implements IAttribute
     {
         if ( getValueSize() > 0 )
         {
-            return ( ( IValue ) valueList.get( 0 ) ).getStringValue();
+            return valueStore.iterator().next().getStringValue();
         }
         else
         {
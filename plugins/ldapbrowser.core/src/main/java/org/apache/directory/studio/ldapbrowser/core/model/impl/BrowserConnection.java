@@ -24,6 +24,7 @@ package org.apache.directory.studio.ldapbrowser.core.model.impl;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
 import org.apache.directory.api.ldap.model.name.Dn;
@@ -64,6 +65,9 @@ public class BrowserConnection implements IBrowserConnection, Serializable
     /** The schema. */
     private Schema schema;
 
+    /** The loader of the cached schema, used on first access of the schema, null if already loaded. */
+    private transient volatile Supplier<Schema> schemaLoader;
+
     /** The search manager. */
     private SearchManager searchManager;
 
@@ -531,19 +535,60 @@ public class BrowserConnection implements IBrowserConnection, Serializable
      */
     public Schema getSchema()
     {
+        if ( schemaLoader != null )
+        {
+            loadSchema();
+        }
+
         return schema;
     }
 
 
+    /**
+     * Loads the cached schema, if not done yet.
+     */
+    private synchronized void loadSchema()
+    {
+        Supplier<Schema> loader = schemaLoader;
+
+        if ( loader != null )
+        {
+            Schema cachedSchema = loader.get();
+
+            if ( cachedSchema != null )
+            {
+                schema = cachedSchema;
+            }
+
+            schemaLoader = null;
+        }
+    }
+
+
     /**
      * {@inheritDoc}
      */
-    public void setSchema( Schema schema )
+    public synchronized void setSchema( Schema schema )
     {
+        this.schemaLoader = null;
         this.schema = schema;
     }
 
 
+    /**
+     * Sets the loader of the cached schema. The loader is called on the first
+     * access of the schema, so the cached schema of connections that are not
+     * used are never loaded. The loader may return null if there is no cached
+     * schema, then the default schema is kept.
+     *
+     * @param schemaLoader the loader of the cached schema
+     */
+    public void setSchemaLoader( Supplier<Schema> schemaLoader )
+    {
+        this.schemaLoader = schemaLoader;
+    }
+
+
     /**
      * This implementation returns the connection name
      */
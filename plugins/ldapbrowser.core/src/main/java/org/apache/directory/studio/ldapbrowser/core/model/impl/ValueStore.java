@@ -0,0 +1,354 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.impl;
+
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.directory.studio.ldapbrowser.core.model.IValue;
+
+
+/**
+ * The values of an {@link Attribute}, hashed by their content and kept
+ * in insertion order. Adding, deleting and looking up a value are constant
+ * time operations, even for attributes with hundreds of thousands of values.
+ * <p>
+ * Values are matched the same way as {@link Value#equals(Object)} does:
+ * string values by their string representation, binary values by their
+ * bytes. Equal values may be stored more than once, e.g. several empty values
+ * while editing, they are kept together at the position of the first one.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class ValueStore implements Iterable<IValue>, Serializable
+{
+    /** The serialVersionUID. */
+    private static final long serialVersionUID = 2318574471034855816L;
+
+    /** The values by key, either a single IValue or an IValue[] of equal values */
+    private transient Map<Object, Object> values = new LinkedHashMap<>();
+
+    /** The number of values */
+    private transient int size;
+
+    /** The deserialized values, hashed on first access as the attribute may not be complete before */
+    private transient IValue[] deserializedValues;
+
+
+    /**
+     * Gets the key of a value.
+     *
+     * @param value the value
+     * @return the key, either a String or a ByteBuffer
+     */
+    static Object getKey( IValue value )
+    {
+        if ( value.isBinary() && !value.isString() )
+        {
+            return ByteBuffer.wrap( value.getBinaryValue() );
+        }
+        else
+        {
+            return value.getStringValue();
+        }
+    }
+
+
+    /**
+     * Hashes the deserialized values, if any.
+     */
+    private void rehash()
+    {
+        if ( deserializedValues != null )
+        {
+            IValue[] valuesToAdd = deserializedValues;
+            deserializedValues = null;
+
+            for ( IValue value : valuesToAdd )
+            {
+                add( value );
+            }
+        }
+    }
+
+
+    /**
+     * Adds a value at the end.
+     *
+     * @param value the value to add
+     */
+    public void add( IValue value )
+    {
+        rehash();
+        Object key = getKey( value );
+        Object existing = values.get( key );
+
+        if ( existing == null )
+        {
+            values.put( key, value );
+        }
+        else if ( existing instanceof IValue )
+        {
+            values.put( key, new IValue[]
+                { ( IValue ) existing, value } );
+        }
+        else
+        {
+            IValue[] equalValues = ( IValue[] ) existing;
+            IValue[] newEqualValues = Arrays.copyOf( equalValues, equalValues.length + 1 );
+            newEqualValues[equalValues.length] = value;
+            values.put( key, newEqualValues );
+        }
+
+        size++;
+    }
+
+
+    /**
+     * Removes the first value equal to the given value.
+     *
+     * @param value the value to remove
+     * @return the removed value, null if there is no equal value
+     */
+    public IValue remove( IValue value )
+    {
+        rehash();
+        Object key = getKey( value );
+        Object existing = values.get( key );
+
+        if ( existing == null )
+        {
+            // the key depends on the schema, fall back to a scan if it changed since the value was added
+            key = findKey( value );
+
+            if ( key == null )
+            {
+                return null;
+            }
+
+            existing = values.get( key );
+        }
+
+        IValue removed;
+
+        if ( existing instanceof IValue )
+        {
+            removed = ( IValue ) existing;
+            values.remove( key );
+        }
+        else
+        {
+            IValue[] equalValues = ( IValue[] ) existing;
+            removed = equalValues[0];
+
+            if ( equalValues.length == 2 )
+            {
+                values.put( key, equalValues[1] );
+            }
+            else
+            {
+                values.put( key, Arrays.copyOfRange( equalValues, 1, equalValues.length ) );
+            }
+        }
+
+        size--;
+
+        return removed;
+    }
+
+
+    /**
+     * Finds the key of a value equal to the given value by scanning all values.
+     *
+     * @param value the value
+     * @return the key, null if there is no equal value
+     */
+    private Object findKey( IValue value )
+    {
+        for ( Map.Entry<Object, Object> entry : values.entrySet() )
+        {
+            Object existing = entry.getValue();
+            IValue first = ( existing instanceof IValue[] ) ? ( ( IValue[] ) existing )[0] : ( IValue ) existing;
+
+            if ( first.equals( value ) )
+            {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Gets the first value equal to the given value.
+     *
+     * @param value the value
+     * @return the first equal value, null if there is no equal value
+     */
+    public IValue get( IValue value )
+    {
+        rehash();
+        Object existing = values.get( getKey( value ) );
+
+        if ( existing instanceof IValue[] )
+        {
+            return ( ( IValue[] ) existing )[0];
+        }
+        else
+        {
+            return ( IValue ) existing;
+        }
+    }
+
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the number of values
+     */
+    public int size()
+    {
+        rehash();
+        return size;
+    }
+
+
+    /**
+     * Checks if there are no values.
+     *
+     * @return true if there are no values
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+
+    /**
+     * Gets the values in insertion order.
+     *
+     * @return the values
+     */
+    public IValue[] toArray()
+    {
+        rehash();
+        IValue[] array = new IValue[size];
+        int i = 0;
+
+        for ( Object existing : values.values() )
+        {
+            if ( existing instanceof IValue )
+            {
+                array[i++] = ( IValue ) existing;
+            }
+            else
+            {
+                for ( IValue value : ( IValue[] ) existing )
+                {
+                    array[i++] = value;
+                }
+            }
+        }
+
+        return array;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<IValue> iterator()
+    {
+        rehash();
+        final Iterator<Object> it = values.values().iterator();
+
+        return new Iterator<IValue>()
+        {
+            private IValue[] equalValues;
+
+            private int index;
+
+
+            public boolean hasNext()
+            {
+                return ( equalValues != null ) || it.hasNext();
+            }
+
+
+            public IValue next()
+            {
+                if ( equalValues != null )
+                {
+                    IValue value = equalValues[index++];
+
+                    if ( index == equalValues.length )
+                    {
+                        equalValues = null;
+                    }
+
+                    return value;
+                }
+
+                if ( !it.hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+
+                Object existing = it.next();
+
+                if ( existing instanceof IValue )
+                {
+                    return ( IValue ) existing;
+                }
+
+                equalValues = ( IValue[] ) existing;
+                index = 1;
+
+                return equalValues[0];
+            }
+        };
+    }
+
+
+    private void writeObject( ObjectOutputStream out ) throws IOException
+    {
+        out.defaultWriteObject();
+        out.writeObject( toArray() );
+    }
+
+
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        values = new LinkedHashMap<>();
+        deserializedValues = ( IValue[] ) in.readObject();
+    }
+}
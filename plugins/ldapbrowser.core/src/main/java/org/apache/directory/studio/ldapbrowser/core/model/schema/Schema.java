@@ -24,8 +24,10 @@ package org.apache.directory.studio.ldapbrowser.core.model.schema;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.net.URL;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -33,6 +35,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
@@ -50,6 +54,9 @@ import org.apache.directory.api.ldap.model.schema.parsers.MatchingRuleUseDescrip
 import org.apache.directory.api.ldap.model.schema.parsers.ObjectClassDescriptionSchemaParser;
 import org.apache.directory.api.util.Strings;
 import org.apache.directory.studio.connection.core.Utils;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCoreConstants;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCoreMessages;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCorePlugin;
 import org.apache.directory.studio.ldapbrowser.core.model.AttributeDescription;
 import org.apache.directory.studio.ldifparser.LdifFormatParameters;
 import org.apache.directory.studio.ldifparser.model.LdifEnumeration;
@@ -57,6 +64,8 @@ import org.apache.directory.studio.ldifparser.model.container.LdifContainer;
 import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
 import org.apache.directory.studio.ldifparser.model.lines.LdifAttrValLine;
 import org.apache.directory.studio.ldifparser.parser.LdifParser;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 
 
 /**
@@ -111,6 +120,12 @@ public class Schema
         DEFAULT_SCHEMA = defaultSchema;
     }
 
+    /** The minimum number of schema record lines to parse them in parallel */
+    private static final int PARALLEL_PARSE_THRESHOLD = 1000;
+
+    /** The number of schema record lines parsed by one parallel task */
+    private static final int PARALLEL_PARSE_CHUNK_SIZE = 250;
+
     private boolean defaultSchema = false;
 
 
@@ -121,6 +136,9 @@ public class Schema
 
     private LdifContentRecord schemaRecord;
 
+    /** The LDIF of the schema record when loaded from a binary cache, parsed on demand */
+    private String schemaRecordLdif;
+
     private Dn dn;
 
     private String createTimestamp;
@@ -231,82 +249,84 @@ public class Schema
      * @throws Exception the exception
      */
     private void parseSchemaRecord( LdifContentRecord schemaRecord ) throws Exception
+    {
+        parseSchemaRecord( schemaRecord, ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool()
+            : null );
+    }
+
+
+    /**
+     * Parses the schema record, the schema descriptions of large schema records
+     * are parsed in parallel in the given pool.
+     * 
+     * @param schemaRecord the schema record
+     * @param pool the pool, null to parse all schema records in the calling thread
+     * 
+     * @throws Exception the exception
+     */
+    void parseSchemaRecord( LdifContentRecord schemaRecord, ForkJoinPool pool ) throws Exception
     {
         setSchemaRecord( schemaRecord );
         setDn( new Dn( schemaRecord.getDnLine().getValueAsString() ) );
 
-        ObjectClassDescriptionSchemaParser ocdPparser = new ObjectClassDescriptionSchemaParser();
-        ocdPparser.setQuirksMode( true );
-        AttributeTypeDescriptionSchemaParser atdParser = new AttributeTypeDescriptionSchemaParser();
-        atdParser.setQuirksMode( true );
-        LdapSyntaxDescriptionSchemaParser lsdParser = new LdapSyntaxDescriptionSchemaParser();
-        lsdParser.setQuirksMode( true );
-        MatchingRuleDescriptionSchemaParser mrdParser = new MatchingRuleDescriptionSchemaParser();
-        mrdParser.setQuirksMode( true );
-        MatchingRuleUseDescriptionSchemaParser mrudParser = new MatchingRuleUseDescriptionSchemaParser();
-        mrudParser.setQuirksMode( true );
-
+        // parse the schema descriptions, in parallel for large schemas
         LdifAttrValLine[] lines = schemaRecord.getAttrVals();
+        Object[] parsed = new Object[lines.length];
+
+        if ( pool != null && lines.length >= PARALLEL_PARSE_THRESHOLD )
+        {
+            pool.invoke( new ParseTask( lines, parsed, 0, lines.length ) );
+        }
+        else
+        {
+            new SchemaDescriptionParser().parse( lines, parsed, 0, lines.length );
+        }
+
+        // add the results in the order of the schema record, so the result doesn't depend on the parse order
         for ( int i = 0; i < lines.length; i++ )
         {
-            LdifAttrValLine line = lines[i];
-            String attributeName = line.getUnfoldedAttributeDescription();
-            String value = line.getValueAsString();
-            List<String> ldifValues = new ArrayList<String>( 1 );
-            ldifValues.add( value );
+            Object result = parsed[i];
 
-            try
+            if ( result instanceof ObjectClass )
             {
-                if ( attributeName.equalsIgnoreCase( SchemaConstants.OBJECT_CLASSES_AT ) )
-                {
-                    ObjectClass ocd = ocdPparser.parse( value );
-                    ocd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
-                    addObjectClass( ocd );
-                }
-                else if ( attributeName.equalsIgnoreCase( SchemaConstants.ATTRIBUTE_TYPES_AT ) )
-                {
-                    AttributeType atd = atdParser.parse( value );
-                    atd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
-                    addAttributeType( atd );
-                }
-                else if ( attributeName.equalsIgnoreCase( SchemaConstants.LDAP_SYNTAXES_AT ) )
-                {
-                    LdapSyntax lsd = lsdParser.parse( value );
-                    if ( StringUtils.isEmpty( lsd.getDescription() )
-                        && Utils.getOidDescription( lsd.getOid() ) != null )
-                    {
-                        lsd.setDescription( Utils.getOidDescription( lsd.getOid() ) );
-                    }
-                    lsd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
-                    addLdapSyntax( lsd );
-                }
-                else if ( attributeName.equalsIgnoreCase( SchemaConstants.MATCHING_RULES_AT ) )
-                {
-                    MatchingRule mrd = mrdParser.parse( value );
-                    mrd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
-                    addMatchingRule( mrd );
-                }
-                else if ( attributeName.equalsIgnoreCase( SchemaConstants.MATCHING_RULE_USE_AT ) )
-                {
-                    MatchingRuleUse mrud = mrudParser.parse( value );
-                    mrud.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
-                    addMatchingRuleUse( mrud );
-                }
-                else if ( attributeName.equalsIgnoreCase( SchemaConstants.CREATE_TIMESTAMP_AT ) )
+                addObjectClass( ( ObjectClass ) result );
+            }
+            else if ( result instanceof AttributeType )
+            {
+                addAttributeType( ( AttributeType ) result );
+            }
+            else if ( result instanceof LdapSyntax )
+            {
+                addLdapSyntax( ( LdapSyntax ) result );
+            }
+            else if ( result instanceof MatchingRule )
+            {
+                addMatchingRule( ( MatchingRule ) result );
+            }
+            else if ( result instanceof MatchingRuleUse )
+            {
+                addMatchingRuleUse( ( MatchingRuleUse ) result );
+            }
+            else if ( result instanceof Exception )
+            {
+                // TODO: exception handling
+                System.out.println( "Error reading schema: " + lines[i].getUnfoldedAttributeDescription() + " = " //$NON-NLS-1$ //$NON-NLS-2$
+                    + lines[i].getValueAsString() );
+                System.out.println( ( ( Exception ) result ).getMessage() );
+            }
+            else
+            {
+                String attributeName = lines[i].getUnfoldedAttributeDescription();
+
+                if ( attributeName.equalsIgnoreCase( SchemaConstants.CREATE_TIMESTAMP_AT ) )
                 {
-                    setCreateTimestamp( value );
+                    setCreateTimestamp( lines[i].getValueAsString() );
                 }
                 else if ( attributeName.equalsIgnoreCase( SchemaConstants.MODIFY_TIMESTAMP_AT ) )
                 {
-                    setModifyTimestamp( value );
+                    setModifyTimestamp( lines[i].getValueAsString() );
                 }
             }
-            catch ( Exception e )
-            {
-                // TODO: exception handling
-                System.out.println( "Error reading schema: " + attributeName + " = " + value ); //$NON-NLS-1$ //$NON-NLS-2$
-                System.out.println( e.getMessage() );
-            }
         }
 
         for ( AttributeType atd : getAttributeTypeDescriptions() )
@@ -336,6 +356,142 @@ public class Schema
     }
 
 
+    /**
+     * Parses the schema descriptions of a range of schema record lines. Each instance 
+     * has its own parsers, so it must only be used by one thread at a time.
+     */
+    private static class SchemaDescriptionParser
+    {
+        private ObjectClassDescriptionSchemaParser ocdParser = new ObjectClassDescriptionSchemaParser();
+
+        private AttributeTypeDescriptionSchemaParser atdParser = new AttributeTypeDescriptionSchemaParser();
+
+        private LdapSyntaxDescriptionSchemaParser lsdParser = new LdapSyntaxDescriptionSchemaParser();
+
+        private MatchingRuleDescriptionSchemaParser mrdParser = new MatchingRuleDescriptionSchemaParser();
+
+        private MatchingRuleUseDescriptionSchemaParser mrudParser = new MatchingRuleUseDescriptionSchemaParser();
+
+
+        SchemaDescriptionParser()
+        {
+            ocdParser.setQuirksMode( true );
+            atdParser.setQuirksMode( true );
+            lsdParser.setQuirksMode( true );
+            mrdParser.setQuirksMode( true );
+            mrudParser.setQuirksMode( true );
+        }
+
+
+        /**
+         * Parses the lines from start (inclusive) to end (exclusive). The parsed schema 
+         * object, or the exception if the line can't be parsed, is stored at the index 
+         * of the line. Lines that are no schema descriptions are left null.
+         */
+        void parse( LdifAttrValLine[] lines, Object[] parsed, int start, int end )
+        {
+            for ( int i = start; i < end; i++ )
+            {
+                try
+                {
+                    parsed[i] = parse( lines[i] );
+                }
+                catch ( Exception e )
+                {
+                    parsed[i] = e;
+                }
+            }
+        }
+
+
+        private Object parse( LdifAttrValLine line ) throws ParseException
+        {
+            String attributeName = line.getUnfoldedAttributeDescription();
+            String value = line.getValueAsString();
+            List<String> ldifValues = new ArrayList<String>( 1 );
+            ldifValues.add( value );
+
+            if ( attributeName.equalsIgnoreCase( SchemaConstants.OBJECT_CLASSES_AT ) )
+            {
+                ObjectClass ocd = ocdParser.parse( value );
+                ocd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
+                return ocd;
+            }
+            else if ( attributeName.equalsIgnoreCase( SchemaConstants.ATTRIBUTE_TYPES_AT ) )
+            {
+                AttributeType atd = atdParser.parse( value );
+                atd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
+                return atd;
+            }
+            else if ( attributeName.equalsIgnoreCase( SchemaConstants.LDAP_SYNTAXES_AT ) )
+            {
+                LdapSyntax lsd = lsdParser.parse( value );
+                if ( StringUtils.isEmpty( lsd.getDescription() )
+                    && Utils.getOidDescription( lsd.getOid() ) != null )
+                {
+                    lsd.setDescription( Utils.getOidDescription( lsd.getOid() ) );
+                }
+                lsd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
+                return lsd;
+            }
+            else if ( attributeName.equalsIgnoreCase( SchemaConstants.MATCHING_RULES_AT ) )
+            {
+                MatchingRule mrd = mrdParser.parse( value );
+                mrd.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
+                return mrd;
+            }
+            else if ( attributeName.equalsIgnoreCase( SchemaConstants.MATCHING_RULE_USE_AT ) )
+            {
+                MatchingRuleUse mrud = mrudParser.parse( value );
+                mrud.addExtension( RAW_SCHEMA_DEFINITION_LDIF_VALUE, ldifValues );
+                return mrud;
+            }
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Fork/join task to parse a range of schema record lines, large ranges are split.
+     */
+    private static class ParseTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final LdifAttrValLine[] lines;
+
+        private final Object[] parsed;
+
+        private final int start;
+
+        private final int end;
+
+
+        ParseTask( LdifAttrValLine[] lines, Object[] parsed, int start, int end )
+        {
+            this.lines = lines;
+            this.parsed = parsed;
+            this.start = start;
+            this.end = end;
+        }
+
+
+        protected void compute()
+        {
+            if ( end - start <= PARALLEL_PARSE_CHUNK_SIZE )
+            {
+                new SchemaDescriptionParser().parse( lines, parsed, start, end );
+            }
+            else
+            {
+                int middle = ( start + end ) >>> 1;
+                invokeAll( new ParseTask( lines, parsed, start, middle ), new ParseTask( lines, parsed, middle, end ) );
+            }
+        }
+    }
+
+
     private void checkMatchingRules( String... matchingRules )
     {
         for ( String matchingRule : matchingRules )
@@ -351,13 +507,54 @@ public class Schema
 
 
     /**
-     * Gets the schema record.
+     * Sets the LDIF of the schema record, it is parsed when the schema record
+     * is requested. Used when the schema is loaded from the binary cache.
+     * 
+     * @param schemaRecordLdif the LDIF of the schema record
+     */
+    synchronized void setSchemaRecordLdif( String schemaRecordLdif )
+    {
+        this.schemaRecord = null;
+        this.schemaRecordLdif = schemaRecordLdif;
+    }
+
+
+    /**
+     * Gets the schema record. When the schema was loaded from the binary cache,
+     * the schema record is parsed on the first call.
      * 
      * @return the schema record when the schema was created using the
      *         loadFromLdif() method, null otherwise
      */
-    public LdifContentRecord getSchemaRecord()
+    public synchronized LdifContentRecord getSchemaRecord()
     {
+        if ( schemaRecord == null && schemaRecordLdif != null )
+        {
+            // loaded from the binary cache, only the LDIF record needs to be parsed
+            try
+            {
+                LdifEnumeration enumeration = new LdifParser().parse( new StringReader( schemaRecordLdif ) );
+
+                while ( schemaRecord == null && enumeration.hasNext() )
+                {
+                    LdifContainer container = enumeration.next();
+
+                    if ( container instanceof LdifContentRecord )
+                    {
+                        schemaRecord = ( LdifContentRecord ) container;
+                    }
+                }
+            }
+            catch ( Exception e )
+            {
+                BrowserCorePlugin.getDefault().getLog().log(
+                    new Status( IStatus.ERROR, BrowserCoreConstants.PLUGIN_ID,
+                        BrowserCoreMessages.model__invalid_cached_schema_record, e ) );
+            }
+
+            schemaRecordLdif = null;
+        }
+
         return schemaRecord;
     }
 
@@ -367,7 +564,7 @@ public class Schema
      * 
      * @param schemaRecord the new schema record
      */
-    public void setSchemaRecord( LdifContentRecord schemaRecord )
+    public synchronized void setSchemaRecord( LdifContentRecord schemaRecord )
     {
         this.schemaRecord = schemaRecord;
     }
@@ -446,7 +643,7 @@ public class Schema
      * 
      * @param ocd the object class description
      */
-    private void addObjectClass( ObjectClass ocd )
+    void addObjectClass( ObjectClass ocd )
     {
         if ( ocd.getOid() != null )
         {
@@ -532,7 +729,7 @@ public class Schema
      * 
      * @param atd the attribute type description
      */
-    private void addAttributeType( AttributeType atd )
+    void addAttributeType( AttributeType atd )
     {
         if ( atd.getOid() != null )
         {
@@ -623,7 +820,7 @@ public class Schema
      * 
      * @param lsd the LDAP syntax description
      */
-    private void addLdapSyntax( LdapSyntax lsd )
+    void addLdapSyntax( LdapSyntax lsd )
     {
         if ( lsd.getOid() != null )
         {
@@ -701,7 +898,7 @@ public class Schema
      * 
      * @param mrud the matching rule description
      */
-    private void addMatchingRule( MatchingRule mrd )
+    void addMatchingRule( MatchingRule mrd )
     {
         if ( mrd.getOid() != null )
         {
@@ -784,7 +981,7 @@ public class Schema
      * 
      * @param mrud the matching rule use description
      */
-    private void addMatchingRuleUse( MatchingRuleUse mrud )
+    void addMatchingRuleUse( MatchingRuleUse mrud )
     {
         if ( mrud.getOid() != null )
         {
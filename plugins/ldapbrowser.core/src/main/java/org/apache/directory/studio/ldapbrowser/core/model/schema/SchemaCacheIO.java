@@ -0,0 +1,411 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.schema;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.AbstractSchemaObject;
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.LdapSyntax;
+import org.apache.directory.api.ldap.model.schema.MatchingRule;
+import org.apache.directory.api.ldap.model.schema.MatchingRuleUse;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.ObjectClassTypeEnum;
+import org.apache.directory.api.ldap.model.schema.UsageEnum;
+import org.apache.directory.studio.ldifparser.LdifFormatParameters;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+
+
+/**
+ * This class is used to read/write the binary schema cache of a connection.
+ * 
+ * The binary cache contains the already parsed schema elements, so a cached 
+ * schema can be loaded without running the schema description parsers again. 
+ * The file starts with a magic number and a format version, followed by the 
+ * deflate compressed schema elements. A file with another version is rejected 
+ * and the caller must fall back to the LDIF schema cache.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaCacheIO
+{
+    /** The magic number at the beginning of the file ("ADSS") */
+    private static final int MAGIC = 0x41445353;
+
+    /** The format version, must be increased on each incompatible change */
+    public static final int VERSION = 1;
+
+
+    private SchemaCacheIO()
+    {
+    }
+
+
+    /**
+     * Saves the given schema in the binary cache format.
+     * 
+     * @param schema the schema
+     * @param stream the output stream
+     * 
+     * @throws IOException if an error occurs while writing
+     */
+    public static void save( Schema schema, OutputStream stream ) throws IOException
+    {
+        DataOutputStream header = new DataOutputStream( stream );
+        header.writeInt( MAGIC );
+        header.writeInt( VERSION );
+        header.flush();
+
+        // the raw schema definitions are contained several times, compress them
+        DeflaterOutputStream deflater = new DeflaterOutputStream( stream );
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( deflater ) );
+
+        writeString( out, schema.getDn() != null ? schema.getDn().getName() : null );
+        writeString( out, schema.getCreateTimestamp() );
+        writeString( out, schema.getModifyTimestamp() );
+        LdifContentRecord schemaRecord = schema.getSchemaRecord();
+        writeLongString( out, schemaRecord != null ? schemaRecord.toFormattedString( LdifFormatParameters.DEFAULT )
+            : null );
+
+        Collection<LdapSyntax> lsds = schema.getLdapSyntaxDescriptions();
+        out.writeInt( lsds.size() );
+
+        for ( LdapSyntax lsd : lsds )
+        {
+            writeSchemaObject( out, lsd );
+            out.writeBoolean( lsd.isHumanReadable() );
+        }
+
+        Collection<MatchingRule> mrds = schema.getMatchingRuleDescriptions();
+        out.writeInt( mrds.size() );
+
+        for ( MatchingRule mrd : mrds )
+        {
+            writeSchemaObject( out, mrd );
+            writeString( out, mrd.getSyntaxOid() );
+        }
+
+        Collection<MatchingRuleUse> mruds = schema.getMatchingRuleUseDescriptions();
+        out.writeInt( mruds.size() );
+
+        for ( MatchingRuleUse mrud : mruds )
+        {
+            writeSchemaObject( out, mrud );
+            writeStrings( out, mrud.getApplicableAttributeOids() );
+        }
+
+        Collection<AttributeType> atds = schema.getAttributeTypeDescriptions();
+        out.writeInt( atds.size() );
+
+        for ( AttributeType atd : atds )
+        {
+            writeSchemaObject( out, atd );
+            writeString( out, atd.getSuperiorOid() );
+            writeString( out, atd.getSyntaxOid() );
+            out.writeLong( atd.getSyntaxLength() );
+            writeString( out, atd.getEqualityOid() );
+            writeString( out, atd.getOrderingOid() );
+            writeString( out, atd.getSubstringOid() );
+            out.writeBoolean( atd.isSingleValued() );
+            out.writeBoolean( atd.isCollective() );
+            out.writeBoolean( atd.isUserModifiable() );
+            writeString( out, atd.getUsage() != null ? atd.getUsage().name() : null );
+        }
+
+        Collection<ObjectClass> ocds = schema.getObjectClassDescriptions();
+        out.writeInt( ocds.size() );
+
+        for ( ObjectClass ocd : ocds )
+        {
+            writeSchemaObject( out, ocd );
+            writeString( out, ocd.getType() != null ? ocd.getType().name() : null );
+            writeStrings( out, ocd.getSuperiorOids() );
+            writeStrings( out, ocd.getMustAttributeTypeOids() );
+            writeStrings( out, ocd.getMayAttributeTypeOids() );
+        }
+
+        out.flush();
+        deflater.finish();
+    }
+
+
+    /**
+     * Loads a schema from the binary cache format.
+     * 
+     * @param stream the input stream
+     * 
+     * @return the schema
+     * 
+     * @throws IOException if an error occurs while reading or if the format version is not supported
+     */
+    public static Schema load( InputStream stream ) throws IOException
+    {
+        DataInputStream header = new DataInputStream( stream );
+
+        if ( header.readInt() != MAGIC )
+        {
+            throw new IOException( "Not a schema cache file" ); //$NON-NLS-1$
+        }
+
+        int version = header.readInt();
+
+        if ( version != VERSION )
+        {
+            throw new IOException( "Unsupported schema cache version " + version ); //$NON-NLS-1$
+        }
+
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new InflaterInputStream( stream ) ) );
+
+        Schema schema = new Schema();
+
+        try
+        {
+            String dn = readString( in );
+            schema.setDn( dn != null ? new Dn( dn ) : null );
+        }
+        catch ( LdapInvalidDnException e )
+        {
+            throw new IOException( e );
+        }
+
+        schema.setCreateTimestamp( readString( in ) );
+        schema.setModifyTimestamp( readString( in ) );
+        schema.setSchemaRecordLdif( readLongString( in ) );
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            LdapSyntax lsd = new LdapSyntax( readString( in ) );
+            readSchemaObject( in, lsd );
+            lsd.setHumanReadable( in.readBoolean() );
+            schema.addLdapSyntax( lsd );
+        }
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            MatchingRule mrd = new MatchingRule( readString( in ) );
+            readSchemaObject( in, mrd );
+            mrd.setSyntaxOid( readString( in ) );
+            schema.addMatchingRule( mrd );
+        }
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            MatchingRuleUse mrud = new MatchingRuleUse( readString( in ) );
+            readSchemaObject( in, mrud );
+            mrud.setApplicableAttributeOids( readStrings( in ) );
+            schema.addMatchingRuleUse( mrud );
+        }
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            AttributeType atd = new AttributeType( readString( in ) );
+            readSchemaObject( in, atd );
+            atd.setSuperiorOid( readString( in ) );
+            atd.setSyntaxOid( readString( in ) );
+            atd.setSyntaxLength( in.readLong() );
+            atd.setEqualityOid( readString( in ) );
+            atd.setOrderingOid( readString( in ) );
+            atd.setSubstringOid( readString( in ) );
+            atd.setSingleValued( in.readBoolean() );
+            atd.setCollective( in.readBoolean() );
+            atd.setUserModifiable( in.readBoolean() );
+            String usage = readString( in );
+            atd.setUsage( usage != null ? UsageEnum.valueOf( usage ) : null );
+            schema.addAttributeType( atd );
+        }
+
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            ObjectClass ocd = new ObjectClass( readString( in ) );
+            readSchemaObject( in, ocd );
+            String type = readString( in );
+            ocd.setType( type != null ? ObjectClassTypeEnum.valueOf( type ) : null );
+            ocd.setSuperiorOids( readStrings( in ) );
+            ocd.setMustAttributeTypeOids( readStrings( in ) );
+            ocd.setMayAttributeTypeOids( readStrings( in ) );
+            schema.addObjectClass( ocd );
+        }
+
+        return schema;
+    }
+
+
+    /**
+     * Writes the properties common to all schema objects, starting with the OID.
+     */
+    private static void writeSchemaObject( DataOutputStream out, AbstractSchemaObject schemaObject )
+        throws IOException
+    {
+        writeString( out, schemaObject.getOid() );
+        writeStrings( out, schemaObject.getNames() );
+        writeString( out, schemaObject.getDescription() );
+        writeString( out, schemaObject.getSchemaName() );
+        writeLongString( out, schemaObject.getSpecification() );
+        out.writeBoolean( schemaObject.isObsolete() );
+        out.writeBoolean( schemaObject.isEnabled() );
+
+        Map<String, List<String>> extensions = schemaObject.getExtensions();
+        out.writeInt( extensions != null ? extensions.size() : 0 );
+
+        if ( extensions != null )
+        {
+            for ( Map.Entry<String, List<String>> extension : extensions.entrySet() )
+            {
+                writeString( out, extension.getKey() );
+                out.writeInt( extension.getValue().size() );
+
+                for ( String value : extension.getValue() )
+                {
+                    writeLongString( out, value );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Reads the properties common to all schema objects, the OID was already read.
+     */
+    private static void readSchemaObject( DataInputStream in, AbstractSchemaObject schemaObject ) throws IOException
+    {
+        schemaObject.setNames( readStrings( in ) );
+        schemaObject.setDescription( readString( in ) );
+        schemaObject.setSchemaName( readString( in ) );
+        schemaObject.setSpecification( readLongString( in ) );
+        schemaObject.setObsolete( in.readBoolean() );
+        schemaObject.setEnabled( in.readBoolean() );
+
+        int extensionCount = in.readInt();
+        Map<String, List<String>> extensions = new LinkedHashMap<String, List<String>>( extensionCount );
+
+        for ( int i = 0; i < extensionCount; i++ )
+        {
+            String key = readString( in );
+            int valueCount = in.readInt();
+            List<String> values = new ArrayList<String>( valueCount );
+
+            for ( int j = 0; j < valueCount; j++ )
+            {
+                values.add( readLongString( in ) );
+            }
+
+            extensions.put( key, values );
+        }
+
+        schemaObject.setExtensions( extensions );
+    }
+
+
+    private static void writeStrings( DataOutputStream out, List<String> strings ) throws IOException
+    {
+        out.writeInt( strings != null ? strings.size() : 0 );
+
+        if ( strings != null )
+        {
+            for ( String string : strings )
+            {
+                writeString( out, string );
+            }
+        }
+    }
+
+
+    private static List<String> readStrings( DataInputStream in ) throws IOException
+    {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<String>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            strings.add( readString( in ) );
+        }
+
+        return strings;
+    }
+
+
+    private static void writeString( DataOutputStream out, String string ) throws IOException
+    {
+        out.writeBoolean( string != null );
+
+        if ( string != null )
+        {
+            out.writeUTF( string );
+        }
+    }
+
+
+    private static String readString( DataInputStream in ) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+
+    /**
+     * Writes a string that may exceed the 64k limit of {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeLongString( DataOutputStream out, String string ) throws IOException
+    {
+        if ( string == null )
+        {
+            out.writeInt( -1 );
+        }
+        else
+        {
+            byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+
+    private static String readLongString( DataInputStream in ) throws IOException
+    {
+        int length = in.readInt();
+
+        if ( length < 0 )
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
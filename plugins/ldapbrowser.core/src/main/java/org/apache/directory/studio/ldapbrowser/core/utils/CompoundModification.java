@@ -322,12 +322,16 @@ public class CompoundModification
         // create new attributes
         for ( IAttribute attribute : fromEntry.getAttributes() )
         {
-            IAttribute newAttribute = new Attribute( toEntry, attribute.getDescription() );
+            Attribute newAttribute = new Attribute( toEntry, attribute.getDescription() );
             for ( IValue value : attribute.getValues() )
             {
                 IValue newValue = new Value( newAttribute, value.getRawValue() );
                 newAttribute.addValue( newValue );
             }
+            if ( attribute instanceof Attribute )
+            {
+                newAttribute.setOrigin( ( Attribute ) attribute );
+            }
             toEntry.addAttribute( newAttribute );
         }
         EventRegistry.resumeEventFiringInCurrentThread();
@@ -352,6 +356,19 @@ public class CompoundModification
             IBrowserConnection browserConnection = entry.getBrowserConnection();
             LdifContentRecord record = ModelConverter.entryToLdifContentRecord( entry );
             IEntry clonedEntry = ModelConverter.ldifContentRecordToEntry( record, browserConnection );
+
+            // track the changes of the cloned attributes to allow an incremental diff,
+            // attributes whose values changed by the LDIF round trip are compared completely
+            for ( IAttribute attribute : entry.getAttributes() )
+            {
+                IAttribute clonedAttribute = clonedEntry.getAttribute( attribute.getDescription() );
+
+                if ( attribute instanceof Attribute && clonedAttribute instanceof Attribute )
+                {
+                    ( ( Attribute ) clonedAttribute ).setOrigin( ( Attribute ) attribute );
+                }
+            }
+
             return clonedEntry;
         }
         catch ( LdapInvalidDnException e )
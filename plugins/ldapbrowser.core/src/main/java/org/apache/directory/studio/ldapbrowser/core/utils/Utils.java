@@ -25,10 +25,10 @@ import java.beans.XMLDecoder;
 import java.beans.XMLEncoder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -54,6 +54,7 @@ import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection.Mod
 import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
 import org.apache.directory.studio.ldapbrowser.core.model.IValue;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Attribute;
 import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
 import org.apache.directory.studio.ldapbrowser.core.model.schema.SchemaUtils;
 import org.apache.directory.studio.ldifparser.LdifFormatParameters;
@@ -445,34 +446,9 @@ public class Utils
             boolean isOrderedValue = atd.getExtensions().containsKey( "X-ORDERED" ) //$NON-NLS-1$
                 && atd.getExtensions().get( "X-ORDERED" ).contains( "VALUES" ); //$NON-NLS-1$ //$NON-NLS-2$
 
-            // get old an new values for comparison
+            // get old an new attribute for comparison
             IAttribute oldAttribute = oldEntry.getAttribute( attributeDescription );
-            Set<String> oldValues = new HashSet<>();
-            Map<String, LdifAttrValLine> oldAttrValLines = new LinkedHashMap<>();
-            
-            if ( oldAttribute != null )
-            {
-                for ( IValue value : oldAttribute.getValues() )
-                {
-                    LdifAttrValLine attrValLine = computeDiffCreateAttrValLine( value );
-                    oldValues.add( attrValLine.getUnfoldedValue() );
-                    oldAttrValLines.put( attrValLine.getUnfoldedValue(), attrValLine );
-                }
-            }
-            
             IAttribute newAttribute = newEntry.getAttribute( attributeDescription );
-            Set<String> newValues = new HashSet<>();
-            Map<String, LdifAttrValLine> newAttrValLines = new LinkedHashMap<>();
-            
-            if ( newAttribute != null )
-            {
-                for ( IValue value : newAttribute.getValues() )
-                {
-                    LdifAttrValLine attrValLine = computeDiffCreateAttrValLine( value );
-                    newValues.add( attrValLine.getUnfoldedValue() );
-                    newAttrValLines.put( attrValLine.getUnfoldedValue(), attrValLine );
-                }
-            }
 
             // check what to do
             if ( oldAttribute != null && newAttribute == null )
@@ -524,9 +500,19 @@ public class Utils
                 modSpec.finish( LdifModSpecSepLine.create() );
                 record.addModSpec( modSpec );
             }
-            else if ( oldAttribute != null && newAttribute != null && !oldValues.equals( newValues ) )
+            else if ( oldAttribute != null && newAttribute != null )
             {
-                // attribute exists in both entries, check modifications
+                // attribute exists in both entries, compute diff
+                List<IValue> toDel = new ArrayList<>();
+                List<IValue> toAdd = new ArrayList<>();
+                computeDiffValues( oldAttribute, newAttribute, toDel, toAdd );
+
+                if ( toDel.isEmpty() && toAdd.isEmpty() )
+                {
+                    continue;
+                }
+
+                // check modifications
                 if ( isReplaceForced )
                 {
                     // replace (all new values)
@@ -542,26 +528,6 @@ public class Utils
                 }
                 else
                 {
-                    // compute diff
-                    List<LdifAttrValLine> toDel = new ArrayList<>();
-                    List<LdifAttrValLine> toAdd = new ArrayList<>();
-
-                    for ( Map.Entry<String, LdifAttrValLine> entry : oldAttrValLines.entrySet() )
-                    {
-                        if ( !newValues.contains( entry.getKey() ) )
-                        {
-                            toDel.add( entry.getValue() );
-                        }
-                    }
-                    
-                    for ( Map.Entry<String, LdifAttrValLine> entry : newAttrValLines.entrySet() )
-                    {
-                        if ( !oldValues.contains( entry.getKey() ) )
-                        {
-                            toAdd.add( entry.getValue() );
-                        }
-                    }
-
                     /*
                      *  we use add/del in the following cases:
                      *  - add/del is forced in the connection configuration
@@ -575,17 +541,17 @@ public class Utils
                         // add/del del/add
                         LdifModSpec addModSpec = LdifModSpec.createAdd( attributeDescription );
                         
-                        for ( LdifAttrValLine attrValLine : toAdd )
+                        for ( IValue value : toAdd )
                         {
-                            addModSpec.addAttrVal( attrValLine );
+                            addModSpec.addAttrVal( computeDiffCreateAttrValLine( value ) );
                         }
                         
                         addModSpec.finish( LdifModSpecSepLine.create() );
                         LdifModSpec delModSpec = LdifModSpec.createDelete( attributeDescription );
                         
-                        for ( LdifAttrValLine attrValLine : toDel )
+                        for ( IValue value : toDel )
                         {
-                            delModSpec.addAttrVal( attrValLine );
+                            delModSpec.addAttrVal( computeDiffCreateAttrValLine( value ) );
                         }
                         
                         delModSpec.finish( LdifModSpecSepLine.create() );
@@ -620,9 +586,9 @@ public class Utils
                         // replace (all new values)
                         LdifModSpec modSpec = LdifModSpec.createReplace( attributeDescription );
                         
-                        for ( LdifAttrValLine attrValLine : newAttrValLines.values() )
+                        for ( IValue value : newAttribute.getValues() )
                         {
-                            modSpec.addAttrVal( attrValLine );
+                            modSpec.addAttrVal( computeDiffCreateAttrValLine( value ) );
                         }
                         
                         modSpec.finish( LdifModSpecSepLine.create() );
@@ -646,6 +612,91 @@ public class Utils
     }
 
 
+    /**
+     * Computes the values to delete from and to add to the old attribute to get
+     * the new attribute. If the new attribute is a tracked copy of the old attribute
+     * (or vice versa) only the recorded changes are checked, otherwise all values
+     * are compared.
+     *
+     * @param oldAttribute the old attribute
+     * @param newAttribute the new attribute
+     * @param toDel the list to add the values to delete to
+     * @param toAdd the list to add the values to add to
+     */
+    private static void computeDiffValues( IAttribute oldAttribute, IAttribute newAttribute, List<IValue> toDel,
+        List<IValue> toAdd )
+    {
+        if ( oldAttribute instanceof Attribute && newAttribute instanceof Attribute )
+        {
+            Attribute oldAttributeImpl = ( Attribute ) oldAttribute;
+            Attribute newAttributeImpl = ( Attribute ) newAttribute;
+            Collection<IValue> changedValues = newAttributeImpl.getChangedValues( oldAttributeImpl );
+
+            if ( changedValues != null )
+            {
+                for ( IValue value : changedValues )
+                {
+                    IValue oldValue = oldAttributeImpl.getValue( value );
+                    IValue newValue = newAttributeImpl.getValue( value );
+
+                    if ( oldValue != null && newValue == null )
+                    {
+                        toDel.add( oldValue );
+                    }
+                    else if ( oldValue == null && newValue != null )
+                    {
+                        toAdd.add( newValue );
+                    }
+                }
+
+                return;
+            }
+        }
+
+        // compare all values
+        Map<Object, IValue> oldValues = computeDiffGetValues( oldAttribute );
+        Map<Object, IValue> newValues = computeDiffGetValues( newAttribute );
+
+        for ( Map.Entry<Object, IValue> entry : oldValues.entrySet() )
+        {
+            if ( !newValues.containsKey( entry.getKey() ) )
+            {
+                toDel.add( entry.getValue() );
+            }
+        }
+
+        for ( Map.Entry<Object, IValue> entry : newValues.entrySet() )
+        {
+            if ( !oldValues.containsKey( entry.getKey() ) )
+            {
+                toAdd.add( entry.getValue() );
+            }
+        }
+    }
+
+
+    /**
+     * Gets the distinct values of an attribute, keyed by the raw value
+     * as it would be written to LDIF.
+     *
+     * @param attribute the attribute
+     * @return the values
+     */
+    private static Map<Object, IValue> computeDiffGetValues( IAttribute attribute )
+    {
+        boolean isBinary = attribute.isBinary();
+        Map<Object, IValue> values = new LinkedHashMap<>();
+
+        for ( IValue value : attribute.getValues() )
+        {
+            Object key = isBinary ? ByteBuffer.wrap( value.getBinaryValue() ) : value.getStringValue();
+            values.putIfAbsent( key, value );
+        }
+
+        return values;
+    }
+
+
     private static LdifAttrValLine computeDiffCreateAttrValLine( IValue value )
     {
         IAttribute attribute = value.getAttribute();
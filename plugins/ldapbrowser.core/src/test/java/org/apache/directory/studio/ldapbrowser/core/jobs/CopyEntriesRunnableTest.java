@@ -0,0 +1,504 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.directory.SearchControls;
+import javax.net.ssl.SSLSession;
+
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
+import org.apache.directory.api.ldap.model.exception.LdapEntryAlreadyExistsException;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.ExtendedRequest;
+import org.apache.directory.api.ldap.model.message.ExtendedResponse;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.Connection.AliasDereferencingMethod;
+import org.apache.directory.studio.connection.core.Connection.ReferralHandlingMethod;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.connection.core.ReferralsInfo;
+import org.apache.directory.studio.connection.core.io.ConnectionWrapper;
+import org.apache.directory.studio.connection.core.io.StudioLdapException;
+import org.apache.directory.studio.connection.core.io.api.ConnectionStatistics;
+import org.apache.directory.studio.connection.core.io.api.StudioSearchResultEnumeration;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.jobs.CopyEntriesRunnable.PipelinedCopy;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the pipelined copy of {@link CopyEntriesRunnable}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class CopyEntriesRunnableTest
+{
+    private static final String SOURCE = "ou=source,dc=example,dc=com";
+    private static final String TARGET = "ou=target,dc=example,dc=com";
+
+    private TestConnectionWrapper source;
+    private TestConnectionWrapper target;
+    private StudioProgressMonitor monitor;
+
+
+    @BeforeEach
+    public void setup()
+    {
+        EventRegistry.suspendEventFiringInCurrentThread();
+        source = new TestConnectionWrapper();
+        target = new TestConnectionWrapper();
+        monitor = new StudioProgressMonitor( new NullProgressMonitor() );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        EventRegistry.resumeEventFiringInCurrentThread();
+    }
+
+
+    @Test
+    public void testParentsAreCreatedFirst() throws Exception
+    {
+        // the search returns the children before their parents
+        source.add( "cn=2,ou=b,ou=a," + SOURCE );
+        source.add( "ou=b,ou=a," + SOURCE );
+        source.add( "cn=1,ou=a," + SOURCE );
+        source.add( "ou=a," + SOURCE );
+        source.add( SOURCE );
+
+        PipelinedCopy copy = copy( null );
+
+        assertFalse( monitor.errorsReported() );
+        assertEquals( 5, copy.getNumberOfCopiedEntries() );
+        assertEquals( Arrays.asList( "ou=source," + TARGET, "ou=a,ou=source," + TARGET,
+            "ou=b,ou=a,ou=source," + TARGET, "cn=1,ou=a,ou=source," + TARGET, "cn=2,ou=b,ou=a,ou=source," + TARGET ),
+            target.created );
+
+        // each batch releases the children of its entries
+        assertEquals( Arrays.asList( 1, 1, 2, 1 ), target.batchSizes );
+    }
+
+
+    @Test
+    public void testConflictsAreResolvedAfterTheBatch() throws Exception
+    {
+        source.add( SOURCE );
+        source.add( "ou=a," + SOURCE );
+        source.add( "cn=1,ou=a," + SOURCE );
+        source.add( "cn=2,ou=a," + SOURCE );
+        source.add( "cn=3,ou=a," + SOURCE );
+        target.add( "ou=source," + TARGET );
+        target.add( "cn=1,ou=a,ou=source," + TARGET );
+        target.add( "cn=3,ou=a,ou=source," + TARGET );
+
+        TestDialog dialog = new TestDialog( EntryExistsCopyStrategyDialog.EntryExistsCopyStrategy.IGNORE_AND_CONTINUE );
+        PipelinedCopy copy = copy( dialog );
+
+        assertFalse( monitor.errorsReported() );
+        assertEquals( 5, copy.getNumberOfCopiedEntries() );
+        assertEquals( Arrays.asList( "ou=a,ou=source," + TARGET, "cn=2,ou=a,ou=source," + TARGET ),
+            target.created );
+
+        // the conflicts don't interrupt their batch, the remembered strategy is applied to the 2nd and 3rd conflict
+        assertEquals( Arrays.asList( 1, 1, 3 ), target.batchSizes );
+        assertEquals( 1, dialog.openCount );
+    }
+
+
+    @Test
+    public void testConflictWithoutDialogIsReported() throws Exception
+    {
+        source.add( SOURCE );
+        source.add( "ou=a," + SOURCE );
+        target.add( "ou=source," + TARGET );
+
+        PipelinedCopy copy = copy( null );
+
+        assertTrue( monitor.errorsReported() );
+        assertEquals( 0, copy.getNumberOfCopiedEntries() );
+        assertTrue( target.created.isEmpty() );
+    }
+
+
+    @Test
+    public void testEntriesWithoutParentAreReported() throws Exception
+    {
+        // the parent ou=hidden isn't returned by the search
+        source.add( SOURCE );
+        source.add( "ou=a," + SOURCE );
+        source.add( "cn=1,ou=hidden," + SOURCE );
+        source.add( "cn=2,cn=1,ou=hidden," + SOURCE );
+
+        PipelinedCopy copy = copy( null );
+
+        assertEquals( 2, copy.getNumberOfCopiedEntries() );
+        assertEquals( Arrays.asList( "ou=source," + TARGET, "ou=a,ou=source," + TARGET ), target.created );
+        assertTrue( monitor.errorsReported() );
+
+        String message = monitor.getErrorStatus( "" ).getMessage(); //$NON-NLS-1$
+        assertTrue( message.contains( "cn=1,ou=hidden," + SOURCE ), message );
+        assertTrue( message.contains( "cn=2,cn=1,ou=hidden," + SOURCE ), message );
+    }
+
+
+    /**
+     * Copies the source subtree below the target.
+     */
+    private PipelinedCopy copy( EntryExistsCopyStrategyDialog dialog ) throws Exception
+    {
+        IBrowserConnection sourceBrowserConnection = createBrowserConnection( source );
+        IBrowserConnection targetBrowserConnection = createBrowserConnection( target );
+
+        SearchControls searchControls = new SearchControls();
+        searchControls.setSearchScope( SearchControls.OBJECT_SCOPE );
+        StudioSearchResultEnumeration entries = source.search( SOURCE, ISearch.FILTER_TRUE, searchControls,
+            AliasDereferencingMethod.NEVER, ReferralHandlingMethod.IGNORE, null, monitor, null );
+
+        PipelinedCopy copy = new PipelinedCopy( sourceBrowserConnection, targetBrowserConnection,
+            SearchControls.SUBTREE_SCOPE, dialog, new StudioProgressMonitor( monitor ), monitor );
+        copy.copy( entries, new Dn( TARGET ), null );
+
+        return copy;
+    }
+
+
+    private static IBrowserConnection createBrowserConnection( TestConnectionWrapper connectionWrapper )
+    {
+        Connection connection = new Connection( new ConnectionParameter() )
+        {
+            @Override
+            public ConnectionWrapper getConnectionWrapper()
+            {
+                return connectionWrapper;
+            }
+        };
+        connectionWrapper.connection = connection;
+
+        BrowserConnection browserConnection = new BrowserConnection( connection );
+        browserConnection.setSchema( Schema.DEFAULT_SCHEMA );
+
+        return browserConnection;
+    }
+
+
+    /**
+     * A dialog returning a fixed strategy, the selection is remembered after the dialog was opened once.
+     */
+    private static class TestDialog implements EntryExistsCopyStrategyDialog
+    {
+        private EntryExistsCopyStrategy strategy;
+        private int openCount;
+
+
+        private TestDialog( EntryExistsCopyStrategy strategy )
+        {
+            this.strategy = strategy;
+        }
+
+
+        public void setExistingEntry( IBrowserConnection browserConnection, Dn newLdapDn )
+        {
+        }
+
+
+        public EntryExistsCopyStrategy getStrategy()
+        {
+            return strategy;
+        }
+
+
+        public Rdn getRdn()
+        {
+            return null;
+        }
+
+
+        public boolean isRememberSelection()
+        {
+            return openCount > 0;
+        }
+
+
+        public int open()
+        {
+            openCount++;
+            return 0;
+        }
+    }
+
+
+    /**
+     * An in-memory directory, the search returns the entries in the order they were added.
+     */
+    private static class TestConnectionWrapper implements ConnectionWrapper
+    {
+        private Connection connection;
+        private Map<String, Entry> entries = new LinkedHashMap<>();
+        private List<String> created = new ArrayList<>();
+        private List<Integer> batchSizes = new ArrayList<>();
+
+
+        private void add( String dn ) throws Exception
+        {
+            Entry entry = new DefaultEntry( dn );
+            entry.add( "objectClass", "top" ); //$NON-NLS-1$ //$NON-NLS-2$
+            entries.put( entry.getDn().getNormName(), entry );
+        }
+
+
+        private boolean create( Entry entry )
+        {
+            if ( entries.containsKey( entry.getDn().getNormName() ) )
+            {
+                return false;
+            }
+
+            entries.put( entry.getDn().getNormName(), entry.clone() );
+            created.add( entry.getDn().getName() );
+
+            return true;
+        }
+
+
+        public StudioSearchResultEnumeration search( String searchBase, String filter, SearchControls searchControls,
+            AliasDereferencingMethod aliasesDereferencingMethod, ReferralHandlingMethod referralsHandlingMethod,
+            Control[] controls, StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+            List<Response> responses = new ArrayList<>();
+
+            try
+            {
+                Dn base = new Dn( searchBase );
+
+                for ( Entry entry : entries.values() )
+                {
+                    Dn dn = entry.getDn();
+                    boolean matches;
+
+                    switch ( searchControls.getSearchScope() )
+                    {
+                        case SearchControls.OBJECT_SCOPE:
+                            matches = dn.equals( base );
+                            break;
+
+                        case SearchControls.ONELEVEL_SCOPE:
+                            matches = dn.getParent().equals( base );
+                            break;
+
+                        default:
+                            matches = dn.isDescendantOf( base ) || dn.equals( base );
+                    }
+
+                    if ( matches )
+                    {
+                        SearchResultEntryImpl response = new SearchResultEntryImpl();
+                        response.setEntry( entry.clone() );
+                        responses.add( response );
+                    }
+                }
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalArgumentException( e );
+            }
+
+            return new StudioSearchResultEnumeration( connection, createCursor( responses ), searchBase, filter,
+                searchControls, aliasesDereferencingMethod, referralsHandlingMethod, controls, 0, monitor,
+                referralsInfo );
+        }
+
+
+        private static SearchCursor createCursor( List<Response> responses )
+        {
+            Iterator<Response> iterator = responses.iterator();
+            Response[] current = new Response[1];
+
+            return ( SearchCursor ) Proxy.newProxyInstance( CopyEntriesRunnableTest.class.getClassLoader(),
+                new Class<?>[]
+                    { SearchCursor.class }, ( proxy, method, args ) -> {
+                        switch ( method.getName() )
+                        {
+                            case "next":
+                                current[0] = iterator.hasNext() ? iterator.next() : null;
+                                return current[0] != null;
+
+                            case "get":
+                                return current[0];
+
+                            case "getSearchResultDone":
+                                return new SearchResultDoneImpl();
+
+                            case "close":
+                                return null;
+
+                            default:
+                                throw new UnsupportedOperationException( method.getName() );
+                        }
+                    } );
+        }
+
+
+        public StudioLdapException[] createEntries( List<Entry> entries, Control[] controls, int window,
+            StudioProgressMonitor monitor )
+        {
+            batchSizes.add( entries.size() );
+            StudioLdapException[] results = new StudioLdapException[entries.size()];
+
+            for ( int i = 0; i < results.length; i++ )
+            {
+                if ( !create( entries.get( i ) ) )
+                {
+                    results[i] = new StudioLdapException( new LdapEntryAlreadyExistsException() );
+                }
+            }
+
+            return results;
+        }
+
+
+        public void createEntry( Entry entry, Control[] controls, StudioProgressMonitor monitor,
+            ReferralsInfo referralsInfo )
+        {
+            if ( !create( entry ) )
+            {
+                monitor.reportError( new StudioLdapException( new LdapEntryAlreadyExistsException() ) );
+            }
+        }
+
+
+        public void modifyEntry( Dn dn, Collection<Modification> modifications, Control[] controls,
+            StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+        }
+
+
+        public void connect( StudioProgressMonitor monitor )
+        {
+        }
+
+
+        public void disconnect()
+        {
+        }
+
+
+        public void bind( StudioProgressMonitor monitor )
+        {
+        }
+
+
+        public void unbind()
+        {
+        }
+
+
+        public boolean isConnected()
+        {
+            return true;
+        }
+
+
+        public boolean isSecured()
+        {
+            return false;
+        }
+
+
+        public SSLSession getSslSession()
+        {
+            return null;
+        }
+
+
+        public void setBinaryAttributes( Collection<String> binaryAttributes )
+        {
+        }
+
+
+        public StudioLdapException[] modifyEntries( List<Dn> dns, List<Collection<Modification>> modifications,
+            Control[] controls, int window, StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public void renameEntry( Dn oldDn, Dn newDn, boolean deleteOldRdn, Control[] controls,
+            StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public void deleteEntry( Dn dn, Control[] controls, StudioProgressMonitor monitor,
+            ReferralsInfo referralsInfo )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public StudioLdapException[] deleteEntries( List<Dn> dns, Control[] controls, int window,
+            StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public ExtendedResponse extended( ExtendedRequest request, StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public ConnectionStatistics getStatistics()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.directory.SearchControls;
+import javax.net.ssl.SSLSession;
+
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
+import org.apache.directory.api.ldap.model.exception.LdapContextNotEmptyException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.ExtendedRequest;
+import org.apache.directory.api.ldap.model.message.ExtendedResponse;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.Connection.AliasDereferencingMethod;
+import org.apache.directory.studio.connection.core.Connection.ReferralHandlingMethod;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.connection.core.ReferralsInfo;
+import org.apache.directory.studio.connection.core.io.ConnectionWrapper;
+import org.apache.directory.studio.connection.core.io.StudioLdapException;
+import org.apache.directory.studio.connection.core.io.api.ConnectionStatistics;
+import org.apache.directory.studio.connection.core.io.api.StudioSearchResultEnumeration;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+
+/**
+ * Tests the recursive delete of {@link DeleteEntriesRunnable}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class DeleteEntriesRunnableTest
+{
+    private static final String ROOT = "ou=root,dc=example,dc=com";
+
+    private TestConnectionWrapper directory;
+    private StudioProgressMonitor monitor;
+
+
+    @BeforeEach
+    public void setup()
+    {
+        EventRegistry.suspendEventFiringInCurrentThread();
+        directory = new TestConnectionWrapper();
+        monitor = new StudioProgressMonitor( new NullProgressMonitor() );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        EventRegistry.resumeEventFiringInCurrentThread();
+    }
+
+
+    @Test
+    public void testEntryWithoutChildrenIsDeletedDirectly() throws Exception
+    {
+        directory.add( ROOT );
+
+        assertEquals( 1, delete() );
+        assertFalse( monitor.errorsReported() );
+        assertEquals( Arrays.asList( ROOT ), directory.deleted );
+        assertEquals( 0, directory.subtreeSearches );
+        assertTrue( directory.batches.isEmpty() );
+    }
+
+
+    @Test
+    public void testLevelsAreDeletedDeepestFirst() throws Exception
+    {
+        directory.add( ROOT );
+        directory.add( "ou=a," + ROOT );
+        directory.add( "ou=b," + ROOT );
+        directory.add( "cn=1,ou=a," + ROOT );
+        directory.add( "cn=2,ou=b," + ROOT );
+        directory.add( "cn=3,cn=1,ou=a," + ROOT );
+
+        assertEquals( 6, delete() );
+        assertFalse( monitor.errorsReported() );
+        assertTrue( directory.entries.isEmpty() );
+
+        // one subtree search, one batch per level and the root entry last
+        assertEquals( 1, directory.subtreeSearches );
+        assertEquals( Arrays.asList( Arrays.asList( "cn=3,cn=1,ou=a," + ROOT ),
+            Arrays.asList( "cn=1,ou=a," + ROOT, "cn=2,ou=b," + ROOT ),
+            Arrays.asList( "ou=a," + ROOT, "ou=b," + ROOT ) ), directory.batches );
+        assertEquals( ROOT, directory.deleted.get( directory.deleted.size() - 1 ) );
+    }
+
+
+    @Test
+    public void testFailedEntryOfABatchIsDeletedOptimistically() throws Exception
+    {
+        directory.add( ROOT );
+        directory.add( "ou=a," + ROOT );
+        directory.add( "ou=b," + ROOT );
+        directory.add( "cn=1,ou=a," + ROOT );
+
+        // a child is added to ou=b after the subtree was enumerated
+        directory.addBeforeBatchDelete( "ou=b," + ROOT, "cn=new,ou=b," + ROOT );
+
+        assertEquals( 5, delete() );
+        assertFalse( monitor.errorsReported() );
+        assertTrue( directory.entries.isEmpty() );
+
+        // the rest of the batch isn't affected, the new child is found by the one-level search
+        assertEquals( Arrays.asList( Arrays.asList( "cn=1,ou=a," + ROOT ),
+            Arrays.asList( "ou=a," + ROOT, "ou=b," + ROOT ) ), directory.batches );
+        assertEquals( Arrays.asList( "cn=1,ou=a," + ROOT, "ou=a," + ROOT, "cn=new,ou=b," + ROOT, "ou=b," + ROOT,
+            ROOT ), directory.deleted );
+    }
+
+
+    @Test
+    public void testFailedSubtreeSearchFallsBackToOneLevelSearches() throws Exception
+    {
+        directory.add( ROOT );
+        directory.add( "ou=a," + ROOT );
+        directory.add( "cn=1,ou=a," + ROOT );
+        directory.subtreeSearchError = 80;
+
+        assertEquals( 3, delete() );
+        assertFalse( monitor.errorsReported() );
+        assertTrue( directory.entries.isEmpty() );
+        assertTrue( directory.batches.isEmpty() );
+        assertEquals( Arrays.asList( "cn=1,ou=a," + ROOT, "ou=a," + ROOT, ROOT ), directory.deleted );
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(ints =
+        { 3, 4, 11 })
+    public void testSubtreeSearchIsRepeatedAfterALimit( int resultCode ) throws Exception
+    {
+        directory.add( ROOT );
+
+        for ( int i = 1; i <= 5; i++ )
+        {
+            directory.add( "cn=" + i + "," + ROOT );
+        }
+
+        // each search returns the root entry and two children
+        directory.searchLimit = 3;
+        directory.searchLimitResultCode = resultCode;
+
+        assertEquals( 6, delete() );
+        assertFalse( monitor.errorsReported() );
+        assertTrue( directory.entries.isEmpty() );
+        assertEquals( 3, directory.subtreeSearches );
+        assertEquals( Arrays.asList( Arrays.asList( "cn=1," + ROOT, "cn=2," + ROOT ),
+            Arrays.asList( "cn=3," + ROOT, "cn=4," + ROOT ), Arrays.asList( "cn=5," + ROOT ) ), directory.batches );
+    }
+
+
+    /**
+     * Deletes the root entry recursively.
+     */
+    private int delete() throws Exception
+    {
+        Connection connection = new Connection( new ConnectionParameter() )
+        {
+            @Override
+            public ConnectionWrapper getConnectionWrapper()
+            {
+                return directory;
+            }
+        };
+        directory.connection = connection;
+
+        BrowserConnection browserConnection = new BrowserConnection( connection );
+        browserConnection.setSchema( Schema.DEFAULT_SCHEMA );
+
+        return DeleteEntriesRunnable.deleteEntryRecursive( browserConnection, new Dn( ROOT ), false, false, 0,
+            new StudioProgressMonitor( monitor ), monitor );
+    }
+
+
+    /**
+     * An in-memory directory, the search returns the entries in the order they were added.
+     */
+    private static class TestConnectionWrapper implements ConnectionWrapper
+    {
+        private Connection connection;
+        private Map<String, Entry> entries = new LinkedHashMap<>();
+        private Map<String, String> addedBeforeBatchDelete = new HashMap<>();
+        private List<String> deleted = new ArrayList<>();
+        private List<List<String>> batches = new ArrayList<>();
+        private int subtreeSearches;
+        private int searchLimit = Integer.MAX_VALUE;
+        private int searchLimitResultCode;
+        private int subtreeSearchError;
+
+
+        private void add( String dn ) throws Exception
+        {
+            Entry entry = new DefaultEntry( dn );
+            entry.add( "objectClass", "top" ); //$NON-NLS-1$ //$NON-NLS-2$
+            entries.put( entry.getDn().getNormName(), entry );
+        }
+
+
+        private void addBeforeBatchDelete( String dn, String childDn ) throws Exception
+        {
+            addedBeforeBatchDelete.put( new Dn( dn ).getNormName(), childDn );
+        }
+
+
+        private StudioLdapException delete( Dn dn )
+        {
+            if ( !entries.containsKey( dn.getNormName() ) )
+            {
+                return new StudioLdapException( new LdapNoSuchObjectException() );
+            }
+
+            for ( Entry entry : entries.values() )
+            {
+                if ( entry.getDn().isDescendantOf( dn ) && !entry.getDn().equals( dn ) )
+                {
+                    return new StudioLdapException( new LdapContextNotEmptyException() );
+                }
+            }
+
+            entries.remove( dn.getNormName() );
+            deleted.add( dn.getName() );
+
+            return null;
+        }
+
+
+        public StudioSearchResultEnumeration search( String searchBase, String filter, SearchControls searchControls,
+            AliasDereferencingMethod aliasesDereferencingMethod, ReferralHandlingMethod referralsHandlingMethod,
+            Control[] controls, StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+            List<Response> responses = new ArrayList<>();
+            int resultCode = 0;
+
+            try
+            {
+                Dn base = new Dn( searchBase );
+
+                if ( searchControls.getSearchScope() == SearchControls.SUBTREE_SCOPE )
+                {
+                    subtreeSearches++;
+                    resultCode = subtreeSearchError;
+                }
+
+                for ( Entry entry : entries.values() )
+                {
+                    Dn dn = entry.getDn();
+                    boolean matches;
+
+                    switch ( searchControls.getSearchScope() )
+                    {
+                        case SearchControls.OBJECT_SCOPE:
+                            matches = dn.equals( base );
+                            break;
+
+                        case SearchControls.ONELEVEL_SCOPE:
+                            matches = dn.getParent().equals( base );
+                            break;
+
+                        default:
+                            matches = dn.isDescendantOf( base ) || dn.equals( base );
+                    }
+
+                    if ( matches && responses.size() == searchLimit )
+                    {
+                        resultCode = searchLimitResultCode;
+                        break;
+                    }
+                    else if ( matches )
+                    {
+                        SearchResultEntryImpl response = new SearchResultEntryImpl();
+                        response.setEntry( entry.clone() );
+                        responses.add( response );
+                    }
+                }
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalArgumentException( e );
+            }
+
+            return new StudioSearchResultEnumeration( connection, createCursor( responses, resultCode ), searchBase,
+                filter, searchControls, aliasesDereferencingMethod, referralsHandlingMethod, controls, 0, monitor,
+                referralsInfo );
+        }
+
+
+        /**
+         * Creates a cursor over the responses, the cursor fails with the result code
+         * after the responses if the result code isn't 0.
+         */
+        private static SearchCursor createCursor( List<Response> responses, int resultCode )
+        {
+            Iterator<Response> iterator = responses.iterator();
+            Response[] current = new Response[1];
+
+            return ( SearchCursor ) Proxy.newProxyInstance( DeleteEntriesRunnableTest.class.getClassLoader(),
+                new Class<?>[]
+                    { SearchCursor.class }, ( proxy, method, args ) -> {
+                        switch ( method.getName() )
+                        {
+                            case "next":
+                                if ( !iterator.hasNext() && resultCode != 0 )
+                                {
+                                    throw new CursorException( "[LDAP: error code " + resultCode + " - limit]" );
+                                }
+                                current[0] = iterator.hasNext() ? iterator.next() : null;
+                                return current[0] != null;
+
+                            case "get":
+                                return current[0];
+
+                            case "getSearchResultDone":
+                                return new SearchResultDoneImpl();
+
+                            case "close":
+                                return null;
+
+                            default:
+                                throw new UnsupportedOperationException( method.getName() );
+                        }
+                    } );
+        }
+
+
+        public void deleteEntry( Dn dn, Control[] controls, StudioProgressMonitor monitor,
+            ReferralsInfo referralsInfo )
+        {
+            StudioLdapException exception = delete( dn );
+
+            if ( exception != null )
+            {
+                monitor.reportError( exception );
+            }
+        }
+
+
+        public StudioLdapException[] deleteEntries( List<Dn> dns, Control[] controls, int window,
+            StudioProgressMonitor monitor )
+        {
+            List<String> batch = new ArrayList<>();
+            StudioLdapException[] results = new StudioLdapException[dns.size()];
+
+            try
+            {
+                for ( int i = 0; i < results.length; i++ )
+                {
+                    Dn dn = dns.get( i );
+                    batch.add( dn.getName() );
+
+                    String childDn = addedBeforeBatchDelete.remove( dn.getNormName() );
+                    if ( childDn != null )
+                    {
+                        add( childDn );
+                    }
+
+                    results[i] = delete( dn );
+                }
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalArgumentException( e );
+            }
+
+            batches.add( batch );
+
+            return results;
+        }
+
+
+        public void connect( StudioProgressMonitor monitor )
+        {
+        }
+
+
+        public void disconnect()
+        {
+        }
+
+
+        public void bind( StudioProgressMonitor monitor )
+        {
+        }
+
+
+        public void unbind()
+        {
+        }
+
+
+        public boolean isConnected()
+        {
+            return true;
+        }
+
+
+        public boolean isSecured()
+        {
+            return false;
+        }
+
+
+        public SSLSession getSslSession()
+        {
+            return null;
+        }
+
+
+        public void setBinaryAttributes( Collection<String> binaryAttributes )
+        {
+        }
+
+
+        public void createEntry( Entry entry, Control[] controls, StudioProgressMonitor monitor,
+            ReferralsInfo referralsInfo )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public StudioLdapException[] createEntries( List<Entry> entries, Control[] controls, int window,
+            StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public void modifyEntry( Dn dn, Collection<Modification> modifications, Control[] controls,
+            StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public StudioLdapException[] modifyEntries( List<Dn> dns, List<Collection<Modification>> modifications,
+            Control[] controls, int window, StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public void renameEntry( Dn oldDn, Dn newDn, boolean deleteOldRdn, Control[] controls,
+            StudioProgressMonitor monitor, ReferralsInfo referralsInfo )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public ExtendedResponse extended( ExtendedRequest request, StudioProgressMonitor monitor )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+
+        public ConnectionStatistics getStatistics()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.model.IAttribute;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.IRootDSE;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Attribute;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Value;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the Root DSE cache of {@link InitializeRootDSERunnable}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class InitializeRootDSERunnableTest
+{
+    private File file;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        EventRegistry.suspendEventFiringInCurrentThread();
+        file = File.createTempFile( "rootdse-", ".ldif" );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        file.delete();
+        EventRegistry.resumeEventFiringInCurrentThread();
+    }
+
+
+    @Test
+    public void testWriteAndReadCache() throws Exception
+    {
+        IRootDSE rootDSE = createRootDSE( "20200101000000Z", "20200101000000.000000Z#000000#000#000000" );
+        InitializeRootDSERunnable.writeRootDSECache( rootDSE, file );
+
+        LdifContentRecord record = InitializeRootDSERunnable.readRootDSECache( file );
+        assertNotNull( record );
+
+        IRootDSE cachedRootDSE = createBrowserConnection().getRootDSE();
+        InitializeRootDSERunnable.setRootDSEAttributes( cachedRootDSE, record );
+
+        IAttribute namingContexts = cachedRootDSE.getAttribute( "namingContexts" );
+        assertNotNull( namingContexts );
+        assertArrayEquals( new String[]
+            { "dc=example,dc=com", "dc=example,dc=org" }, namingContexts.getStringValues() );
+        assertEquals( "3", cachedRootDSE.getAttribute( "supportedLDAPVersion" ).getStringValue() );
+        assertEquals( InitializeRootDSERunnable.getMarkers( rootDSE ),
+            InitializeRootDSERunnable.getMarkers( cachedRootDSE ) );
+    }
+
+
+    @Test
+    public void testReadMissingOrInvalidCache() throws Exception
+    {
+        file.delete();
+        assertNull( InitializeRootDSERunnable.readRootDSECache( file ) );
+
+        try ( FileOutputStream out = new FileOutputStream( file ) )
+        {
+            out.write( "no ldif content".getBytes( "UTF-8" ) );
+        }
+        assertNull( InitializeRootDSERunnable.readRootDSECache( file ) );
+    }
+
+
+    @Test
+    public void testRevalidateMarkers() throws Exception
+    {
+        IRootDSE rootDSE = createRootDSE( "20200101000000Z", "20200101000000.000000Z#000000#000#000000" );
+        Map<String, Set<String>> cachedMarkers = InitializeRootDSERunnable.getMarkers( rootDSE );
+
+        // same markers
+        Map<String, Set<String>> serverMarkers = new HashMap<String, Set<String>>();
+        serverMarkers.put( "modifytimestamp", set( "20200101000000Z" ) );
+        serverMarkers.put( "contextcsn", set( "20200101000000.000000Z#000000#000#000000" ) );
+        assertTrue( InitializeRootDSERunnable.isUpToDate( cachedMarkers, serverMarkers ) );
+
+        // changed contextCSN
+        serverMarkers.put( "contextcsn", set( "20210101000000.000000Z#000000#000#000000" ) );
+        assertFalse( InitializeRootDSERunnable.isUpToDate( cachedMarkers, serverMarkers ) );
+
+        // marker missing on the server
+        serverMarkers.remove( "contextcsn" );
+        assertFalse( InitializeRootDSERunnable.isUpToDate( cachedMarkers, serverMarkers ) );
+
+        // the server provides no markers at all
+        IRootDSE noMarkersRootDSE = createRootDSE( null, null );
+        assertFalse( InitializeRootDSERunnable.isUpToDate( InitializeRootDSERunnable.getMarkers( noMarkersRootDSE ),
+            new HashMap<String, Set<String>>() ) );
+    }
+
+
+    private static IRootDSE createRootDSE( String modifyTimestamp, String contextCSN )
+    {
+        IRootDSE rootDSE = createBrowserConnection().getRootDSE();
+        addValues( rootDSE, "namingContexts", "dc=example,dc=com", "dc=example,dc=org" );
+        addValues( rootDSE, "supportedLDAPVersion", "3" );
+
+        if ( modifyTimestamp != null )
+        {
+            addValues( rootDSE, "modifyTimestamp", modifyTimestamp );
+        }
+
+        if ( contextCSN != null )
+        {
+            addValues( rootDSE, "contextCSN", contextCSN );
+        }
+
+        return rootDSE;
+    }
+
+
+    private static IBrowserConnection createBrowserConnection()
+    {
+        BrowserConnection browserConnection = new BrowserConnection( new Connection( new ConnectionParameter() ) );
+        browserConnection.setSchema( Schema.DEFAULT_SCHEMA );
+
+        return browserConnection;
+    }
+
+
+    private static void addValues( IRootDSE rootDSE, String attributeName, String... values )
+    {
+        Attribute attribute = new Attribute( rootDSE, attributeName );
+        rootDSE.addAttribute( attribute );
+
+        for ( String value : values )
+        {
+            attribute.addValue( new Value( attribute, value ) );
+        }
+    }
+
+
+    private static Set<String> set( String value )
+    {
+        Set<String> set = new HashSet<String>();
+        set.add( value );
+
+        return set;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.ldapbrowser.core.jobs;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.directory.api.ldap.model.exception.LdapEntryAlreadyExistsException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.connection.core.io.StudioLdapException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the resume of an interrupted move with {@link MoveCheckpoint}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class MoveCheckpointTest
+{
+    private File file;
+    private Dn sourceDn;
+    private Dn targetDn;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        file = File.createTempFile( "move-", ".log" );
+        file.delete();
+        sourceDn = new Dn( "ou=source,dc=example,dc=com" );
+        targetDn = new Dn( "ou=source,ou=target,dc=example,dc=com" );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+
+    @Test
+    public void testNewCheckpoint() throws Exception
+    {
+        MoveCheckpoint checkpoint = MoveCheckpoint.open( file, sourceDn, targetDn );
+
+        assertFalse( checkpoint.isResumed() );
+        assertFalse( checkpoint.isCopied( sourceDn ) );
+        assertFalse( checkpoint.isDeletePhase() );
+        assertFalse( checkpoint.isAlreadyCopied( new StudioLdapException( new LdapEntryAlreadyExistsException() ) ) );
+
+        checkpoint.delete();
+        assertFalse( file.exists() );
+    }
+
+
+    @Test
+    public void testResume() throws Exception
+    {
+        MoveCheckpoint checkpoint = MoveCheckpoint.open( file, sourceDn, targetDn );
+        checkpoint.copied( sourceDn );
+        checkpoint.copied( new Dn( "cn=a,ou=source,dc=example,dc=com" ) );
+        checkpoint.flush();
+
+        // entries recorded after the last flush are lost by the interruption,
+        // the interrupted checkpoint is never closed
+        checkpoint.copied( new Dn( "cn=b,ou=source,dc=example,dc=com" ) );
+
+        MoveCheckpoint resumed = MoveCheckpoint.open( file, sourceDn, targetDn );
+        assertTrue( resumed.isResumed() );
+        assertTrue( resumed.isCopied( sourceDn ) );
+        assertTrue( resumed.isCopied( new Dn( "cn=a,ou=source,dc=example,dc=com" ) ) );
+        assertFalse( resumed.isCopied( new Dn( "cn=b,ou=source,dc=example,dc=com" ) ) );
+        assertFalse( resumed.isDeletePhase() );
+
+        // the lost entries exist already, adding them again is no error
+        assertTrue( resumed.isAlreadyCopied( new StudioLdapException( new LdapEntryAlreadyExistsException() ) ) );
+        assertFalse( resumed.isAlreadyCopied( new StudioLdapException( new LdapNoSuchObjectException() ) ) );
+
+        resumed.startDeletePhase();
+        resumed.close();
+
+        MoveCheckpoint deletePhase = MoveCheckpoint.open( file, sourceDn, targetDn );
+        assertTrue( deletePhase.isResumed() );
+        assertTrue( deletePhase.isDeletePhase() );
+        deletePhase.delete();
+        assertFalse( file.exists() );
+    }
+
+
+    @Test
+    public void testResumeFromPartiallyWrittenCheckpoint() throws Exception
+    {
+        MoveCheckpoint checkpoint = MoveCheckpoint.open( file, sourceDn, targetDn );
+        checkpoint.copied( sourceDn );
+        checkpoint.copied( new Dn( "cn=a,ou=source,dc=example,dc=com" ) );
+        checkpoint.close();
+        long length = file.length();
+
+        // the move was interrupted while a record was written
+        try ( DataOutputStream out = new DataOutputStream( new FileOutputStream( file, true ) ) )
+        {
+            out.writeByte( 'C' );
+            out.writeShort( 40 );
+            out.writeBytes( "cn=b,ou" );
+        }
+
+        MoveCheckpoint resumed = MoveCheckpoint.open( file, sourceDn, targetDn );
+        assertTrue( resumed.isResumed() );
+        assertTrue( resumed.isCopied( sourceDn ) );
+        assertTrue( resumed.isCopied( new Dn( "cn=a,ou=source,dc=example,dc=com" ) ) );
+        assertFalse( resumed.isCopied( new Dn( "cn=b,ou=source,dc=example,dc=com" ) ) );
+        assertEquals( length, file.length() );
+
+        // the log is continued after the last complete record
+        resumed.copied( new Dn( "cn=b,ou=source,dc=example,dc=com" ) );
+        resumed.close();
+
+        MoveCheckpoint resumedAgain = MoveCheckpoint.open( file, sourceDn, targetDn );
+        assertTrue( resumedAgain.isResumed() );
+        assertTrue( resumedAgain.isCopied( new Dn( "cn=a,ou=source,dc=example,dc=com" ) ) );
+        assertTrue( resumedAgain.isCopied( new Dn( "cn=b,ou=source,dc=example,dc=com" ) ) );
+        resumedAgain.close();
+    }
+
+
+    @Test
+    public void testCheckpointOfOtherMove() throws Exception
+    {
+        MoveCheckpoint checkpoint = MoveCheckpoint.open( file, sourceDn, targetDn );
+        checkpoint.copied( sourceDn );
+        checkpoint.close();
+
+        MoveCheckpoint other = MoveCheckpoint.open( file, sourceDn,
+            new Dn( "ou=source,ou=other,dc=example,dc=com" ) );
+        assertFalse( other.isResumed() );
+        assertFalse( other.isCopied( sourceDn ) );
+        other.close();
+    }
+}
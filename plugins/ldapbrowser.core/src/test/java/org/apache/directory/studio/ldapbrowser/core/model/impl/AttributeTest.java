@@ -0,0 +1,159 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.impl;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
+import org.apache.directory.studio.ldapbrowser.core.model.IValue;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the value handling of {@link Attribute}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AttributeTest
+{
+    private IEntry entry;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        EventRegistry.suspendEventFiringInCurrentThread();
+        IBrowserConnection connection = new DummyConnection( Schema.DEFAULT_SCHEMA );
+        entry = new DummyEntry( new Dn( "cn=foo" ), connection );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        EventRegistry.resumeEventFiringInCurrentThread();
+    }
+
+
+    @Test
+    public void testValuesKeepInsertionOrder()
+    {
+        Attribute member = new Attribute( entry, "member" );
+        Value a = new Value( member, "cn=a" );
+        Value b = new Value( member, "cn=b" );
+        Value c = new Value( member, "cn=c" );
+        member.addValue( a );
+        member.addValue( b );
+        member.addValue( c );
+
+        assertArrayEquals( new IValue[]
+            { a, b, c }, member.getValues() );
+        assertEquals( "cn=a", member.getStringValue() );
+
+        member.deleteValue( new Value( member, "cn=b" ) );
+        assertArrayEquals( new IValue[]
+            { a, c }, member.getValues() );
+
+        Value d = new Value( member, "cn=d" );
+        member.modifyValue( a, d );
+        assertArrayEquals( new IValue[]
+            { c, d }, member.getValues() );
+        assertEquals( 2, member.getValueSize() );
+    }
+
+
+    @Test
+    public void testEqualAndEmptyValues()
+    {
+        Attribute cn = new Attribute( entry, "cn" );
+        Value foo1 = new Value( cn, "foo" );
+        Value foo2 = new Value( cn, "foo" );
+        cn.addValue( foo1 );
+        cn.addEmptyValue();
+        cn.addValue( foo2 );
+        cn.addEmptyValue();
+
+        assertEquals( 4, cn.getValueSize() );
+        assertFalse( cn.isConsistent() );
+
+        cn.deleteValue( foo2 );
+        assertEquals( 3, cn.getValueSize() );
+        assertTrue( cn.getValues()[0].equals( foo2 ) );
+
+        cn.deleteEmptyValue();
+        cn.deleteEmptyValue();
+        assertArrayEquals( new IValue[]
+            { foo2 }, cn.getValues() );
+        assertTrue( cn.isConsistent() );
+    }
+
+
+    @Test
+    public void testBinaryValues()
+    {
+        Attribute jpegPhoto = new Attribute( entry, "jpegPhoto" );
+        assertTrue( jpegPhoto.isBinary() );
+        jpegPhoto.addValue( new Value( jpegPhoto, new byte[]
+            { 1, 2, 3 } ) );
+        jpegPhoto.addValue( new Value( jpegPhoto, new byte[]
+            { 4, 5, 6 } ) );
+
+        jpegPhoto.deleteValue( new Value( jpegPhoto, new byte[]
+            { 1, 2, 3 } ) );
+        assertEquals( 1, jpegPhoto.getValueSize() );
+        assertArrayEquals( new byte[]
+            { 4, 5, 6 }, jpegPhoto.getBinaryValues()[0] );
+    }
+
+
+    @Test
+    public void testManyValues()
+    {
+        Attribute member = new Attribute( entry, "member" );
+        int count = 200000;
+
+        for ( int i = 0; i < count; i++ )
+        {
+            member.addValue( new Value( member, "cn=user" + i + ",ou=users" ) );
+        }
+
+        // delete every second value, each deletion is a hash lookup
+        for ( int i = 0; i < count; i += 2 )
+        {
+            member.deleteValue( new Value( member, "cn=user" + i + ",ou=users" ) );
+        }
+
+        IValue[] values = member.getValues();
+        assertEquals( count / 2, values.length );
+        assertEquals( "cn=user1,ou=users", values[0].getStringValue() );
+        assertEquals( "cn=user" + ( count - 1 ) + ",ou=users", values[values.length - 1].getStringValue() );
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.schema;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.junit.jupiter.api.Test;
+
+
+public class SchemaCacheIOTest
+{
+    private static final String SCHEMA_LDIF = "dn: cn=schema\n"
+        + "objectClasses: ( 2.5.6.6 NAME 'person' DESC 'RFC2256: a person' SUP top STRUCTURAL MUST ( sn $ cn ) MAY ( userPassword $ description ) )\n"
+        + "attributeTypes: ( 2.5.4.3 NAME ( 'cn' 'commonName' ) SUP name )\n"
+        + "attributeTypes: ( 2.5.4.41 NAME 'name' EQUALITY caseIgnoreMatch SUBSTR caseIgnoreSubstringsMatch SYNTAX 1.3.6.1.4.1.1466.115.121.1.15{32768} )\n"
+        + "attributeTypes: ( 2.5.18.2 NAME 'modifyTimestamp' EQUALITY generalizedTimeMatch SYNTAX 1.3.6.1.4.1.1466.115.121.1.24 SINGLE-VALUE NO-USER-MODIFICATION USAGE directoryOperation )\n"
+        + "modifyTimestamp: 20200101000000Z\n"
+        + "\n";
+
+
+    @Test
+    public void testSaveAndLoad() throws Exception
+    {
+        Schema schema = new Schema();
+        schema.loadFromLdif( new StringReader( SCHEMA_LDIF ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SchemaCacheIO.save( schema, out );
+        Schema loaded = SchemaCacheIO.load( new ByteArrayInputStream( out.toByteArray() ) );
+
+        assertEquals( schema.getDn(), loaded.getDn() );
+        assertEquals( "20200101000000Z", loaded.getModifyTimestamp() );
+        assertEquals( schema.getAttributeTypeDescriptions().size(), loaded.getAttributeTypeDescriptions().size() );
+        assertEquals( schema.getObjectClassDescriptions().size(), loaded.getObjectClassDescriptions().size() );
+        assertEquals( schema.getLdapSyntaxDescriptions().size(), loaded.getLdapSyntaxDescriptions().size() );
+        assertEquals( schema.getMatchingRuleDescriptions().size(), loaded.getMatchingRuleDescriptions().size() );
+
+        AttributeType cn = loaded.getAttributeTypeDescription( "commonName" );
+        assertEquals( "2.5.4.3", cn.getOid() );
+        assertEquals( "name", cn.getSuperiorOid() );
+
+        AttributeType name = loaded.getAttributeTypeDescription( "name" );
+        assertEquals( 32768L, name.getSyntaxLength() );
+        assertEquals( "caseIgnoreMatch", name.getEqualityOid() );
+
+        AttributeType modifyTimestamp = loaded.getAttributeTypeDescription( "modifyTimestamp" );
+        assertTrue( modifyTimestamp.isSingleValued() );
+        assertFalse( modifyTimestamp.isUserModifiable() );
+        assertTrue( modifyTimestamp.isOperational() );
+
+        ObjectClass person = loaded.getObjectClassDescription( "person" );
+        assertEquals( "RFC2256: a person", person.getDescription() );
+        assertEquals( 2, person.getMustAttributeTypeOids().size() );
+        assertEquals( 2, person.getMayAttributeTypeOids().size() );
+        assertTrue( person.isStructural() );
+        assertEquals( person.getExtension( Schema.RAW_SCHEMA_DEFINITION_LDIF_VALUE ),
+            schema.getObjectClassDescription( "person" ).getExtension( Schema.RAW_SCHEMA_DEFINITION_LDIF_VALUE ) );
+
+        StringWriter expected = new StringWriter();
+        schema.saveToLdif( expected );
+        StringWriter actual = new StringWriter();
+        loaded.saveToLdif( actual );
+        assertEquals( expected.toString(), actual.toString() );
+    }
+
+
+    @Test
+    public void testLoadUnknownFormat()
+    {
+        byte[] bytes = new byte[]
+            { 0x41, 0x44, 0x53, 0x53, 0, 0, 0, 99 };
+
+        assertThrows( IOException.class, () -> SchemaCacheIO.load( new ByteArrayInputStream( bytes ) ) );
+    }
+}
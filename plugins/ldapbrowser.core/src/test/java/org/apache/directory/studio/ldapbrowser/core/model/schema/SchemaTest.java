@@ -0,0 +1,218 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.studio.ldapbrowser.core.model.schema;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.studio.ldifparser.model.container.LdifContentRecord;
+import org.apache.directory.studio.ldifparser.parser.LdifParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the parsing of the schema record, the parallel parsing of large schema
+ * records must give the same schema as the sequential parsing.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaTest
+{
+    private static final String OID = "1.3.6.1.4.1.18060.0.4.99";
+
+    private ForkJoinPool pool;
+
+
+    @BeforeEach
+    public void setup()
+    {
+        pool = new ForkJoinPool( 4 );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        pool.shutdown();
+    }
+
+
+    @Test
+    public void testParallelParseEqualsSequentialParse() throws Exception
+    {
+        LdifContentRecord schemaRecord = createSchemaRecord( 1200 );
+        assertTrue( schemaRecord.getAttrVals().length >= 1000 );
+
+        Schema sequential = new Schema();
+        sequential.parseSchemaRecord( schemaRecord, null );
+        Schema parallel = new Schema();
+        parallel.parseSchemaRecord( schemaRecord, pool );
+
+        assertEquals( sequential.getDn(), parallel.getDn() );
+        assertEquals( "20200101000000Z", parallel.getModifyTimestamp() ); //$NON-NLS-1$
+
+        // the generated ones and both definitions of 'duplicate', the first one is still found by its OID
+        assertEquals( 302, parallel.getAttributeTypeDescriptions().size() );
+
+        assertSameDescriptions( sequential.getObjectClassDescriptions(), parallel.getObjectClassDescriptions(),
+            sequential::getObjectClassDescription, parallel::getObjectClassDescription );
+        assertSameDescriptions( sequential.getAttributeTypeDescriptions(), parallel.getAttributeTypeDescriptions(),
+            sequential::getAttributeTypeDescription, parallel::getAttributeTypeDescription );
+        assertSameDescriptions( sequential.getLdapSyntaxDescriptions(), parallel.getLdapSyntaxDescriptions(),
+            sequential::getLdapSyntaxDescription, parallel::getLdapSyntaxDescription );
+        assertSameDescriptions( sequential.getMatchingRuleDescriptions(), parallel.getMatchingRuleDescriptions(),
+            sequential::getMatchingRuleDescription, parallel::getMatchingRuleDescription );
+
+        // the later definition of a name wins, as in the schema record
+        assertEquals( "last", parallel.getAttributeTypeDescription( "duplicate" ).getDescription() ); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals( "last", parallel.getMatchingRuleDescription( "duplicateMatch" ).getDescription() ); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // the may attributes of extensibleObject are in the order of the map
+        assertEquals( sequential.getObjectClassDescription( "extensibleObject" ).getMayAttributeTypeOids(), //$NON-NLS-1$
+            parallel.getObjectClassDescription( "extensibleObject" ).getMayAttributeTypeOids() ); //$NON-NLS-1$
+    }
+
+
+    @Test
+    public void testSmallSchemaRecordIsParsedSequentially() throws Exception
+    {
+        LdifContentRecord schemaRecord = createSchemaRecord( 100 );
+
+        Schema sequential = new Schema();
+        sequential.parseSchemaRecord( schemaRecord, null );
+        Schema parallel = new Schema();
+        parallel.parseSchemaRecord( schemaRecord, pool );
+
+        assertEquals( 0, pool.getStealCount() );
+        assertSameDescriptions( sequential.getAttributeTypeDescriptions(), parallel.getAttributeTypeDescriptions(),
+            sequential::getAttributeTypeDescription, parallel::getAttributeTypeDescription );
+    }
+
+
+    /**
+     * Compares the descriptions of two schemas, and the descriptions found by each of their names and OIDs.
+     */
+    private static <T extends SchemaObject> void assertSameDescriptions( Collection<T> expected, Collection<T> actual,
+        Function<String, T> expectedByNameOrOid, Function<String, T> actualByNameOrOid )
+    {
+        assertEquals( toStrings( expected ), toStrings( actual ) );
+
+        TreeSet<String> namesAndOids = new TreeSet<String>();
+
+        for ( T description : expected )
+        {
+            namesAndOids.add( description.getOid() );
+            namesAndOids.addAll( description.getNames() );
+        }
+
+        for ( String nameOrOid : namesAndOids )
+        {
+            assertEquals( toString( expectedByNameOrOid.apply( nameOrOid ) ),
+                toString( actualByNameOrOid.apply( nameOrOid ) ), nameOrOid );
+        }
+    }
+
+
+    private static TreeSet<String> toStrings( Collection<? extends SchemaObject> descriptions )
+    {
+        TreeSet<String> strings = new TreeSet<String>();
+
+        for ( SchemaObject description : descriptions )
+        {
+            strings.add( toString( description ) );
+        }
+
+        return strings;
+    }
+
+
+    private static String toString( SchemaObject description )
+    {
+        return description.getOid() + " " + description.getNames() + " " + description.getDescription() + " " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            + description.getExtension( Schema.RAW_SCHEMA_DEFINITION_LDIF_VALUE );
+    }
+
+
+    /**
+     * Creates a schema record with the given number of generated schema descriptions,
+     * names defined twice and an invalid description.
+     */
+    private static LdifContentRecord createSchemaRecord( int size ) throws Exception
+    {
+        List<String> lines = new ArrayList<String>();
+        lines.add( "dn: cn=schema" ); //$NON-NLS-1$
+        lines.add( "objectClasses: ( 2.5.6.0 NAME 'top' ABSTRACT MUST objectClass )" ); //$NON-NLS-1$
+        lines.add( "objectClasses: ( 1.3.6.1.4.1.1466.101.120.111 NAME 'extensibleObject' SUP top AUXILIARY )" ); //$NON-NLS-1$
+        lines.add( "attributeTypes: ( " + OID + ".5.1 NAME 'duplicate' DESC 'first' SUP name )" ); //$NON-NLS-1$ //$NON-NLS-2$
+        lines.add( "matchingRules: ( " + OID + ".6.1 NAME 'duplicateMatch' DESC 'first' SYNTAX " + OID + ".3.2 )" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        for ( int i = 0; i < size; i++ )
+        {
+            switch ( i % 4 )
+            {
+                case 0:
+                    // references matching rules and syntaxes that are added as pseudo descriptions
+                    lines.add( "attributeTypes: ( " + OID + ".1." + i + " NAME ( 'attribute" + i + "' 'alias" + i //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                        + "' ) DESC 'attribute " + i + "' SUP name EQUALITY unknownMatch" + i + " SYNTAX " + OID //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        + ".7." + i + " )" ); //$NON-NLS-1$ //$NON-NLS-2$
+                    break;
+
+                case 1:
+                    lines.add( "objectClasses: ( " + OID + ".2." + i + " NAME 'objectClass" + i //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                        + "' SUP top STRUCTURAL MAY attribute" + ( i - 1 ) + " )" ); //$NON-NLS-1$ //$NON-NLS-2$
+                    break;
+
+                case 2:
+                    lines.add( "ldapSyntaxes: ( " + OID + ".3." + i + " DESC 'syntax " + i + "' )" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                    break;
+
+                default:
+                    lines.add( "matchingRules: ( " + OID + ".4." + i + " NAME 'match" + i + "' SYNTAX " + OID + ".3." //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                        + ( i - 1 ) + " )" ); //$NON-NLS-1$
+            }
+
+            if ( i == size / 2 )
+            {
+                lines.add( "attributeTypes: ( invalid" ); //$NON-NLS-1$
+            }
+        }
+
+        lines.add( "attributeTypes: ( " + OID + ".5.2 NAME 'duplicate' DESC 'last' SUP name )" ); //$NON-NLS-1$ //$NON-NLS-2$
+        lines.add( "matchingRules: ( " + OID + ".6.2 NAME 'duplicateMatch' DESC 'last' SYNTAX " + OID + ".3.2 )" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        lines.add( "modifyTimestamp: 20200101000000Z" ); //$NON-NLS-1$
+
+        String ldif = String.join( "\n", lines ) + "\n\n"; //$NON-NLS-1$ //$NON-NLS-2$
+
+        return ( LdifContentRecord ) new LdifParser().parse( new StringReader( ldif ) ).next();
+    }
+}
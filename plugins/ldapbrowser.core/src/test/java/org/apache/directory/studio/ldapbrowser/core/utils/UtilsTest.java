@@ -21,12 +21,49 @@ package org.apache.directory.studio.ldapbrowser.core.utils;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.connection.core.Connection;
+import org.apache.directory.studio.connection.core.ConnectionParameter;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection.ModifyMode;
+import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Attribute;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.BrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.DummyEntry;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Value;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.apache.directory.studio.ldifparser.model.LdifFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 
 public class UtilsTest
 {
+    private BrowserConnection browserConnection;
+
+
+    @BeforeEach
+    public void setup()
+    {
+        EventRegistry.suspendEventFiringInCurrentThread();
+        browserConnection = new BrowserConnection( new Connection( new ConnectionParameter() ) );
+        browserConnection.setSchema( Schema.DEFAULT_SCHEMA );
+    }
+
+
+    @AfterEach
+    public void tearDown()
+    {
+        EventRegistry.resumeEventFiringInCurrentThread();
+    }
+
+
     @Test
     public void testPostalAddressTrivial()
     {
@@ -68,4 +105,126 @@ public class UtilsTest
         assertEquals( "\\241,000,000 Sweepstakes$PO Box 1000000$Anytown, CA 12345$USA",
             encoder.translate( "$1,000,000 Sweepstakes\nPO Box 1000000\nAnytown, CA 12345\nUSA" ) );
     }
+
+
+    @Test
+    public void testComputeDiffAdd() throws Exception
+    {
+        IEntry oldEntry = createEntry( "description", "a" );
+        IEntry newEntry = createEntry( "description", "a", "b" );
+        assertDiff( "changetype:modify\nadd:description\ndescription:b\n-\n", oldEntry, newEntry );
+
+        IEntry clonedEntry = new CompoundModification().cloneEntry( oldEntry );
+        addValue( clonedEntry, "description", "b" );
+        assertTracked( oldEntry, clonedEntry, "description" );
+        assertDiff( "changetype:modify\nadd:description\ndescription:b\n-\n", oldEntry, clonedEntry );
+    }
+
+
+    @Test
+    public void testComputeDiffDelete() throws Exception
+    {
+        IEntry oldEntry = createEntry( "description", "a", "b" );
+        IEntry newEntry = createEntry( "description", "a" );
+        assertDiff( "changetype:modify\ndelete:description\ndescription:b\n-\n", oldEntry, newEntry );
+
+        IEntry clonedEntry = new CompoundModification().cloneEntry( oldEntry );
+        deleteValue( clonedEntry, "description", "b" );
+        assertTracked( oldEntry, clonedEntry, "description" );
+        assertDiff( "changetype:modify\ndelete:description\ndescription:b\n-\n", oldEntry, clonedEntry );
+    }
+
+
+    @Test
+    public void testComputeDiffReplace() throws Exception
+    {
+        browserConnection.setModifyMode( ModifyMode.REPLACE );
+        browserConnection.setModifyModeNoEMR( ModifyMode.REPLACE );
+
+        IEntry oldEntry = createEntry( "description", "a", "b" );
+        IEntry newEntry = createEntry( "description", "a", "c" );
+        assertDiff( "changetype:modify\nreplace:description\ndescription:a\ndescription:c\n-\n", oldEntry,
+            newEntry );
+
+        IEntry clonedEntry = new CompoundModification().cloneEntry( oldEntry );
+        deleteValue( clonedEntry, "description", "b" );
+        addValue( clonedEntry, "description", "c" );
+        assertTracked( oldEntry, clonedEntry, "description" );
+        assertDiff( "changetype:modify\nreplace:description\ndescription:a\ndescription:c\n-\n", oldEntry,
+            clonedEntry );
+    }
+
+
+    @Test
+    public void testComputeDiffUnchanged() throws Exception
+    {
+        IEntry oldEntry = createEntry( "description", "a", "b" );
+        assertNull( Utils.computeDiff( oldEntry, createEntry( "description", "b", "a" ) ) );
+        assertNull( Utils.computeDiff( oldEntry, new CompoundModification().cloneEntry( oldEntry ) ) );
+    }
+
+
+    @Test
+    public void testComputeDiffCloneWithDifferentValues() throws Exception
+    {
+        // the empty value isn't written to LDIF, so the clone lacks it
+        IEntry oldEntry = createEntry( "description", "a" );
+        Attribute oldAttribute = ( Attribute ) oldEntry.getAttribute( "description" );
+        oldAttribute.addEmptyValue();
+        IEntry clonedEntry = new CompoundModification().cloneEntry( oldEntry );
+        Attribute clonedAttribute = ( Attribute ) clonedEntry.getAttribute( "description" );
+        assertEquals( 1, clonedAttribute.getValueSize() );
+        assertNull( clonedAttribute.getChangedValues( oldAttribute ) );
+        assertFalse( clonedAttribute.setOrigin( oldAttribute ) );
+
+        // all values are compared, the missing empty value isn't hidden
+        addValue( clonedEntry, "description", "b" );
+        assertDiff( "changetype:modify\ndelete:description\ndescription:\n-\n"
+            + "add:description\ndescription:b\n-\n", oldEntry, clonedEntry );
+    }
+
+
+    private IEntry createEntry( String attributeDescription, String... values ) throws Exception
+    {
+        IEntry entry = new DummyEntry( new Dn( "cn=test,dc=example,dc=com" ), browserConnection );
+        entry.addAttribute( new Attribute( entry, attributeDescription ) );
+
+        for ( String value : values )
+        {
+            addValue( entry, attributeDescription, value );
+        }
+
+        return entry;
+    }
+
+
+    private static void addValue( IEntry entry, String attributeDescription, String value )
+    {
+        Attribute attribute = ( Attribute ) entry.getAttribute( attributeDescription );
+        attribute.addValue( new Value( attribute, value ) );
+    }
+
+
+    private static void deleteValue( IEntry entry, String attributeDescription, String value )
+    {
+        Attribute attribute = ( Attribute ) entry.getAttribute( attributeDescription );
+        attribute.deleteValue( attribute.getValue( new Value( attribute, value ) ) );
+    }
+
+
+    private static void assertTracked( IEntry oldEntry, IEntry newEntry, String attributeDescription )
+    {
+        Attribute oldAttribute = ( Attribute ) oldEntry.getAttribute( attributeDescription );
+        Attribute newAttribute = ( Attribute ) newEntry.getAttribute( attributeDescription );
+        assertNotNull( newAttribute.getChangedValues( oldAttribute ) );
+    }
+
+
+    private static void assertDiff( String expected, IEntry oldEntry, IEntry newEntry )
+    {
+        LdifFile diff = Utils.computeDiff( oldEntry, newEntry );
+        assertNotNull( diff );
+        assertEquals( "dn:cn=test,dc=example,dc=com\n" + expected + "\n",
+            diff.toRawString().replace( "\r\n", "\n" ) );
+    }
 }
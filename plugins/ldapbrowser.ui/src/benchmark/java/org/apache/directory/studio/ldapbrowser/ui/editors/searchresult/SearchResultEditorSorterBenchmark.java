@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldapbrowser.ui.editors.searchresult;
+
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.studio.ldapbrowser.core.events.EventRegistry;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
+import org.apache.directory.studio.ldapbrowser.core.model.ISearch;
+import org.apache.directory.studio.ldapbrowser.core.model.ISearchResult;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Attribute;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.DummyConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.DummyEntry;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Search;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.SearchResult;
+import org.apache.directory.studio.ldapbrowser.core.model.impl.Value;
+import org.apache.directory.studio.ldapbrowser.core.model.schema.Schema;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the sorting of the search results shown in the search result editor.
+ * <p>
+ * The sorter is connected to a table with a Dn, a cn and a mail column, as the
+ * search result editor does, so the benchmark needs a display: on a headless
+ * machine run it with xvfb-run. Until a column header is selected the sorter
+ * sorts by the first column, which is the Dn column when the Dn is shown and
+ * the cn column otherwise.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchResultEditorSorterBenchmark
+{
+    @Param({ "10000", "100000", "1000000" })
+    public int entries;
+
+    /** Sorts by the Dn column if true, by the cn column otherwise. */
+    @Param({ "true", "false" })
+    public boolean showDn;
+
+    private Display display;
+
+    private Shell shell;
+
+    private TableViewer viewer;
+
+    private SearchResultEditorSorter sorter;
+
+    private ISearchResult[] searchResults;
+
+
+    @Setup
+    public void setup() throws LdapInvalidDnException
+    {
+        IBrowserConnection browserConnection = new DummyConnection( Schema.DEFAULT_SCHEMA );
+        ISearch search = new Search();
+        search.setReturningAttributes( new String[]
+            { "cn", "mail" } ); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // the results arrive in no particular order
+        List<Integer> numbers = IntStream.range( 0, entries ).boxed().collect( Collectors.toList() );
+        Collections.shuffle( numbers );
+        searchResults = new ISearchResult[entries];
+
+        EventRegistry.suspendEventFiringInCurrentThread();
+
+        try
+        {
+            for ( int i = 0; i < entries; i++ )
+            {
+                int number = numbers.get( i );
+                IEntry entry = new DummyEntry( new Dn( "uid=user." + number + ",ou=Users,dc=example,dc=com" ), //$NON-NLS-1$ //$NON-NLS-2$
+                    browserConnection );
+                Attribute cn = new Attribute( entry, "cn" ); //$NON-NLS-1$
+                cn.addValue( new Value( cn, "User " + number ) ); //$NON-NLS-1$
+                entry.addAttribute( cn );
+                searchResults[i] = new SearchResult( entry, search );
+            }
+        }
+        finally
+        {
+            EventRegistry.resumeEventFiringInCurrentThread();
+        }
+
+        display = new Display();
+        shell = new Shell( display );
+        viewer = new TableViewer( shell, SWT.VIRTUAL );
+        int columns = showDn ? 3 : 2;
+
+        for ( int i = 0; i < columns; i++ )
+        {
+            new TableColumn( viewer.getTable(), SWT.LEFT );
+        }
+
+        // the content provider connects the sorter to the columns of the viewer
+        SearchResultEditorConfiguration configuration = new SearchResultEditorConfiguration( null );
+        new SearchResultEditorContentProvider( null, configuration )
+        {
+            public TableViewer getViewer()
+            {
+                return viewer;
+            }
+        };
+
+        sorter = configuration.getSorter();
+        sorter.inputChanged( search, showDn );
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        shell.dispose();
+        display.dispose();
+    }
+
+
+    @Benchmark
+    public Object[] sort()
+    {
+        Object[] elements = searchResults.clone();
+        sorter.sort( viewer, elements );
+        return elements;
+    }
+}
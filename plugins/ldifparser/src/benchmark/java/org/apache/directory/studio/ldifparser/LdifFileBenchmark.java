@@ -0,0 +1,141 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldifparser;
+
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.studio.ldifparser.model.LdifFile;
+import org.apache.directory.studio.ldifparser.model.LdifPart;
+import org.apache.directory.studio.ldifparser.model.container.LdifContainer;
+import org.apache.directory.studio.ldifparser.parser.LdifParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the offset lookups and the replacement of containers of an
+ * {@link LdifFile}, as used by the LDIF editor while typing.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LdifFileBenchmark
+{
+    private static final int OFFSETS = 1024;
+
+    @Param({ "10000", "100000" })
+    public int entries;
+
+    private LdifFile model;
+
+    private int[] offsets;
+
+    private int offsetIndex;
+
+    private LdifContainer[] oldContainers;
+
+    private List<LdifContainer> newContainers;
+
+
+    @Setup
+    public void setup()
+    {
+        String ldif = LdifGenerator.generate( entries );
+        model = new LdifParser().parse( ldif );
+
+        // random offsets, the same for each run
+        Random random = new Random( 42 );
+        offsets = new int[OFFSETS];
+
+        for ( int i = 0; i < OFFSETS; i++ )
+        {
+            offsets[i] = random.nextInt( ldif.length() );
+        }
+    }
+
+
+    /**
+     * Prepares the replacement of the container in the middle of the file
+     * by a freshly parsed one.
+     */
+    @Setup(Level.Invocation)
+    public void prepareReplace()
+    {
+        List<LdifContainer> containers = model.getContainers();
+        oldContainers = new LdifContainer[]
+            { containers.get( containers.size() / 2 ) };
+        newContainers = new LdifParser().parse( LdifGenerator.generateRecord( entries / 2 ) ).getContainers();
+    }
+
+
+    private int nextOffset()
+    {
+        offsetIndex = ( offsetIndex + 1 ) % OFFSETS;
+        return offsets[offsetIndex];
+    }
+
+
+    @Benchmark
+    public LdifContainer getContainer()
+    {
+        return LdifFile.getContainer( model, nextOffset() );
+    }
+
+
+    @Benchmark
+    public LdifContainer[] getContainers()
+    {
+        return LdifFile.getContainers( model, nextOffset(), 1000 );
+    }
+
+
+    @Benchmark
+    public LdifPart[] getParts()
+    {
+        return LdifFile.getParts( model, nextOffset(), 1000 );
+    }
+
+
+    @Benchmark
+    public LdifFile replace()
+    {
+        model.replace( oldContainers, newContainers );
+        return model;
+    }
+}
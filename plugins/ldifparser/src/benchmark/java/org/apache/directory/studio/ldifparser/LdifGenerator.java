@@ -0,0 +1,106 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldifparser;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+
+/**
+ * Generates synthetic LDIF data for the benchmarks. The generated entries
+ * contain short values, folded long values and base64 encoded values,
+ * so all paths of the scanner are used.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdifGenerator
+{
+    private LdifGenerator()
+    {
+    }
+
+
+    /**
+     * Generates an LDIF with the given number of entries.
+     *
+     * @param entries the number of entries
+     * @return the LDIF
+     */
+    public static String generate( int entries )
+    {
+        StringBuilder sb = new StringBuilder( entries * 400 );
+        sb.append( "version: 1\n\n" ); //$NON-NLS-1$
+
+        for ( int i = 0; i < entries; i++ )
+        {
+            appendRecord( sb, i );
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Generates the LDIF of a single entry.
+     *
+     * @param i the number of the entry
+     * @return the LDIF
+     */
+    public static String generateRecord( int i )
+    {
+        StringBuilder sb = new StringBuilder( 400 );
+        appendRecord( sb, i );
+        return sb.toString();
+    }
+
+
+    private static void appendRecord( StringBuilder sb, int i )
+    {
+        sb.append( "dn: uid=user." ).append( i ).append( ",ou=users,dc=example,dc=com\n" ); //$NON-NLS-1$ //$NON-NLS-2$
+        sb.append( "objectClass: top\n" ); //$NON-NLS-1$
+        sb.append( "objectClass: person\n" ); //$NON-NLS-1$
+        sb.append( "objectClass: organizationalPerson\n" ); //$NON-NLS-1$
+        sb.append( "objectClass: inetOrgPerson\n" ); //$NON-NLS-1$
+        sb.append( "uid: user." ).append( i ).append( '\n' ); //$NON-NLS-1$
+        sb.append( "cn: User " ).append( i ).append( '\n' ); //$NON-NLS-1$
+        sb.append( "sn: " ).append( i ).append( '\n' ); //$NON-NLS-1$
+        sb.append( "mail: user." ).append( i ).append( "@example.com\n" ); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // a long value, folded at 76 characters
+        String description = "Description of user " + i //$NON-NLS-1$
+            + " which is long enough to be folded into several lines by the LDIF writer"; //$NON-NLS-1$
+        String line = "description: " + description; //$NON-NLS-1$
+        sb.append( line, 0, 76 ).append( '\n' );
+
+        for ( int pos = 76; pos < line.length(); pos += 75 )
+        {
+            sb.append( ' ' ).append( line, pos, Math.min( pos + 75, line.length() ) ).append( '\n' );
+        }
+
+        // a base64 encoded value
+        String displayName = "\u00DCser " + i; //$NON-NLS-1$
+        sb.append( "displayName:: " ); //$NON-NLS-1$
+        sb.append( Base64.getEncoder().encodeToString( displayName.getBytes( StandardCharsets.UTF_8 ) ) );
+        sb.append( '\n' );
+        sb.append( '\n' );
+    }
+}
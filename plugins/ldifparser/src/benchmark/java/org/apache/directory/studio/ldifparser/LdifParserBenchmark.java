@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+
+package org.apache.directory.studio.ldifparser;
+
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.studio.ldifparser.model.LdifEnumeration;
+import org.apache.directory.studio.ldifparser.model.LdifFile;
+import org.apache.directory.studio.ldifparser.parser.LdifParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks the {@link LdifParser} and the underlying scanner.
+ * The full model is only built for up to 100k entries, the streaming
+ * parser is used for larger files, like the import does.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LdifParserBenchmark
+{
+    /**
+     * An LDIF that is parsed into a model.
+     */
+    @State(Scope.Benchmark)
+    public static class ModelLdif
+    {
+        @Param({ "10000", "100000" })
+        public int modelEntries;
+
+        String ldif;
+
+
+        @Setup
+        public void setup()
+        {
+            ldif = LdifGenerator.generate( modelEntries );
+        }
+    }
+
+    /**
+     * An LDIF that is parsed as stream.
+     */
+    @State(Scope.Benchmark)
+    public static class StreamedLdif
+    {
+        @Param({ "10000", "100000", "1000000" })
+        public int streamedEntries;
+
+        String ldif;
+
+
+        @Setup
+        public void setup()
+        {
+            ldif = LdifGenerator.generate( streamedEntries );
+        }
+    }
+
+
+    @Benchmark
+    public LdifFile parseModel( ModelLdif data )
+    {
+        return new LdifParser().parse( data.ldif );
+    }
+
+
+    @Benchmark
+    public void parseStream( StreamedLdif data, Blackhole blackhole ) throws Exception
+    {
+        LdifEnumeration enumeration = new LdifParser().parse( new StringReader( data.ldif ) );
+
+        while ( enumeration.hasNext() )
+        {
+            blackhole.consume( enumeration.next() );
+        }
+    }
+}
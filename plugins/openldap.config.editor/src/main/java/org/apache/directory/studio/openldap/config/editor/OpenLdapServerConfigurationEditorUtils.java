@@ -22,13 +22,18 @@ package org.apache.directory.studio.openldap.config.editor;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.csn.CsnFactory;
 import org.apache.directory.api.ldap.model.entry.DefaultEntry;
 import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.ldif.LdifEntry;
 import org.apache.directory.api.ldap.model.name.Dn;
@@ -38,17 +43,21 @@ import org.apache.directory.api.ldap.model.schema.registries.ObjectClassRegistry
 import org.apache.directory.api.ldap.util.tree.DnNode;
 import org.apache.directory.api.util.DateUtils;
 import org.apache.directory.api.util.TimeProvider;
+import org.apache.directory.server.core.api.interceptor.context.LookupOperationContext;
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.common.ui.CommonUIUtils;
 import org.apache.directory.studio.common.ui.filesystem.PathEditorInput;
+import org.apache.directory.studio.connection.core.io.StudioLdapException;
 import org.apache.directory.studio.connection.core.event.ConnectionEventRegistry;
 import org.apache.directory.studio.ldapbrowser.core.BrowserCorePlugin;
 import org.apache.directory.studio.ldapbrowser.core.jobs.ExecuteLdifRunnable;
 import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
+import org.apache.directory.studio.ldapbrowser.core.model.IEntry;
 import org.apache.directory.studio.openldap.config.ExpandedLdifUtils;
 import org.apache.directory.studio.openldap.config.OpenLdapConfigurationPlugin;
 import org.apache.directory.studio.openldap.config.jobs.EntryBasedConfigurationPartition;
 import org.apache.directory.studio.openldap.config.jobs.PartitionsDiffComputer;
+import org.apache.directory.studio.openldap.config.model.OlcConfig;
 import org.apache.directory.studio.openldap.config.model.OpenLdapConfiguration;
 import org.apache.directory.studio.openldap.config.model.io.ConfigurationException;
 import org.apache.directory.studio.openldap.config.model.io.ConfigurationReader;
@@ -72,6 +81,14 @@ import org.eclipse.ui.IEditorInput;
  */
 public class OpenLdapServerConfigurationEditorUtils
 {
+    /** 
+     * The maximum number of outstanding modify requests when saving the modified beans. The
+     * modifications of the cn=config entries may depend on each other (an overlay or a database
+     * may need a module added to olcModuleLoad), so they are sent one at a time.
+     */
+    private static final int MODIFY_WINDOW = 1;
+
+
     private OpenLdapServerConfigurationEditorUtils()
     {
         // Do nothing
@@ -367,6 +384,12 @@ public class OpenLdapServerConfigurationEditorUtils
 
     /**
      * Saves the configuration.
+     * <p>
+     * When no configuration bean has been added, removed or renamed since the configuration
+     * was read or last saved, only the modified beans are compared with their original
+     * entries and the modifications are sent one after another, in the order of the
+     * configuration. Otherwise the whole
+     * configuration is compared with the original partition.
      *
      * @param input the connection server configuration input
      * @param editor the editor
@@ -393,64 +416,243 @@ public class OpenLdapServerConfigurationEditorUtils
 
         try
         {
-            // Creating a new configuration partition
-            EntryBasedConfigurationPartition modifiedPartition = createConfigurationPartition( schemaManager,
-                originalPartition.getSuffixDn() );
-            
-            for ( LdifEntry ldifEntry : configurationWriter.getConvertedLdifEntries() )
-            {
-                modifiedPartition.addEntry( new DefaultEntry( schemaManager, ldifEntry.getEntry() ) );
-            }
+            // Converting the configuration beans to entries
+            Map<OlcConfig, LdifEntry> convertedEntries = configurationWriter.getConvertedLdifEntriesByBean(
+                ConfigurationUtils.getConfigurationDn( browserConnection ) );
 
-            // Comparing both partitions to get the list of modifications to be applied
-            List<LdifEntry> modificationsList = PartitionsDiffComputer.computeModifications( originalPartition, 
-                modifiedPartition, new String[] { SchemaConstants.ALL_USER_ATTRIBUTES } );
+            // Comparing the modified beans with their original entries
+            Map<OlcConfig, LdifEntry> modifiedBeans = computeModifiedBeans( originalPartition, schemaManager,
+                convertedEntries );
 
-            // Building the resulting LDIF
-            StringBuilder modificationsLdif = new StringBuilder();
-            
-            for ( LdifEntry ldifEntry : modificationsList )
+            if ( modifiedBeans != null )
+            {
+                saveModifiedBeans( browserConnection, originalPartition, convertedEntries, modifiedBeans );
+            }
+            else
             {
-                modificationsLdif.append( ldifEntry.toString() );
+                saveAllBeans( browserConnection, input, convertedEntries );
             }
+        }
+        finally
+        {
+            // Resumes event firing in current thread.
+            ConnectionEventRegistry.resumeEventFiringInCurrentThread();
+        }
+    }
 
-            // Creating a StudioProgressMonitor to run the LDIF with
-            StudioProgressMonitor studioProgressMonitor = new StudioProgressMonitor( new NullProgressMonitor() );
 
-            // Updating the configuration with the resulting LDIF
-            ExecuteLdifRunnable.executeLdif( browserConnection, modificationsLdif.toString(), true, true,
-                studioProgressMonitor );
+    /**
+     * Computes the modifications of the beans modified since they were marked clean.
+     *
+     * @param originalPartition the original configuration partition
+     * @param schemaManager the schema manager
+     * @param convertedEntries the converted entries, by configuration bean
+     * @return the modifications, by modified configuration bean, or <code>null</code> if 
+     * some beans have been added, removed or renamed and the whole configuration has to be compared
+     * @throws Exception
+     */
+    static Map<OlcConfig, LdifEntry> computeModifiedBeans( EntryBasedConfigurationPartition originalPartition,
+        SchemaManager schemaManager, Map<OlcConfig, LdifEntry> convertedEntries ) throws Exception
+    {
+        // Checking no entry has been added or removed
+        if ( convertedEntries.size() != originalPartition.getEntryCount() )
+        {
+            return null;
+        }
+
+        Map<OlcConfig, LdifEntry> modifiedBeans = new LinkedHashMap<>();
 
-            // Checking if there were errors during the execution of the LDIF
-            if ( studioProgressMonitor.errorsReported() )
+        for ( Map.Entry<OlcConfig, LdifEntry> convertedEntry : convertedEntries.entrySet() )
+        {
+            OlcConfig bean = convertedEntry.getKey();
+            LdifEntry ldifEntry = convertedEntry.getValue();
+
+            // Checking the bean is neither new nor renamed
+            LdifEntry cleanEntry = bean.getCleanEntry();
+
+            if ( ( cleanEntry == null ) || !cleanEntry.getDn().equals( ldifEntry.getDn() ) )
             {
-                StringBuilder message = new StringBuilder();
-                message.append( "Changes could not be saved to the connection." );
+                return null;
+            }
 
-                Exception exception = studioProgressMonitor.getException();
-                if ( exception != null )
+            if ( bean.isDirty( ldifEntry ) )
+            {
+                // Looking up the original entry
+                Entry originalEntry = originalPartition.lookup( new LookupOperationContext( null, new Dn(
+                    schemaManager, ldifEntry.getDn().getName() ), SchemaConstants.ALL_USER_ATTRIBUTES_ARRAY ) );
+
+                if ( originalEntry == null )
                 {
-                    message.append( "\n\n" );
-                    message.append( "Cause: " );
-                    message.append( exception.getMessage() );
+                    return null;
+                }
+
+                // Comparing both entries
+                LdifEntry modificationEntry = PartitionsDiffComputer.computeModifications( originalEntry,
+                    new DefaultEntry( schemaManager, ldifEntry.getEntry() ) );
 
-                    throw new Exception( message.toString(), exception );
+                if ( modificationEntry.getModifications().isEmpty() )
+                {
+                    // The bean is back to its original state
+                    bean.markClean( ldifEntry );
                 }
                 else
                 {
-                    throw new Exception( message.toString() );
+                    modifiedBeans.put( bean, modificationEntry );
+                }
+            }
+        }
+
+        return modifiedBeans;
+    }
+
+
+    /**
+     * Sends the modifications of the modified beans one after another, in the order of the
+     * configuration, and applies them to the original partition. The beans saved successfully
+     * are marked clean.
+     *
+     * @param browserConnection the browser connection
+     * @param originalPartition the original configuration partition
+     * @param convertedEntries the converted entries, by configuration bean
+     * @param modifiedBeans the modifications, by modified configuration bean
+     * @throws Exception
+     */
+    private static void saveModifiedBeans( IBrowserConnection browserConnection,
+        EntryBasedConfigurationPartition originalPartition, Map<OlcConfig, LdifEntry> convertedEntries,
+        Map<OlcConfig, LdifEntry> modifiedBeans ) throws Exception
+    {
+        List<Dn> dns = new ArrayList<>( modifiedBeans.size() );
+        List<Collection<Modification>> modifications = new ArrayList<>( modifiedBeans.size() );
+
+        for ( LdifEntry modificationEntry : modifiedBeans.values() )
+        {
+            dns.add( modificationEntry.getDn() );
+            modifications.add( modificationEntry.getModifications() );
+        }
+
+        // Creating a StudioProgressMonitor to run the modifications with
+        StudioProgressMonitor studioProgressMonitor = new StudioProgressMonitor( new NullProgressMonitor() );
+
+        // Updating the configuration with the modifications
+        StudioLdapException[] exceptions = dns.isEmpty() ? new StudioLdapException[0] : browserConnection
+            .getConnection().getConnectionWrapper().modifyEntries( dns, modifications, null, MODIFY_WINDOW,
+                studioProgressMonitor );
+
+        Exception exception = studioProgressMonitor.getException();
+        int index = 0;
+
+        for ( Map.Entry<OlcConfig, LdifEntry> modifiedBean : modifiedBeans.entrySet() )
+        {
+            if ( exceptions[index] == null )
+            {
+                // Applying the modifications to the original partition and marking the bean clean
+                originalPartition.modifyEntry( dns.get( index ), modifiedBean.getValue().getModifications() );
+                modifiedBean.getKey().markClean( convertedEntries.get( modifiedBean.getKey() ) );
+
+                // Updating the browser cache
+                IEntry entry = browserConnection.getEntryFromCache( dns.get( index ) );
+
+                if ( entry != null )
+                {
+                    entry.setAttributesInitialized( false );
                 }
             }
+            else if ( exception == null )
+            {
+                exception = exceptions[index];
+            }
+
+            index++;
+        }
+
+        // Checking if there were errors during the modifications
+        if ( exception != null )
+        {
+            StringBuilder message = new StringBuilder();
+            message.append( "Changes could not be saved to the connection." );
+            message.append( "\n\n" );
+            message.append( "Cause: " );
+            message.append( exception.getMessage() );
+
+            throw new Exception( message.toString(), exception );
+        }
+    }
+
+
+    /**
+     * Compares the whole configuration with the original partition and executes the resulting
+     * LDIF. The original partition is replaced and all the beans are marked clean.
+     *
+     * @param browserConnection the browser connection
+     * @param input the connection server configuration input
+     * @param convertedEntries the converted entries, by configuration bean
+     * @throws Exception
+     */
+    private static void saveAllBeans( IBrowserConnection browserConnection, ConnectionServerConfigurationInput input,
+        Map<OlcConfig, LdifEntry> convertedEntries ) throws Exception
+    {
+        // Getting the original configuration partition and its schema manager
+        EntryBasedConfigurationPartition originalPartition = input.getOriginalPartition();
+        SchemaManager schemaManager = originalPartition.getSchemaManager();
+
+        // Creating a new configuration partition
+        EntryBasedConfigurationPartition modifiedPartition = createConfigurationPartition( schemaManager,
+            originalPartition.getSuffixDn() );
+        
+        for ( LdifEntry ldifEntry : convertedEntries.values() )
+        {
+            modifiedPartition.addEntry( new DefaultEntry( schemaManager, ldifEntry.getEntry() ) );
+        }
+
+        // Comparing both partitions to get the list of modifications to be applied
+        List<LdifEntry> modificationsList = PartitionsDiffComputer.computeModifications( originalPartition, 
+            modifiedPartition, new String[] { SchemaConstants.ALL_USER_ATTRIBUTES } );
+
+        // Building the resulting LDIF
+        StringBuilder modificationsLdif = new StringBuilder();
+        
+        for ( LdifEntry ldifEntry : modificationsList )
+        {
+            modificationsLdif.append( ldifEntry.toString() );
+        }
+
+        // Creating a StudioProgressMonitor to run the LDIF with
+        StudioProgressMonitor studioProgressMonitor = new StudioProgressMonitor( new NullProgressMonitor() );
+
+        // Updating the configuration with the resulting LDIF
+        ExecuteLdifRunnable.executeLdif( browserConnection, modificationsLdif.toString(), true, true,
+            studioProgressMonitor );
+
+        // Checking if there were errors during the execution of the LDIF
+        if ( studioProgressMonitor.errorsReported() )
+        {
+            StringBuilder message = new StringBuilder();
+            message.append( "Changes could not be saved to the connection." );
+
+            Exception exception = studioProgressMonitor.getException();
+            if ( exception != null )
+            {
+                message.append( "\n\n" );
+                message.append( "Cause: " );
+                message.append( exception.getMessage() );
+
+                throw new Exception( message.toString(), exception );
+            }
             else
             {
-                // Swapping the new configuration partition
-                input.setOriginalPartition( modifiedPartition );
+                throw new Exception( message.toString() );
             }
         }
-        finally
+        else
         {
-            // Resumes event firing in current thread.
-            ConnectionEventRegistry.resumeEventFiringInCurrentThread();
+            // Swapping the new configuration partition
+            input.setOriginalPartition( modifiedPartition );
+
+            // Marking all the beans clean
+            for ( Map.Entry<OlcConfig, LdifEntry> convertedEntry : convertedEntries.entrySet() )
+            {
+                convertedEntry.getKey().markClean( convertedEntry.getValue() );
+            }
         }
     }
 
@@ -20,14 +20,17 @@
 package org.apache.directory.studio.openldap.config.jobs;
 
 
+import java.util.List;
 import java.util.UUID;
 
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.api.ldap.model.schema.SchemaManager;
 import org.apache.directory.server.core.api.interceptor.context.AddOperationContext;
+import org.apache.directory.server.core.api.interceptor.context.ModifyOperationContext;
 import org.apache.directory.server.core.partition.ldif.AbstractLdifPartition;
 
 
@@ -38,6 +41,10 @@ import org.apache.directory.server.core.partition.ldif.AbstractLdifPartition;
  */
 public class EntryBasedConfigurationPartition extends AbstractLdifPartition
 {
+    /** The number of entries added to the partition */
+    private int entryCount;
+
+
     /**
      * Creates a new instance of EntryBasedConfigurationPartition.
      *
@@ -78,6 +85,31 @@ public class EntryBasedConfigurationPartition extends AbstractLdifPartition
 
         // Storing the entry
         add( new AddOperationContext( null, entry ) );
+        entryCount++;
+    }
+
+
+    /**
+     * Applies the given modifications to the entry with the given DN.
+     *
+     * @param dn the DN of the entry
+     * @param modifications the modifications
+     * @throws LdapException
+     */
+    public void modifyEntry( Dn dn, List<Modification> modifications ) throws LdapException
+    {
+        modify( new ModifyOperationContext( null, dn, modifications ) );
+    }
+
+
+    /**
+     * Gets the number of entries added to the partition.
+     *
+     * @return the number of entries
+     */
+    public int getEntryCount()
+    {
+        return entryCount;
     }
 
 
@@ -373,6 +373,35 @@ public class PartitionsDiffComputer
         return deletions;
     }
 
+    /**
+     * Computes the modifications between two versions of an entry, only the
+     * 'userApplications' attributes are compared.
+     *
+     * @param originalEntry the original entry
+     * @param modifiedEntry the modified entry
+     * @return the LDIF modification entry, its list of modifications is empty if both entries are equivalent
+     * @throws PartitionsDiffException If something went wrong
+     */
+    public static LdifEntry computeModifications( Entry originalEntry, Entry modifiedEntry )
+        throws PartitionsDiffException
+    {
+        try
+        {
+            LdifEntry modificationEntry = new LdifEntry();
+            modificationEntry.setDn( originalEntry.getDn() );
+            modificationEntry.setChangeType( ChangeType.Modify );
+
+            compareEntries( originalEntry, modifiedEntry, modificationEntry );
+
+            return modificationEntry;
+        }
+        catch ( Exception e )
+        {
+            throw new PartitionsDiffException( e );
+        }
+    }
+
+
     /**
      * Compares the two given entries.
      *
@@ -23,6 +23,7 @@ package org.apache.directory.studio.openldap.config.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
 import org.apache.directory.api.ldap.model.name.Dn;
 
 
@@ -39,6 +40,9 @@ public class OlcConfig
     /** The list of auxiliary object classes */
     protected List<AuxiliaryObjectClass> auxiliaryObjectClasses = new ArrayList<>();
 
+    /** The converted entry of the bean when it was last read from or saved to the server, null for a new bean */
+    private LdifEntry cleanEntry;
+
 
     /**
      * @param auxiliaryObjectClasses
@@ -99,6 +103,43 @@ public class OlcConfig
     }
 
 
+    /**
+     * Marks the bean as clean: the given converted entry is the state of the bean 
+     * on the server, after it has been read or saved.
+     *
+     * @param cleanEntry the converted entry of the bean
+     */
+    public void markClean( LdifEntry cleanEntry )
+    {
+        this.cleanEntry = cleanEntry;
+    }
+
+
+    /**
+     * Gets the converted entry of the bean when it was last marked clean.
+     *
+     * @return the clean entry, or null if the bean has never been marked clean
+     */
+    public LdifEntry getCleanEntry()
+    {
+        return cleanEntry;
+    }
+
+
+    /**
+     * Tells if the bean has been modified since it was last marked clean. The beans
+     * expose some of their values as live collections, so instead of tracking the 
+     * setters the given current converted entry is compared with the clean entry.
+     *
+     * @param entry the current converted entry of the bean
+     * @return <code>true</code> if the bean is new or has been modified
+     */
+    public boolean isDirty( LdifEntry entry )
+    {
+        return ( cleanEntry == null ) || !cleanEntry.equals( entry );
+    }
+
+
     /**
      * Copy a List of Strings into a new List of strings.
      * 
@@ -28,13 +28,16 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.directory.api.ldap.model.constants.LdapConstants;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
@@ -43,6 +46,7 @@ import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.entry.Value;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
 import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
 import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
@@ -97,6 +101,85 @@ public class ConfigurationReader
     /** The package name where the overlay model classes are stored */
     private static final String OVERLAY_PACKAGE_NAME = "org.apache.directory.studio.openldap.config.model.overlay";
 
+    /** The page size of the configuration search if the connection doesn't use paged searches */
+    private static final int CONFIGURATION_SEARCH_PAGE_SIZE = 1000;
+
+    /** The constructors of the configuration beans, by class name */
+    private static final Map<String, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    /** The fields annotated with @ConfigurationElement of the configuration beans, by bean class */
+    private static final Map<Class<?>, List<ConfigurationField>> CONFIGURATION_FIELDS = new ConcurrentHashMap<>();
+
+
+    /**
+     * A field of a configuration bean annotated with @ConfigurationElement, with the
+     * reflection data needed to inject the values of its attribute type.
+     */
+    private static final class ConfigurationField
+    {
+        /** The field, made accessible */
+        private final Field field;
+
+        /** The attribute type of the field */
+        private final String attributeType;
+
+        /** The name of the method adding a value to a Set or List field */
+        private final String addMethodName;
+
+        /** The element class of a Set or List field, null for other fields */
+        private final Class<?> elementClass;
+
+        /** The method adding a value to a Set or List field, looked up on first use */
+        private volatile Method addMethod;
+
+
+        private ConfigurationField( Field field, String attributeType )
+        {
+            this.field = field;
+            this.attributeType = attributeType;
+            this.addMethodName = "add" + Character.toUpperCase( field.getName().charAt( 0 ) )
+                + field.getName().substring( 1 );
+
+            Class<?> fieldArgClass = null;
+            Type genericFieldType = field.getGenericType();
+
+            if ( ( ( field.getType() == Set.class ) || ( field.getType() == List.class ) )
+                && ( genericFieldType instanceof ParameterizedType ) )
+            {
+                Type[] fieldArgTypes = ( ( ParameterizedType ) genericFieldType ).getActualTypeArguments();
+
+                if ( ( fieldArgTypes != null ) && ( fieldArgTypes.length > 0 )
+                    && ( fieldArgTypes[0] instanceof Class ) )
+                {
+                    fieldArgClass = ( Class<?> ) fieldArgTypes[0];
+                }
+            }
+
+            this.elementClass = fieldArgClass;
+        }
+
+
+        /**
+         * Gets the method adding a value to the field, it takes an array of the element class.
+         *
+         * @param beanClass the class of the bean
+         * @return the add method
+         * @throws NoSuchMethodException if the bean class has no such method
+         */
+        private Method getAddMethod( Class<?> beanClass ) throws NoSuchMethodException
+        {
+            Method method = addMethod;
+
+            if ( method == null )
+            {
+                method = beanClass.getMethod( addMethodName, Array.newInstance( elementClass, 0 ).getClass() );
+                addMethod = method;
+            }
+
+            return method;
+        }
+    }
+
 
     /**
      * Reads the configuration.
@@ -172,10 +255,42 @@ public class ConfigurationReader
             }
         }
 
+        // Marking the configuration beans clean, so only the modified ones are compared when saving
+        markClean( configuration, browserConnection, configurationDn );
+
         return configuration;
     }
 
 
+    /**
+     * Marks all the beans of the configuration clean with their converted entries.
+     * If the configuration can't be converted the beans are left unmarked and the
+     * whole configuration is compared when it is saved.
+     *
+     * @param configuration the configuration
+     * @param browserConnection the browser connection
+     * @param configurationDn the configuration DN
+     */
+    private static void markClean( OpenLdapConfiguration configuration, IBrowserConnection browserConnection,
+        Dn configurationDn )
+    {
+        try
+        {
+            Map<OlcConfig, LdifEntry> convertedEntries = new ConfigurationWriter( browserConnection, configuration )
+                .getConvertedLdifEntriesByBean( configurationDn );
+
+            for ( Map.Entry<OlcConfig, LdifEntry> convertedEntry : convertedEntries.entrySet() )
+            {
+                convertedEntry.getKey().markClean( convertedEntry.getValue() );
+            }
+        }
+        catch ( ConfigurationException e )
+        {
+            // The beans are left unmarked
+        }
+    }
+
+
     /**
      * Reads the configuration.
      *
@@ -467,32 +582,55 @@ public class ConfigurationReader
         // Opening the connection (if needed)
         ConfigurationUtils.openConnection( connection, monitor );
 
-        // Creating the search parameter
+        // Creating the search parameter, the whole configuration subtree is read with a single (paged) search
         SearchParameter configSearchParameter = new SearchParameter();
         configSearchParameter.setSearchBase( configurationDn );
         configSearchParameter.setFilter( LdapConstants.OBJECT_CLASS_STAR );
-        configSearchParameter.setScope( SearchScope.OBJECT );
+        configSearchParameter.setScope( SearchScope.SUBTREE );
         configSearchParameter.setReturningAttributes( SchemaConstants.ALL_USER_ATTRIBUTES_ARRAY );
+        SearchRunnable.addPagedResultsControl( browserConnection, configSearchParameter,
+            CONFIGURATION_SEARCH_PAGE_SIZE );
 
-        // Looking for the 'ou=config' base entry
+        // Looking for the 'ou=config' base entry and its descendants, grouped by their parent DN
         Entry configEntry = null;
+        Map<Dn, List<Entry>> childrenMap = new HashMap<>();
         StudioSearchResultEnumeration enumeration = SearchRunnable.search( browserConnection, configSearchParameter,
             monitor );
 
-        // Checking if an error occurred
-        if ( monitor.errorsReported() )
+        while ( enumeration != null )
         {
-            throw monitor.getException();
+            // Checking if an error occurred
+            if ( monitor.errorsReported() )
+            {
+                throw monitor.getException();
+            }
+
+            while ( enumeration.hasMore() )
+            {
+                StudioSearchResult searchResult = enumeration.next();
+                Entry entry = searchResult.getEntry();
+
+                if ( configurationDn.equals( entry.getDn() ) )
+                {
+                    configEntry = entry;
+                }
+                else
+                {
+                    childrenMap.computeIfAbsent( entry.getDn().getParent(), k -> new ArrayList<>() ).add( entry );
+                }
+            }
+
+            StudioSearchResultEnumeration nextPageEnumeration = SearchRunnable.searchNextPage( browserConnection,
+                configSearchParameter, enumeration, monitor );
+            enumeration.close();
+            enumeration = nextPageEnumeration;
         }
 
-        // Getting the entry
-        if ( enumeration.hasMore() )
+        // Checking if an error occurred
+        if ( monitor.errorsReported() )
         {
-            // Creating the base entry
-            StudioSearchResult searchResult =  enumeration.next();
-            configEntry = searchResult.getEntry();
+            throw monitor.getException();
         }
-        enumeration.close();
 
         // Verifying we found the base entry
         if ( configEntry == null )
@@ -500,47 +638,28 @@ public class ConfigurationReader
             throw new LdapNoSuchObjectException( NLS.bind( "Unable to find the ''{0}'' base entry.", configurationDn ) );
         }
 
-        // Creating a list to hold the entries that needs to be checked
-        // for children and added to the partition
-        List<Entry> entries = new ArrayList<>();
+        // Creating a list to hold the entries that needs to be added to the partition,
+        // parents are added before their children
+        Deque<Entry> entries = new ArrayDeque<>();
         entries.add( configEntry );
 
         // Looping on the entries list until it's empty
         while ( !entries.isEmpty() )
         {
             // Removing the first entry from the list
-            Entry entry = entries.remove( 0 );
+            Entry entry = entries.removeFirst();
 
             // Adding the entry to the partition and the entries list
             configurationPartition.addEntry( entry );
             foundEntries.add( entry );
 
-            SearchParameter searchParameter = new SearchParameter();
-            searchParameter.setSearchBase( entry.getDn() );
-            searchParameter.setFilter( LdapConstants.OBJECT_CLASS_STAR );
-            searchParameter.setScope( SearchScope.ONELEVEL );
-            searchParameter.setReturningAttributes( SchemaConstants.ALL_USER_ATTRIBUTES_ARRAY );
-
-            // Looking for the children of the entry
-            StudioSearchResultEnumeration childrenEnumeration = SearchRunnable.search( browserConnection,
-                searchParameter, monitor );
-
-            // Checking if an error occurred
-            if ( monitor.errorsReported() )
-            {
-                throw monitor.getException();
-            }
+            // Adding the children to the list of entries
+            List<Entry> children = childrenMap.get( entry.getDn() );
 
-            while ( childrenEnumeration.hasMore() )
+            if ( children != null )
             {
-                // Creating the child entry
-                StudioSearchResult searchResult =  childrenEnumeration.next();
-                Entry childEntry = searchResult.getEntry();
-
-                // Adding the children to the list of entries
-                entries.add( childEntry );
+                entries.addAll( children );
             }
-            childrenEnumeration.close();
         }
 
         // Setting the created partition to the input
@@ -587,9 +706,7 @@ public class ConfigurationReader
 
             try
             {
-                Class<?> clazz = Class.forName( className.toString() );
-                Constructor<?> constructor = clazz.getConstructor();
-                bean = ( OlcConfig ) constructor.newInstance();
+                bean = ( OlcConfig ) getConstructor( className.toString() ).newInstance();
             }
             catch ( Exception e )
             {
@@ -622,9 +739,8 @@ public class ConfigurationReader
 
                     try
                     {
-                        Class<?> clazz = Class.forName( className.toString() );
-                        Constructor<?> constructor = clazz.getConstructor();
-                        auxiliaryObjectClassBean = ( AuxiliaryObjectClass ) constructor.newInstance();
+                        auxiliaryObjectClassBean = ( AuxiliaryObjectClass ) getConstructor( className.toString() )
+                            .newInstance();
                     }
                     catch ( Exception e )
                     {
@@ -659,48 +775,104 @@ public class ConfigurationReader
 
 
     /**
-     * Reads the values of the entry and saves them to the bean.
+     * Gets the no-arg constructor of the configuration bean class with the given name.
+     * The constructors are cached, the class is only looked up once.
      *
-     * @param entry the entry
-     * @param bean then bean
-     * @throws ConfigurationException
+     * @param className the name of the configuration bean class
+     * @return the constructor
+     * @throws ClassNotFoundException if the class doesn't exist
+     * @throws NoSuchMethodException if the class has no public no-arg constructor
      */
-    private static void readValues( Entry entry, Object bean ) throws ConfigurationException
+    private static Constructor<?> getConstructor( String className ) throws ClassNotFoundException,
+        NoSuchMethodException
     {
-        // Checking all fields of the bean (including super class fields)
-        Class<?> clazz = bean.getClass();
-        while ( clazz != null )
+        Constructor<?> constructor = CONSTRUCTORS.get( className );
+
+        if ( constructor == null )
         {
-            // Looping on all fields of the class
-            Field[] fields = clazz.getDeclaredFields();
-            for ( Field field : fields )
+            constructor = Class.forName( className ).getConstructor();
+            CONSTRUCTORS.put( className, constructor );
+        }
+
+        return constructor;
+    }
+
+
+    /**
+     * Gets the fields annotated with @ConfigurationElement of the given class and its super
+     * classes, the fields of a class come before the fields of its super class. The fields 
+     * are computed once per class and then cached.
+     *
+     * @param clazz the class of the bean
+     * @return the configuration fields of the class
+     */
+    private static List<ConfigurationField> getConfigurationFields( Class<?> clazz )
+    {
+        List<ConfigurationField> configurationFields = CONFIGURATION_FIELDS.get( clazz );
+
+        if ( configurationFields == null )
+        {
+            configurationFields = new ArrayList<>();
+
+            // Checking all fields of the bean (including super class fields)
+            Class<?> currentClass = clazz;
+
+            while ( currentClass != null )
             {
-                // Looking for the @ConfigurationElement annotation
-                ConfigurationElement configurationElement = field.getAnnotation( ConfigurationElement.class );
-                if ( configurationElement != null )
+                // Looping on all fields of the class
+                for ( Field field : currentClass.getDeclaredFields() )
                 {
-                    // Checking if we're have a value  for the attribute type
-                    String attributeType = configurationElement.attributeType();
-                    if ( ( attributeType != null ) && ( !"".equals( attributeType ) ) )
+                    // Looking for the @ConfigurationElement annotation
+                    ConfigurationElement configurationElement = field.getAnnotation( ConfigurationElement.class );
+
+                    if ( configurationElement != null )
                     {
-                        Attribute attribute = entry.get( attributeType );
-                        if ( ( attribute != null ) && ( attribute.size() > 0 ) )
+                        // Checking if we're have an attribute type
+                        String attributeType = configurationElement.attributeType();
+
+                        if ( ( attributeType != null ) && ( !"".equals( attributeType ) ) )
                         {
                             // Making the field accessible (we get an exception if we don't do that)
                             field.setAccessible( true );
 
-                            // loop on the values and inject them in the bean
-                            for ( Value value : attribute )
-                            {
-                                readAttributeValue( bean, field, attribute, value );
-                            }
+                            configurationFields.add( new ConfigurationField( field, attributeType ) );
                         }
                     }
                 }
+
+                // Switching to the super class
+                currentClass = currentClass.getSuperclass();
             }
 
-            // Switching to the super class
-            clazz = clazz.getSuperclass();
+            CONFIGURATION_FIELDS.put( clazz, configurationFields );
+        }
+
+        return configurationFields;
+    }
+
+
+    /**
+     * Reads the values of the entry and saves them to the bean.
+     *
+     * @param entry the entry
+     * @param bean then bean
+     * @throws ConfigurationException
+     */
+    private static void readValues( Entry entry, Object bean ) throws ConfigurationException
+    {
+        for ( ConfigurationField configurationField : getConfigurationFields( bean.getClass() ) )
+        {
+            // Checking if we're have a value  for the attribute type
+            Attribute attribute = entry.get( configurationField.attributeType );
+
+            if ( ( attribute != null ) && ( attribute.size() > 0 ) )
+            {
+                // loop on the values and inject them in the bean
+                for ( Value value : attribute )
+                {
+                    readAttributeValue( bean, configurationField, attribute, value );
+                }
+            }
         }
     }
 
@@ -709,17 +881,16 @@ public class ConfigurationReader
      * Reads the attribute value.
      *
      * @param bean the bean
-     * @param field the field
+     * @param configurationField the configuration field
      * @param attribute the attribute
      * @param value the value
      * @throws ConfigurationException
      */
-    private static void readAttributeValue( Object bean, Field field, Attribute attribute, Value value )
-        throws ConfigurationException
+    private static void readAttributeValue( Object bean, ConfigurationField configurationField, Attribute attribute,
+        Value value ) throws ConfigurationException
     {
+        Field field = configurationField.field;
         Class<?> type = field.getType();
-        String addMethodName = "add" + Character.toUpperCase( field.getName().charAt( 0 ) )
-            + field.getName().substring( 1 );
         String valueStr = value.getString();
 
         try
@@ -796,48 +967,19 @@ public class ConfigurationReader
                     field.set( bean, dnValue );
                 }
             }
-            // Set class
-            else if ( type == Set.class )
+            // Set and List classes
+            else if ( ( type == Set.class ) || ( type == List.class ) )
             {
-                Type genericFieldType = field.getGenericType();
+                Class<?> fieldArgClass = configurationField.elementClass;
 
-                if ( genericFieldType instanceof ParameterizedType )
+                if ( fieldArgClass != null )
                 {
-                    ParameterizedType parameterizedType = ( ParameterizedType ) genericFieldType;
-                    Type[] fieldArgTypes = parameterizedType.getActualTypeArguments();
-                    if ( ( fieldArgTypes != null ) && ( fieldArgTypes.length > 0 ) )
-                    {
-                        Class<?> fieldArgClass = ( Class<?> ) fieldArgTypes[0];
+                    Object methodParameter = Array.newInstance( fieldArgClass, 1 );
+                    Array.set( methodParameter, 0, readSingleValue( fieldArgClass, attribute, valueStr ) );
 
-                        Object methodParameter = Array.newInstance( fieldArgClass, 1 );
-                        Array.set( methodParameter, 0, readSingleValue( fieldArgClass, attribute, valueStr ) );
+                    Method method = configurationField.getAddMethod( bean.getClass() );
 
-                        Method method = bean.getClass().getMethod( addMethodName, methodParameter.getClass() );
-
-                        method.invoke( bean, methodParameter );
-                    }
-                }
-            }
-            // List class
-            else if ( type == List.class )
-            {
-                Type genericFieldType = field.getGenericType();
-
-                if ( genericFieldType instanceof ParameterizedType )
-                {
-                    ParameterizedType parameterizedType = ( ParameterizedType ) genericFieldType;
-                    Type[] fieldArgTypes = parameterizedType.getActualTypeArguments();
-                    if ( ( fieldArgTypes != null ) && ( fieldArgTypes.length > 0 ) )
-                    {
-                        Class<?> fieldArgClass = ( Class<?> ) fieldArgTypes[0];
-
-                        Object methodParameter = Array.newInstance( fieldArgClass, 1 );
-                        Array.set( methodParameter, 0, readSingleValue( fieldArgClass, attribute, valueStr ) );
-
-                        Method method = bean.getClass().getMethod( addMethodName, methodParameter.getClass() );
-
-                        method.invoke( bean, methodParameter );
-                    }
+                    method.invoke( bean, methodParameter );
                 }
             }
         }
@@ -853,7 +995,7 @@ public class ConfigurationReader
         }
         catch ( NoSuchMethodException nsme )
         {
-            throw new ConfigurationException( "Cannot find a method " + addMethodName
+            throw new ConfigurationException( "Cannot find a method " + configurationField.addMethodName
                 + " in the class "
                 + bean.getClass().getName() );
         }
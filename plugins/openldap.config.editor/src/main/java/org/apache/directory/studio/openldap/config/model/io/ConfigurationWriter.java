@@ -27,7 +27,9 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
@@ -69,6 +71,9 @@ public class ConfigurationWriter
     /** The list of entries */
     private List<LdifEntry> entries;
 
+    /** The entries, by configuration bean */
+    private Map<OlcConfig, LdifEntry> beanEntries;
+
 
     /**
      * Creates a new instance of ConfigWriter.
@@ -104,6 +109,7 @@ public class ConfigurationWriter
             if ( entries == null )
             {
                 entries = new ArrayList<>();
+                beanEntries = new LinkedHashMap<>();
 
                 // Adding the global configuration
                 addConfigurationBean( configuration.getGlobal(), Dn.EMPTY_DN );
@@ -148,6 +154,7 @@ public class ConfigurationWriter
             entry.setDn( getDn( configurationBean, parentDn ) );
             addObjectClassAttribute( entry, getObjectClassNameForBean( beanClass ) );
             entries.add( entry );
+            beanEntries.put( configurationBean, entry );
 
             // Checking auxiliary object classes
             List<AuxiliaryObjectClass> auxiliaryObjectClassesList = configurationBean.getAuxiliaryObjectClasses();
@@ -451,6 +458,24 @@ public class ConfigurationWriter
     }
 
 
+    /**
+     * Gets the converted LDIF entries from the configuration bean, by configuration bean.
+     * The entries are in the same order as the list of converted LDIF entries.
+     *
+     * @param configurationDn the configuration DN
+     * @return the converted LDIF entries, by configuration bean
+     * @throws ConfigurationException if an error occurs during the conversion to LDIF
+     */
+    public Map<OlcConfig, LdifEntry> getConvertedLdifEntriesByBean( Dn configurationDn ) throws ConfigurationException
+    {
+        // Converting the configuration bean to a list of LDIF entries
+        convertConfigurationBeanToLdifEntries( configurationDn );
+
+        // Returning the entries by bean
+        return beanEntries;
+    }
+
+
     /**
      * Adds the computed 'objectClass' attribute for the given entry and object class name.
      *
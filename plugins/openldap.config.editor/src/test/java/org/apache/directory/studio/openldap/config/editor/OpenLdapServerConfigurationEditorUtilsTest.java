@@ -0,0 +1,219 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.openldap.config.editor;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
+import org.apache.directory.api.ldap.model.entry.ModificationOperation;
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.apache.directory.studio.openldap.config.jobs.EntryBasedConfigurationPartition;
+import org.apache.directory.studio.openldap.config.model.OlcConfig;
+import org.apache.directory.studio.openldap.config.model.OlcModuleList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the computation of the modified configuration beans when saving the configuration.
+ * The beans are only used as keys, their entries are built by hand.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class OpenLdapServerConfigurationEditorUtilsTest
+{
+    private SchemaManager schemaManager;
+    private EntryBasedConfigurationPartition originalPartition;
+    private List<OlcConfig> beans;
+    private Map<OlcConfig, LdifEntry> convertedEntries;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        schemaManager = new DefaultSchemaManager();
+        originalPartition = OpenLdapServerConfigurationEditorUtils.createConfigurationPartition( schemaManager,
+            new Dn( schemaManager, "cn=config" ) );
+        beans = new ArrayList<>();
+        convertedEntries = new LinkedHashMap<>();
+
+        // The original configuration, all the beans are clean
+        addBean( "cn=config" );
+        addBean( "cn=a,cn=config", "description: one" );
+        addBean( "cn=b,cn=config", "description: one" );
+    }
+
+
+    @Test
+    public void testNoModifiedBean() throws Exception
+    {
+        Map<OlcConfig, LdifEntry> modifiedBeans = computeModifiedBeans();
+
+        assertTrue( modifiedBeans.isEmpty() );
+    }
+
+
+    @Test
+    public void testModifiedBeans() throws Exception
+    {
+        convert( 2, "cn=b,cn=config", "description: two" );
+        convert( 1, "cn=a,cn=config", "description: one", "description: two" );
+
+        Map<OlcConfig, LdifEntry> modifiedBeans = computeModifiedBeans();
+
+        // The beans are returned in the order of the configuration
+        assertEquals( 2, modifiedBeans.size() );
+        List<OlcConfig> modifiedBeanList = new ArrayList<>( modifiedBeans.keySet() );
+        assertSame( beans.get( 1 ), modifiedBeanList.get( 0 ) );
+        assertSame( beans.get( 2 ), modifiedBeanList.get( 1 ) );
+
+        LdifEntry modificationEntry = modifiedBeans.get( beans.get( 1 ) );
+        assertEquals( "cn=a,cn=config", modificationEntry.getDn().getName() );
+        assertEquals( 1, modificationEntry.getModifications().size() );
+
+        Modification modification = modificationEntry.getModifications().get( 0 );
+        assertEquals( ModificationOperation.REPLACE_ATTRIBUTE, modification.getOperation() );
+        assertEquals( "description", modification.getAttribute().getId() );
+        assertEquals( 2, modification.getAttribute().size() );
+        assertTrue( modification.getAttribute().contains( "one", "two" ) );
+
+        // The beans are still dirty until they are saved
+        assertTrue( beans.get( 1 ).isDirty( convertedEntries.get( beans.get( 1 ) ) ) );
+        assertTrue( beans.get( 2 ).isDirty( convertedEntries.get( beans.get( 2 ) ) ) );
+    }
+
+
+    @Test
+    public void testBeanBackToItsOriginalState() throws Exception
+    {
+        // The bean has been marked clean in a state that differs from the original partition
+        beans.get( 1 ).markClean( createLdifEntry( "cn=a,cn=config", "description: two" ) );
+
+        Map<OlcConfig, LdifEntry> modifiedBeans = computeModifiedBeans();
+
+        assertTrue( modifiedBeans.isEmpty() );
+        assertFalse( beans.get( 1 ).isDirty( convertedEntries.get( beans.get( 1 ) ) ) );
+    }
+
+
+    @Test
+    public void testAddedBean() throws Exception
+    {
+        OlcConfig bean = new OlcModuleList();
+        convertedEntries.put( bean, createLdifEntry( "cn=c,cn=config" ) );
+
+        assertNull( computeModifiedBeans() );
+    }
+
+
+    @Test
+    public void testRemovedBean() throws Exception
+    {
+        convertedEntries.remove( beans.get( 2 ) );
+
+        assertNull( computeModifiedBeans() );
+    }
+
+
+    @Test
+    public void testNewBeanReplacingAnotherOne() throws Exception
+    {
+        // Same number of entries, but the bean has never been marked clean
+        OlcConfig bean = new OlcModuleList();
+        convertedEntries.remove( beans.get( 2 ) );
+        convertedEntries.put( bean, createLdifEntry( "cn=b,cn=config", "description: one" ) );
+
+        assertNull( computeModifiedBeans() );
+    }
+
+
+    @Test
+    public void testRenamedBean() throws Exception
+    {
+        convert( 2, "cn=c,cn=config", "description: one" );
+
+        assertNull( computeModifiedBeans() );
+    }
+
+
+    private Map<OlcConfig, LdifEntry> computeModifiedBeans() throws Exception
+    {
+        return OpenLdapServerConfigurationEditorUtils.computeModifiedBeans( originalPartition, schemaManager,
+            convertedEntries );
+    }
+
+
+    /**
+     * Adds a clean bean, and its entry to the original partition.
+     */
+    private void addBean( String dn, String... attributes ) throws Exception
+    {
+        OlcConfig bean = new OlcModuleList();
+        LdifEntry ldifEntry = createLdifEntry( dn, attributes );
+        bean.markClean( ldifEntry );
+        beans.add( bean );
+        convertedEntries.put( bean, ldifEntry );
+
+        Entry entry = new DefaultEntry( schemaManager, ldifEntry.getEntry() );
+        entry.setDn( new Dn( schemaManager, dn ) );
+        originalPartition.addEntry( entry );
+    }
+
+
+    /**
+     * Replaces the converted entry of a bean, as if the bean had been modified.
+     */
+    private void convert( int index, String dn, String... attributes ) throws Exception
+    {
+        convertedEntries.put( beans.get( index ), createLdifEntry( dn, attributes ) );
+    }
+
+
+    private static LdifEntry createLdifEntry( String dn, String... attributes ) throws Exception
+    {
+        LdifEntry ldifEntry = new LdifEntry( dn, "objectClass: top", "objectClass: extensibleObject" );
+        Rdn rdn = ldifEntry.getDn().getRdn();
+        ldifEntry.addAttribute( rdn.getType(), rdn.getValue() );
+
+        for ( String attribute : attributes )
+        {
+            int colon = attribute.indexOf( ':' );
+            ldifEntry.addAttribute( attribute.substring( 0, colon ), attribute.substring( colon + 2 ) );
+        }
+
+        return ldifEntry;
+    }
+}
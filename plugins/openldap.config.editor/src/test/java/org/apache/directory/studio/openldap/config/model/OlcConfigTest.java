@@ -0,0 +1,95 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.openldap.config.model;
+
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the dirty state of the {@link OlcConfig} beans.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class OlcConfigTest
+{
+    @Test
+    public void testNewBeanIsDirty() throws Exception
+    {
+        OlcModuleList bean = new OlcModuleList();
+
+        assertNull( bean.getCleanEntry() );
+        assertTrue( bean.isDirty( createEntry( "back_mdb.la" ) ) );
+    }
+
+
+    @Test
+    public void testCleanBean() throws Exception
+    {
+        OlcModuleList bean = new OlcModuleList();
+        LdifEntry cleanEntry = createEntry( "back_mdb.la" );
+        bean.markClean( cleanEntry );
+
+        assertSame( cleanEntry, bean.getCleanEntry() );
+
+        // An equal entry converted later is not a modification
+        assertFalse( bean.isDirty( cleanEntry ) );
+        assertFalse( bean.isDirty( createEntry( "back_mdb.la" ) ) );
+    }
+
+
+    @Test
+    public void testModifiedBean() throws Exception
+    {
+        OlcModuleList bean = new OlcModuleList();
+        bean.markClean( createEntry( "back_mdb.la" ) );
+
+        assertTrue( bean.isDirty( createEntry( "back_mdb.la", "syncprov.la" ) ) );
+        assertTrue( bean.isDirty( createEntry() ) );
+
+        // Marking the bean clean again
+        bean.markClean( createEntry( "back_mdb.la", "syncprov.la" ) );
+
+        assertFalse( bean.isDirty( createEntry( "back_mdb.la", "syncprov.la" ) ) );
+        assertTrue( bean.isDirty( createEntry( "back_mdb.la" ) ) );
+    }
+
+
+    /**
+     * Creates a module list entry, loading the given modules.
+     */
+    private static LdifEntry createEntry( String... modules ) throws Exception
+    {
+        LdifEntry entry = new LdifEntry( "cn=module{0},cn=config", "objectClass: olcModuleList", "cn: module{0}" );
+
+        for ( String module : modules )
+        {
+            entry.addAttribute( "olcModuleLoad", module );
+        }
+
+        return entry;
+    }
+}
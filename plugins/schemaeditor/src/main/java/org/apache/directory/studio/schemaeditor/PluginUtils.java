@@ -25,7 +25,11 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,7 +38,6 @@ import java.util.List;
 
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
-import org.apache.directory.api.util.FileUtils;
 import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.ConnectionCorePlugin;
 import org.apache.directory.studio.schemaeditor.controller.ProjectsHandler;
@@ -48,8 +51,6 @@ import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImportExce
 import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter;
 import org.apache.directory.studio.schemaeditor.view.ViewUtils;
 import org.apache.directory.studio.schemaeditor.view.widget.CoreSchemasSelectionWidget.ServerTypeEnum;
-import org.dom4j.io.OutputFormat;
-import org.dom4j.io.XMLWriter;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionPoint;
@@ -170,16 +171,16 @@ public class PluginUtils
         // We try to load the projects file
         if ( projectsFile.exists() )
         {
-            try
+            try ( InputStream inputStream = new FileInputStream( projectsFile ) )
             {
-                projects = ProjectsImporter.getProjects( new FileInputStream( projectsFile ), projectsFile
-                    .getAbsolutePath() );
+                projects = ProjectsImporter.getProjects( inputStream, projectsFile.getAbsolutePath() );
             }
             catch ( ProjectsImportException e )
             {
+                PluginUtils.logError( e.getMessage(), e );
                 loadFailed = true;
             }
-            catch ( FileNotFoundException e )
+            catch ( IOException e )
             {
                 loadFailed = true;
             }
@@ -199,10 +200,9 @@ public class PluginUtils
 
                 if ( tempProjectsFile.exists() )
                 {
-                    try
+                    try ( InputStream inputStream = new FileInputStream( tempProjectsFile ) )
                     {
-                        projects = ProjectsImporter.getProjects( new FileInputStream( tempProjectsFile ), projectsFile
-                            .getAbsolutePath() );
+                        projects = ProjectsImporter.getProjects( inputStream, projectsFile.getAbsolutePath() );
 
                         loadFailed = false;
                     }
@@ -213,7 +213,7 @@ public class PluginUtils
                             .getString( "PluginUtils.ErrorLoadingProject" ) ); //$NON-NLS-1$
                         return;
                     }
-                    catch ( FileNotFoundException e )
+                    catch ( IOException e )
                     {
                         reportError( Messages.getString( "PluginUtils.ErrorLoadingProject" ), e, Messages //$NON-NLS-1$
                             .getString( "PluginUtils.ProjectsLoadingError" ), Messages //$NON-NLS-1$
@@ -247,30 +247,25 @@ public class PluginUtils
         try
         {
             // Saving the projects to the temp projects file
-            OutputFormat outformat = OutputFormat.createPrettyPrint();
-            outformat.setEncoding( "UTF-8" ); //$NON-NLS-1$
-            XMLWriter writer = new XMLWriter( new FileOutputStream( getTempProjectsFile() ), outformat );
-            writer.write( ProjectsExporter.toDocument( Activator.getDefault().getProjectsHandler().getProjects()
-                .toArray( new Project[0] ) ) );
-            writer.flush();
+            try ( OutputStream outputStream = new FileOutputStream( getTempProjectsFile() ) )
+            {
+                ProjectsExporter.writeProjects( Activator.getDefault().getProjectsHandler().getProjects()
+                    .toArray( new Project[0] ), outputStream );
+            }
 
             // Copying the temp projects file to the final location
-            String content = FileUtils.readFileToString( getTempProjectsFile(), "UTF-8" ); //$NON-NLS-1$
-            FileUtils.writeStringToFile( getProjectsFile(), content, "UTF-8" ); //$NON-NLS-1$
+            Files.copy( getTempProjectsFile().toPath(), getProjectsFile().toPath(),
+                StandardCopyOption.REPLACE_EXISTING );
         }
         catch ( IOException e )
         {
             // If an error occurs when saving to the temp projects file or
             // when copying the temp projects file to the final location,
             // we try to save the projects directly to the final location.
-            try
+            try ( OutputStream outputStream = new FileOutputStream( getProjectsFile() ) )
             {
-                OutputFormat outformat = OutputFormat.createPrettyPrint();
-                outformat.setEncoding( "UTF-8" ); //$NON-NLS-1$
-                XMLWriter writer = new XMLWriter( new FileOutputStream( getProjectsFile() ), outformat );
-                writer.write( ProjectsExporter.toDocument( Activator.getDefault().getProjectsHandler().getProjects()
-                    .toArray( new Project[0] ) ) );
-                writer.flush();
+                ProjectsExporter.writeProjects( Activator.getDefault().getProjectsHandler().getProjects()
+                    .toArray( new Project[0] ), outputStream );
             }
             catch ( IOException e2 )
             {
@@ -21,9 +21,15 @@ package org.apache.directory.studio.schemaeditor.model.difference;
 
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
@@ -42,8 +48,14 @@ import org.apache.directory.studio.schemaeditor.model.Schema;
  */
 public class DifferenceEngine
 {
+    /** The minimum size of a list of values to copy it to a set before looking values up */
+    private static final int LOOKUP_SET_MIN_SIZE = 8;
+
+
     /**
      * Gets the differences between two Lists of Schemas.
+     * <p>
+     * The schemas present in both lists are compared in parallel.
      *
      * @param l1
      *      the first list
@@ -68,139 +80,49 @@ public class DifferenceEngine
             mapL2.put( Strings.toLowerCase( schema.getSchemaName() ), schema );
         }
 
-        // Looping on schemas from the first list
+        // Comparing the schemas present in both lists
+        boolean parallel = ( l1.size() > 1 ) && ( ForkJoinPool.getCommonPoolParallelism() > 1 );
+        Map<Schema, CompletableFuture<SchemaDifference>> commonSchemasDifferences = new IdentityHashMap<Schema, CompletableFuture<SchemaDifference>>();
         for ( Schema schemaFromL1 : l1 )
         {
             Schema schemaFromL2 = mapL2.get( Strings.toLowerCase( schemaFromL1.getSchemaName() ) );
-            if ( schemaFromL2 == null )
+            if ( schemaFromL2 != null )
             {
-                SchemaDifference schemaDifference = new SchemaDifference( schemaFromL1, null, DifferenceType.REMOVED );
-                differences.add( schemaDifference );
-
-                // Adding attribute types
-                for ( AttributeType at : schemaFromL1.getAttributeTypes() )
+                if ( parallel )
                 {
-                    schemaDifference.addAttributeTypeDifference( new AttributeTypeDifference( null, at,
-                        DifferenceType.REMOVED ) );
+                    commonSchemasDifferences.put( schemaFromL1,
+                        CompletableFuture.supplyAsync( () -> getDifferences( schemaFromL1, schemaFromL2 ) ) );
                 }
-
-                // Adding object classes
-                for ( ObjectClass oc : schemaFromL1.getObjectClasses() )
+                else
                 {
-                    schemaDifference.addObjectClassDifference( new ObjectClassDifference( null, oc,
-                        DifferenceType.REMOVED ) );
+                    commonSchemasDifferences.put( schemaFromL1,
+                        CompletableFuture.completedFuture( getDifferences( schemaFromL1, schemaFromL2 ) ) );
                 }
             }
+        }
+
+        // Looping on schemas from the first list
+        for ( Schema schemaFromL1 : l1 )
+        {
+            CompletableFuture<SchemaDifference> schemaDifference = commonSchemasDifferences.get( schemaFromL1 );
+            if ( schemaDifference == null )
+            {
+                differences.add( getRemovedSchemaDifference( schemaFromL1 ) );
+            }
             else
             {
-                SchemaDifference schemaDifference = new SchemaDifference( schemaFromL1, schemaFromL2,
-                    DifferenceType.IDENTICAL );
-                differences.add( schemaDifference );
-
-                // Building Maps for attribute types
-                Map<String, AttributeType> atMapL1 = new HashMap<String, AttributeType>();
-                for ( AttributeType at : schemaFromL1.getAttributeTypes() )
-                {
-                    atMapL1.put( at.getOid(), at );
-                }
-                Map<String, AttributeType> atMapL2 = new HashMap<String, AttributeType>();
-                for ( AttributeType at : schemaFromL2.getAttributeTypes() )
+                try
                 {
-                    atMapL2.put( at.getOid(), at );
-                }
-
-                // Looping on the attribute types from the Schema from the first list
-                for ( AttributeType atFromL1 : schemaFromL1.getAttributeTypes() )
-                {
-                    AttributeType atFromL2 = atMapL2.get( atFromL1.getOid() );
-                    if ( atFromL2 == null )
-                    {
-                        AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( atFromL1, null,
-                            DifferenceType.REMOVED );
-                        schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
-                        schemaDifference.setType( DifferenceType.MODIFIED );
-                    }
-                    else
-                    {
-                        AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( atFromL1,
-                            atFromL2, DifferenceType.IDENTICAL );
-                        schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
-
-                        List<PropertyDifference> atDifferences = getDifferences( atFromL1, atFromL2 );
-                        if ( atDifferences.size() > 0 )
-                        {
-                            attributeTypeDifference.setType( DifferenceType.MODIFIED );
-                            attributeTypeDifference.addDifferences( atDifferences );
-                            schemaDifference.setType( DifferenceType.MODIFIED );
-                        }
-                    }
+                    differences.add( schemaDifference.join() );
                 }
-
-                // Looping on the attribute types from the Schema from the second list
-                for ( AttributeType atFromL2 : schemaFromL2.getAttributeTypes() )
+                catch ( CompletionException e )
                 {
-                    AttributeType atFromL1 = atMapL1.get( atFromL2.getOid() );
-                    if ( atFromL1 == null )
+                    if ( e.getCause() instanceof RuntimeException )
                     {
-                        AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( null, atFromL2,
-                            DifferenceType.ADDED );
-                        schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
-                        schemaDifference.setType( DifferenceType.MODIFIED );
+                        throw ( RuntimeException ) e.getCause();
                     }
-                    // If atFromL1 exists, then it has already been processed when looping on the first list. 
-                }
 
-                // Building Maps for object classes
-                Map<String, ObjectClass> ocMapL1 = new HashMap<String, ObjectClass>();
-                for ( ObjectClass oc : schemaFromL1.getObjectClasses() )
-                {
-                    ocMapL1.put( oc.getOid(), oc );
-                }
-                Map<String, ObjectClass> ocMapL2 = new HashMap<String, ObjectClass>();
-                for ( ObjectClass oc : schemaFromL2.getObjectClasses() )
-                {
-                    ocMapL2.put( oc.getOid(), oc );
-                }
-
-                // Looping on the object classes from the Schema from the first list
-                for ( ObjectClass ocFromL1 : schemaFromL1.getObjectClasses() )
-                {
-                    ObjectClass ocFromL2 = ocMapL2.get( ocFromL1.getOid() );
-                    if ( ocFromL2 == null )
-                    {
-                        ObjectClassDifference objectClassDifference = new ObjectClassDifference( ocFromL1, null,
-                            DifferenceType.REMOVED );
-                        schemaDifference.addObjectClassDifference( objectClassDifference );
-                        schemaDifference.setType( DifferenceType.MODIFIED );
-                    }
-                    else
-                    {
-                        ObjectClassDifference objectClassDifference = new ObjectClassDifference( ocFromL1, ocFromL2,
-                            DifferenceType.IDENTICAL );
-                        schemaDifference.addObjectClassDifference( objectClassDifference );
-
-                        List<PropertyDifference> ocDifferences = getDifferences( ocFromL1, ocFromL2 );
-                        if ( ocDifferences.size() > 0 )
-                        {
-                            objectClassDifference.setType( DifferenceType.MODIFIED );
-                            objectClassDifference.addDifferences( ocDifferences );
-                            schemaDifference.setType( DifferenceType.MODIFIED );
-                        }
-                    }
-                }
-
-                // Looping on the object classes from the Schema from the second list
-                for ( ObjectClass ocFromL2 : schemaFromL2.getObjectClasses() )
-                {
-                    ObjectClass ocFromL1 = ocMapL1.get( ocFromL2.getOid() );
-                    if ( ocFromL1 == null )
-                    {
-                        ObjectClassDifference objectClassDifference = new ObjectClassDifference( null, ocFromL2,
-                            DifferenceType.ADDED );
-                        schemaDifference.addObjectClassDifference( objectClassDifference );
-                        schemaDifference.setType( DifferenceType.MODIFIED );
-                    }
-                    // If ocFromL1 exists, then it has already been processed when looping on the first list. 
+                    throw e;
                 }
             }
         }
@@ -234,6 +156,164 @@ public class DifferenceEngine
     }
 
 
+    /**
+     * Gets the difference of a schema which is only present in the first list.
+     *
+     * @param schemaFromL1
+     *      the schema
+     * @return
+     *      the difference of the removed schema
+     */
+    private static SchemaDifference getRemovedSchemaDifference( Schema schemaFromL1 )
+    {
+        SchemaDifference schemaDifference = new SchemaDifference( schemaFromL1, null, DifferenceType.REMOVED );
+
+        // Adding attribute types
+        for ( AttributeType at : schemaFromL1.getAttributeTypes() )
+        {
+            schemaDifference.addAttributeTypeDifference( new AttributeTypeDifference( null, at,
+                DifferenceType.REMOVED ) );
+        }
+
+        // Adding object classes
+        for ( ObjectClass oc : schemaFromL1.getObjectClasses() )
+        {
+            schemaDifference.addObjectClassDifference( new ObjectClassDifference( null, oc,
+                DifferenceType.REMOVED ) );
+        }
+
+        return schemaDifference;
+    }
+
+
+    /**
+     * Gets the difference between two Schemas having the same name.
+     * <p>
+     * The attribute types and the object classes of both schemas are matched
+     * on their OID.
+     *
+     * @param schemaFromL1
+     *      the schema from the first list
+     * @param schemaFromL2
+     *      the schema from the second list
+     * @return
+     *      the difference between the two schemas
+     */
+    private static SchemaDifference getDifferences( Schema schemaFromL1, Schema schemaFromL2 )
+    {
+        SchemaDifference schemaDifference = new SchemaDifference( schemaFromL1, schemaFromL2,
+            DifferenceType.IDENTICAL );
+
+        // Building Maps for attribute types
+        Map<String, AttributeType> atMapL1 = new HashMap<String, AttributeType>();
+        for ( AttributeType at : schemaFromL1.getAttributeTypes() )
+        {
+            atMapL1.put( at.getOid(), at );
+        }
+        Map<String, AttributeType> atMapL2 = new HashMap<String, AttributeType>();
+        for ( AttributeType at : schemaFromL2.getAttributeTypes() )
+        {
+            atMapL2.put( at.getOid(), at );
+        }
+
+        // Looping on the attribute types from the Schema from the first list
+        for ( AttributeType atFromL1 : schemaFromL1.getAttributeTypes() )
+        {
+            AttributeType atFromL2 = atMapL2.get( atFromL1.getOid() );
+            if ( atFromL2 == null )
+            {
+                AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( atFromL1, null,
+                    DifferenceType.REMOVED );
+                schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
+                schemaDifference.setType( DifferenceType.MODIFIED );
+            }
+            else
+            {
+                AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( atFromL1,
+                    atFromL2, DifferenceType.IDENTICAL );
+                schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
+
+                List<PropertyDifference> atDifferences = getDifferences( atFromL1, atFromL2 );
+                if ( atDifferences.size() > 0 )
+                {
+                    attributeTypeDifference.setType( DifferenceType.MODIFIED );
+                    attributeTypeDifference.addDifferences( atDifferences );
+                    schemaDifference.setType( DifferenceType.MODIFIED );
+                }
+            }
+        }
+
+        // Looping on the attribute types from the Schema from the second list
+        for ( AttributeType atFromL2 : schemaFromL2.getAttributeTypes() )
+        {
+            AttributeType atFromL1 = atMapL1.get( atFromL2.getOid() );
+            if ( atFromL1 == null )
+            {
+                AttributeTypeDifference attributeTypeDifference = new AttributeTypeDifference( null, atFromL2,
+                    DifferenceType.ADDED );
+                schemaDifference.addAttributeTypeDifference( attributeTypeDifference );
+                schemaDifference.setType( DifferenceType.MODIFIED );
+            }
+            // If atFromL1 exists, then it has already been processed when looping on the first list. 
+        }
+
+        // Building Maps for object classes
+        Map<String, ObjectClass> ocMapL1 = new HashMap<String, ObjectClass>();
+        for ( ObjectClass oc : schemaFromL1.getObjectClasses() )
+        {
+            ocMapL1.put( oc.getOid(), oc );
+        }
+        Map<String, ObjectClass> ocMapL2 = new HashMap<String, ObjectClass>();
+        for ( ObjectClass oc : schemaFromL2.getObjectClasses() )
+        {
+            ocMapL2.put( oc.getOid(), oc );
+        }
+
+        // Looping on the object classes from the Schema from the first list
+        for ( ObjectClass ocFromL1 : schemaFromL1.getObjectClasses() )
+        {
+            ObjectClass ocFromL2 = ocMapL2.get( ocFromL1.getOid() );
+            if ( ocFromL2 == null )
+            {
+                ObjectClassDifference objectClassDifference = new ObjectClassDifference( ocFromL1, null,
+                    DifferenceType.REMOVED );
+                schemaDifference.addObjectClassDifference( objectClassDifference );
+                schemaDifference.setType( DifferenceType.MODIFIED );
+            }
+            else
+            {
+                ObjectClassDifference objectClassDifference = new ObjectClassDifference( ocFromL1, ocFromL2,
+                    DifferenceType.IDENTICAL );
+                schemaDifference.addObjectClassDifference( objectClassDifference );
+
+                List<PropertyDifference> ocDifferences = getDifferences( ocFromL1, ocFromL2 );
+                if ( ocDifferences.size() > 0 )
+                {
+                    objectClassDifference.setType( DifferenceType.MODIFIED );
+                    objectClassDifference.addDifferences( ocDifferences );
+                    schemaDifference.setType( DifferenceType.MODIFIED );
+                }
+            }
+        }
+
+        // Looping on the object classes from the Schema from the second list
+        for ( ObjectClass ocFromL2 : schemaFromL2.getObjectClasses() )
+        {
+            ObjectClass ocFromL1 = ocMapL1.get( ocFromL2.getOid() );
+            if ( ocFromL1 == null )
+            {
+                ObjectClassDifference objectClassDifference = new ObjectClassDifference( null, ocFromL2,
+                    DifferenceType.ADDED );
+                schemaDifference.addObjectClassDifference( objectClassDifference );
+                schemaDifference.setType( DifferenceType.MODIFIED );
+            }
+            // If ocFromL1 exists, then it has already been processed when looping on the first list. 
+        }
+
+        return schemaDifference;
+    }
+
+
     /**
      * Gets the differences between two ObjectClassImpl Objects.
      *
@@ -407,9 +487,17 @@ public class DifferenceEngine
         List<String> so1Names = so1.getNames();
         List<String> so2Names = so2.getNames();
 
+        if ( so1Names.equals( so2Names ) )
+        {
+            return differences;
+        }
+
+        Collection<String> so1NamesLookup = getLookup( so1Names );
+        Collection<String> so2NamesLookup = getLookup( so2Names );
+
         for ( String name : so1Names )
         {
-            if ( !so2Names.contains( name ) )
+            if ( !so2NamesLookup.contains( name ) )
             {
                 PropertyDifference diff = new AliasDifference( so1, so2, DifferenceType.REMOVED );
                 diff.setOldValue( name );
@@ -419,7 +507,7 @@ public class DifferenceEngine
 
         for ( String name : so2Names )
         {
-            if ( !so1Names.contains( name ) )
+            if ( !so1NamesLookup.contains( name ) )
             {
                 PropertyDifference diff = new AliasDifference( so1, so2, DifferenceType.ADDED );
                 diff.setNewValue( name );
@@ -544,9 +632,17 @@ public class DifferenceEngine
         List<String> oc1Sups = oc1.getSuperiorOids();
         List<String> oc2Sups = oc2.getSuperiorOids();
 
+        if ( oc1Sups.equals( oc2Sups ) )
+        {
+            return differences;
+        }
+
+        Collection<String> oc1SupsLookup = getLookup( oc1Sups );
+        Collection<String> oc2SupsLookup = getLookup( oc2Sups );
+
         for ( String name : oc1Sups )
         {
-            if ( !oc2Sups.contains( name ) )
+            if ( !oc2SupsLookup.contains( name ) )
             {
                 PropertyDifference diff = new SuperiorOCDifference( oc1, oc2, DifferenceType.REMOVED );
                 diff.setOldValue( name );
@@ -556,7 +652,7 @@ public class DifferenceEngine
 
         for ( String name : oc2Sups )
         {
-            if ( !oc1Sups.contains( name ) )
+            if ( !oc1SupsLookup.contains( name ) )
             {
                 PropertyDifference diff = new SuperiorOCDifference( oc1, oc2, DifferenceType.ADDED );
                 diff.setNewValue( name );
@@ -586,9 +682,17 @@ public class DifferenceEngine
         List<String> oc1Musts = oc1.getMustAttributeTypeOids();
         List<String> oc2Musts = oc2.getMustAttributeTypeOids();
 
+        if ( oc1Musts.equals( oc2Musts ) )
+        {
+            return differences;
+        }
+
+        Collection<String> oc1MustsLookup = getLookup( oc1Musts );
+        Collection<String> oc2MustsLookup = getLookup( oc2Musts );
+
         for ( String name : oc1Musts )
         {
-            if ( !oc2Musts.contains( name ) )
+            if ( !oc2MustsLookup.contains( name ) )
             {
                 PropertyDifference diff = new MandatoryATDifference( oc1, oc2, DifferenceType.REMOVED );
                 diff.setOldValue( name );
@@ -598,7 +702,7 @@ public class DifferenceEngine
 
         for ( String name : oc2Musts )
         {
-            if ( !oc1Musts.contains( name ) )
+            if ( !oc1MustsLookup.contains( name ) )
             {
                 PropertyDifference diff = new MandatoryATDifference( oc1, oc2, DifferenceType.ADDED );
                 diff.setNewValue( name );
@@ -628,9 +732,17 @@ public class DifferenceEngine
         List<String> oc1Mays = oc1.getMayAttributeTypeOids();
         List<String> oc2Mays = oc2.getMayAttributeTypeOids();
 
+        if ( oc1Mays.equals( oc2Mays ) )
+        {
+            return differences;
+        }
+
+        Collection<String> oc1MaysLookup = getLookup( oc1Mays );
+        Collection<String> oc2MaysLookup = getLookup( oc2Mays );
+
         for ( String name : oc1Mays )
         {
-            if ( !oc2Mays.contains( name ) )
+            if ( !oc2MaysLookup.contains( name ) )
             {
                 PropertyDifference diff = new OptionalATDifference( oc1, oc2, DifferenceType.REMOVED );
                 diff.setOldValue( name );
@@ -640,7 +752,7 @@ public class DifferenceEngine
 
         for ( String name : oc2Mays )
         {
-            if ( !oc1Mays.contains( name ) )
+            if ( !oc1MaysLookup.contains( name ) )
             {
                 PropertyDifference diff = new OptionalATDifference( oc1, oc2, DifferenceType.ADDED );
                 diff.setNewValue( name );
@@ -1010,4 +1122,23 @@ public class DifferenceEngine
 
         return null;
     }
+
+
+    /**
+     * Gets a collection in which the given values can be looked up efficiently.
+     *
+     * @param values
+     *      the values
+     * @return
+     *      the values, copied to a set if there are many of them
+     */
+    private static Collection<String> getLookup( List<String> values )
+    {
+        if ( values.size() >= LOOKUP_SET_MIN_SIZE )
+        {
+            return new HashSet<String>( values );
+        }
+
+        return values;
+    }
 }
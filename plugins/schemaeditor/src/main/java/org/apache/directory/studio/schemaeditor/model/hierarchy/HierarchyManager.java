@@ -20,6 +20,7 @@
 package org.apache.directory.studio.schemaeditor.model.hierarchy;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.collections4.MultiValuedMap;
@@ -57,13 +58,24 @@ public class HierarchyManager
      * Creates a new instance of HierarchyManager.
      */
     public HierarchyManager()
+    {
+        this( Activator.getDefault().getSchemaHandler() );
+    }
+
+
+    /**
+     * Creates a new instance of HierarchyManager for the given SchemaHandler.
+     *
+     * @param schemaHandler
+     *      the SchemaHandler
+     */
+    public HierarchyManager( SchemaHandler schemaHandler )
     {
         // Initializing the maps
         parentsMap = new ArrayListValuedHashMap<>();
         childrenMap = new ArrayListValuedHashMap<>();
 
-        // Getting the SchemaHandler
-        schemaHandler = Activator.getDefault().getSchemaHandler();
+        this.schemaHandler = schemaHandler;
 
         // Loading the complete Schema
         loadSchema();
@@ -89,25 +101,25 @@ public class HierarchyManager
             if ( superior != null )
             // The superior attribute type object exists
             {
-                parentsMap.put( at, superior );
-                childrenMap.put( superior, at );
+                parentsMap.put( key( at ), superior );
+                childrenMap.put( key( superior ), at );
             }
             else
             // The superior attribute type object does not exist
             {
                 // Then, its parent is the name of its superior and
                 // it becomes the children of it and the RootObject
-                parentsMap.put( at, Strings.toLowerCase( superiorName ) );
+                parentsMap.put( key( at ), Strings.toLowerCase( superiorName ) );
                 childrenMap.put( Strings.toLowerCase( superiorName ), at );
-                childrenMap.put( root, at );
+                childrenMap.put( key( root ), at );
             }
         }
         else
         // The attribute type does not have a superior
         {
             // Then, its parent is the RootObject
-            parentsMap.put( at, root );
-            childrenMap.put( root, at );
+            parentsMap.put( key( at ), root );
+            childrenMap.put( key( root ), at );
         }
     }
 
@@ -132,14 +144,14 @@ public class HierarchyManager
                 ObjectClass superClass = schemaHandler.getObjectClass( superClassName );
                 if ( superClass == null )
                 {
-                    parentsMap.put( oc, Strings.toLowerCase( superClassName ) );
+                    parentsMap.put( key( oc ), Strings.toLowerCase( superClassName ) );
                     childrenMap.put( Strings.toLowerCase( superClassName ), oc );
-                    childrenMap.put( root, oc );
+                    childrenMap.put( key( root ), oc );
                 }
                 else
                 {
-                    parentsMap.put( oc, superClass );
-                    childrenMap.put( superClass, oc );
+                    parentsMap.put( key( oc ), superClass );
+                    childrenMap.put( key( superClass ), oc );
                 }
             }
         }
@@ -152,23 +164,23 @@ public class HierarchyManager
             if ( oc.equals( topOC ) )
             // The given object class is the "top (2.5.6.0)" object class
             {
-                parentsMap.put( oc, root );
-                childrenMap.put( root, oc );
+                parentsMap.put( key( oc ), root );
+                childrenMap.put( key( root ), oc );
             }
             else
             {
                 if ( topOC != null )
                 // The "top (2.5.6.0)" object class exists
                 {
-                    parentsMap.put( oc, topOC );
-                    childrenMap.put( topOC, oc );
+                    parentsMap.put( key( oc ), topOC );
+                    childrenMap.put( key( topOC ), oc );
                 }
                 else
                 // The "top (2.5.6.0)" object class does not exist
                 {
-                    parentsMap.put( oc, "2.5.6.0" ); //$NON-NLS-1$
+                    parentsMap.put( key( oc ), "2.5.6.0" ); //$NON-NLS-1$
                     childrenMap.put( "2.5.6.0", oc ); //$NON-NLS-1$
-                    childrenMap.put( root, oc );
+                    childrenMap.put( key( root ), oc );
                 }
             }
         }
@@ -196,15 +208,21 @@ public class HierarchyManager
     public void attributeTypeModified( AttributeType at )
     {
         // Removing the attribute type
-        List<Object> parents = getParents( at );
-        if ( parents != null )
+        detach( at );
+
+        // Attaching again the children which do not refer to the attribute type anymore
+        List<Object> children = getChildren( at );
+        if ( children != null )
         {
-            for ( Object parent : parents )
+            for ( Object child : new ArrayList<Object>( children ) )
             {
-                childrenMap.removeMapping( parent, at );
+                AttributeType childAT = ( AttributeType ) child;
+                if ( schemaHandler.getAttributeType( childAT.getSuperiorOid() ) != at )
+                {
+                    detach( childAT );
+                    addAttributeType( childAT );
+                }
             }
-
-            parentsMap.remove( at );
         }
 
         // Adding the attribute type again
@@ -212,6 +230,34 @@ public class HierarchyManager
     }
 
 
+    /**
+     * Removes the given attribute type or object class from the children of its parents.
+     * Its own children are kept.
+     *
+     * @param object
+     *      the attribute type or object class
+     */
+    private void detach( Object object )
+    {
+        List<Object> parents = getParents( object );
+        if ( parents != null )
+        {
+            for ( Object parent : parents )
+            {
+                childrenMap.removeMapping( key( parent ), object );
+
+                if ( parent instanceof String )
+                {
+                    // The object has a missing superior, it is a child of the RootObject too
+                    childrenMap.removeMapping( key( root ), object );
+                }
+            }
+
+            parentsMap.remove( key( object ) );
+        }
+    }
+
+
     /**
      * This method is called when an attribute type is removed.
      *
@@ -245,9 +291,10 @@ public class HierarchyManager
                 {
                     for ( Object value : children )
                     {
-                        childrenMap.put( object, value );
-                        parentsMap.removeMapping( value, Strings.toLowerCase( alias ) );
-                        parentsMap.put( value, object );
+                        childrenMap.put( key( object ), value );
+                        childrenMap.removeMapping( key( root ), value );
+                        parentsMap.removeMapping( key( value ), Strings.toLowerCase( alias ) );
+                        parentsMap.put( key( value ), object );
                     }
                     childrenMap.remove( Strings.toLowerCase( alias ) );
                 }
@@ -265,13 +312,10 @@ public class HierarchyManager
             {
                 for ( Object value : children )
                 {
-                    childrenMap.put( object, value );
-                    if ( oid.equals( "2.5.6.0" ) ) //$NON-NLS-1$
-                    {
-                        childrenMap.removeMapping( root, value );
-                    }
-                    parentsMap.removeMapping( value, Strings.toLowerCase( oid ) );
-                    parentsMap.put( value, object );
+                    childrenMap.put( key( object ), value );
+                    childrenMap.removeMapping( key( root ), value );
+                    parentsMap.removeMapping( key( value ), Strings.toLowerCase( oid ) );
+                    parentsMap.put( key( value ), object );
 
                 }
                 childrenMap.remove( Strings.toLowerCase( oid ) );
@@ -291,7 +335,7 @@ public class HierarchyManager
     @SuppressWarnings("unchecked")
     public List<Object> getChildren( Object o )
     {
-        return ( List<Object> ) childrenMap.get( o );
+        return ( List<Object> ) childrenMap.get( key( o ) );
     }
 
 
@@ -306,7 +350,28 @@ public class HierarchyManager
     @SuppressWarnings("unchecked")
     public List<Object> getParents( Object o )
     {
-        return ( List<Object> ) parentsMap.get( o );
+        return ( List<Object> ) parentsMap.get( key( o ) );
+    }
+
+
+    /**
+     * Gets the key of the given object in the maps. The attribute types and object classes
+     * are modified in place by the SchemaHandler, and their hash code changes with their names,
+     * so they are compared by identity. The names of the missing superiors are compared by equality.
+     *
+     * @param o
+     *      the object
+     * @return
+     *      the key of the given object
+     */
+    private static Object key( Object o )
+    {
+        if ( o instanceof SchemaObject )
+        {
+            return new SchemaObjectKey( ( SchemaObject ) o );
+        }
+
+        return o;
     }
 
 
@@ -372,15 +437,21 @@ public class HierarchyManager
     public void objectClassModified( ObjectClass oc )
     {
         // Removing the object class type
-        List<Object> parents = getParents( oc );
-        if ( parents != null )
+        detach( oc );
+
+        // Attaching again the children which do not refer to the object class anymore
+        List<Object> children = getChildren( oc );
+        if ( children != null )
         {
-            for ( Object parent : parents )
+            for ( Object child : new ArrayList<Object>( children ) )
             {
-                childrenMap.removeMapping( parent, oc );
+                ObjectClass childOC = ( ObjectClass ) child;
+                if ( !isSuperior( oc, childOC ) )
+                {
+                    detach( childOC );
+                    addObjectClass( childOC );
+                }
             }
-
-            parentsMap.remove( oc );
         }
 
         // Adding the object class again
@@ -388,6 +459,37 @@ public class HierarchyManager
     }
 
 
+    /**
+     * Indicates if the given object class is one of the superiors of the given child.
+     *
+     * @param oc
+     *      the object class
+     * @param child
+     *      the child object class
+     * @return
+     *      true if the object class is one of the superiors of the child
+     */
+    private boolean isSuperior( ObjectClass oc, ObjectClass child )
+    {
+        List<String> superClassNames = child.getSuperiorOids();
+        if ( ( superClassNames != null ) && ( superClassNames.size() > 0 ) )
+        {
+            for ( String superClassName : superClassNames )
+            {
+                if ( schemaHandler.getObjectClass( superClassName ) == oc )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // Without any declared superior, the child is a child of the "top (2.5.6.0)" object class
+        return schemaHandler.getObjectClass( "2.5.6.0" ) == oc; //$NON-NLS-1$
+    }
+
+
     /**
      * This method is called when an object class is removed.
      *
@@ -416,15 +518,16 @@ public class HierarchyManager
             if ( superiorAT == null )
             {
                 childrenMap.removeMapping( Strings.toLowerCase( superiorName ), at );
+                childrenMap.removeMapping( key( root ), at );
             }
             else
             {
-                childrenMap.removeMapping( superiorAT, at );
+                childrenMap.removeMapping( key( superiorAT ), at );
             }
         }
         else
         {
-            childrenMap.removeMapping( root, at );
+            childrenMap.removeMapping( key( root ), at );
         }
 
         // Attaching each child (if there are children) to the RootObject
@@ -435,21 +538,21 @@ public class HierarchyManager
             {
                 AttributeType childAT = ( AttributeType ) child;
 
-                parentsMap.removeMapping( child, at );
+                parentsMap.removeMapping( key( child ), at );
 
-                parentsMap.put( child, root );
-                childrenMap.put( root, child );
+                parentsMap.put( key( child ), root );
+                childrenMap.put( key( root ), child );
                 String childSuperiorName = childAT.getSuperiorOid();
                 if ( ( childSuperiorName != null ) && ( !"".equals( childSuperiorName ) ) ) //$NON-NLS-1$
                 {
-                    parentsMap.put( child, Strings.toLowerCase( childSuperiorName ) );
+                    parentsMap.put( key( child ), Strings.toLowerCase( childSuperiorName ) );
                     childrenMap.put( Strings.toLowerCase( childSuperiorName ), child );
                 }
             }
         }
 
-        childrenMap.remove( at );
-        parentsMap.remove( at );
+        childrenMap.remove( key( at ) );
+        parentsMap.remove( key( at ) );
     }
 
 
@@ -467,11 +570,11 @@ public class HierarchyManager
                     if ( superClassOC == null )
                     {
                         childrenMap.removeMapping( Strings.toLowerCase( superClassName ), oc );
-                        childrenMap.removeMapping( root, oc );
+                        childrenMap.removeMapping( key( root ), oc );
                     }
                     else
                     {
-                        childrenMap.removeMapping( superClassOC, oc );
+                        childrenMap.removeMapping( key( superClassOC ), oc );
                     }
                 }
             }
@@ -481,7 +584,7 @@ public class HierarchyManager
             if ( oc.getOid().equals( "2.5.6.0" ) ) //$NON-NLS-1$
             // The given object class is the "top (2.5.6.0)" object class
             {
-                childrenMap.removeMapping( root, oc );
+                childrenMap.removeMapping( key( root ), oc );
             }
             else
             {
@@ -489,7 +592,7 @@ public class HierarchyManager
                 if ( topOC != null )
                 // The "top (2.5.6.0)" object class exists
                 {
-                    childrenMap.removeMapping( topOC, oc );
+                    childrenMap.removeMapping( key( topOC ), oc );
                 }
                 else
                 // The "top (2.5.6.0)" object class does not exist
@@ -507,30 +610,30 @@ public class HierarchyManager
             {
                 ObjectClass childOC = ( ObjectClass ) child;
 
-                parentsMap.removeMapping( child, oc );
+                parentsMap.removeMapping( key( child ), oc );
 
-                parentsMap.put( child, root );
-                childrenMap.put( root, child );
+                parentsMap.put( key( child ), root );
+                childrenMap.put( key( root ), child );
                 List<String> childSuperClassesNames = childOC.getSuperiorOids();
                 if ( ( childSuperClassesNames != null ) && ( childSuperClassesNames.size() > 0 ) )
                 {
                     String correctSuperClassName = getCorrectSuperClassName( oc, childSuperClassesNames );
                     if ( correctSuperClassName != null )
                     {
-                        parentsMap.put( child, Strings.toLowerCase( correctSuperClassName ) );
+                        parentsMap.put( key( child ), Strings.toLowerCase( correctSuperClassName ) );
                         childrenMap.put( Strings.toLowerCase( correctSuperClassName ), child );
                     }
                 }
                 else
                 {
-                    parentsMap.put( child, "2.5.6.0" ); //$NON-NLS-1$
+                    parentsMap.put( key( child ), "2.5.6.0" ); //$NON-NLS-1$
                     childrenMap.put( "2.5.6.0", child ); //$NON-NLS-1$
                 }
             }
         }
 
-        childrenMap.remove( oc );
-        parentsMap.remove( oc );
+        childrenMap.remove( key( oc ) );
+        parentsMap.remove( key( oc ) );
     }
 
 
@@ -554,4 +657,40 @@ public class HierarchyManager
         // Default
         return null;
     }
+
+
+    /**
+     * The key of an attribute type or an object class in the maps, compared by identity.
+     */
+    private static final class SchemaObjectKey
+    {
+        /** The attribute type or object class */
+        private final SchemaObject schemaObject;
+
+
+        private SchemaObjectKey( SchemaObject schemaObject )
+        {
+            this.schemaObject = schemaObject;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode( schemaObject );
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals( Object o )
+        {
+            return ( o instanceof SchemaObjectKey ) && ( ( ( SchemaObjectKey ) o ).schemaObject == schemaObject );
+        }
+    }
 }
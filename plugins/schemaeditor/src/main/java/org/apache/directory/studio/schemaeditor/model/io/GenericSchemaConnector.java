@@ -22,7 +22,9 @@ package org.apache.directory.studio.schemaeditor.model.io;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.naming.directory.SearchControls;
 
@@ -33,19 +35,25 @@ import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.entry.Value;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidAttributeValueException;
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.LdapSyntax;
 import org.apache.directory.api.ldap.model.schema.MatchingRule;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
 import org.apache.directory.api.ldap.model.schema.parsers.AttributeTypeDescriptionSchemaParser;
 import org.apache.directory.api.ldap.model.schema.parsers.LdapSyntaxDescriptionSchemaParser;
 import org.apache.directory.api.ldap.model.schema.parsers.MatchingRuleDescriptionSchemaParser;
 import org.apache.directory.api.ldap.model.schema.parsers.ObjectClassDescriptionSchemaParser;
+import org.apache.directory.api.util.Strings;
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.Connection;
 import org.apache.directory.studio.connection.core.Utils;
 import org.apache.directory.studio.connection.core.io.ConnectionWrapper;
 import org.apache.directory.studio.connection.core.io.api.StudioSearchResultEnumeration;
+import org.apache.directory.studio.ldapbrowser.core.BrowserCorePlugin;
+import org.apache.directory.studio.ldapbrowser.core.model.IBrowserConnection;
 import org.apache.directory.studio.schemaeditor.PluginUtils;
 import org.apache.directory.studio.schemaeditor.model.Project;
 import org.apache.directory.studio.schemaeditor.model.Schema;
@@ -87,6 +95,23 @@ public class GenericSchemaConnector extends AbstractSchemaConnector implements S
                 SchemaConstants.SYNTAX_CHECKERS_AT
         } );
         String schemaDn = getSubschemaSubentry( wrapper, monitor );
+
+        // Reusing the schema already parsed by the browser connection when it is up to date
+        org.apache.directory.studio.ldapbrowser.core.model.schema.Schema browserSchema = getUpToDateBrowserSchema(
+            project.getConnection(), wrapper, schemaDn, monitor );
+
+        if ( browserSchema != null )
+        {
+            Schema schema = new Schema( "schema" ); //$NON-NLS-1$
+            schema.setProject( project );
+            schemas.add( schema );
+
+            getSchema( schema, browserSchema );
+            monitor.worked( 1 );
+
+            return;
+        }
+
         StudioSearchResultEnumeration answer = wrapper.search( schemaDn, "(objectclass=subschema)", constraintSearch, //$NON-NLS-1$
             DEREF_ALIAS_METHOD, HANDLE_REFERALS_METHOD, null, monitor, null );
         
@@ -102,7 +127,7 @@ public class GenericSchemaConnector extends AbstractSchemaConnector implements S
                     schema.setProject( project );
                     schemas.add( schema );
 
-                    getSchema( schema, wrapper, answer.next().getEntry(), monitor );
+                    getSchema( schema, answer.next().getEntry() );
                 }
             }
             catch ( SchemaConnectorException e )
@@ -181,173 +206,270 @@ public class GenericSchemaConnector extends AbstractSchemaConnector implements S
     }
 
 
-    private static void getSchema( Schema schema, ConnectionWrapper wrapper, Entry entry,
-        StudioProgressMonitor monitor ) throws SchemaConnectorException
+    /**
+     * Gets the schema of the browser connection, if it is already loaded and if its
+     * modify timestamp matches the one of the subschema subentry on the server. Only
+     * the modify timestamp is fetched from the server in that case.
+     *
+     * @param connection the connection
+     * @param wrapper the connection wrapper
+     * @param schemaDn the Dn of the subschema subentry
+     * @param monitor the progress monitor
+     * @return the up to date schema of the browser connection, or null if the schema
+     *         has to be fetched from the server
+     */
+    private static org.apache.directory.studio.ldapbrowser.core.model.schema.Schema getUpToDateBrowserSchema(
+        Connection connection, ConnectionWrapper wrapper, String schemaDn, StudioProgressMonitor monitor )
     {
-        // The counter for parser exceptions
-        int parseErrorCount = 0;
+        if ( ( schemaDn == null ) || ( BrowserCorePlugin.getDefault() == null ) )
+        {
+            return null;
+        }
 
-        Attribute attributeTypesAttribute = entry.get( SchemaConstants.ATTRIBUTE_TYPES_AT );
-        if ( attributeTypesAttribute != null )
+        IBrowserConnection browserConnection = BrowserCorePlugin.getDefault().getConnectionManager()
+            .getBrowserConnection( connection );
+
+        if ( browserConnection == null )
+        {
+            return null;
+        }
+
+        org.apache.directory.studio.ldapbrowser.core.model.schema.Schema browserSchema = browserConnection
+            .getSchema();
+
+        if ( ( browserSchema == null ) || browserSchema.isDefault() || ( browserSchema.getDn() == null )
+            || ( browserSchema.getModifyTimestamp() == null ) )
+        {
+            return null;
+        }
+
+        try
         {
-                for ( Value value : attributeTypesAttribute )
+            if ( !browserSchema.getDn().equals( new Dn( schemaDn ) ) )
+            {
+                return null;
+            }
+        }
+        catch ( LdapInvalidDnException e )
+        {
+            return null;
+        }
+
+        SearchControls constraintSearch = new SearchControls();
+        constraintSearch.setSearchScope( SearchControls.OBJECT_SCOPE );
+        constraintSearch.setReturningAttributes( new String[]
+            { SchemaConstants.MODIFY_TIMESTAMP_AT } );
+
+        StudioSearchResultEnumeration answer = wrapper.search( schemaDn, "(objectclass=subschema)", constraintSearch, //$NON-NLS-1$
+            DEREF_ALIAS_METHOD, HANDLE_REFERALS_METHOD, null, monitor, null );
+
+        if ( answer != null )
+        {
+            try
+            {
+                if ( answer.hasMore() )
                 {
-                    try
-                    {
-                        AttributeTypeDescriptionSchemaParser parser = new AttributeTypeDescriptionSchemaParser();
-                        parser.setQuirksMode( true );
+                    Attribute modifyTimestampAttribute = answer.next().getEntry().get(
+                        SchemaConstants.MODIFY_TIMESTAMP_AT );
 
-                        AttributeType atd = parser.parse( value.getString() );
-
-                        AttributeType impl = new AttributeType( atd.getOid() );
-                        impl.setNames( atd.getNames().toArray( new String[0] ) );
-                        impl.setDescription( atd.getDescription() );
-                        impl.setSuperiorOid( atd.getSuperiorOid() );
-                        impl.setUsage( atd.getUsage() );
-                        impl.setSyntaxOid( atd.getSyntaxOid() );
-                        impl.setSyntaxLength( atd.getSyntaxLength() );
-                        impl.setObsolete( atd.isObsolete() );
-                        impl.setCollective( atd.isCollective() );
-                        impl.setSingleValued( atd.isSingleValued() );
-                        impl.setUserModifiable( atd.isUserModifiable() );
-                        impl.setEqualityOid( atd.getEqualityOid() );
-                        impl.setOrderingOid( atd.getOrderingOid() );
-                        impl.setSubstringOid( atd.getSubstringOid() );
-                        impl.setSchemaName( schema.getSchemaName() );
-
-                        // Active Directory hack
-                        if ( impl.getSyntaxOid() != null && "OctetString".equalsIgnoreCase( impl.getSyntaxOid() ) ) //$NON-NLS-1$
-                        {
-                            impl.setSyntaxOid( SchemaConstants.OCTET_STRING_SYNTAX );
-                        }
-
-                        schema.addAttributeType( impl );
-                    }
-                    catch ( ParseException e )
+                    if ( ( modifyTimestampAttribute != null )
+                        && browserSchema.getModifyTimestamp().equals( modifyTimestampAttribute.getString() ) )
                     {
-                        // Logging the exception and incrementing the counter
-                        PluginUtils.logError( "Unable to parse the attribute type.", e ); //$NON-NLS-1$
-                        parseErrorCount++;
+                        return browserSchema;
                     }
+                }
+            }
+            catch ( LdapException e )
+            {
+                // The schema is fetched from the server
             }
         }
 
-        Attribute objectClassesAttribute = entry.get( SchemaConstants.OBJECT_CLASSES_AT );
-        if ( objectClassesAttribute != null )
+        return null;
+    }
+
+
+    /**
+     * Fills the schema with the schema elements of the browser schema. The pseudo
+     * syntaxes and matching rules the browser schema created for missing ones are 
+     * skipped, only the elements received from the server are converted.
+     *
+     * @param schema the schema
+     * @param browserSchema the browser schema
+     */
+    private static void getSchema( Schema schema,
+        org.apache.directory.studio.ldapbrowser.core.model.schema.Schema browserSchema )
+    {
+        List<AttributeType> attributeTypes = new ArrayList<AttributeType>();
+        for ( AttributeType atd : browserSchema.getAttributeTypeDescriptions() )
         {
-                for ( Value value : objectClassesAttribute )
+            if ( isReceivedFromServer( atd ) )
+            {
+                attributeTypes.add( atd );
+            }
+        }
+
+        // The browser schema sets all user attributes as may attributes of extensibleObject
+        ObjectClass extensibleObjectOcd = browserSchema.getObjectClassDescription( SchemaConstants.EXTENSIBLE_OBJECT_OC );
+
+        List<ObjectClass> objectClasses = new ArrayList<ObjectClass>();
+        for ( ObjectClass ocd : browserSchema.getObjectClassDescriptions() )
+        {
+            if ( isReceivedFromServer( ocd ) )
+            {
+                if ( ocd == extensibleObjectOcd )
                 {
                     try
                     {
                         ObjectClassDescriptionSchemaParser parser = new ObjectClassDescriptionSchemaParser();
                         parser.setQuirksMode( true );
-                        ObjectClass ocd = parser.parse( value.getString() );
-
-                        ObjectClass impl = new ObjectClass( ocd.getOid() );
-                        impl.setNames( ocd.getNames().toArray( new String[0] ) );
-                        impl.setDescription( ocd.getDescription() );
-                        impl.setSuperiorOids( ocd.getSuperiorOids() );
-                        impl.setType( ocd.getType() );
-                        impl.setObsolete( ocd.isObsolete() );
-                        impl.setMustAttributeTypeOids( ocd.getMustAttributeTypeOids() );
-                        impl.setMayAttributeTypeOids( ocd.getMayAttributeTypeOids() );
-                        impl.setSchemaName( schema.getSchemaName() );
-
-                        schema.addObjectClass( impl );
+                        ocd = parser.parse( ocd.getExtension(
+                            org.apache.directory.studio.ldapbrowser.core.model.schema.Schema.RAW_SCHEMA_DEFINITION_LDIF_VALUE )
+                            .get( 0 ) );
                     }
                     catch ( ParseException e )
                     {
-                        // Logging the exception and incrementing the counter
                         PluginUtils.logError( "Unable to parse the object class.", e ); //$NON-NLS-1$
-                        parseErrorCount++;
+                        continue;
                     }
                 }
+
+                objectClasses.add( ocd );
+            }
         }
 
-        Attribute ldapSyntaxesAttribute = entry.get( SchemaConstants.LDAP_SYNTAXES_AT );
-        if ( ldapSyntaxesAttribute != null )
+        List<LdapSyntax> ldapSyntaxes = new ArrayList<LdapSyntax>();
+        for ( LdapSyntax lsd : browserSchema.getLdapSyntaxDescriptions() )
+        {
+            if ( isReceivedFromServer( lsd ) )
+            {
+                ldapSyntaxes.add( lsd );
+            }
+        }
+
+        List<MatchingRule> matchingRules = new ArrayList<MatchingRule>();
+        for ( MatchingRule mrd : browserSchema.getMatchingRuleDescriptions() )
+        {
+            if ( isReceivedFromServer( mrd ) )
+            {
+                matchingRules.add( mrd );
+            }
+        }
+
+        addSchemaObjects( schema, attributeTypes, objectClasses, ldapSyntaxes, matchingRules );
+    }
+
+
+    /**
+     * Tells if the given schema object of a browser schema was received from
+     * the server, the pseudo schema objects have no raw schema definition.
+     *
+     * @param schemaObject the schema object
+     * @return true if the schema object was received from the server
+     */
+    private static boolean isReceivedFromServer( SchemaObject schemaObject )
+    {
+        List<String> rawDefinition = schemaObject
+            .getExtension( org.apache.directory.studio.ldapbrowser.core.model.schema.Schema.RAW_SCHEMA_DEFINITION_LDIF_VALUE );
+
+        return ( rawDefinition != null ) && !rawDefinition.isEmpty();
+    }
+
+
+    private static void getSchema( Schema schema, Entry entry ) throws SchemaConnectorException
+    {
+        // The counter for parser exceptions
+        int parseErrorCount = 0;
+
+        List<AttributeType> attributeTypes = new ArrayList<AttributeType>();
+        Attribute attributeTypesAttribute = entry.get( SchemaConstants.ATTRIBUTE_TYPES_AT );
+        if ( attributeTypesAttribute != null )
         {
-                for ( Value value : ldapSyntaxesAttribute )
+            AttributeTypeDescriptionSchemaParser parser = new AttributeTypeDescriptionSchemaParser();
+            parser.setQuirksMode( true );
+
+            for ( Value value : attributeTypesAttribute )
+            {
+                try
                 {
-                    try
-                    {
-                        LdapSyntaxDescriptionSchemaParser parser = new LdapSyntaxDescriptionSchemaParser();
-                        parser.setQuirksMode( true );
-                        LdapSyntax lsd = parser.parse( value.getString() );
+                    attributeTypes.add( parser.parse( value.getString() ) );
+                }
+                catch ( ParseException e )
+                {
+                    // Logging the exception and incrementing the counter
+                    PluginUtils.logError( "Unable to parse the attribute type.", e ); //$NON-NLS-1$
+                    parseErrorCount++;
+                }
+            }
+        }
 
-                        LdapSyntax impl = new LdapSyntax( lsd.getOid() );
-                        impl.setDescription( lsd.getDescription() );
-                        impl.setNames( new String[]
-                            { lsd.getDescription() } );
-                        //impl.setObsolete( lsd.isObsolete() );
-                        impl.setHumanReadable( true );
-                        impl.setSchemaName( schema.getSchemaName() );
+        List<ObjectClass> objectClasses = new ArrayList<ObjectClass>();
+        Attribute objectClassesAttribute = entry.get( SchemaConstants.OBJECT_CLASSES_AT );
+        if ( objectClassesAttribute != null )
+        {
+            ObjectClassDescriptionSchemaParser parser = new ObjectClassDescriptionSchemaParser();
+            parser.setQuirksMode( true );
 
-                        schema.addSyntax( impl );
-                    }
-                    catch ( ParseException e )
-                    {
-                        // Logging the exception and incrementing the counter
-                        PluginUtils.logError( "Unable to parse the syntax.", e ); //$NON-NLS-1$
-                        parseErrorCount++;
-                    }
+            for ( Value value : objectClassesAttribute )
+            {
+                try
+                {
+                    objectClasses.add( parser.parse( value.getString() ) );
                 }
+                catch ( ParseException e )
+                {
+                    // Logging the exception and incrementing the counter
+                    PluginUtils.logError( "Unable to parse the object class.", e ); //$NON-NLS-1$
+                    parseErrorCount++;
+                }
+            }
         }
 
-        // if online: assume all received syntaxes in attributes are valid -> create dummy syntaxes if missing
-        for ( AttributeType at : schema.getAttributeTypes() )
+        List<LdapSyntax> ldapSyntaxes = new ArrayList<LdapSyntax>();
+        Attribute ldapSyntaxesAttribute = entry.get( SchemaConstants.LDAP_SYNTAXES_AT );
+        if ( ldapSyntaxesAttribute != null )
         {
-            String syntaxOid = at.getSyntaxOid();
-            
-            if ( ( syntaxOid != null ) && ( schema.getSyntax( syntaxOid ) == null ) )
+            LdapSyntaxDescriptionSchemaParser parser = new LdapSyntaxDescriptionSchemaParser();
+            parser.setQuirksMode( true );
+
+            for ( Value value : ldapSyntaxesAttribute )
             {
-                LdapSyntax impl = new LdapSyntax( syntaxOid );
-                impl.setSchemaName( schema.getSchemaName() );
-                String oidDescription = Utils.getOidDescription( syntaxOid );
-                impl.setDescription( oidDescription != null ? oidDescription : "Dummy" ); //$NON-NLS-1$
-                impl.setNames( new String[]
-                    { impl.getDescription() } );
-                schema.addSyntax( impl );
+                try
+                {
+                    ldapSyntaxes.add( parser.parse( value.getString() ) );
+                }
+                catch ( ParseException e )
+                {
+                    // Logging the exception and incrementing the counter
+                    PluginUtils.logError( "Unable to parse the syntax.", e ); //$NON-NLS-1$
+                    parseErrorCount++;
+                }
             }
         }
 
+        List<MatchingRule> matchingRules = new ArrayList<MatchingRule>();
         Attribute matchingRulesAttribute = entry.get( SchemaConstants.MATCHING_RULES_AT );
         if ( matchingRulesAttribute != null )
         {
-                for ( Value value : matchingRulesAttribute )
-                {
-                    try
-                    {
-                        MatchingRuleDescriptionSchemaParser parser = new MatchingRuleDescriptionSchemaParser();
-                        parser.setQuirksMode( true );
-                        MatchingRule mrd = parser.parse( value.getString() );
-
-                        MatchingRule impl = new MatchingRule( mrd.getOid() );
-                        impl.setDescription( mrd.getDescription() );
-                        impl.setNames( mrd.getNames().toArray( new String[0] ) );
-                        impl.setObsolete( mrd.isObsolete() );
-                        impl.setSyntaxOid( mrd.getSyntaxOid() );
-                        impl.setSchemaName( schema.getSchemaName() );
+            MatchingRuleDescriptionSchemaParser parser = new MatchingRuleDescriptionSchemaParser();
+            parser.setQuirksMode( true );
 
-                        schema.addMatchingRule( impl );
-                    }
-                    catch ( ParseException e )
-                    {
-                        // Logging the exception and incrementing the counter
-                        PluginUtils.logError( "Unable to parse the matching rule.", e ); //$NON-NLS-1$
-                        parseErrorCount++;
-                    }
+            for ( Value value : matchingRulesAttribute )
+            {
+                try
+                {
+                    matchingRules.add( parser.parse( value.getString() ) );
+                }
+                catch ( ParseException e )
+                {
+                    // Logging the exception and incrementing the counter
+                    PluginUtils.logError( "Unable to parse the matching rule.", e ); //$NON-NLS-1$
+                    parseErrorCount++;
                 }
+            }
         }
 
-        // if online: assume all received matching rules in attributes are valid -> create dummy matching rules if missing
-        for ( AttributeType at : schema.getAttributeTypes() )
-        {
-            String equalityName = at.getEqualityOid();
-            String orderingName = at.getOrderingOid();
-            String substrName = at.getSubstringOid();
-            checkMatchingRules( schema, equalityName, orderingName, substrName );
-        }
+        addSchemaObjects( schema, attributeTypes, objectClasses, ldapSyntaxes, matchingRules );
 
         // Showing an error
         if ( parseErrorCount > 0 )
@@ -368,18 +490,150 @@ public class GenericSchemaConnector extends AbstractSchemaConnector implements S
     }
 
 
-    private static void checkMatchingRules( Schema schema, String... matchingRuleNames )
+    /**
+     * Converts the parsed schema descriptions and adds them to the schema. The dummy 
+     * syntaxes and matching rules of the attribute types are created in the same pass
+     * as the attribute types, the known ids are kept in sets instead of searching the
+     * schema for each attribute type.
+     *
+     * @param schema the schema
+     * @param attributeTypes the parsed attribute types
+     * @param objectClasses the parsed object classes
+     * @param ldapSyntaxes the parsed syntaxes
+     * @param matchingRules the parsed matching rules
+     */
+    private static void addSchemaObjects( Schema schema, List<AttributeType> attributeTypes,
+        List<ObjectClass> objectClasses, List<LdapSyntax> ldapSyntaxes, List<MatchingRule> matchingRules )
+    {
+        // The lower cased names and OIDs of the syntaxes and matching rules of the schema
+        Set<String> syntaxIds = new HashSet<String>();
+        Set<String> matchingRuleIds = new HashSet<String>();
+
+        for ( LdapSyntax lsd : ldapSyntaxes )
+        {
+            LdapSyntax impl = new LdapSyntax( lsd.getOid() );
+            impl.setDescription( lsd.getDescription() );
+            impl.setNames( new String[]
+                { lsd.getDescription() } );
+            //impl.setObsolete( lsd.isObsolete() );
+            impl.setHumanReadable( true );
+            impl.setSchemaName( schema.getSchemaName() );
+
+            schema.addSyntax( impl );
+            addIds( syntaxIds, impl );
+        }
+
+        for ( MatchingRule mrd : matchingRules )
+        {
+            MatchingRule impl = new MatchingRule( mrd.getOid() );
+            impl.setDescription( mrd.getDescription() );
+            impl.setNames( mrd.getNames().toArray( new String[0] ) );
+            impl.setObsolete( mrd.isObsolete() );
+            impl.setSyntaxOid( mrd.getSyntaxOid() );
+            impl.setSchemaName( schema.getSchemaName() );
+
+            schema.addMatchingRule( impl );
+            addIds( matchingRuleIds, impl );
+        }
+
+        for ( ObjectClass ocd : objectClasses )
+        {
+            ObjectClass impl = new ObjectClass( ocd.getOid() );
+            impl.setNames( ocd.getNames().toArray( new String[0] ) );
+            impl.setDescription( ocd.getDescription() );
+            impl.setSuperiorOids( ocd.getSuperiorOids() );
+            impl.setType( ocd.getType() );
+            impl.setObsolete( ocd.isObsolete() );
+            impl.setMustAttributeTypeOids( ocd.getMustAttributeTypeOids() );
+            impl.setMayAttributeTypeOids( ocd.getMayAttributeTypeOids() );
+            impl.setSchemaName( schema.getSchemaName() );
+
+            schema.addObjectClass( impl );
+        }
+
+        for ( AttributeType atd : attributeTypes )
+        {
+            AttributeType impl = new AttributeType( atd.getOid() );
+            impl.setNames( atd.getNames().toArray( new String[0] ) );
+            impl.setDescription( atd.getDescription() );
+            impl.setSuperiorOid( atd.getSuperiorOid() );
+            impl.setUsage( atd.getUsage() );
+            impl.setSyntaxOid( atd.getSyntaxOid() );
+            impl.setSyntaxLength( atd.getSyntaxLength() );
+            impl.setObsolete( atd.isObsolete() );
+            impl.setCollective( atd.isCollective() );
+            impl.setSingleValued( atd.isSingleValued() );
+            impl.setUserModifiable( atd.isUserModifiable() );
+            impl.setEqualityOid( atd.getEqualityOid() );
+            impl.setOrderingOid( atd.getOrderingOid() );
+            impl.setSubstringOid( atd.getSubstringOid() );
+            impl.setSchemaName( schema.getSchemaName() );
+
+            // Active Directory hack
+            if ( impl.getSyntaxOid() != null && "OctetString".equalsIgnoreCase( impl.getSyntaxOid() ) ) //$NON-NLS-1$
+            {
+                impl.setSyntaxOid( SchemaConstants.OCTET_STRING_SYNTAX );
+            }
+
+            schema.addAttributeType( impl );
+
+            // if online: assume all received syntaxes in attributes are valid -> create dummy syntaxes if missing
+            String syntaxOid = impl.getSyntaxOid();
+
+            if ( ( syntaxOid != null ) && !syntaxIds.contains( Strings.toLowerCase( syntaxOid ) ) )
+            {
+                LdapSyntax dummy = new LdapSyntax( syntaxOid );
+                dummy.setSchemaName( schema.getSchemaName() );
+                String oidDescription = Utils.getOidDescription( syntaxOid );
+                dummy.setDescription( oidDescription != null ? oidDescription : "Dummy" ); //$NON-NLS-1$
+                dummy.setNames( new String[]
+                    { dummy.getDescription() } );
+
+                schema.addSyntax( dummy );
+                addIds( syntaxIds, dummy );
+            }
+
+            // if online: assume all received matching rules in attributes are valid -> create dummy matching rules if missing
+            checkMatchingRules( schema, matchingRuleIds, impl.getEqualityOid(), impl.getOrderingOid(),
+                impl.getSubstringOid() );
+        }
+    }
+
+
+    private static void checkMatchingRules( Schema schema, Set<String> matchingRuleIds, String... matchingRuleNames )
     {
         for ( String matchingRuleName : matchingRuleNames )
         {
-            if ( ( matchingRuleName != null ) && ( schema.getMatchingRule( matchingRuleName ) == null ) )
+            if ( ( matchingRuleName != null ) && !matchingRuleIds.contains( Strings.toLowerCase( matchingRuleName ) ) )
             {
                 MatchingRule impl = new MatchingRule( matchingRuleName );
                 impl.setSchemaName( schema.getSchemaName() );
                 impl.setDescription( "Dummy" ); //$NON-NLS-1$
                 impl.setNames( new String[]
                     { matchingRuleName } );
+
                 schema.addMatchingRule( impl );
+                addIds( matchingRuleIds, impl );
+            }
+        }
+    }
+
+
+    /**
+     * Adds the lower cased OID and names of the schema object to the given set.
+     *
+     * @param ids the set of ids
+     * @param schemaObject the schema object
+     */
+    private static void addIds( Set<String> ids, SchemaObject schemaObject )
+    {
+        ids.add( Strings.toLowerCase( schemaObject.getOid() ) );
+
+        for ( String name : schemaObject.getNames() )
+        {
+            if ( name != null )
+            {
+                ids.add( Strings.toLowerCase( name ) );
             }
         }
     }
@@ -20,6 +20,8 @@
 package org.apache.directory.studio.schemaeditor.model.io;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.apache.directory.studio.connection.core.Connection;
@@ -30,6 +32,8 @@ import org.dom4j.Branch;
 import org.dom4j.Document;
 import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
 
 
 /**
@@ -97,6 +101,56 @@ public class ProjectsExporter
     }
 
 
+    /**
+     * Writes the XML representation of the given projects to the given output stream.
+     * <p>
+     * The result is the same as writing the Document returned by {@link #toDocument(Project[])},
+     * but only the representation of one project is held in memory at a time.
+     *
+     * @param projects
+     *      the projects to write
+     * @param outputStream
+     *      the output stream
+     * @throws IOException
+     *      if an error occurs when writing the projects
+     */
+    public static void writeProjects( Project[] projects, OutputStream outputStream ) throws IOException
+    {
+        OutputFormat outformat = OutputFormat.createPrettyPrint();
+        outformat.setEncoding( "UTF-8" ); //$NON-NLS-1$
+        XMLWriter writer = new XMLWriter( outputStream, outformat );
+
+        if ( ( projects == null ) || ( projects.length == 0 ) )
+        {
+            // Without any project, the projects element is written as an empty element
+            writer.write( toDocument( projects ) );
+            writer.flush();
+            return;
+        }
+
+        // Writing the XML declaration (by writing an empty document)
+        writer.write( DocumentHelper.createDocument() );
+
+        Element projectsElement = DocumentHelper.createElement( PROJECTS_TAG );
+        writer.writeOpen( projectsElement );
+        writer.setIndentLevel( 1 );
+
+        for ( Project project : projects )
+        {
+            // Writing the projects one at a time, and detaching them once written
+            Element projectElement = addProject( project, projectsElement );
+            writer.write( projectElement );
+            projectsElement.remove( projectElement );
+        }
+
+        writer.setIndentLevel( 0 );
+        writer.println();
+        writer.writeClose( projectsElement );
+        writer.println();
+        writer.flush();
+    }
+
+
     /**
      * Add the XML representation of the given project
      * to the given branch
@@ -105,8 +159,10 @@ public class ProjectsExporter
      *      the project
      * @param branch
      *      the branch
+     * @return
+     *      the element of the project
      */
-    private static void addProject( Project project, Branch branch )
+    private static Element addProject( Project project, Branch branch )
     {
         Element element = branch.addElement( PROJECT_TAG );
 
@@ -159,5 +215,7 @@ public class ProjectsExporter
             XMLSchemaFileExporter
                 .addSchemas( project.getSchemaHandler().getSchemas().toArray( new Schema[0] ), element );
         }
+
+        return element;
     }
 }
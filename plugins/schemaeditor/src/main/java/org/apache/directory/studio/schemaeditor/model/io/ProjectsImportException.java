@@ -40,4 +40,18 @@ public class ProjectsImportException extends Exception
     {
         super( message );
     }
+
+
+    /**
+     * Creates a new instance of ProjectsImportException.
+     *
+     * @param message
+     *      the message
+     * @param cause
+     *      the cause
+     */
+    public ProjectsImportException( String message, Throwable cause )
+    {
+        super( message, cause );
+    }
 }
@@ -23,7 +23,6 @@ package org.apache.directory.studio.schemaeditor.model.io;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 
 import org.apache.directory.studio.schemaeditor.PluginUtils;
@@ -34,6 +33,8 @@ import org.dom4j.Attribute;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.Element;
+import org.dom4j.ElementHandler;
+import org.dom4j.ElementPath;
 import org.dom4j.io.SAXReader;
 import org.eclipse.osgi.util.NLS;
 
@@ -111,11 +112,44 @@ public class ProjectsImporter
      * @throws ProjectsImportException 
      *      if an error occurs when importing the project
      */
-    public static Project[] getProjects( InputStream inputStream, String path ) throws ProjectsImportException
+    public static Project[] getProjects( InputStream inputStream, final String path ) throws ProjectsImportException
     {
-        List<Project> projects = new ArrayList<Project>();
+        final List<Project> projects = new ArrayList<Project>();
+        final List<ProjectsImportException> exceptions = new ArrayList<ProjectsImportException>();
 
+        // The projects are read as soon as they are parsed, and then pruned from the
+        // document, so that only one project is held in memory at a time
         SAXReader reader = new SAXReader();
+        reader.addHandler( "/" + PROJECTS_TAG + "/" + PROJECT_TAG, new ElementHandler() //$NON-NLS-1$ //$NON-NLS-2$
+        {
+            public void onStart( ElementPath elementPath )
+            {
+                // Nothing to do
+            }
+
+
+            public void onEnd( ElementPath elementPath )
+            {
+                Element projectElement = elementPath.getCurrent();
+
+                if ( exceptions.isEmpty() )
+                {
+                    try
+                    {
+                        Project project = new Project();
+                        readProject( projectElement, project, path );
+                        projects.add( project );
+                    }
+                    catch ( ProjectsImportException e )
+                    {
+                        exceptions.add( e );
+                    }
+                }
+
+                projectElement.detach();
+            }
+        } );
+
         Document document = null;
         try
         {
@@ -123,11 +157,9 @@ public class ProjectsImporter
         }
         catch ( DocumentException e )
         {
-            PluginUtils.logError( NLS.bind( Messages.getString( "ProjectsImporter.NotReadCorrectly" ), new String[] //$NON-NLS-1$
-                { path } ), e );
             throw new ProjectsImportException( NLS.bind( Messages.getString( "ProjectsImporter.NotReadCorrectly" ), //$NON-NLS-1$
                 new String[]
-                    { path } ) );
+                    { path } ), e );
         }
 
         Element rootElement = document.getRootElement();
@@ -138,12 +170,9 @@ public class ProjectsImporter
                     { path } ) );
         }
 
-        for ( Iterator<?> i = rootElement.elementIterator( PROJECT_TAG ); i.hasNext(); )
+        if ( !exceptions.isEmpty() )
         {
-            Element projectElement = ( Element ) i.next();
-            Project project = new Project();
-            readProject( projectElement, project, path );
-            projects.add( project );
+            throw exceptions.get( 0 );
         }
 
         return projects.toArray( new Project[0] );
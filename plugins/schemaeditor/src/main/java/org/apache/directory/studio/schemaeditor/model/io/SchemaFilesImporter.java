@@ -0,0 +1,268 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.studio.schemaeditor.model.io;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.apache.directory.studio.schemaeditor.model.Schema;
+
+
+/**
+ * This class is used to import several schema files at once.
+ * <p>
+ * The files are read concurrently on the common fork-join pool, and the results
+ * are returned in the order of the given files, so that the schemas can be added
+ * to the project the same way they would be if the files were read one after the other.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaFilesImporter
+{
+    /**
+     * This class represents the result of the import of a schema file.
+     *
+     * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+     */
+    public static class SchemaFileImport
+    {
+        /** The schema file */
+        private File file;
+
+        /** The schemas read from the file */
+        private Schema[] schemas;
+
+        /** The exception raised when reading the file */
+        private Exception exception;
+
+
+        /**
+         * Creates a new instance of SchemaFileImport.
+         *
+         * @param file
+         *      the schema file
+         */
+        private SchemaFileImport( File file )
+        {
+            this.file = file;
+        }
+
+
+        /**
+         * Gets the schema file.
+         *
+         * @return
+         *      the schema file
+         */
+        public File getFile()
+        {
+            return file;
+        }
+
+
+        /**
+         * Gets the schemas read from the file.
+         *
+         * @return
+         *      the schemas read from the file, or null if an error occurred
+         */
+        public Schema[] getSchemas()
+        {
+            return schemas;
+        }
+
+
+        /**
+         * Gets the exception raised when reading the file.
+         *
+         * @return
+         *      the exception raised when reading the file, or null if the file was read correctly
+         */
+        public Exception getException()
+        {
+            return exception;
+        }
+    }
+
+    /**
+     * This interface is used to read the schemas of a schema file.
+     */
+    private interface SchemaFileReader
+    {
+        /**
+         * Reads the schemas of the given schema file.
+         *
+         * @param inputStream
+         *      the {@link InputStream} of the file
+         * @param path
+         *      the path of the file
+         * @return
+         *      the schemas of the file
+         * @throws Exception
+         *      if an error occurs when reading the file
+         */
+        Schema[] read( InputStream inputStream, String path ) throws Exception;
+    }
+
+    /** The reader of schema files in the OpenLDAP format */
+    private static final SchemaFileReader OPENLDAP_READER = new SchemaFileReader()
+    {
+        public Schema[] read( InputStream inputStream, String path ) throws OpenLdapSchemaFileImportException
+        {
+            return new Schema[]
+                { OpenLdapSchemaFileImporter.getSchema( inputStream, path ) };
+        }
+    };
+
+    /** The reader of schema files in the XML format */
+    private static final SchemaFileReader XML_READER = new SchemaFileReader()
+    {
+        public Schema[] read( InputStream inputStream, String path ) throws XMLSchemaFileImportException
+        {
+            return XMLSchemaFileImporter.readSchemaFile( inputStream, path );
+        }
+    };
+
+
+    /**
+     * Imports the given schema files in the OpenLDAP format.
+     *
+     * @param files
+     *      the schema files
+     * @return
+     *      the results of the imports, in the order of the given files
+     */
+    public static List<SchemaFileImport> importOpenLdapSchemaFiles( File[] files )
+    {
+        return importSchemaFiles( files, OPENLDAP_READER );
+    }
+
+
+    /**
+     * Imports the given schema files in the XML format.
+     *
+     * @param files
+     *      the schema files
+     * @return
+     *      the results of the imports, in the order of the given files
+     */
+    public static List<SchemaFileImport> importXmlSchemaFiles( File[] files )
+    {
+        return importSchemaFiles( files, XML_READER );
+    }
+
+
+    /**
+     * Imports the given schema files with the given reader.
+     *
+     * @param files
+     *      the schema files
+     * @param reader
+     *      the reader
+     * @return
+     *      the results of the imports, in the order of the given files
+     */
+    private static List<SchemaFileImport> importSchemaFiles( File[] files, final SchemaFileReader reader )
+    {
+        // Reading the files concurrently only makes sense if there is more than one
+        // file and more than one thread to read them
+        boolean parallel = ( files.length > 1 ) && ( ForkJoinPool.getCommonPoolParallelism() > 1 );
+
+        List<CompletableFuture<SchemaFileImport>> futures = new ArrayList<CompletableFuture<SchemaFileImport>>();
+
+        for ( final File file : files )
+        {
+            if ( parallel )
+            {
+                futures.add( CompletableFuture.supplyAsync( new Supplier<SchemaFileImport>()
+                {
+                    public SchemaFileImport get()
+                    {
+                        return importSchemaFile( file, reader );
+                    }
+                } ) );
+            }
+            else
+            {
+                futures.add( CompletableFuture.completedFuture( importSchemaFile( file, reader ) ) );
+            }
+        }
+
+        List<SchemaFileImport> imports = new ArrayList<SchemaFileImport>( files.length );
+
+        for ( CompletableFuture<SchemaFileImport> future : futures )
+        {
+            try
+            {
+                imports.add( future.join() );
+            }
+            catch ( CompletionException e )
+            {
+                if ( e.getCause() instanceof RuntimeException )
+                {
+                    throw ( RuntimeException ) e.getCause();
+                }
+
+                throw e;
+            }
+        }
+
+        return imports;
+    }
+
+
+    /**
+     * Imports the given schema file with the given reader.
+     *
+     * @param file
+     *      the schema file
+     * @param reader
+     *      the reader
+     * @return
+     *      the result of the import
+     */
+    private static SchemaFileImport importSchemaFile( File file, SchemaFileReader reader )
+    {
+        SchemaFileImport schemaFileImport = new SchemaFileImport( file );
+
+        try ( InputStream inputStream = new FileInputStream( file ) )
+        {
+            schemaFileImport.schemas = reader.read( inputStream, file.getAbsolutePath() );
+        }
+        catch ( RuntimeException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            schemaFileImport.exception = e;
+        }
+
+        return schemaFileImport;
+    }
+}
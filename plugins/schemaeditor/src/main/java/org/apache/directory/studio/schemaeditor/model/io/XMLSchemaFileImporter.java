@@ -153,6 +153,53 @@ public class XMLSchemaFileImporter
     }
 
 
+    /**
+     * Extracts the Schema(s) from the given path, whatever the type of the file.
+     * <p>
+     * The file is only parsed once, whereas getting its type with
+     * {@link #getSchemaFileType(InputStream, String)} first parses it twice.
+     *
+     * @param inputStream
+     *      the {@link InputStream} of the file
+     * @param path
+     *      the path of the file.
+     * @return
+     *      the corresponding schemas
+     * @throws XMLSchemaFileImportException
+     *      if an error occurs when importing the schemas
+     */
+    public static Schema[] readSchemaFile( InputStream inputStream, String path ) throws XMLSchemaFileImportException
+    {
+        SAXReader reader = new SAXReader();
+        Document document = null;
+        try
+        {
+            document = reader.read( inputStream );
+        }
+        catch ( DocumentException e )
+        {
+            throw new XMLSchemaFileImportException( NLS.bind( Messages
+                .getString( "XMLSchemaFileImporter.NotReadCorrectly" ), new String[] { path } ), e ); //$NON-NLS-1$
+        }
+
+        Element rootElement = document.getRootElement();
+        if ( rootElement.getName().equals( SCHEMA_TAG ) )
+        {
+            return new Schema[]
+                { readSchema( rootElement, path ) };
+        }
+        else if ( rootElement.getName().equals( SCHEMAS_TAG ) )
+        {
+            return readSchemas( rootElement, path );
+        }
+        else
+        {
+            throw new XMLSchemaFileImportException( NLS.bind( Messages
+                .getString( "XMLSchemaFileImporter.NotValidSchema" ), new String[] { path } ) ); //$NON-NLS-1$
+        }
+    }
+
+
     /**
      * Reads schemas.
      *
@@ -21,25 +21,39 @@ package org.apache.directory.studio.schemaeditor.model.schemachecker;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
+import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.exception.LdapSchemaException;
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.LdapSyntax;
+import org.apache.directory.api.ldap.model.schema.LoggingSchemaErrorHandler;
 import org.apache.directory.api.ldap.model.schema.MatchingRule;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaErrorHandler;
 import org.apache.directory.api.ldap.model.schema.SchemaManager;
 import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.api.ldap.model.schema.registries.Registries;
+import org.apache.directory.api.ldap.model.schema.registries.helper.AttributeTypeHelper;
+import org.apache.directory.api.ldap.model.schema.registries.helper.ObjectClassHelper;
 import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.apache.directory.api.util.Strings;
 import org.apache.directory.studio.schemaeditor.Activator;
+import org.apache.directory.studio.schemaeditor.PluginUtils;
 import org.apache.directory.studio.schemaeditor.controller.ProjectsHandlerAdapter;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandlerAdapter;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandlerListener;
 import org.apache.directory.studio.schemaeditor.model.Project;
 import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.model.hierarchy.HierarchyManager;
 import org.apache.directory.studio.schemaeditor.model.schemamanager.SchemaEditorSchemaLoader;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -51,17 +65,30 @@ import org.eclipse.core.runtime.jobs.Job;
  * This class represents the SchemaChecker.
  * <p>
  * It is used to check the schema integrity.
+ * <p>
+ * The whole schema is loaded into a schema manager when the checker is enabled and
+ * when schemas are added or removed. The registries of the schema manager are only
+ * populated if the whole schema could be loaded without errors, only then the
+ * modifications of attribute types and object classes are checked incrementally
+ * against these registries. As long as the schema contains errors, each modification
+ * triggers a check of the whole schema.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
 public class SchemaChecker
 {
+    /** The delay (in milliseconds) used to gather rapid modifications into a single check */
+    private static final long CHECK_DELAY = 500L;
+
     /** The SchemaChecker instance */
     private static SchemaChecker instance;
 
     /** The schema manager */
     private SchemaManager schemaManager;
 
+    /** The errors list */
+    private List<Throwable> errorsList = new ArrayList<Throwable>();
+
     /** The errors map */
     private MultiValuedMap<Object, Object> errorsMap = new ArrayListValuedHashMap<>();
 
@@ -80,78 +107,91 @@ public class SchemaChecker
     /** The listeners List */
     private List<SchemaCheckerListener> listeners = new ArrayList<SchemaCheckerListener>();
 
+    /** The modifications waiting to be checked */
+    private List<SchemaObjectModification> pendingModifications = new ArrayList<SchemaObjectModification>();
+
+    /** The flag indicating that the whole schema needs to be checked */
+    private boolean wholeSchemaCheckPending = false;
+
+    /**
+     * The flag indicating whether the schema manager registries can be updated incrementally,
+     * which is the case if the last check of the whole schema didn't find any error
+     */
+    private boolean incrementalCheckPossible = false;
+
+    /** The schema objects registered in the schema manager, indexed by their schema handler counterpart */
+    private Map<SchemaObject, SchemaObject> registeredObjects = new IdentityHashMap<SchemaObject, SchemaObject>();
+
+    /** The hierarchy manager used to find the schema objects depending on a modified one */
+    private HierarchyManager hierarchyManager;
+
+    /** The checked schema handler, null to check the schema handler of the open project */
+    private final SchemaHandler checkedSchemaHandler;
+
+    /** The job checking the schema */
+    private Job checkJob = new Job( Messages.getString( "SchemaChecker.CheckingSchema" ) ) //$NON-NLS-1$
+    {
+        protected IStatus run( IProgressMonitor monitor )
+        {
+            checkSchema();
+
+            // Notify listeners
+            notifyListeners();
+
+            monitor.done();
+
+            return Status.OK_STATUS;
+        }
+    };
+
     /** The SchemaHandlerListener */
     private SchemaHandlerListener schemaHandlerListener = new SchemaHandlerAdapter()
     {
         public void attributeTypeAdded( AttributeType at )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( at, ModificationType.ADDED );
         }
 
 
         public void attributeTypeModified( AttributeType at )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( at, ModificationType.MODIFIED );
         }
 
 
         public void attributeTypeRemoved( AttributeType at )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( at, ModificationType.REMOVED );
         }
 
 
         public void objectClassAdded( ObjectClass oc )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( oc, ModificationType.ADDED );
         }
 
 
         public void objectClassModified( ObjectClass oc )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( oc, ModificationType.MODIFIED );
         }
 
 
         public void objectClassRemoved( ObjectClass oc )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheck( oc, ModificationType.REMOVED );
         }
 
 
         public void schemaAdded( Schema schema )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheckWholeSchema();
         }
 
 
         public void schemaRemoved( Schema schema )
         {
-            synchronized ( this )
-            {
-                recheckWholeSchema();
-            }
+            recheckWholeSchema();
         }
 
 
@@ -167,6 +207,8 @@ public class SchemaChecker
      */
     private SchemaChecker()
     {
+        checkedSchemaHandler = null;
+
         Activator.getDefault().getProjectsHandler().addListener( new ProjectsHandlerAdapter()
         {
             public void openProjectChanged( Project oldProject, Project newProject )
@@ -185,6 +227,20 @@ public class SchemaChecker
     }
 
 
+    /**
+     * Creates a new instance of SchemaChecker checking the given schema handler.
+     * <p>
+     * No check job is scheduled for this instance, the pending modifications are
+     * checked when calling {@link #checkSchema()}.
+     *
+     * @param schemaHandler the schema handler to check
+     */
+    SchemaChecker( SchemaHandler schemaHandler )
+    {
+        checkedSchemaHandler = schemaHandler;
+    }
+
+
     /**
      * Gets the singleton instance of the ProjectsHandler.
      *
@@ -211,7 +267,7 @@ public class SchemaChecker
         {
             if ( !listeningToModifications )
             {
-                Activator.getDefault().getSchemaHandler().addListener( schemaHandlerListener );
+                getSchemaHandler().addListener( schemaHandlerListener );
                 listeningToModifications = true;
                 recheckWholeSchema();
             }
@@ -228,7 +284,7 @@ public class SchemaChecker
         {
             if ( listeningToModifications )
             {
-                Activator.getDefault().getSchemaHandler().removeListener( schemaHandlerListener );
+                getSchemaHandler().removeListener( schemaHandlerListener );
                 listeningToModifications = false;
             }
         }
@@ -262,38 +318,574 @@ public class SchemaChecker
 
 
     /**
-     * Checks the whole schema.
+     * Schedules a check of the whole schema.
      */
     private void recheckWholeSchema()
     {
-        Job job = new Job( "Checking Schema" )
+        synchronized ( pendingModifications )
+        {
+            wholeSchemaCheckPending = true;
+            pendingModifications.clear();
+        }
+
+        scheduleCheck();
+    }
+
+
+    /**
+     * Schedules a check of the given modified schema object and of the
+     * schema objects depending on it.
+     *
+     * @param schemaObject the modified schema object
+     * @param type the type of the modification
+     */
+    private void recheck( SchemaObject schemaObject, ModificationType type )
+    {
+        synchronized ( pendingModifications )
+        {
+            if ( !wholeSchemaCheckPending )
+            {
+                pendingModifications.add( new SchemaObjectModification( schemaObject, type ) );
+            }
+        }
+
+        scheduleCheck();
+    }
+
+
+    /**
+     * Schedules the check job. Rescheduling a job that is still waiting
+     * postpones it, so that rapid modifications are checked only once.
+     */
+    private void scheduleCheck()
+    {
+        if ( checkedSchemaHandler == null )
+        {
+            checkJob.cancel();
+            checkJob.schedule( CHECK_DELAY );
+        }
+    }
+
+
+    /**
+     * Gets the checked schema handler.
+     *
+     * @return the checked schema handler
+     */
+    private SchemaHandler getSchemaHandler()
+    {
+        if ( checkedSchemaHandler != null )
+        {
+            return checkedSchemaHandler;
+        }
+
+        return Activator.getDefault().getSchemaHandler();
+    }
+
+
+    /**
+     * Returns true if the modifications are checked incrementally, false if
+     * each modification triggers a check of the whole schema.
+     *
+     * @return true if the modifications are checked incrementally
+     */
+    boolean isIncrementalCheckPossible()
+    {
+        return incrementalCheckPossible;
+    }
+
+
+    /**
+     * Checks the pending modifications, or the whole schema if required.
+     */
+    void checkSchema()
+    {
+        List<SchemaObjectModification> modifications;
+        boolean wholeSchema;
+
+        synchronized ( pendingModifications )
+        {
+            modifications = new ArrayList<SchemaObjectModification>( pendingModifications );
+            pendingModifications.clear();
+            wholeSchema = wholeSchemaCheckPending;
+            wholeSchemaCheckPending = false;
+        }
+
+        if ( wholeSchema || !incrementalCheckPossible )
+        {
+            checkWholeSchema();
+        }
+        else if ( !modifications.isEmpty() )
+        {
+            checkModifications( modifications );
+        }
+    }
+
+
+    /**
+     * Checks the whole schema.
+     * <p>
+     * The schema manager only populates its registries when the whole schema could
+     * be loaded without errors, so the following modifications can only be checked
+     * incrementally in this case.
+     */
+    private void checkWholeSchema()
+    {
+        // Checks the whole schema via the schema manager
+        try
+        {
+            schemaManager = new DefaultSchemaManager( new SchemaEditorSchemaLoader( getSchemaHandler() ) );
+            incrementalCheckPossible = schemaManager.loadAllEnabled();
+        }
+        catch ( Exception e )
+        {
+            incrementalCheckPossible = false;
+            PluginUtils.logError( "Unable to load the schema into the schema manager.", e ); //$NON-NLS-1$
+        }
+
+        // Indexes the registered schema objects
+        registeredObjects.clear();
+        hierarchyManager = null;
+
+        if ( incrementalCheckPossible )
+        {
+            indexRegisteredObjects();
+        }
+
+        if ( incrementalCheckPossible )
+        {
+            hierarchyManager = new HierarchyManager( getSchemaHandler() );
+        }
+        else
+        {
+            registeredObjects.clear();
+        }
+
+        // Updates errors and warnings
+        updateErrorsAndWarnings();
+    }
+
+
+    /**
+     * Checks the modified schema objects and the schema objects depending on them
+     * against the registries of the schema manager, without reloading the whole schema.
+     *
+     * @param modifications the modifications
+     */
+    private void checkModifications( List<SchemaObjectModification> modifications )
+    {
+        Registries registries = schemaManager.getRegistries();
+        Set<SchemaObject> checkedObjects = Collections.newSetFromMap( new IdentityHashMap<SchemaObject, Boolean>() );
+        Set<SchemaObject> removedObjects = Collections.newSetFromMap( new IdentityHashMap<SchemaObject, Boolean>() );
+
+        // Collecting the modified schema objects and their dependents, before and after
+        // the modification, as the modification may have changed the dependencies
+        for ( SchemaObjectModification modification : modifications )
+        {
+            SchemaObject schemaObject = modification.schemaObject;
+            addDependents( schemaObject, checkedObjects );
+            updateHierarchy( modification );
+
+            if ( modification.type == ModificationType.REMOVED )
+            {
+                removedObjects.add( schemaObject );
+                checkedObjects.remove( schemaObject );
+            }
+            else
+            {
+                removedObjects.remove( schemaObject );
+                checkedObjects.add( schemaObject );
+            }
+
+            addDependents( schemaObject, checkedObjects );
+        }
+
+        checkedObjects.removeAll( removedObjects );
+
+        // Unregistering the previous versions of the schema objects
+        for ( SchemaObject schemaObject : removedObjects )
+        {
+            unregister( registries, schemaObject );
+        }
+
+        for ( SchemaObject schemaObject : checkedObjects )
+        {
+            unregister( registries, schemaObject );
+        }
+
+        // Registering the new versions of the schema objects
+        MultiValuedMap<Object, Object> newErrors = new ArrayListValuedHashMap<>();
+        Map<SchemaObject, SchemaObject> copies = new IdentityHashMap<SchemaObject, SchemaObject>();
+
+        for ( SchemaObject schemaObject : checkedObjects )
         {
-            protected IStatus run( IProgressMonitor monitor )
+            SchemaObject copy = schemaObject.copy();
+
+            try
             {
-                // Checks the whole schema via the schema manager
-                try
+                if ( copy instanceof AttributeType )
                 {
-                    schemaManager = new DefaultSchemaManager( new SchemaEditorSchemaLoader() );
-                    schemaManager.loadAllEnabled();
+                    registries.getAttributeTypeRegistry().register( ( AttributeType ) copy );
                 }
-                catch ( Exception e )
+                else
                 {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
+                    registries.getObjectClassRegistry().register( ( ObjectClass ) copy );
                 }
 
-                // Updates errors and warnings
-                updateErrorsAndWarnings();
+                registeredObjects.put( schemaObject, copy );
+                copies.put( schemaObject, copy );
+            }
+            catch ( LdapException e )
+            {
+                newErrors.put( schemaObject, toSchemaException( e, copy ) );
+            }
+        }
+
+        // Resolving the references of the new versions
+        Set<SchemaObject> resolvedObjects = Collections.newSetFromMap( new IdentityHashMap<SchemaObject, Boolean>() );
+
+        for ( SchemaObject schemaObject : copies.keySet() )
+        {
+            resolve( registries, schemaObject, copies, resolvedObjects, newErrors );
+        }
+
+        // Updates errors and warnings
+        updateErrorsAndWarnings( checkedObjects, removedObjects, newErrors );
+    }
+
 
-                // Notify listeners
-                notifyListeners();
+    /**
+     * Adds the schema objects depending on the given schema object to the given set.
+     * <p>
+     * Sub-types and sub-classes are found (recursively) through the hierarchy manager,
+     * object classes using an attribute type are found through their MUST and MAY lists.
+     * The names of the version currently registered in the schema manager are used as
+     * well, as they may differ from the ones of the modified schema object.
+     *
+     * @param schemaObject the schema object
+     * @param dependents the set of dependents
+     */
+    private void addDependents( SchemaObject schemaObject, Set<SchemaObject> dependents )
+    {
+        Set<String> identifiers = new HashSet<String>();
+        addIdentifiers( schemaObject, identifiers );
+        addIdentifiers( registeredObjects.get( schemaObject ), identifiers );
 
-                monitor.done();
+        // Children in the hierarchy
+        List<Object> children = new ArrayList<Object>();
+        addAll( children, hierarchyManager.getChildren( schemaObject ) );
 
-                return Status.OK_STATUS;
+        for ( String identifier : identifiers )
+        {
+            addAll( children, hierarchyManager.getChildren( identifier ) );
+        }
+
+        for ( Object child : children )
+        {
+            if ( ( child instanceof SchemaObject ) && dependents.add( ( SchemaObject ) child ) )
+            {
+                addDependents( ( SchemaObject ) child, dependents );
             }
-        };
-        job.schedule();
+        }
+
+        // Object classes using the attribute type
+        if ( schemaObject instanceof AttributeType )
+        {
+            for ( ObjectClass objectClass : getSchemaHandler().getObjectClasses() )
+            {
+                if ( references( objectClass.getMustAttributeTypeOids(), identifiers )
+                    || references( objectClass.getMayAttributeTypeOids(), identifiers ) )
+                {
+                    dependents.add( objectClass );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adds the lowercased OID and names of the given schema object to the given set.
+     *
+     * @param schemaObject the schema object, may be null
+     * @param identifiers the set of identifiers
+     */
+    private void addIdentifiers( SchemaObject schemaObject, Set<String> identifiers )
+    {
+        if ( schemaObject != null )
+        {
+            if ( schemaObject.getOid() != null )
+            {
+                identifiers.add( Strings.toLowerCase( schemaObject.getOid() ) );
+            }
+
+            if ( schemaObject.getNames() != null )
+            {
+                for ( String name : schemaObject.getNames() )
+                {
+                    identifiers.add( Strings.toLowerCase( name ) );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adds the given objects, if any, to the given list.
+     *
+     * @param list the list
+     * @param objects the objects, may be null
+     */
+    private void addAll( List<Object> list, List<Object> objects )
+    {
+        if ( objects != null )
+        {
+            list.addAll( objects );
+        }
+    }
+
+
+    /**
+     * Indicates whether one of the given references matches one of the given identifiers.
+     *
+     * @param references the references (OIDs or names), may be null
+     * @param identifiers the lowercased identifiers
+     * @return true if one of the references matches one of the identifiers
+     */
+    private boolean references( List<String> references, Set<String> identifiers )
+    {
+        if ( references != null )
+        {
+            for ( String reference : references )
+            {
+                if ( ( reference != null ) && identifiers.contains( Strings.toLowerCase( reference ) ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Reports the given modification to the hierarchy manager.
+     *
+     * @param modification the modification
+     */
+    private void updateHierarchy( SchemaObjectModification modification )
+    {
+        if ( modification.schemaObject instanceof AttributeType )
+        {
+            AttributeType attributeType = ( AttributeType ) modification.schemaObject;
+
+            switch ( modification.type )
+            {
+                case ADDED:
+                    hierarchyManager.attributeTypeAdded( attributeType );
+                    break;
+
+                case MODIFIED:
+                    hierarchyManager.attributeTypeModified( attributeType );
+                    break;
+
+                case REMOVED:
+                    hierarchyManager.attributeTypeRemoved( attributeType );
+                    break;
+
+                default:
+                    break;
+            }
+        }
+        else if ( modification.schemaObject instanceof ObjectClass )
+        {
+            ObjectClass objectClass = ( ObjectClass ) modification.schemaObject;
+
+            switch ( modification.type )
+            {
+                case ADDED:
+                    hierarchyManager.objectClassAdded( objectClass );
+                    break;
+
+                case MODIFIED:
+                    hierarchyManager.objectClassModified( objectClass );
+                    break;
+
+                case REMOVED:
+                    hierarchyManager.objectClassRemoved( objectClass );
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+
+    /**
+     * Unregisters the version of the given schema object currently registered
+     * in the given registries.
+     *
+     * @param registries the registries
+     * @param schemaObject the schema object
+     */
+    private void unregister( Registries registries, SchemaObject schemaObject )
+    {
+        SchemaObject registeredObject = registeredObjects.remove( schemaObject );
+
+        if ( registeredObject != null )
+        {
+            try
+            {
+                if ( registeredObject instanceof AttributeType )
+                {
+                    registries.getAttributeTypeRegistry().unregister( ( AttributeType ) registeredObject );
+                }
+                else
+                {
+                    registries.getObjectClassRegistry().unregister( ( ObjectClass ) registeredObject );
+                }
+            }
+            catch ( LdapException e )
+            {
+                // Nothing to do, the schema object was not registered
+            }
+        }
+    }
+
+
+    /**
+     * Resolves the references of the registered copy of the given schema object,
+     * after having resolved the ones of its superiors if they are checked too.
+     *
+     * @param registries the registries
+     * @param schemaObject the schema object
+     * @param copies the registered copies, indexed by schema object
+     * @param resolvedObjects the already resolved schema objects
+     * @param errors the map the errors are added to
+     */
+    private void resolve( Registries registries, SchemaObject schemaObject, Map<SchemaObject, SchemaObject> copies,
+        Set<SchemaObject> resolvedObjects, MultiValuedMap<Object, Object> errors )
+    {
+        if ( !resolvedObjects.add( schemaObject ) )
+        {
+            return;
+        }
+
+        SchemaHandler schemaHandler = getSchemaHandler();
+        SchemaErrorHandler errorHandler = new LoggingSchemaErrorHandler();
+        SchemaObject copy = copies.get( schemaObject );
+
+        try
+        {
+            if ( copy instanceof AttributeType )
+            {
+                AttributeType superior = schemaHandler.getAttributeType( ( ( AttributeType ) copy ).getSuperiorOid() );
+
+                if ( ( superior != null ) && copies.containsKey( superior ) )
+                {
+                    resolve( registries, superior, copies, resolvedObjects, errors );
+                }
+
+                AttributeTypeHelper.addToRegistries( ( AttributeType ) copy, errorHandler, registries );
+            }
+            else
+            {
+                for ( String superiorOid : ( ( ObjectClass ) copy ).getSuperiorOids() )
+                {
+                    ObjectClass superior = schemaHandler.getObjectClass( superiorOid );
+
+                    if ( ( superior != null ) && copies.containsKey( superior ) )
+                    {
+                        resolve( registries, superior, copies, resolvedObjects, errors );
+                    }
+                }
+
+                ObjectClassHelper.addToRegistries( ( ObjectClass ) copy, errorHandler, registries );
+            }
+        }
+        catch ( LdapException e )
+        {
+            errors.put( schemaObject, toSchemaException( e, copy ) );
+        }
+
+        for ( Throwable error : errorHandler.getErrors() )
+        {
+            errors.put( schemaObject, error );
+        }
+    }
+
+
+    /**
+     * Gets a schema exception, associated with the given source object, for the given exception.
+     *
+     * @param e the exception
+     * @param source the source object
+     * @return the corresponding schema exception
+     */
+    private LdapSchemaException toSchemaException( LdapException e, SchemaObject source )
+    {
+        LdapSchemaException schemaException;
+
+        if ( e instanceof LdapSchemaException )
+        {
+            schemaException = ( LdapSchemaException ) e;
+        }
+        else
+        {
+            schemaException = new LdapSchemaException( e.getMessage() );
+        }
+
+        if ( schemaException.getSourceObject() == null )
+        {
+            schemaException.setSourceObject( source );
+        }
+
+        return schemaException;
+    }
+
+
+    /**
+     * Indexes the schema objects registered in the schema manager.
+     * <p>
+     * If one of the schema objects of the schema handler is not registered, the
+     * registries can't be used to check modifications incrementally.
+     */
+    private void indexRegisteredObjects()
+    {
+        SchemaHandler schemaHandler = getSchemaHandler();
+        Registries registries = schemaManager.getRegistries();
+
+        try
+        {
+            for ( AttributeType attributeType : schemaHandler.getAttributeTypes() )
+            {
+                if ( !registries.getAttributeTypeRegistry().contains( attributeType.getOid() ) )
+                {
+                    incrementalCheckPossible = false;
+                    return;
+                }
+
+                registeredObjects.put( attributeType,
+                    registries.getAttributeTypeRegistry().lookup( attributeType.getOid() ) );
+            }
+
+            for ( ObjectClass objectClass : schemaHandler.getObjectClasses() )
+            {
+                if ( !registries.getObjectClassRegistry().contains( objectClass.getOid() ) )
+                {
+                    incrementalCheckPossible = false;
+                    return;
+                }
+
+                registeredObjects.put( objectClass,
+                    registries.getObjectClassRegistry().lookup( objectClass.getOid() ) );
+            }
+        }
+        catch ( LdapException e )
+        {
+            incrementalCheckPossible = false;
+        }
     }
 
 
@@ -305,6 +897,7 @@ public class SchemaChecker
         synchronized ( lock )
         {
             // Errors
+            errorsList = new ArrayList<Throwable>( schemaManager.getErrors() );
             errorsMap.clear();
             indexErrors();
 
@@ -316,6 +909,105 @@ public class SchemaChecker
     }
 
 
+    /**
+     * Updates the errors and warnings of the given checked and removed schema objects,
+     * keeping the ones of the other schema objects.
+     *
+     * @param checkedObjects the checked schema objects
+     * @param removedObjects the removed schema objects
+     * @param newErrors the errors of the checked schema objects
+     */
+    private synchronized void updateErrorsAndWarnings( Set<SchemaObject> checkedObjects,
+        Set<SchemaObject> removedObjects, MultiValuedMap<Object, Object> newErrors )
+    {
+        synchronized ( lock )
+        {
+            // Errors
+            Set<Object> obsoleteErrors = Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() );
+            errorsMap = filter( errorsMap, checkedObjects, removedObjects, obsoleteErrors );
+            errorsMap.putAll( newErrors );
+
+            List<Throwable> errors = new ArrayList<Throwable>();
+
+            for ( Throwable error : errorsList )
+            {
+                if ( !obsoleteErrors.contains( error ) )
+                {
+                    errors.add( error );
+                }
+            }
+
+            for ( Object error : newErrors.values() )
+            {
+                errors.add( ( Throwable ) error );
+            }
+
+            errorsList = errors;
+
+            // Warnings
+            Set<Object> obsoleteWarnings = Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() );
+            warningsMap = filter( warningsMap, checkedObjects, removedObjects, obsoleteWarnings );
+
+            List<SchemaWarning> warnings = new ArrayList<SchemaWarning>();
+
+            for ( SchemaWarning warning : warningsList )
+            {
+                if ( !obsoleteWarnings.contains( warning ) )
+                {
+                    warnings.add( warning );
+                }
+            }
+
+            warningsList = warnings;
+            int newWarningsIndex = warningsList.size();
+
+            for ( SchemaObject schemaObject : checkedObjects )
+            {
+                checkSchemaObjectNames( schemaObject );
+            }
+
+            for ( SchemaWarning warning : warningsList.subList( newWarningsIndex, warningsList.size() ) )
+            {
+                warningsMap.put( warning.getSource(), warning );
+            }
+        }
+    }
+
+
+    /**
+     * Copies the given map, leaving out the entries of the given checked and removed
+     * schema objects.
+     * <p>
+     * Schema objects are compared by identity, as their hash code changes when
+     * they are modified.
+     *
+     * @param map the map
+     * @param checkedObjects the checked schema objects
+     * @param removedObjects the removed schema objects
+     * @param obsoleteValues the set the values left out are added to
+     * @return the filtered copy of the map
+     */
+    private MultiValuedMap<Object, Object> filter( MultiValuedMap<Object, Object> map, Set<SchemaObject> checkedObjects,
+        Set<SchemaObject> removedObjects, Set<Object> obsoleteValues )
+    {
+        MultiValuedMap<Object, Object> filteredMap = new ArrayListValuedHashMap<>();
+
+        for ( Map.Entry<Object, Object> entry : map.entries() )
+        {
+            if ( checkedObjects.contains( entry.getKey() ) || removedObjects.contains( entry.getKey() ) )
+            {
+                obsoleteValues.add( entry.getValue() );
+            }
+            else
+            {
+                filteredMap.put( entry.getKey(), entry.getValue() );
+            }
+        }
+
+        return filteredMap;
+    }
+
+
     /**
      * Indexes the errors.
      */
@@ -329,7 +1021,7 @@ public class SchemaChecker
                 SchemaObject source = ldapSchemaException.getSourceObject();
                 if ( source != null )
                 {
-                    SchemaHandler schemaHandler = Activator.getDefault().getSchemaHandler();
+                    SchemaHandler schemaHandler = getSchemaHandler();
 
                     if ( source instanceof AttributeType )
                     {
@@ -364,7 +1056,7 @@ public class SchemaChecker
         warningsList.clear();
 
         // Getting the schema handler to check for schema objects without names (aliases)
-        SchemaHandler schemaHandler = Activator.getDefault().getSchemaHandler();
+        SchemaHandler schemaHandler = getSchemaHandler();
 
         if ( schemaHandler != null )
         {
@@ -417,13 +1109,9 @@ public class SchemaChecker
      */
     public List<Throwable> getErrors()
     {
-        if ( schemaManager != null )
-        {
-            return schemaManager.getErrors();
-        }
-        else
+        synchronized ( lock )
         {
-            return new ArrayList<Throwable>();
+            return new ArrayList<Throwable>( errorsList );
         }
     }
 
@@ -559,4 +1247,37 @@ public class SchemaChecker
         }
     }
 
+
+    /**
+     * The types of modification of a schema object.
+     */
+    private enum ModificationType
+    {
+        ADDED, MODIFIED, REMOVED
+    }
+
+    /**
+     * A modification of a schema object waiting to be checked.
+     */
+    private static class SchemaObjectModification
+    {
+        /** The modified schema object */
+        private SchemaObject schemaObject;
+
+        /** The type of the modification */
+        private ModificationType type;
+
+
+        /**
+         * Creates a new instance of SchemaObjectModification.
+         *
+         * @param schemaObject the modified schema object
+         * @param type the type of the modification
+         */
+        private SchemaObjectModification( SchemaObject schemaObject, ModificationType type )
+        {
+            this.schemaObject = schemaObject;
+            this.type = type;
+        }
+    }
 }
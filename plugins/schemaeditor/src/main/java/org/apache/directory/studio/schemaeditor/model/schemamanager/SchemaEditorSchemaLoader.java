@@ -31,8 +31,10 @@ import org.apache.directory.api.ldap.model.schema.LdapSyntax;
 import org.apache.directory.api.ldap.model.schema.MatchingRule;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
 import org.apache.directory.api.ldap.model.schema.registries.AbstractSchemaLoader;
+import org.apache.directory.api.ldap.model.schema.registries.DefaultSchema;
 import org.apache.directory.api.ldap.model.schema.registries.Schema;
 import org.apache.directory.studio.schemaeditor.Activator;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
 import org.apache.directory.studio.schemaeditor.model.Project;
 
 
@@ -43,17 +45,39 @@ import org.apache.directory.studio.schemaeditor.model.Project;
  */
 public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
 {
-    /** The currently open project */
-    private Project project;
+    /** The schema handler of the loaded schemas */
+    private SchemaHandler schemaHandler;
 
 
     /**
-     * Creates a new instance of SchemaEditorSchemaLoader.
+     * Creates a new instance of SchemaEditorSchemaLoader, loading the schemas
+     * of the currently open project.
      *
      * @throws Exception
      */
     public SchemaEditorSchemaLoader()
     {
+        Project project = Activator.getDefault().getProjectsHandler().getOpenProject();
+
+        if ( schemaHandler != null )
+        {
+            schemaHandler = project.getSchemaHandler();
+        }
+
+        initializeSchemas();
+    }
+
+
+    /**
+     * Creates a new instance of SchemaEditorSchemaLoader, loading the schemas
+     * of the given schema handler.
+     *
+     * @param schemaHandler the schema handler, may be null
+     */
+    public SchemaEditorSchemaLoader( SchemaHandler schemaHandler )
+    {
+        this.schemaHandler = schemaHandler;
+
         initializeSchemas();
     }
 
@@ -63,14 +87,14 @@ public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
      */
     private void initializeSchemas()
     {
-        project = Activator.getDefault().getProjectsHandler().getOpenProject();
-        if ( project != null )
+        if ( schemaHandler != null )
         {
-            List<org.apache.directory.studio.schemaeditor.model.Schema> schemaObjects = project.getSchemaHandler()
-                .getSchemas();
+            List<org.apache.directory.studio.schemaeditor.model.Schema> schemaObjects = schemaHandler.getSchemas();
             for ( org.apache.directory.studio.schemaeditor.model.Schema schemaObject : schemaObjects )
             {
-                schemaMap.put( schemaObject.getSchemaName(), schemaObject );
+                // The schema manager only loads the content of schemas referencing their loader
+                schemaMap.put( schemaObject.getSchemaName(), new DefaultSchema( this, schemaObject.getSchemaName(),
+                    schemaObject.getOwner(), schemaObject.getDependencies(), schemaObject.isDisabled() ) );
             }
         }
     }
@@ -110,11 +134,11 @@ public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
     {
         List<Entry> matchingRuleList = new ArrayList<Entry>();
 
-        if ( project != null )
+        if ( schemaHandler != null )
         {
             for ( Schema schema : schemas )
             {
-                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = project.getSchemaHandler()
+                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = schemaHandler
                     .getSchema( schema.getSchemaName() );
 
                 if ( schemaHandlerSchema != null )
@@ -140,11 +164,11 @@ public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
     {
         List<Entry> syntaxList = new ArrayList<Entry>();
 
-        if ( project != null )
+        if ( schemaHandler != null )
         {
             for ( Schema schema : schemas )
             {
-                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = project.getSchemaHandler()
+                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = schemaHandler
                     .getSchema( schema.getSchemaName() );
 
                 if ( schemaHandlerSchema != null )
@@ -170,11 +194,11 @@ public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
     {
         List<Entry> attributeTypeList = new ArrayList<Entry>();
 
-        if ( project != null )
+        if ( schemaHandler != null )
         {
             for ( Schema schema : schemas )
             {
-                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = project.getSchemaHandler()
+                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = schemaHandler
                     .getSchema( schema.getSchemaName() );
 
                 if ( schemaHandlerSchema != null )
@@ -236,11 +260,11 @@ public class SchemaEditorSchemaLoader extends AbstractSchemaLoader
     {
         List<Entry> objectClassList = new ArrayList<Entry>();
 
-        if ( project != null )
+        if ( schemaHandler != null )
         {
             for ( Schema schema : schemas )
             {
-                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = project.getSchemaHandler()
+                org.apache.directory.studio.schemaeditor.model.Schema schemaHandlerSchema = schemaHandler
                     .getSchema( schema.getSchemaName() );
 
                 if ( schemaHandlerSchema != null )
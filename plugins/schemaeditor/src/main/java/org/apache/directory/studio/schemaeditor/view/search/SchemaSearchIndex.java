@@ -0,0 +1,845 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.studio.schemaeditor.view.search;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.api.util.Strings;
+import org.apache.directory.studio.schemaeditor.Activator;
+import org.apache.directory.studio.schemaeditor.PluginConstants;
+import org.apache.directory.studio.schemaeditor.controller.ProjectsHandlerAdapter;
+import org.apache.directory.studio.schemaeditor.controller.ProjectsHandlerListener;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandlerAdapter;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandlerListener;
+import org.apache.directory.studio.schemaeditor.model.Project;
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.view.search.SearchPage.SearchInEnum;
+
+
+/**
+ * This class implements an index of the attribute types and object classes of
+ * the open project, used by the Search View.
+ * <p>
+ * For each searchable field ({@link SearchInEnum}), the values are kept sorted
+ * (to answer searches starting with a literal prefix) and split in trigrams (to
+ * answer searches containing a literal part of at least three characters). The
+ * candidates found this way are always checked against the full search pattern,
+ * so the results are exactly the ones a scan of all the schema objects would
+ * return. Searches using other regular expression constructs than the '*' and
+ * '?' wildcards are checked against all the indexed values of the field.
+ * <p>
+ * The index is built on the first search and kept up-to-date through the
+ * {@link SchemaHandlerListener} callbacks. It is rebuilt when the open project
+ * changes.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaSearchIndex
+{
+    /** The length of the grams */
+    private static final int GRAM_LENGTH = 3;
+
+    /** The characters having a special meaning in a search string, apart from the wildcards */
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\.[]{}()^$|+"; //$NON-NLS-1$
+
+    /** The attribute types fields indexes */
+    private Map<SearchInEnum, FieldIndex> attributeTypesIndexes = new EnumMap<SearchInEnum, FieldIndex>(
+        SearchInEnum.class );
+
+    /** The object classes fields indexes */
+    private Map<SearchInEnum, FieldIndex> objectClassesIndexes = new EnumMap<SearchInEnum, FieldIndex>(
+        SearchInEnum.class );
+
+    /**
+     * The values indexed for each schema object. Schema objects are modified in place by
+     * the SchemaHandler, so they are tracked by identity, with the values they had when
+     * they were indexed.
+     */
+    private Map<SchemaObject, List<IndexedValue>> indexedValues = new IdentityHashMap<SchemaObject, List<IndexedValue>>();
+
+    /** The flag indicating if the index needs to be (re)built */
+    private boolean buildNeeded = true;
+
+    /** The SchemaHandler the index is listening to */
+    private SchemaHandler schemaHandler;
+
+    /** The SchemaHandlerListener */
+    private SchemaHandlerListener schemaHandlerListener = new SchemaHandlerAdapter()
+    {
+        public void attributeTypeAdded( AttributeType at )
+        {
+            if ( !buildNeeded )
+            {
+                addAttributeType( at );
+            }
+        }
+
+
+        public void attributeTypeModified( AttributeType at )
+        {
+            if ( !buildNeeded )
+            {
+                removeSchemaObject( at );
+                addAttributeType( at );
+            }
+        }
+
+
+        public void attributeTypeRemoved( AttributeType at )
+        {
+            if ( !buildNeeded )
+            {
+                removeSchemaObject( at );
+            }
+        }
+
+
+        public void objectClassAdded( ObjectClass oc )
+        {
+            if ( !buildNeeded )
+            {
+                addObjectClass( oc );
+            }
+        }
+
+
+        public void objectClassModified( ObjectClass oc )
+        {
+            if ( !buildNeeded )
+            {
+                removeSchemaObject( oc );
+                addObjectClass( oc );
+            }
+        }
+
+
+        public void objectClassRemoved( ObjectClass oc )
+        {
+            if ( !buildNeeded )
+            {
+                removeSchemaObject( oc );
+            }
+        }
+
+
+        public void schemaAdded( Schema schema )
+        {
+            if ( !buildNeeded )
+            {
+                for ( AttributeType at : schema.getAttributeTypes() )
+                {
+                    addAttributeType( at );
+                }
+
+                for ( ObjectClass oc : schema.getObjectClasses() )
+                {
+                    addObjectClass( oc );
+                }
+            }
+        }
+
+
+        public void schemaRemoved( Schema schema )
+        {
+            if ( !buildNeeded )
+            {
+                for ( AttributeType at : schema.getAttributeTypes() )
+                {
+                    removeSchemaObject( at );
+                }
+
+                for ( ObjectClass oc : schema.getObjectClasses() )
+                {
+                    removeSchemaObject( oc );
+                }
+            }
+        }
+    };
+
+    /** The ProjectsHandlerListener */
+    private ProjectsHandlerListener projectsHandlerListener = new ProjectsHandlerAdapter()
+    {
+        public void openProjectChanged( Project oldProject, Project newProject )
+        {
+            setSchemaHandler( ( newProject == null ) ? null : newProject.getSchemaHandler() );
+        }
+    };
+
+
+    /**
+     * Creates a new instance of SchemaSearchIndex.
+     */
+    public SchemaSearchIndex()
+    {
+        this( Activator.getDefault().getSchemaHandler() );
+
+        Activator.getDefault().getProjectsHandler().addListener( projectsHandlerListener );
+    }
+
+
+    /**
+     * Creates a new instance of SchemaSearchIndex indexing the given SchemaHandler.
+     * <p>
+     * The index doesn't follow the open project.
+     *
+     * @param schemaHandler
+     *      the SchemaHandler
+     */
+    SchemaSearchIndex( SchemaHandler schemaHandler )
+    {
+        initFieldIndexes();
+        setSchemaHandler( schemaHandler );
+    }
+
+
+    /**
+     * Initializes the fields indexes.
+     */
+    private void initFieldIndexes()
+    {
+        for ( SearchInEnum searchIn : new SearchInEnum[]
+            { SearchInEnum.ALIASES, SearchInEnum.OID, SearchInEnum.DESCRIPTION, SearchInEnum.SUPERIOR,
+                SearchInEnum.SYNTAX, SearchInEnum.MATCHING_RULES } )
+        {
+            attributeTypesIndexes.put( searchIn, new FieldIndex() );
+        }
+
+        for ( SearchInEnum searchIn : new SearchInEnum[]
+            { SearchInEnum.ALIASES, SearchInEnum.OID, SearchInEnum.DESCRIPTION, SearchInEnum.SUPERIORS,
+                SearchInEnum.MANDATORY_ATTRIBUTES, SearchInEnum.OPTIONAL_ATTRIBUTES } )
+        {
+            objectClassesIndexes.put( searchIn, new FieldIndex() );
+        }
+    }
+
+
+    /**
+     * Sets the SchemaHandler the index is built from.
+     *
+     * @param schemaHandler
+     *      the SchemaHandler, or null if no project is open
+     */
+    private void setSchemaHandler( SchemaHandler schemaHandler )
+    {
+        if ( this.schemaHandler != null )
+        {
+            this.schemaHandler.removeListener( schemaHandlerListener );
+        }
+
+        this.schemaHandler = schemaHandler;
+
+        if ( schemaHandler != null )
+        {
+            schemaHandler.addListener( schemaHandlerListener );
+        }
+
+        clear();
+    }
+
+
+    /**
+     * Disposes the index, removing its listeners.
+     */
+    public void dispose()
+    {
+        Activator.getDefault().getProjectsHandler().removeListener( projectsHandlerListener );
+        setSchemaHandler( null );
+    }
+
+
+    /**
+     * Searches the objects corresponding to the search parameters.
+     *
+     * @param searchString
+     *      the search String
+     * @param searchIn
+     *      the search In
+     * @param scope
+     *      the scope
+     * @return
+     *      the attribute types followed by the object classes matching the search
+     */
+    public List<SchemaObject> search( String searchString, SearchInEnum[] searchIn, int scope )
+    {
+        List<SchemaObject> searchResults = new ArrayList<SchemaObject>();
+
+        if ( ( searchString == null ) || ( schemaHandler == null ) )
+        {
+            return searchResults;
+        }
+
+        String computedSearchString = searchString.replaceAll( "\\*", "[\\\\S]*" ); //$NON-NLS-1$ //$NON-NLS-2$
+        computedSearchString = computedSearchString.replaceAll( "\\?", "[\\\\S]" ); //$NON-NLS-1$ //$NON-NLS-2$
+
+        Pattern pattern = Pattern.compile( computedSearchString, Pattern.CASE_INSENSITIVE );
+        SearchQuery query = new SearchQuery( searchString, pattern );
+
+        if ( buildNeeded )
+        {
+            build();
+        }
+
+        if ( ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_AND_OC )
+            || ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_ONLY ) )
+        {
+            search( attributeTypesIndexes, query, searchIn, searchResults );
+        }
+
+        if ( ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_AND_OC )
+            || ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_OC_ONLY ) )
+        {
+            search( objectClassesIndexes, query, searchIn, searchResults );
+        }
+
+        return searchResults;
+    }
+
+
+    /**
+     * Searches the given fields indexes and adds the matching objects to the results.
+     *
+     * @param fieldIndexes
+     *      the fields indexes
+     * @param query
+     *      the query
+     * @param searchIn
+     *      the searched fields
+     * @param searchResults
+     *      the results
+     */
+    private void search( Map<SearchInEnum, FieldIndex> fieldIndexes, SearchQuery query, SearchInEnum[] searchIn,
+        List<SchemaObject> searchResults )
+    {
+        Set<SchemaObject> foundObjects = Collections.newSetFromMap( new IdentityHashMap<SchemaObject, Boolean>() );
+
+        for ( SearchInEnum field : searchIn )
+        {
+            FieldIndex fieldIndex = fieldIndexes.get( field );
+
+            if ( fieldIndex != null )
+            {
+                for ( String value : fieldIndex.getCandidates( query ) )
+                {
+                    if ( query.pattern.matcher( value ).matches() )
+                    {
+                        for ( SchemaObject object : fieldIndex.getObjects( value ) )
+                        {
+                            if ( foundObjects.add( object ) )
+                            {
+                                searchResults.add( object );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Builds the index from the SchemaHandler.
+     */
+    private void build()
+    {
+        clear();
+
+        for ( AttributeType at : schemaHandler.getAttributeTypes() )
+        {
+            addAttributeType( at );
+        }
+
+        for ( ObjectClass oc : schemaHandler.getObjectClasses() )
+        {
+            addObjectClass( oc );
+        }
+
+        buildNeeded = false;
+    }
+
+
+    /**
+     * Clears the index. It will be built again on the next search.
+     */
+    private void clear()
+    {
+        for ( FieldIndex fieldIndex : attributeTypesIndexes.values() )
+        {
+            fieldIndex.clear();
+        }
+
+        for ( FieldIndex fieldIndex : objectClassesIndexes.values() )
+        {
+            fieldIndex.clear();
+        }
+
+        indexedValues.clear();
+        buildNeeded = true;
+    }
+
+
+    /**
+     * Adds the given attribute type to the index.
+     *
+     * @param at
+     *      the attribute type
+     */
+    private void addAttributeType( AttributeType at )
+    {
+        List<IndexedValue> values = new ArrayList<IndexedValue>();
+
+        addValues( attributeTypesIndexes.get( SearchInEnum.ALIASES ), at, at.getNames(), values );
+        addValue( attributeTypesIndexes.get( SearchInEnum.OID ), at, at.getOid(), values );
+        addValue( attributeTypesIndexes.get( SearchInEnum.DESCRIPTION ), at, at.getDescription(), values );
+        addValue( attributeTypesIndexes.get( SearchInEnum.SUPERIOR ), at, at.getSuperiorOid(), values );
+        addValue( attributeTypesIndexes.get( SearchInEnum.SYNTAX ), at, at.getSyntaxOid(), values );
+
+        FieldIndex matchingRulesIndex = attributeTypesIndexes.get( SearchInEnum.MATCHING_RULES );
+        addValue( matchingRulesIndex, at, at.getEqualityOid(), values );
+        addValue( matchingRulesIndex, at, at.getOrderingOid(), values );
+        addValue( matchingRulesIndex, at, at.getSubstringOid(), values );
+
+        indexedValues.put( at, values );
+    }
+
+
+    /**
+     * Adds the given object class to the index.
+     *
+     * @param oc
+     *      the object class
+     */
+    private void addObjectClass( ObjectClass oc )
+    {
+        List<IndexedValue> values = new ArrayList<IndexedValue>();
+
+        addValues( objectClassesIndexes.get( SearchInEnum.ALIASES ), oc, oc.getNames(), values );
+        addValue( objectClassesIndexes.get( SearchInEnum.OID ), oc, oc.getOid(), values );
+        addValue( objectClassesIndexes.get( SearchInEnum.DESCRIPTION ), oc, oc.getDescription(), values );
+        addValues( objectClassesIndexes.get( SearchInEnum.SUPERIORS ), oc, oc.getSuperiorOids(), values );
+        addValues( objectClassesIndexes.get( SearchInEnum.MANDATORY_ATTRIBUTES ), oc,
+            oc.getMustAttributeTypeOids(), values );
+        addValues( objectClassesIndexes.get( SearchInEnum.OPTIONAL_ATTRIBUTES ), oc,
+            oc.getMayAttributeTypeOids(), values );
+
+        indexedValues.put( oc, values );
+    }
+
+
+    /**
+     * Adds the given values of a schema object to a field index.
+     *
+     * @param fieldIndex
+     *      the field index
+     * @param object
+     *      the schema object
+     * @param values
+     *      the values, may be null
+     * @param indexed
+     *      the list of the values indexed for the schema object
+     */
+    private void addValues( FieldIndex fieldIndex, SchemaObject object, List<String> values,
+        List<IndexedValue> indexed )
+    {
+        if ( values != null )
+        {
+            for ( String value : values )
+            {
+                addValue( fieldIndex, object, value, indexed );
+            }
+        }
+    }
+
+
+    /**
+     * Adds the given value of a schema object to a field index.
+     *
+     * @param fieldIndex
+     *      the field index
+     * @param object
+     *      the schema object
+     * @param value
+     *      the value, may be null
+     * @param indexed
+     *      the list of the values indexed for the schema object
+     */
+    private void addValue( FieldIndex fieldIndex, SchemaObject object, String value, List<IndexedValue> indexed )
+    {
+        if ( value != null )
+        {
+            String key = toKey( value );
+            fieldIndex.add( key, object );
+            indexed.add( new IndexedValue( fieldIndex, key ) );
+        }
+    }
+
+
+    /**
+     * Removes the given schema object from the index, using the values it had
+     * when it was indexed.
+     *
+     * @param object
+     *      the schema object
+     */
+    private void removeSchemaObject( SchemaObject object )
+    {
+        List<IndexedValue> values = indexedValues.remove( object );
+
+        if ( values != null )
+        {
+            for ( IndexedValue value : values )
+            {
+                value.fieldIndex.remove( value.key, object );
+            }
+        }
+    }
+
+
+    /**
+     * Gets the key under which a value is indexed.
+     * <p>
+     * The search pattern is case insensitive for the US-ASCII characters only,
+     * so values differing only by the case of these characters match the same
+     * searches and can share the same key.
+     *
+     * @param value
+     *      the value
+     * @return
+     *      the key
+     */
+    private static String toKey( String value )
+    {
+        return Strings.toLowerCaseAscii( value );
+    }
+
+
+    /**
+     * This class holds a search string and the literal parts usable to look up an index.
+     */
+    private static class SearchQuery
+    {
+        /** The pattern */
+        private Pattern pattern;
+
+        /** The literal prefix of the search, or null if the search starts with a wildcard */
+        private String prefix;
+
+        /** The longest literal part of the search */
+        private String longestLiteral = ""; //$NON-NLS-1$
+
+        /** The flag indicating if the search contains other regular expression constructs than wildcards */
+        private boolean regex;
+
+
+        /**
+         * Creates a new instance of SearchQuery.
+         *
+         * @param searchString
+         *      the search string
+         * @param pattern
+         *      the pattern compiled from the search string
+         */
+        private SearchQuery( String searchString, Pattern pattern )
+        {
+            this.pattern = pattern;
+
+            for ( int i = 0; i < searchString.length(); i++ )
+            {
+                if ( REGEX_SPECIAL_CHARACTERS.indexOf( searchString.charAt( i ) ) != -1 )
+                {
+                    regex = true;
+                    return;
+                }
+            }
+
+            String[] literals = toKey( searchString ).split( "[*?]", -1 ); //$NON-NLS-1$
+
+            if ( literals[0].length() > 0 )
+            {
+                prefix = literals[0];
+            }
+
+            for ( String literal : literals )
+            {
+                if ( literal.length() > longestLiteral.length() )
+                {
+                    longestLiteral = literal;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * This class implements the index of one field of the schema objects.
+     */
+    private static class FieldIndex
+    {
+        /** The schema objects, by value */
+        private TreeMap<String, Set<SchemaObject>> values = new TreeMap<String, Set<SchemaObject>>();
+
+        /** The values, by gram */
+        private Map<String, Set<String>> grams = new HashMap<String, Set<String>>();
+
+
+        /**
+         * Adds a value of a schema object.
+         *
+         * @param value
+         *      the value
+         * @param object
+         *      the schema object
+         */
+        private void add( String value, SchemaObject object )
+        {
+            Set<SchemaObject> objects = values.get( value );
+
+            if ( objects == null )
+            {
+                objects = Collections.newSetFromMap( new IdentityHashMap<SchemaObject, Boolean>() );
+                values.put( value, objects );
+
+                for ( int i = 0; i + GRAM_LENGTH <= value.length(); i++ )
+                {
+                    String gram = value.substring( i, i + GRAM_LENGTH );
+                    Set<String> gramValues = grams.get( gram );
+
+                    if ( gramValues == null )
+                    {
+                        gramValues = new HashSet<String>();
+                        grams.put( gram, gramValues );
+                    }
+
+                    gramValues.add( value );
+                }
+            }
+
+            objects.add( object );
+        }
+
+
+        /**
+         * Removes a value of a schema object.
+         *
+         * @param value
+         *      the value
+         * @param object
+         *      the schema object
+         */
+        private void remove( String value, SchemaObject object )
+        {
+            Set<SchemaObject> objects = values.get( value );
+
+            if ( objects != null )
+            {
+                objects.remove( object );
+
+                if ( objects.isEmpty() )
+                {
+                    values.remove( value );
+
+                    for ( int i = 0; i + GRAM_LENGTH <= value.length(); i++ )
+                    {
+                        String gram = value.substring( i, i + GRAM_LENGTH );
+                        Set<String> gramValues = grams.get( gram );
+
+                        if ( gramValues != null )
+                        {
+                            gramValues.remove( value );
+
+                            if ( gramValues.isEmpty() )
+                            {
+                                grams.remove( gram );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+
+        /**
+         * Gets the schema objects having the given value.
+         *
+         * @param value
+         *      the value
+         * @return
+         *      the schema objects
+         */
+        private Collection<SchemaObject> getObjects( String value )
+        {
+            Set<SchemaObject> objects = values.get( value );
+
+            if ( objects == null )
+            {
+                return Collections.emptySet();
+            }
+
+            return objects;
+        }
+
+
+        /**
+         * Gets the values which may match the given query. All of them still have
+         * to be checked against the query pattern.
+         *
+         * @param query
+         *      the query
+         * @return
+         *      the candidate values
+         */
+        private Collection<String> getCandidates( SearchQuery query )
+        {
+            if ( query.regex )
+            {
+                return values.keySet();
+            }
+
+            if ( query.prefix != null )
+            {
+                return values.subMap( query.prefix, query.prefix + Character.MAX_VALUE ).keySet();
+            }
+
+            if ( query.longestLiteral.length() >= GRAM_LENGTH )
+            {
+                return getGramCandidates( query.longestLiteral );
+            }
+
+            return values.keySet();
+        }
+
+
+        /**
+         * Gets the values containing all the grams of the given literal.
+         *
+         * @param literal
+         *      the literal, at least GRAM_LENGTH characters long
+         * @return
+         *      the candidate values
+         */
+        private Collection<String> getGramCandidates( String literal )
+        {
+            // Starting from the smallest set of values
+            Set<String> smallest = null;
+            List<Set<String>> others = new ArrayList<Set<String>>();
+
+            for ( int i = 0; i + GRAM_LENGTH <= literal.length(); i++ )
+            {
+                Set<String> gramValues = grams.get( literal.substring( i, i + GRAM_LENGTH ) );
+
+                if ( gramValues == null )
+                {
+                    return Collections.emptySet();
+                }
+
+                if ( smallest == null )
+                {
+                    smallest = gramValues;
+                }
+                else if ( gramValues.size() < smallest.size() )
+                {
+                    others.add( smallest );
+                    smallest = gramValues;
+                }
+                else
+                {
+                    others.add( gramValues );
+                }
+            }
+
+            List<String> candidates = new ArrayList<String>();
+
+            for ( String value : smallest )
+            {
+                boolean inAll = true;
+
+                for ( Set<String> gramValues : others )
+                {
+                    if ( !gramValues.contains( value ) )
+                    {
+                        inAll = false;
+                        break;
+                    }
+                }
+
+                if ( inAll )
+                {
+                    candidates.add( value );
+                }
+            }
+
+            return candidates;
+        }
+
+
+        /**
+         * Clears the field index.
+         */
+        private void clear()
+        {
+            values.clear();
+            grams.clear();
+        }
+    }
+
+
+    /**
+     * This class holds a value indexed for a schema object, with the field index holding it.
+     */
+    private static class IndexedValue
+    {
+        /** The field index */
+        private FieldIndex fieldIndex;
+
+        /** The key of the value */
+        private String key;
+
+
+        /**
+         * Creates a new instance of IndexedValue.
+         *
+         * @param fieldIndex
+         *      the field index
+         * @param key
+         *      the key of the value
+         */
+        private IndexedValue( FieldIndex fieldIndex, String key )
+        {
+            this.fieldIndex = fieldIndex;
+            this.key = key;
+        }
+    }
+}
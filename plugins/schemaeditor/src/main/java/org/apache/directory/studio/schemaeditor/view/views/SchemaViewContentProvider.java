@@ -22,12 +22,15 @@ package org.apache.directory.studio.schemaeditor.view.views;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.collections4.ListValuedMap;
-import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
 import org.apache.directory.studio.schemaeditor.Activator;
 import org.apache.directory.studio.schemaeditor.PluginConstants;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
@@ -51,6 +54,13 @@ import org.eclipse.jface.viewers.Viewer;
 
 /**
  * This class implements the ContentProvider for the SchemaView.
+ * <p>
+ * The wrappers are created lazily: the children of a node are only created
+ * when they are first asked for, either by the viewer when the node is expanded,
+ * or by {@link #getWrapper(Object)}. Until then, {@link #hasChildren(Object)} is
+ * answered from the schemas and the hierarchy. The updates only touch the nodes
+ * whose children were already created, the other ones will be created from the
+ * updated schemas when needed.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -71,18 +81,43 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
     /** The RootWrapper */
     private SchemaViewRoot root;
 
-    /** The 'Elements To Wrappers' Map */
-    private ListValuedMap<Object, TreeNode> elementsToWrappersMap;
+    /**
+     * The 'Elements To Wrappers' Map. Schema objects are modified in place by the SchemaHandler,
+     * so they are mapped by identity.
+     */
+    private Map<Object, List<TreeNode>> elementsToWrappersMap;
+
+    /** The nodes whose children have been created */
+    private Set<TreeNode> materializedNodes;
 
     private HierarchyManager hierarchyManager;
 
+    /** The SchemaHandler, or null to use the one of the open project */
+    private SchemaHandler schemaHandler;
+
 
     /**
      * Creates a new instance of DifferencesWidgetSchemaContentProvider.
      */
     public SchemaViewContentProvider()
     {
-        store = Activator.getDefault().getPreferenceStore();
+        this( Activator.getDefault().getPreferenceStore(), null );
+    }
+
+
+    /**
+     * Creates a new instance of SchemaViewContentProvider showing the schemas of the
+     * given SchemaHandler with the given preferences.
+     *
+     * @param store
+     *      the preferences store
+     * @param schemaHandler
+     *      the SchemaHandler, or null to use the one of the open project
+     */
+    SchemaViewContentProvider( IPreferenceStore store, SchemaHandler schemaHandler )
+    {
+        this.store = store;
+        this.schemaHandler = schemaHandler;
 
         firstNameSorter = new FirstNameSorter();
         oidSorter = new OidSorter();
@@ -90,6 +125,23 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
     }
 
 
+    /**
+     * Gets the SchemaHandler whose schemas are shown.
+     *
+     * @return
+     *      the SchemaHandler
+     */
+    private SchemaHandler getSchemaHandler()
+    {
+        if ( schemaHandler != null )
+        {
+            return schemaHandler;
+        }
+
+        return Activator.getDefault().getSchemaHandler();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -131,15 +183,18 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
 
         if ( parentElement instanceof SchemaViewRoot )
         {
-            root = ( SchemaViewRoot ) parentElement;
-
-            if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_FLAT )
+            if ( ( parentElement != root ) || ( materializedNodes == null ) )
             {
-                if ( root.getChildren().isEmpty() )
+                root = ( SchemaViewRoot ) parentElement;
+                elementsToWrappersMap = new IdentityHashMap<Object, List<TreeNode>>();
+                materializedNodes = Collections.newSetFromMap( new IdentityHashMap<TreeNode, Boolean>() );
+                materializedNodes.add( root );
+
+                if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_FLAT )
                 {
-                    elementsToWrappersMap = new ArrayListValuedHashMap<>();
+                    hierarchyManager = null;
 
-                    SchemaHandler schemaHandler = Activator.getDefault().getSchemaHandler();
+                    SchemaHandler schemaHandler = getSchemaHandler();
                     if ( schemaHandler != null )
                     {
                         List<Schema> schemas = schemaHandler.getSchemas();
@@ -149,189 +204,424 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
                         }
                     }
                 }
-
-                children = root.getChildren();
-
-                Collections.sort( children, schemaSorter );
-            }
-            else if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_HIERARCHICAL )
-            {
-                if ( root.getChildren().isEmpty() )
+                else if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_HIERARCHICAL )
                 {
-                    elementsToWrappersMap = new ArrayListValuedHashMap<>();
-
-                    hierarchyManager = new HierarchyManager();
+                    hierarchyManager = new HierarchyManager( getSchemaHandler() );
 
                     if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
                     {
-                        Folder atFolder = new Folder( FolderType.ATTRIBUTE_TYPE, root );
-                        Folder ocFolder = new Folder( FolderType.OBJECT_CLASS, root );
-                        root.addChild( atFolder );
-                        root.addChild( ocFolder );
-
-                        List<Object> rootChildren = hierarchyManager.getChildren( hierarchyManager.getRootObject() );
-                        if ( ( rootChildren != null ) && ( rootChildren.size() > 0 ) )
-                        {
-                            for ( Object rootChild : rootChildren )
-                            {
-                                TreeNode childNode = null;
-
-                                // Creating the wrapper
-                                if ( rootChild instanceof AttributeType )
-                                {
-                                    AttributeType at = ( AttributeType ) rootChild;
-                                    childNode = new AttributeTypeWrapper( at, atFolder );
-                                    atFolder.addChild( childNode );
-                                }
-                                else if ( rootChild instanceof ObjectClass )
-                                {
-                                    ObjectClass oc = ( ObjectClass ) rootChild;
-                                    childNode = new ObjectClassWrapper( oc, ocFolder );
-                                    ocFolder.addChild( childNode );
-                                }
-
-                                // Filling the 'Elements To Wrappers' Map
-                                elementsToWrappersMap.put( rootChild, childNode );
-
-                                // Recursively creating the hierarchy for all children
-                                // of the root element.
-                                addHierarchyChildren( childNode, hierarchyManager.getChildren( rootChild ) );
-                            }
-                        }
+                        root.addChild( new Folder( FolderType.ATTRIBUTE_TYPE, root ) );
+                        root.addChild( new Folder( FolderType.OBJECT_CLASS, root ) );
                     }
                     else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
                     {
-                        addHierarchyChildren( root, hierarchyManager.getChildren( hierarchyManager.getRootObject() ) );
+                        addChildren( root, hierarchyManager.getChildren( hierarchyManager.getRootObject() ) );
                     }
                 }
+            }
 
-                children = root.getChildren();
+            children = root.getChildren();
 
+            if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_FLAT )
+            {
+                Collections.sort( children, schemaSorter );
+            }
+            else if ( presentation == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_HIERARCHICAL )
+            {
                 if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
                 {
-                    // Sort by
-                    if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME )
-                    {
-                        Collections.sort( children, firstNameSorter );
-                    }
-                    else if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_OID )
-                    {
-                        Collections.sort( children, oidSorter );
-                    }
-
-                    // Sort Order
-                    if ( sortOrder == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_DESCENDING )
-                    {
-                        Collections.reverse( children );
-                    }
+                    sort( children, sortBy, sortOrder );
                 }
             }
-
         }
         else if ( parentElement instanceof Folder )
         {
+            materialize( ( TreeNode ) parentElement );
             children = ( ( TreeNode ) parentElement ).getChildren();
 
-            // Sort by
-            if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME )
-            {
-                Collections.sort( children, firstNameSorter );
-            }
-            else if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_OID )
-            {
-                Collections.sort( children, oidSorter );
-            }
-
-            // Sort Order
-            if ( sortOrder == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_DESCENDING )
-            {
-                Collections.reverse( children );
-            }
+            sort( children, sortBy, sortOrder );
         }
         else if ( ( parentElement instanceof AttributeTypeWrapper ) || ( parentElement instanceof ObjectClassWrapper ) )
         {
+            materialize( ( TreeNode ) parentElement );
             children = ( ( TreeNode ) parentElement ).getChildren();
 
-            // Sort by
-            if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME )
-            {
-                Collections.sort( children, firstNameSorter );
-            }
-            else if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_OID )
-            {
-                Collections.sort( children, oidSorter );
-            }
-
-            // Sort Order
-            if ( sortOrder == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_DESCENDING )
-            {
-                Collections.reverse( children );
-            }
+            sort( children, sortBy, sortOrder );
         }
         else if ( parentElement instanceof SchemaWrapper )
         {
+            materialize( ( TreeNode ) parentElement );
             children = ( ( TreeNode ) parentElement ).getChildren();
 
             if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
             {
-                // Sort by
-                if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME )
+                sort( children, sortBy, sortOrder );
+            }
+        }
+
+        return children.toArray();
+    }
+
+
+    /**
+     * Sorts the given children.
+     *
+     * @param children
+     *      the children
+     * @param sortBy
+     *      the 'Sort By' preference
+     * @param sortOrder
+     *      the 'Sort Order' preference
+     */
+    private void sort( List<TreeNode> children, int sortBy, int sortOrder )
+    {
+        // Sort by
+        if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME )
+        {
+            Collections.sort( children, firstNameSorter );
+        }
+        else if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_OID )
+        {
+            Collections.sort( children, oidSorter );
+        }
+
+        // Sort Order
+        if ( sortOrder == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_DESCENDING )
+        {
+            Collections.reverse( children );
+        }
+    }
+
+
+    /**
+     * Creates the children of the given node, if they have not been created yet.
+     *
+     * @param node
+     *      the node
+     */
+    private void materialize( TreeNode node )
+    {
+        if ( ( materializedNodes == null ) || !materializedNodes.add( node ) )
+        {
+            return;
+        }
+
+        if ( node instanceof SchemaWrapper )
+        {
+            // 'Flat' presentation, 'Mixed' grouping (the folders of the 'Folders' grouping
+            // are created with the schema wrapper)
+            Schema schema = ( ( SchemaWrapper ) node ).getSchema();
+            List<Object> children = new ArrayList<Object>();
+            children.addAll( schema.getAttributeTypes() );
+            children.addAll( schema.getObjectClasses() );
+
+            addChildren( node, children );
+        }
+        else if ( node instanceof Folder )
+        {
+            Folder folder = ( Folder ) node;
+            List<Object> children = new ArrayList<Object>();
+
+            if ( folder.getParent() instanceof SchemaWrapper )
+            // 'Flat' presentation
+            {
+                Schema schema = ( ( SchemaWrapper ) folder.getParent() ).getSchema();
+
+                if ( folder.getType() == FolderType.ATTRIBUTE_TYPE )
                 {
-                    Collections.sort( children, firstNameSorter );
+                    children.addAll( schema.getAttributeTypes() );
                 }
-                else if ( sortBy == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_OID )
+                else if ( folder.getType() == FolderType.OBJECT_CLASS )
                 {
-                    Collections.sort( children, oidSorter );
+                    children.addAll( schema.getObjectClasses() );
                 }
-
-                // Sort Order
-                if ( sortOrder == PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_DESCENDING )
+            }
+            else if ( hierarchyManager != null )
+            // 'Hierarchical' presentation
+            {
+                List<Object> rootChildren = hierarchyManager.getChildren( hierarchyManager.getRootObject() );
+                if ( rootChildren != null )
                 {
-                    Collections.reverse( children );
+                    for ( Object rootChild : rootChildren )
+                    {
+                        if ( isOfFolderType( rootChild, folder.getType() ) )
+                        {
+                            children.add( rootChild );
+                        }
+                    }
                 }
             }
-        }
 
-        return children.toArray();
+            addChildren( folder, children );
+        }
+        else if ( ( node instanceof AttributeTypeWrapper ) || ( node instanceof ObjectClassWrapper ) )
+        {
+            if ( isHierarchicalPresentation() )
+            {
+                addChildren( node, hierarchyManager.getChildren( getElement( node ) ) );
+            }
+        }
     }
 
 
     /**
      * Converts the given children and adds them to the given node.
+     * <p>
+     * Equal children are only added once, as {@link TreeNode#addChild(TreeNode)} would do,
+     * without comparing each new node with all the previous ones. The children of the
+     * created nodes are created when they are needed.
      *
      * @param node
      *      the parent node.
      * @param children
      *      the children
      */
-    private void addHierarchyChildren( TreeNode node, List<Object> children )
+    private void addChildren( TreeNode node, List<?> children )
     {
         if ( ( children != null ) && ( children.size() > 0 ) )
         {
+            Set<Object> addedChildren = new HashSet<Object>();
+            List<TreeNode> childNodes = new ArrayList<TreeNode>( children.size() );
+
             for ( Object child : children )
             {
-                TreeNode childNode = null;
-                if ( child instanceof AttributeType )
-                {
-                    AttributeType at = ( AttributeType ) child;
-                    childNode = new AttributeTypeWrapper( at, node );
-                    node.addChild( childNode );
-                }
-                else if ( child instanceof ObjectClass )
+                if ( addedChildren.add( child ) )
                 {
-                    ObjectClass oc = ( ObjectClass ) child;
-                    childNode = new ObjectClassWrapper( oc, node );
-                    node.addChild( childNode );
+                    TreeNode childNode = createWrapper( child, node );
+                    if ( childNode != null )
+                    {
+                        childNodes.add( childNode );
+                    }
                 }
+            }
+
+            node.addAllChildren( childNodes );
+        }
+    }
+
+
+    /**
+     * Creates the wrapper of the given element, and fills the 'Elements To Wrappers' Map.
+     * The wrapper is not added to the children of its parent.
+     *
+     * @param element
+     *      the attribute type or object class
+     * @param parent
+     *      the parent node
+     * @return
+     *      the wrapper, or null if the element is neither an attribute type nor an object class
+     */
+    private TreeNode createWrapper( Object element, TreeNode parent )
+    {
+        TreeNode wrapper = null;
+
+        if ( element instanceof AttributeType )
+        {
+            wrapper = new AttributeTypeWrapper( ( AttributeType ) element, parent );
+        }
+        else if ( element instanceof ObjectClass )
+        {
+            wrapper = new ObjectClassWrapper( ( ObjectClass ) element, parent );
+        }
+
+        if ( wrapper != null )
+        {
+            addElementToWrapper( element, wrapper );
+        }
+
+        return wrapper;
+    }
+
+
+    /**
+     * Creates the wrapper of the given element and adds it to the children of the
+     * given parent, if the children of the parent have already been created.
+     *
+     * @param element
+     *      the attribute type or object class
+     * @param parent
+     *      the parent node, may be null
+     * @return
+     *      the created wrapper, or null if none was needed
+     */
+    private TreeNode addWrapper( Object element, TreeNode parent )
+    {
+        if ( ( parent == null ) || ( materializedNodes == null ) || !materializedNodes.contains( parent ) )
+        {
+            return null;
+        }
+
+        TreeNode wrapper = createWrapper( element, parent );
+        if ( wrapper != null )
+        {
+            parent.addChild( wrapper );
+        }
+
+        return wrapper;
+    }
+
+
+    /**
+     * Removes the given wrapper from its parent, along with all its descendants.
+     *
+     * @param element
+     *      the wrapped element
+     * @param wrapper
+     *      the wrapper
+     */
+    private void removeWrapper( Object element, TreeNode wrapper )
+    {
+        wrapper.getParent().removeChild( wrapper );
+        removeElementToWrapper( element, wrapper );
+        removeRecursiveChildren( wrapper );
+    }
+
+
+    /**
+     * Gets the element wrapped by the given attribute type or object class wrapper.
+     *
+     * @param wrapper
+     *      the wrapper
+     * @return
+     *      the wrapped element
+     */
+    private Object getElement( TreeNode wrapper )
+    {
+        if ( wrapper instanceof AttributeTypeWrapper )
+        {
+            return ( ( AttributeTypeWrapper ) wrapper ).getAttributeType();
+        }
+        else if ( wrapper instanceof ObjectClassWrapper )
+        {
+            return ( ( ObjectClassWrapper ) wrapper ).getObjectClass();
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Indicates if the given element belongs in a folder of the given type.
+     *
+     * @param element
+     *      the element
+     * @param type
+     *      the folder type
+     * @return
+     *      true if the element belongs in a folder of the given type
+     */
+    private boolean isOfFolderType( Object element, FolderType type )
+    {
+        return ( ( type == FolderType.ATTRIBUTE_TYPE ) && ( element instanceof AttributeType ) )
+            || ( ( type == FolderType.OBJECT_CLASS ) && ( element instanceof ObjectClass ) );
+    }
+
+
+    /**
+     * Indicates if the tree is built for the 'Hierarchical' presentation.
+     *
+     * @return
+     *      true if the tree is built for the 'Hierarchical' presentation
+     */
+    private boolean isHierarchicalPresentation()
+    {
+        return ( hierarchyManager != null )
+            && ( store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION ) == PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION_HIERARCHICAL );
+    }
 
-                // Filling the 'Elements To Wrappers' Map
-                elementsToWrappersMap.put( child, childNode );
 
-                // Recursively creating the hierarchy for all children
-                // of the given element.
-                addHierarchyChildren( childNode, hierarchyManager.getChildren( child ) );
+    /**
+     * Gets the child folder of the given type of the given node.
+     *
+     * @param node
+     *      the node
+     * @param type
+     *      the folder type
+     * @return
+     *      the folder, or null if the node has no such folder
+     */
+    private Folder getFolder( TreeNode node, FolderType type )
+    {
+        for ( TreeNode child : node.getChildren() )
+        {
+            if ( ( child instanceof Folder ) && ( ( ( Folder ) child ).getType() == type ) )
+            {
+                return ( Folder ) child;
             }
         }
+
+        return null;
+    }
+
+
+    /**
+     * Gets the node holding the elements of the given type without parent in the
+     * 'Hierarchical' presentation.
+     *
+     * @param type
+     *      the folder type
+     * @return
+     *      the node holding the elements without parent
+     */
+    private TreeNode getHierarchyTopNode( FolderType type )
+    {
+        int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
+        if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
+        {
+            return getFolder( root, type );
+        }
+        else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
+        {
+            return root;
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Indicates if the given wrapper is one of the elements without parent in the
+     * 'Hierarchical' presentation.
+     *
+     * @param wrapper
+     *      the wrapper
+     * @return
+     *      true if the wrapper has no parent element
+     */
+    private boolean isHierarchyTopWrapper( TreeNode wrapper )
+    {
+        TreeNode parent = wrapper.getParent();
+
+        return ( parent == root ) || ( ( parent instanceof Folder ) && ( parent.getParent() == root ) );
+    }
+
+
+    /**
+     * Gets the nodes under which an element having the given parent in the hierarchy is displayed.
+     *
+     * @param parent
+     *      the parent in the hierarchy
+     * @param type
+     *      the type of the element
+     * @return
+     *      the nodes under which the element is displayed
+     */
+    private List<TreeNode> getHierarchyParentNodes( Object parent, FolderType type )
+    {
+        if ( ( parent instanceof AttributeType ) || ( parent instanceof ObjectClass ) )
+        {
+            return getWrappers( parent );
+        }
+
+        // The parent is the root of the hierarchy, or the name of a missing superior
+        List<TreeNode> nodes = new ArrayList<TreeNode>();
+        TreeNode topNode = getHierarchyTopNode( type );
+        if ( topNode != null )
+        {
+            nodes.add( topNode );
+        }
+
+        return nodes;
     }
 
 
@@ -357,7 +647,60 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
     {
         if ( element instanceof TreeNode )
         {
-            return ( ( TreeNode ) element ).hasChildren();
+            TreeNode node = ( TreeNode ) element;
+
+            if ( ( materializedNodes == null ) || materializedNodes.contains( node ) )
+            {
+                return node.hasChildren();
+            }
+
+            // The children have not been created yet
+            if ( node instanceof SchemaWrapper )
+            {
+                Schema schema = ( ( SchemaWrapper ) node ).getSchema();
+
+                return !schema.getAttributeTypes().isEmpty() || !schema.getObjectClasses().isEmpty();
+            }
+            else if ( node instanceof Folder )
+            {
+                Folder folder = ( Folder ) node;
+
+                if ( folder.getParent() instanceof SchemaWrapper )
+                {
+                    Schema schema = ( ( SchemaWrapper ) folder.getParent() ).getSchema();
+
+                    if ( folder.getType() == FolderType.ATTRIBUTE_TYPE )
+                    {
+                        return !schema.getAttributeTypes().isEmpty();
+                    }
+                    else if ( folder.getType() == FolderType.OBJECT_CLASS )
+                    {
+                        return !schema.getObjectClasses().isEmpty();
+                    }
+                }
+                else if ( hierarchyManager != null )
+                {
+                    List<Object> rootChildren = hierarchyManager.getChildren( hierarchyManager.getRootObject() );
+                    if ( rootChildren != null )
+                    {
+                        for ( Object rootChild : rootChildren )
+                        {
+                            if ( isOfFolderType( rootChild, folder.getType() ) )
+                            {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            else if ( isHierarchicalPresentation() )
+            {
+                List<Object> children = hierarchyManager.getChildren( getElement( node ) );
+
+                return ( children != null ) && !children.isEmpty();
+            }
+
+            return false;
         }
 
         // Default
@@ -367,37 +710,119 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
 
     /**
      * Gets the wrappers associated with the given object.
+     * <p>
+     * Only the wrappers which have already been created are returned.
      *
      * @param o
      *      the object
      * @return
      *      the wrappers associated with the given object
      */
-    @SuppressWarnings("unchecked")
     public List<TreeNode> getWrappers( Object o )
     {
-        return ( List<TreeNode> ) elementsToWrappersMap.get( o );
+        if ( elementsToWrappersMap != null )
+        {
+            List<TreeNode> wrappers = elementsToWrappersMap.get( o );
+            if ( wrappers != null )
+            {
+                return new ArrayList<TreeNode>( wrappers );
+            }
+        }
+
+        return new ArrayList<TreeNode>();
+    }
+
+
+    /**
+     * Gets the wrapper associated with the given object.
+     * <p>
+     * The wrapper and its ancestors are created if needed.
+     *
+     * @param o
+     *      the object
+     * @return
+     *      the wrapper associated with the given object
+     */
+    public TreeNode getWrapper( Object o )
+    {
+        List<TreeNode> wrappers = getWrappers( o );
+        if ( wrappers.isEmpty() )
+        {
+            createWrappers( o, Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() ) );
+            wrappers = getWrappers( o );
+        }
+
+        if ( wrappers.size() > 0 )
+        {
+            return wrappers.get( 0 );
+        }
+
+        // Default
+        return null;
     }
 
 
     /**
-     * Gets the wrapper associated with the given object.
+     * Creates the wrappers of the given element by creating the children of its
+     * ancestors.
      *
      * @param o
-     *      the object
-     * @return
-     *      the wrapper associated with the given object
+     *      the element
+     * @param visited
+     *      the elements already visited, to protect against cycles in the hierarchy
      */
-    public TreeNode getWrapper( Object o )
+    private void createWrappers( Object o, Set<Object> visited )
     {
-        List<TreeNode> wrappers = getWrappers( o );
-        if ( ( wrappers != null ) && ( wrappers.size() > 0 ) )
+        if ( ( root == null ) || ( materializedNodes == null ) || !( o instanceof SchemaObject )
+            || !visited.add( o ) )
         {
-            return wrappers.get( 0 );
+            return;
         }
 
-        // Default
-        return null;
+        if ( isHierarchicalPresentation() )
+        {
+            List<Object> parents = hierarchyManager.getParents( o );
+            if ( parents != null )
+            {
+                FolderType type = ( o instanceof AttributeType ) ? FolderType.ATTRIBUTE_TYPE : FolderType.OBJECT_CLASS;
+                for ( Object parent : parents )
+                {
+                    if ( ( parent instanceof SchemaObject ) && getWrappers( parent ).isEmpty() )
+                    {
+                        createWrappers( parent, visited );
+                    }
+
+                    for ( TreeNode parentNode : getHierarchyParentNodes( parent, type ) )
+                    {
+                        materialize( parentNode );
+                    }
+
+                    if ( !getWrappers( o ).isEmpty() )
+                    {
+                        return;
+                    }
+                }
+            }
+        }
+        else
+        {
+            SchemaHandler schemaHandler = getSchemaHandler();
+            if ( schemaHandler != null )
+            {
+                for ( TreeNode schemaWrapper : getWrappers( schemaHandler.getSchema( ( ( SchemaObject ) o )
+                    .getSchemaName() ) ) )
+                {
+                    materialize( schemaWrapper );
+
+                    Folder folder = getFolder( schemaWrapper, ( o instanceof AttributeType ) ? FolderType.ATTRIBUTE_TYPE
+                        : FolderType.OBJECT_CLASS );
+                    if ( folder != null )
+                    {
+                        materialize( folder );
+                    }
+                }
+            }
+        }
     }
 
 
@@ -423,7 +848,14 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void addElementToWrapper( Object element, TreeNode wrapper )
     {
-        elementsToWrappersMap.put( element, wrapper );
+        List<TreeNode> wrappers = elementsToWrappersMap.get( element );
+        if ( wrappers == null )
+        {
+            wrappers = new ArrayList<TreeNode>( 1 );
+            elementsToWrappersMap.put( element, wrappers );
+        }
+
+        wrappers.add( wrapper );
     }
 
 
@@ -437,7 +869,23 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void removeElementToWrapper( Object element, TreeNode wrapper )
     {
-        elementsToWrappersMap.removeMapping( element, wrapper );
+        List<TreeNode> wrappers = elementsToWrappersMap.get( element );
+        if ( wrappers != null )
+        {
+            for ( int i = 0; i < wrappers.size(); i++ )
+            {
+                if ( wrappers.get( i ) == wrapper )
+                {
+                    wrappers.remove( i );
+                    break;
+                }
+            }
+
+            if ( wrappers.isEmpty() )
+            {
+                elementsToWrappersMap.remove( element );
+            }
+        }
     }
 
 
@@ -482,30 +930,18 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void attributeTypeAddedFlatPresentation( AttributeType at )
     {
-        SchemaWrapper schemaWrapper = ( SchemaWrapper ) getWrapper( Activator.getDefault().getSchemaHandler()
-            .getSchema( at.getSchemaName() ) );
-        if ( schemaWrapper != null )
+        for ( TreeNode schemaWrapper : getWrappers( getSchemaHandler().getSchema(
+            at.getSchemaName() ) ) )
         {
-            AttributeTypeWrapper atw = null;
             int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
             if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
             {
-                for ( TreeNode child : schemaWrapper.getChildren() )
-                {
-                    if ( ( ( Folder ) child ).getType() == FolderType.ATTRIBUTE_TYPE )
-                    {
-                        atw = new AttributeTypeWrapper( at, child );
-                        break;
-                    }
-                }
+                addWrapper( at, getFolder( schemaWrapper, FolderType.ATTRIBUTE_TYPE ) );
             }
             else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
             {
-                atw = new AttributeTypeWrapper( at, schemaWrapper );
+                addWrapper( at, schemaWrapper );
             }
-
-            atw.getParent().addChild( atw );
-            elementsToWrappersMap.put( at, atw );
         }
     }
 
@@ -521,64 +957,31 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
     {
         hierarchyManager.attributeTypeAdded( at );
 
-        List<TreeNode> createdWrappers = new ArrayList<TreeNode>();
-
         List<Object> parents = hierarchyManager.getParents( at );
-
         if ( parents != null )
         {
             for ( Object parent : parents )
             {
-                AttributeTypeWrapper parentATW = ( AttributeTypeWrapper ) getWrapper( parent );
-                AttributeTypeWrapper atw = null;
-                if ( parentATW == null )
-                {
-                    int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                    if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                    {
-                        for ( TreeNode child : root.getChildren() )
-                        {
-                            if ( child instanceof Folder )
-                            {
-                                Folder folder = ( Folder ) child;
-                                if ( folder.getType().equals( FolderType.ATTRIBUTE_TYPE ) )
-                                {
-                                    atw = new AttributeTypeWrapper( at, folder );
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                    else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                    {
-                        atw = new AttributeTypeWrapper( at, root );
-                    }
-
-                }
-                else
+                for ( TreeNode parentNode : getHierarchyParentNodes( parent, FolderType.ATTRIBUTE_TYPE ) )
                 {
-                    atw = new AttributeTypeWrapper( at, parentATW );
+                    addWrapper( at, parentNode );
                 }
-                atw.getParent().addChild( atw );
-                createdWrappers.add( atw );
-                elementsToWrappersMap.put( at, atw );
             }
         }
 
+        // The children of the attribute type were displayed without parent,
+        // they are now displayed (or will be created) under the attribute type
         List<Object> children = hierarchyManager.getChildren( at );
         if ( children != null )
         {
             for ( Object child : children )
             {
-                AttributeTypeWrapper childATW = ( AttributeTypeWrapper ) getWrapper( child );
-                elementsToWrappersMap.remove( child );
-                childATW.getParent().removeChild( childATW );
-
-                for ( TreeNode createdWrapper : createdWrappers )
+                for ( TreeNode childATW : getWrappers( child ) )
                 {
-                    AttributeTypeWrapper atw = new AttributeTypeWrapper( ( AttributeType ) child, createdWrapper );
-                    atw.getParent().addChild( atw );
-                    elementsToWrappersMap.put( child, atw );
+                    if ( isHierarchyTopWrapper( childATW ) )
+                    {
+                        removeWrapper( child, childATW );
+                    }
                 }
             }
         }
@@ -627,19 +1030,15 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void attributeTypeModifiedHierarchicalPresentation( AttributeType at )
     {
+        List<Object> oldChildren = getHierarchyChildren( at );
+
         // Propagating the modification to the hierarchy manager
         hierarchyManager.attributeTypeModified( at );
 
         // Removing the Wrappers
-        List<TreeNode> wrappers = getWrappers( at );
-        if ( wrappers != null )
+        for ( TreeNode wrapper : getWrappers( at ) )
         {
-            for ( TreeNode wrapper : wrappers )
-            {
-                wrapper.getParent().removeChild( wrapper );
-            }
-
-            elementsToWrappersMap.remove( at );
+            removeWrapper( at, wrapper );
         }
 
         // Creating the wrapper
@@ -648,40 +1047,142 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         {
             for ( Object parent : parents )
             {
-                AttributeTypeWrapper parentATW = ( AttributeTypeWrapper ) getWrapper( parent );
-                AttributeTypeWrapper atw = null;
-                if ( parentATW == null )
+                for ( TreeNode parentNode : getHierarchyParentNodes( parent, FolderType.ATTRIBUTE_TYPE ) )
                 {
-                    int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                    if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
+                    addWrapper( at, parentNode );
+                }
+            }
+        }
+
+        // The modification of the names or of the superiors may have changed the children
+        updateChildrenWrappers( at, oldChildren, FolderType.ATTRIBUTE_TYPE );
+    }
+
+
+    /**
+     * Gets a copy of the children of the given element in the hierarchy.
+     *
+     * @param element
+     *      the element
+     * @return
+     *      a copy of the children of the element
+     */
+    private List<Object> getHierarchyChildren( Object element )
+    {
+        List<Object> children = hierarchyManager.getChildren( element );
+        if ( children != null )
+        {
+            return new ArrayList<Object>( children );
+        }
+
+        return new ArrayList<Object>();
+    }
+
+
+    /**
+     * Updates the wrappers of the children of the given modified element in the
+     * 'Hierarchical' presentation. The former children are displayed under their
+     * new parents, and the new children are not displayed without parent anymore.
+     *
+     * @param element
+     *      the modified element
+     * @param oldChildren
+     *      the children of the element before its modification
+     * @param type
+     *      the type of the element
+     */
+    private void updateChildrenWrappers( Object element, List<Object> oldChildren, FolderType type )
+    {
+        List<Object> children = getHierarchyChildren( element );
+
+        for ( Object oldChild : oldChildren )
+        {
+            if ( !children.contains( oldChild ) )
+            {
+                // The wrappers of the child under the element have been removed with the ones of the element
+                List<Object> parents = hierarchyManager.getParents( oldChild );
+                if ( parents != null )
+                {
+                    for ( Object parent : parents )
                     {
-                        for ( TreeNode child : root.getChildren() )
+                        for ( TreeNode parentNode : getHierarchyParentNodes( parent, type ) )
                         {
-                            if ( child instanceof Folder )
+                            if ( !hasWrapperUnder( oldChild, parentNode ) )
                             {
-                                Folder folder = ( Folder ) child;
-                                if ( folder.getType().equals( FolderType.ATTRIBUTE_TYPE ) )
-                                {
-                                    atw = new AttributeTypeWrapper( at, folder );
-                                    break;
-                                }
+                                addWrapper( oldChild, parentNode );
                             }
                         }
                     }
-                    else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
+                }
+            }
+        }
+
+        for ( Object child : children )
+        {
+            if ( !oldChildren.contains( child ) && !isHierarchyTopElement( child ) )
+            {
+                // The child was displayed without parent
+                for ( TreeNode childWrapper : getWrappers( child ) )
+                {
+                    if ( isHierarchyTopWrapper( childWrapper ) )
                     {
-                        atw = new AttributeTypeWrapper( at, root );
+                        removeWrapper( child, childWrapper );
                     }
                 }
-                else
+            }
+        }
+    }
+
+
+    /**
+     * Indicates if the given element has a wrapper under the given node.
+     *
+     * @param element
+     *      the element
+     * @param node
+     *      the node
+     * @return
+     *      true if the element has a wrapper under the node
+     */
+    private boolean hasWrapperUnder( Object element, TreeNode node )
+    {
+        for ( TreeNode wrapper : getWrappers( element ) )
+        {
+            if ( wrapper.getParent() == node )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Indicates if the given element is displayed without parent in the 'Hierarchical'
+     * presentation, that is if one of its parents is the root of the hierarchy or the
+     * name of a missing superior.
+     *
+     * @param element
+     *      the element
+     * @return
+     *      true if the element is displayed without parent
+     */
+    private boolean isHierarchyTopElement( Object element )
+    {
+        List<Object> parents = hierarchyManager.getParents( element );
+        if ( parents != null )
+        {
+            for ( Object parent : parents )
+            {
+                if ( !( parent instanceof SchemaObject ) )
                 {
-                    atw = new AttributeTypeWrapper( at, parentATW );
+                    return true;
                 }
-                atw.getParent().addChild( atw );
-                elementsToWrappersMap.put( at, atw );
-                addHierarchyChildren( atw, hierarchyManager.getChildren( at ) );
             }
         }
+
+        return false;
     }
 
 
@@ -714,11 +1215,9 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     private void attributeTypeRemovedFlatPresentation( AttributeType at )
     {
-        AttributeTypeWrapper atw = ( AttributeTypeWrapper ) getWrapper( at );
-        if ( atw != null )
+        for ( TreeNode atw : getWrappers( at ) )
         {
-            atw.getParent().removeChild( atw );
-            elementsToWrappersMap.removeMapping( at, atw );
+            removeWrapper( at, atw );
         }
     }
 
@@ -737,46 +1236,17 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         List<Object> children = hierarchyManager.getChildren( at );
         if ( children != null )
         {
+            TreeNode topNode = getHierarchyTopNode( FolderType.ATTRIBUTE_TYPE );
             for ( Object child : children )
             {
-                AttributeTypeWrapper atw = null;
-                int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                {
-                    for ( TreeNode rootChild : root.getChildren() )
-                    {
-                        if ( rootChild instanceof Folder )
-                        {
-                            Folder folder = ( Folder ) rootChild;
-                            if ( folder.getType().equals( FolderType.ATTRIBUTE_TYPE ) )
-                            {
-                                atw = new AttributeTypeWrapper( ( AttributeType ) child, folder );
-                                break;
-                            }
-                        }
-                    }
-                }
-                else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                {
-                    atw = new AttributeTypeWrapper( ( AttributeType ) child, root );
-                }
-
-                atw.getParent().addChild( atw );
-                elementsToWrappersMap.put( child, atw );
+                addWrapper( child, topNode );
             }
         }
 
         // Removing the Wrappers
-        List<TreeNode> wrappers = getWrappers( at );
-        if ( wrappers != null )
+        for ( TreeNode wrapper : getWrappers( at ) )
         {
-            for ( TreeNode wrapper : wrappers )
-            {
-                wrapper.getParent().removeChild( wrapper );
-                removeRecursiveChildren( wrapper );
-            }
-
-            elementsToWrappersMap.remove( at );
+            removeWrapper( at, wrapper );
         }
 
         // Propagating the removal to the hierarchy manager
@@ -792,18 +1262,24 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     private void removeRecursiveChildren( TreeNode wrapper )
     {
+        if ( !materializedNodes.remove( wrapper ) )
+        {
+            // The children have never been created
+            return;
+        }
+
         for ( TreeNode child : wrapper.getChildren() )
         {
             if ( child instanceof AttributeTypeWrapper )
             {
                 AttributeTypeWrapper atw = ( AttributeTypeWrapper ) child;
-                elementsToWrappersMap.removeMapping( atw.getAttributeType(), child );
+                removeElementToWrapper( atw.getAttributeType(), child );
                 removeRecursiveChildren( atw );
             }
             else if ( child instanceof ObjectClassWrapper )
             {
                 ObjectClassWrapper ocw = ( ObjectClassWrapper ) child;
-                elementsToWrappersMap.removeMapping( ocw.getObjectClass(), child );
+                removeElementToWrapper( ocw.getObjectClass(), child );
                 removeRecursiveChildren( ocw );
             }
             else
@@ -843,30 +1319,18 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void objectClassAddedFlatPresentation( ObjectClass oc )
     {
-        SchemaWrapper schemaWrapper = ( SchemaWrapper ) getWrapper( Activator.getDefault().getSchemaHandler()
-            .getSchema( oc.getSchemaName() ) );
-        if ( schemaWrapper != null )
+        for ( TreeNode schemaWrapper : getWrappers( getSchemaHandler().getSchema(
+            oc.getSchemaName() ) ) )
         {
-            ObjectClassWrapper ocw = null;
             int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
             if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
             {
-                for ( TreeNode child : schemaWrapper.getChildren() )
-                {
-                    if ( ( ( Folder ) child ).getType() == FolderType.OBJECT_CLASS )
-                    {
-                        ocw = new ObjectClassWrapper( oc, child );
-                        break;
-                    }
-                }
+                addWrapper( oc, getFolder( schemaWrapper, FolderType.OBJECT_CLASS ) );
             }
             else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
             {
-                ocw = new ObjectClassWrapper( oc, schemaWrapper );
+                addWrapper( oc, schemaWrapper );
             }
-
-            ocw.getParent().addChild( ocw );
-            elementsToWrappersMap.put( oc, ocw );
         }
     }
 
@@ -903,29 +1367,11 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         }
         for ( Object ocChild : ocChildren )
         {
-            List<TreeNode> wrappers = getWrappers( ocChild );
-            if ( wrappers != null )
+            for ( TreeNode wrapper : getWrappers( ocChild ) )
             {
-                for ( TreeNode wrapper : wrappers )
+                if ( isHierarchyTopWrapper( wrapper ) )
                 {
-                    int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                    if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                    {
-                        if ( wrapper.getParent().getParent().equals( root ) )
-                        {
-                            wrapper.getParent().removeChild( wrapper );
-                            elementsToWrappersMap.removeMapping( oc, wrapper );
-                        }
-                    }
-                    else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                    {
-                        if ( wrapper.getParent().equals( root ) )
-                        {
-                            wrapper.getParent().removeChild( wrapper );
-                            elementsToWrappersMap.removeMapping( oc, wrapper );
-                        }
-                    }
-                    removeRecursiveChildren( wrapper );
+                    removeWrapper( ocChild, wrapper );
                 }
             }
         }
@@ -933,75 +1379,32 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         // Propagating the addition to the hierarchy manager
         hierarchyManager.objectClassAdded( oc );
 
-        List<TreeNode> createdWrappers = new ArrayList<TreeNode>();
-
         List<Object> parents = hierarchyManager.getParents( oc );
-
         if ( parents != null )
         {
             for ( Object parent : parents )
             {
-                ObjectClassWrapper parentOCW = ( ObjectClassWrapper ) getWrapper( parent );
-                ObjectClassWrapper ocw = null;
-                if ( parentOCW == null )
-                {
-                    int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                    if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                    {
-                        for ( TreeNode child : root.getChildren() )
-                        {
-                            if ( child instanceof Folder )
-                            {
-                                Folder folder = ( Folder ) child;
-                                if ( folder.getType().equals( FolderType.OBJECT_CLASS ) )
-                                {
-                                    ocw = new ObjectClassWrapper( oc, folder );
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                    else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                    {
-                        ocw = new ObjectClassWrapper( oc, root );
-                    }
-
-                }
-                else
+                for ( TreeNode parentNode : getHierarchyParentNodes( parent, FolderType.OBJECT_CLASS ) )
                 {
-                    ocw = new ObjectClassWrapper( oc, parentOCW );
+                    addWrapper( oc, parentNode );
                 }
-                ocw.getParent().addChild( ocw );
-                createdWrappers.add( ocw );
-                elementsToWrappersMap.put( oc, ocw );
             }
         }
 
+        // The children of the object class which were displayed without parent
+        // are now displayed (or will be created) under the object class
         List<Object> children = hierarchyManager.getChildren( oc );
         if ( children != null )
         {
             for ( Object child : children )
             {
-                List<TreeNode> childOCWs = getWrappers( child );
-                if ( childOCWs != null )
+                for ( TreeNode childOCW : getWrappers( child ) )
                 {
-                    for ( TreeNode childOCW : childOCWs )
+                    if ( isHierarchyTopWrapper( childOCW ) )
                     {
-                        if ( root.equals( childOCW.getParent() ) )
-                        {
-                            elementsToWrappersMap.remove( child );
-                            childOCW.getParent().removeChild( childOCW );
-                        }
+                        removeWrapper( child, childOCW );
                     }
                 }
-
-                for ( TreeNode createdWrapper : createdWrappers )
-                {
-                    ObjectClassWrapper ocw = new ObjectClassWrapper( ( ObjectClass ) child, createdWrapper );
-                    ocw.getParent().addChild( ocw );
-                    elementsToWrappersMap.put( child, ocw );
-                    addHierarchyChildren( ocw, hierarchyManager.getChildren( child ) );
-                }
             }
         }
     }
@@ -1049,19 +1452,15 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void objectClassModifiedHierarchicalPresentation( ObjectClass oc )
     {
+        List<Object> oldChildren = getHierarchyChildren( oc );
+
         // Propagating the modification to the hierarchy manager
         hierarchyManager.objectClassModified( oc );
 
         // Removing the Wrappers
-        List<TreeNode> wrappers = getWrappers( oc );
-        if ( wrappers != null )
+        for ( TreeNode wrapper : getWrappers( oc ) )
         {
-            for ( TreeNode wrapper : wrappers )
-            {
-                wrapper.getParent().removeChild( wrapper );
-            }
-
-            elementsToWrappersMap.remove( oc );
+            removeWrapper( oc, wrapper );
         }
 
         // Creating the wrapper
@@ -1070,40 +1469,15 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         {
             for ( Object parent : parents )
             {
-                ObjectClassWrapper parentOCW = ( ObjectClassWrapper ) getWrapper( parent );
-                ObjectClassWrapper ocw = null;
-                if ( parentOCW == null )
-                {
-                    int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                    if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                    {
-                        for ( TreeNode child : root.getChildren() )
-                        {
-                            if ( child instanceof Folder )
-                            {
-                                Folder folder = ( Folder ) child;
-                                if ( folder.getType().equals( FolderType.OBJECT_CLASS ) )
-                                {
-                                    ocw = new ObjectClassWrapper( oc, folder );
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                    else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                    {
-                        ocw = new ObjectClassWrapper( oc, root );
-                    }
-                }
-                else
+                for ( TreeNode parentNode : getHierarchyParentNodes( parent, FolderType.OBJECT_CLASS ) )
                 {
-                    ocw = new ObjectClassWrapper( oc, parentOCW );
+                    addWrapper( oc, parentNode );
                 }
-                ocw.getParent().addChild( ocw );
-                elementsToWrappersMap.put( oc, ocw );
-                addHierarchyChildren( ocw, hierarchyManager.getChildren( oc ) );
             }
         }
+
+        // The modification of the names or of the superiors may have changed the children
+        updateChildrenWrappers( oc, oldChildren, FolderType.OBJECT_CLASS );
     }
 
 
@@ -1136,11 +1510,9 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     public void objectClassRemovedFlatPresentation( ObjectClass oc )
     {
-        ObjectClassWrapper ocw = ( ObjectClassWrapper ) getWrapper( oc );
-        if ( ocw != null )
+        for ( TreeNode ocw : getWrappers( oc ) )
         {
-            ocw.getParent().removeChild( ocw );
-            elementsToWrappersMap.removeMapping( oc, ocw );
+            removeWrapper( oc, ocw );
         }
     }
 
@@ -1159,47 +1531,17 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
         List<Object> children = hierarchyManager.getChildren( oc );
         if ( children != null )
         {
+            TreeNode topNode = getHierarchyTopNode( FolderType.OBJECT_CLASS );
             for ( Object child : children )
             {
-                ObjectClassWrapper ocw = null;
-                int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
-                if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
-                {
-                    for ( TreeNode rootChild : root.getChildren() )
-                    {
-                        if ( rootChild instanceof Folder )
-                        {
-                            Folder folder = ( Folder ) rootChild;
-                            if ( folder.getType().equals( FolderType.OBJECT_CLASS ) )
-                            {
-                                ocw = new ObjectClassWrapper( ( ObjectClass ) child, folder );
-                                break;
-                            }
-                        }
-                    }
-                }
-                else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-                {
-                    ocw = new ObjectClassWrapper( ( ObjectClass ) child, root );
-                }
-
-                ocw.getParent().addChild( ocw );
-                elementsToWrappersMap.put( child, ocw );
-                addHierarchyChildren( ocw, hierarchyManager.getChildren( child ) );
+                addWrapper( child, topNode );
             }
         }
 
         // Removing the Wrappers
-        List<TreeNode> wrappers = getWrappers( oc );
-        if ( wrappers != null )
+        for ( TreeNode wrapper : getWrappers( oc ) )
         {
-            for ( TreeNode wrapper : wrappers )
-            {
-                wrapper.getParent().removeChild( wrapper );
-                removeRecursiveChildren( wrapper );
-            }
-
-            elementsToWrappersMap.remove( oc );
+            removeWrapper( oc, wrapper );
         }
 
         // Propagating the removal to the hierarchy manager
@@ -1290,12 +1632,9 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
      */
     private void schemaRemovedFlatPresentation( Schema schema )
     {
-        SchemaWrapper sw = ( SchemaWrapper ) getWrapper( schema );
-        if ( sw != null )
+        for ( TreeNode sw : getWrappers( schema ) )
         {
-            sw.getParent().removeChild( sw );
-            elementsToWrappersMap.removeMapping( schema, sw );
-            removeRecursiveChildren( sw );
+            removeWrapper( schema, sw );
         }
     }
 
@@ -1323,53 +1662,30 @@ public class SchemaViewContentProvider implements IStructuredContentProvider, IT
 
     /**
      * Adds a schema in 'Flat' Presentation.
+     * <p>
+     * The wrappers of the attribute types and object classes of the schema are
+     * created when they are needed.
      *
      * @param schema
      */
     public void addSchemaFlatPresentation( Schema schema )
     {
+        if ( ( materializedNodes == null ) || !materializedNodes.contains( root ) )
+        {
+            // The schema will be added when the root children are created
+            return;
+        }
+
         SchemaWrapper schemaWrapper = new SchemaWrapper( schema, root );
         root.addChild( schemaWrapper );
-        elementsToWrappersMap.put( schema, schemaWrapper );
+        addElementToWrapper( schema, schemaWrapper );
 
         int group = store.getInt( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING );
         if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_FOLDERS )
         {
-            Folder atFolder = new Folder( FolderType.ATTRIBUTE_TYPE, schemaWrapper );
-            schemaWrapper.addChild( atFolder );
-
-            for ( AttributeType attributeType : schema.getAttributeTypes() )
-            {
-                AttributeTypeWrapper atw = new AttributeTypeWrapper( attributeType, atFolder );
-                atw.getParent().addChild( atw );
-                elementsToWrappersMap.put( attributeType, atw );
-            }
-
-            Folder ocFolder = new Folder( FolderType.OBJECT_CLASS, schemaWrapper );
-            schemaWrapper.addChild( ocFolder );
-
-            for ( ObjectClass objectClass : schema.getObjectClasses() )
-            {
-                ObjectClassWrapper ocw = new ObjectClassWrapper( objectClass, ocFolder );
-                ocw.getParent().addChild( ocw );
-                elementsToWrappersMap.put( objectClass, ocw );
-            }
-        }
-        else if ( group == PluginConstants.PREFS_SCHEMA_VIEW_GROUPING_MIXED )
-        {
-            for ( AttributeType attributeType : schema.getAttributeTypes() )
-            {
-                AttributeTypeWrapper atw = new AttributeTypeWrapper( attributeType, schemaWrapper );
-                atw.getParent().addChild( atw );
-                elementsToWrappersMap.put( attributeType, atw );
-            }
-
-            for ( ObjectClass objectClass : schema.getObjectClasses() )
-            {
-                ObjectClassWrapper ocw = new ObjectClassWrapper( objectClass, schemaWrapper );
-                ocw.getParent().addChild( ocw );
-                elementsToWrappersMap.put( objectClass, ocw );
-            }
+            schemaWrapper.addChild( new Folder( FolderType.ATTRIBUTE_TYPE, schemaWrapper ) );
+            schemaWrapper.addChild( new Folder( FolderType.OBJECT_CLASS, schemaWrapper ) );
+            materializedNodes.add( schemaWrapper );
         }
     }
 }
@@ -21,10 +21,8 @@
 package org.apache.directory.studio.schemaeditor.view.views;
 
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.ObjectClass;
@@ -32,13 +30,13 @@ import org.apache.directory.api.ldap.model.schema.SchemaObject;
 import org.apache.directory.studio.schemaeditor.Activator;
 import org.apache.directory.studio.schemaeditor.PluginConstants;
 import org.apache.directory.studio.schemaeditor.PluginUtils;
-import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
 import org.apache.directory.studio.schemaeditor.controller.SearchViewController;
 import org.apache.directory.studio.schemaeditor.view.ViewUtils;
 import org.apache.directory.studio.schemaeditor.view.editors.attributetype.AttributeTypeEditor;
 import org.apache.directory.studio.schemaeditor.view.editors.attributetype.AttributeTypeEditorInput;
 import org.apache.directory.studio.schemaeditor.view.editors.objectclass.ObjectClassEditor;
 import org.apache.directory.studio.schemaeditor.view.editors.objectclass.ObjectClassEditorInput;
+import org.apache.directory.studio.schemaeditor.view.search.SchemaSearchIndex;
 import org.apache.directory.studio.schemaeditor.view.search.SearchPage;
 import org.apache.directory.studio.schemaeditor.view.search.SearchPage.SearchInEnum;
 import org.eclipse.jface.action.Action;
@@ -100,6 +98,9 @@ public class SearchView extends ViewPart
     /** The parent composite */
     private Composite parent;
 
+    /** The index of the schema objects */
+    private SchemaSearchIndex searchIndex;
+
 
     /**
      * {@inheritDoc}
@@ -110,6 +111,8 @@ public class SearchView extends ViewPart
         PlatformUI.getWorkbench().getHelpSystem().setHelp( parent, PluginConstants.PLUGIN_ID + "." + "search_view" ); //$NON-NLS-1$ //$NON-NLS-2$
 
         this.parent = parent;
+        searchIndex = new SchemaSearchIndex();
+
         GridLayout gridLayout = new GridLayout();
         gridLayout.horizontalSpacing = 0;
         gridLayout.marginBottom = 0;
@@ -583,6 +586,20 @@ public class SearchView extends ViewPart
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    public void dispose()
+    {
+        if ( searchIndex != null )
+        {
+            searchIndex.dispose();
+        }
+
+        super.dispose();
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -661,235 +678,12 @@ public class SearchView extends ViewPart
             validateSearchField();
         }
 
-        List<SchemaObject> results = search( searchString, searchIn, scope );
+        List<SchemaObject> results = searchIndex.search( searchString, searchIn, scope );
         setSearchResultsLabel( searchString, results.size() );
         resultsTableViewer.setInput( results );
     }
 
 
-    /**
-     * Searches the objects corresponding to the search parameters.
-     *
-     * @param searchString
-     *      the search String
-     * @param searchIn
-     *      the search In
-     * @param scope
-     *      the scope
-     */
-    private List<SchemaObject> search( String searchString, SearchInEnum[] searchIn, int scope )
-    {
-        List<SchemaObject> searchResults = new ArrayList<SchemaObject>();
-
-        if ( searchString != null )
-        {
-            String computedSearchString = searchString.replaceAll( "\\*", "[\\\\S]*" ); //$NON-NLS-1$ //$NON-NLS-2$
-            computedSearchString = computedSearchString.replaceAll( "\\?", "[\\\\S]" ); //$NON-NLS-1$ //$NON-NLS-2$
-
-            Pattern pattern = Pattern.compile( computedSearchString, Pattern.CASE_INSENSITIVE );
-
-            SchemaHandler schemaHandler = Activator.getDefault().getSchemaHandler();
-            if ( schemaHandler != null )
-            {
-                List<SearchInEnum> searchScope = new ArrayList<SearchInEnum>( Arrays.asList( searchIn ) );
-
-                if ( ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_AND_OC )
-                    || ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_ONLY ) )
-                {
-                    // Looping on attribute types
-                    List<AttributeType> attributeTypes = schemaHandler.getAttributeTypes();
-                    for ( AttributeType at : attributeTypes )
-                    {
-                        // Aliases
-                        if ( searchScope.contains( SearchInEnum.ALIASES ) )
-                        {
-                            if ( checkList( pattern, at.getNames() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-
-                        // OID
-                        if ( searchScope.contains( SearchInEnum.OID ) )
-                        {
-                            if ( checkString( pattern, at.getOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-
-                        // Description
-                        if ( searchScope.contains( SearchInEnum.DESCRIPTION ) )
-                        {
-                            if ( checkString( pattern, at.getDescription() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-
-                        // Superior
-                        if ( searchScope.contains( SearchInEnum.SUPERIOR ) )
-                        {
-                            if ( checkString( pattern, at.getSuperiorOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-
-                        // Syntax
-                        if ( searchScope.contains( SearchInEnum.SYNTAX ) )
-                        {
-                            if ( checkString( pattern, at.getSyntaxOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-
-                        // Matching Rules
-                        if ( searchScope.contains( SearchInEnum.MATCHING_RULES ) )
-                        {
-                            // Equality
-                            if ( checkString( pattern, at.getEqualityOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-
-                            // Ordering
-                            if ( checkString( pattern, at.getOrderingOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-
-                            // Substring
-                            if ( checkString( pattern, at.getSubstringOid() ) )
-                            {
-                                searchResults.add( at );
-                                continue;
-                            }
-                        }
-                    }
-                }
-
-                if ( ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_AND_OC )
-                    || ( scope == PluginConstants.PREFS_SEARCH_PAGE_SCOPE_OC_ONLY ) )
-                {
-                    // Looping on object classes
-                    List<ObjectClass> objectClasses = schemaHandler.getObjectClasses();
-                    for ( ObjectClass oc : objectClasses )
-                    {
-                        // Aliases
-                        if ( searchScope.contains( SearchInEnum.ALIASES ) )
-                        {
-                            if ( checkList( pattern, oc.getNames() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-
-                        // OID
-                        if ( searchScope.contains( SearchInEnum.OID ) )
-                        {
-                            if ( checkString( pattern, oc.getOid() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-
-                        // Description
-                        if ( searchScope.contains( SearchInEnum.DESCRIPTION ) )
-                        {
-                            if ( checkString( pattern, oc.getDescription() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-
-                        // Superiors
-                        if ( searchScope.contains( SearchInEnum.SUPERIORS ) )
-                        {
-                            if ( checkList( pattern, oc.getSuperiorOids() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-
-                        // Mandatory Attributes
-                        if ( searchScope.contains( SearchInEnum.MANDATORY_ATTRIBUTES ) )
-                        {
-                            if ( checkList( pattern, oc.getMustAttributeTypeOids() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-
-                        // Optional Attributes
-                        if ( searchScope.contains( SearchInEnum.OPTIONAL_ATTRIBUTES ) )
-                        {
-                            if ( checkList( pattern, oc.getMayAttributeTypeOids() ) )
-                            {
-                                searchResults.add( oc );
-                                continue;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return searchResults;
-    }
-
-
-    /**
-     * Check an array with the given pattern.
-     *
-     * @param pattern
-     *      the Regex pattern
-     * @param list
-     *      the array
-     * @return
-     *      true if the pattern matches one of the aliases, false, if not.
-     */
-    private boolean checkList( Pattern pattern, List<String> list )
-    {
-        if ( list != null )
-        {
-            for ( String string : list )
-            {
-                if ( pattern.matcher( string ).matches() )
-                {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-
-    private boolean checkString( Pattern pattern, String string )
-    {
-        if ( string != null )
-        {
-            return pattern.matcher( string ).matches();
-        }
-
-        return false;
-    }
-
-
     /**
      * Launches the search from the search fields views.
      */
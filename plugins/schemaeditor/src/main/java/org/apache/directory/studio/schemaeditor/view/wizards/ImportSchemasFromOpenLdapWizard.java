@@ -21,8 +21,7 @@ package org.apache.directory.studio.schemaeditor.view.wizards;
 
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.util.List;
 
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.jobs.StudioConnectionRunnableWithProgress;
@@ -31,8 +30,8 @@ import org.apache.directory.studio.connection.ui.RunnableContextRunner;
 import org.apache.directory.studio.schemaeditor.Activator;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
 import org.apache.directory.studio.schemaeditor.model.Schema;
-import org.apache.directory.studio.schemaeditor.model.io.OpenLdapSchemaFileImportException;
-import org.apache.directory.studio.schemaeditor.model.io.OpenLdapSchemaFileImporter;
+import org.apache.directory.studio.schemaeditor.model.io.SchemaFilesImporter;
+import org.apache.directory.studio.schemaeditor.model.io.SchemaFilesImporter.SchemaFileImport;
 import org.apache.directory.studio.schemaeditor.model.schemachecker.SchemaChecker;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.wizard.Wizard;
@@ -91,23 +90,25 @@ public class ImportSchemasFromOpenLdapWizard extends Wizard implements IImportWi
                     .beginTask(
                         Messages.getString( "ImportSchemasFromOpenLdapWizard.ImportingSchemas" ), selectedSchemasFiles.length ); //$NON-NLS-1$
 
-                for ( File schemaFile : selectedSchemasFiles )
+                // Reading the schema files (concurrently)
+                List<SchemaFileImport> schemaFileImports = SchemaFilesImporter
+                    .importOpenLdapSchemaFiles( selectedSchemasFiles );
+
+                // Adding the schemas, in the order of the files
+                for ( SchemaFileImport schemaFileImport : schemaFileImports )
                 {
-                    monitor.subTask( schemaFile.getName() );
-                    try
-                    {
-                        Schema schema = OpenLdapSchemaFileImporter.getSchema( new FileInputStream( schemaFile ),
-                            schemaFile.getAbsolutePath() );
-                        schema.setProject( Activator.getDefault().getProjectsHandler().getOpenProject() );
-                        schemaHandler.addSchema( schema );
-                    }
-                    catch ( OpenLdapSchemaFileImportException e )
+                    monitor.subTask( schemaFileImport.getFile().getName() );
+                    if ( schemaFileImport.getException() != null )
                     {
-                        reportError( e, schemaFile, monitor );
+                        reportError( schemaFileImport.getException(), schemaFileImport.getFile(), monitor );
                     }
-                    catch ( FileNotFoundException e )
+                    else
                     {
-                        reportError( e, schemaFile, monitor );
+                        for ( Schema schema : schemaFileImport.getSchemas() )
+                        {
+                            schema.setProject( Activator.getDefault().getProjectsHandler().getOpenProject() );
+                            schemaHandler.addSchema( schema );
+                        }
                     }
                     monitor.worked( 1 );
                 }
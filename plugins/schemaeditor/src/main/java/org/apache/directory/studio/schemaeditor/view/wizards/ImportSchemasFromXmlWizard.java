@@ -21,8 +21,7 @@ package org.apache.directory.studio.schemaeditor.view.wizards;
 
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.util.List;
 
 import org.apache.directory.studio.common.core.jobs.StudioProgressMonitor;
 import org.apache.directory.studio.connection.core.jobs.StudioConnectionRunnableWithProgress;
@@ -31,9 +30,8 @@ import org.apache.directory.studio.connection.ui.RunnableContextRunner;
 import org.apache.directory.studio.schemaeditor.Activator;
 import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
 import org.apache.directory.studio.schemaeditor.model.Schema;
-import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImportException;
-import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter;
-import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter.SchemaFileType;
+import org.apache.directory.studio.schemaeditor.model.io.SchemaFilesImporter;
+import org.apache.directory.studio.schemaeditor.model.io.SchemaFilesImporter.SchemaFileImport;
 import org.apache.directory.studio.schemaeditor.model.schemachecker.SchemaChecker;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.wizard.Wizard;
@@ -91,40 +89,25 @@ public class ImportSchemasFromXmlWizard extends Wizard implements IImportWizard
                 monitor.beginTask(
                     Messages.getString( "ImportSchemasFromXmlWizard.ImportingSchemas" ), selectedSchemasFiles.length ); //$NON-NLS-1$
 
-                for ( File schemaFile : selectedSchemasFiles )
+                // Reading the schema files (concurrently)
+                List<SchemaFileImport> schemaFileImports = SchemaFilesImporter
+                    .importXmlSchemaFiles( selectedSchemasFiles );
+
+                // Adding the schemas, in the order of the files
+                for ( SchemaFileImport schemaFileImport : schemaFileImports )
                 {
-                    monitor.subTask( schemaFile.getName() );
-                    try
+                    monitor.subTask( schemaFileImport.getFile().getName() );
+                    if ( schemaFileImport.getException() != null )
                     {
-                        SchemaFileType schemaFileType = XMLSchemaFileImporter.getSchemaFileType( new FileInputStream(
-                            schemaFile ), schemaFile.getAbsolutePath() );
-                        switch ( schemaFileType )
-                        {
-                            case SINGLE:
-                                Schema importedSchema = XMLSchemaFileImporter.getSchema( new FileInputStream(
-                                    schemaFile ), schemaFile.getAbsolutePath() );
-                                importedSchema
-                                    .setProject( Activator.getDefault().getProjectsHandler().getOpenProject() );
-                                schemaHandler.addSchema( importedSchema );
-                                break;
-                            case MULTIPLE:
-                                Schema[] schemas = XMLSchemaFileImporter.getSchemas( new FileInputStream( schemaFile ),
-                                    schemaFile.getAbsolutePath() );
-                                for ( Schema schema : schemas )
-                                {
-                                    schema.setProject( Activator.getDefault().getProjectsHandler().getOpenProject() );
-                                    schemaHandler.addSchema( schema );
-                                }
-                                break;
-                        }
+                        reportError( schemaFileImport.getException(), schemaFileImport.getFile(), monitor );
                     }
-                    catch ( XMLSchemaFileImportException e )
+                    else
                     {
-                        reportError( e, schemaFile, monitor );
-                    }
-                    catch ( FileNotFoundException e )
-                    {
-                        reportError( e, schemaFile, monitor );
+                        for ( Schema schema : schemaFileImport.getSchemas() )
+                        {
+                            schema.setProject( Activator.getDefault().getProjectsHandler().getOpenProject() );
+                            schemaHandler.addSchema( schema );
+                        }
                     }
                     monitor.worked( 1 );
                 }
@@ -0,0 +1,259 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.studio.schemaeditor.model.io;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.studio.schemaeditor.model.Project;
+import org.apache.directory.studio.schemaeditor.model.ProjectType;
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests the round trip of the projects file through the {@link ProjectsExporter}
+ * and the {@link ProjectsImporter}, and the import of malformed projects files.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ProjectsImporterTest
+{
+    private static final String PATH = "projects.xml"; //$NON-NLS-1$
+
+
+    @Test
+    public void testWriteProjectsEqualsWritingTheDocument() throws Exception
+    {
+        Project[] projects = createProjects();
+
+        assertArrayEquals( writeDocument( projects ), writeProjects( projects ) );
+        assertArrayEquals( writeDocument( new Project[0] ), writeProjects( new Project[0] ) );
+    }
+
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        Project[] projects = createProjects();
+        byte[] bytes = writeProjects( projects );
+
+        Project[] importedProjects = ProjectsImporter.getProjects( new ByteArrayInputStream( bytes ), PATH );
+
+        assertEquals( projects.length, importedProjects.length );
+
+        for ( int i = 0; i < projects.length; i++ )
+        {
+            assertEquals( projects[i].getName(), importedProjects[i].getName() );
+            assertEquals( projects[i].getType(), importedProjects[i].getType() );
+            assertEquals( toStrings( projects[i] ), toStrings( importedProjects[i] ) );
+        }
+
+        // writing the imported projects again gives the same file
+        assertArrayEquals( bytes, writeProjects( importedProjects ) );
+    }
+
+
+    @Test
+    public void testEmptyProjectsFile() throws Exception
+    {
+        Project[] importedProjects = ProjectsImporter.getProjects( new ByteArrayInputStream(
+            writeProjects( new Project[0] ) ), PATH );
+
+        assertEquals( 0, importedProjects.length );
+    }
+
+
+    @Test
+    public void testTruncatedProjectsFile() throws Exception
+    {
+        byte[] bytes = writeProjects( createProjects() );
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy( bytes, 0, truncated, 0, truncated.length );
+
+        ProjectsImportException exception = assertThrows( ProjectsImportException.class,
+            () -> ProjectsImporter.getProjects( new ByteArrayInputStream( truncated ), PATH ) );
+
+        assertEquals( "The file \"projects.xml\" can not be read correctly.", exception.getMessage() ); //$NON-NLS-1$
+        assertNotNull( exception.getCause() );
+    }
+
+
+    @Test
+    public void testWrongRootElement() throws Exception
+    {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //$NON-NLS-1$
+            + "<project name=\"Project\" type=\"OFFLINE\"/>\n"; //$NON-NLS-1$
+
+        ProjectsImportException exception = assertThrows( ProjectsImportException.class,
+            () -> ProjectsImporter.getProjects( toInputStream( xml ), PATH ) );
+
+        assertEquals( "The file \"projects.xml\" does not seem to be a valid project file.", //$NON-NLS-1$
+            exception.getMessage() );
+    }
+
+
+    @Test
+    public void testInvalidProjectType() throws Exception
+    {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //$NON-NLS-1$
+            + "<projects>\n" //$NON-NLS-1$
+            + "  <project name=\"Project 1\" type=\"OFFLINE\"/>\n" //$NON-NLS-1$
+            + "  <project name=\"Project 2\" type=\"UNKNOWN\"/>\n" //$NON-NLS-1$
+            + "  <project name=\"Project 3\" type=\"OFFLINE\"/>\n" //$NON-NLS-1$
+            + "</projects>\n"; //$NON-NLS-1$
+
+        ProjectsImportException exception = assertThrows( ProjectsImportException.class,
+            () -> ProjectsImporter.getProjects( toInputStream( xml ), PATH ) );
+
+        assertEquals( "The parser was not able to convert the type value of the project.", //$NON-NLS-1$
+            exception.getMessage() );
+    }
+
+
+    @Test
+    public void testInvalidSchema() throws Exception
+    {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //$NON-NLS-1$
+            + "<projects>\n" //$NON-NLS-1$
+            + "  <project name=\"Project\" type=\"OFFLINE\">\n" //$NON-NLS-1$
+            + "    <schemas>\n" //$NON-NLS-1$
+            + "      <schema name=\"schema\">\n" //$NON-NLS-1$
+            + "        <attributetypes>\n" //$NON-NLS-1$
+            + "          <attributetype/>\n" //$NON-NLS-1$
+            + "        </attributetypes>\n" //$NON-NLS-1$
+            + "      </schema>\n" //$NON-NLS-1$
+            + "    </schemas>\n" //$NON-NLS-1$
+            + "  </project>\n" //$NON-NLS-1$
+            + "</projects>\n"; //$NON-NLS-1$
+
+        ProjectsImportException exception = assertThrows( ProjectsImportException.class,
+            () -> ProjectsImporter.getProjects( toInputStream( xml ), PATH ) );
+
+        assertEquals( "The parser was not able to convert the schemas of the project.", exception.getMessage() ); //$NON-NLS-1$
+    }
+
+
+    /**
+     * Creates offline projects, with several schemas, one schema and no schema.
+     */
+    private static Project[] createProjects() throws Exception
+    {
+        Project project1 = new Project( ProjectType.OFFLINE, "Project 1" ); //$NON-NLS-1$
+        addSchema( project1, "core" ); //$NON-NLS-1$
+        addSchema( project1, "system" ); //$NON-NLS-1$
+        addSchema( project1, "cosine" ); //$NON-NLS-1$
+
+        Project project2 = new Project( ProjectType.OFFLINE, "Project 2 \u00E9" ); //$NON-NLS-1$
+        addSchema( project2, "inetorgperson" ); //$NON-NLS-1$
+
+        Project project3 = new Project( ProjectType.OFFLINE, "Project 3" ); //$NON-NLS-1$
+
+        return new Project[]
+            { project1, project2, project3 };
+    }
+
+
+    private static void addSchema( Project project, String name ) throws Exception
+    {
+        try ( InputStream in = new FileInputStream( "resources/schemas/apacheds/" + name + ".xml" ) ) //$NON-NLS-1$ //$NON-NLS-2$
+        {
+            Schema schema = XMLSchemaFileImporter.getSchema( in, name );
+            schema.setProject( project );
+            project.getSchemaHandler().addSchema( schema );
+        }
+    }
+
+
+    private static byte[] writeProjects( Project[] projects ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProjectsExporter.writeProjects( projects, out );
+
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Writes the projects the way they were written before {@link ProjectsExporter#writeProjects(Project[], java.io.OutputStream)}.
+     */
+    private static byte[] writeDocument( Project[] projects ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputFormat outformat = OutputFormat.createPrettyPrint();
+        outformat.setEncoding( "UTF-8" ); //$NON-NLS-1$
+        XMLWriter writer = new XMLWriter( out, outformat );
+        writer.write( ProjectsExporter.toDocument( projects ) );
+        writer.flush();
+
+        return out.toByteArray();
+    }
+
+
+    private static InputStream toInputStream( String xml )
+    {
+        return new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+
+    /**
+     * Gets the names and the schema objects of the schemas of the given project.
+     */
+    private static List<String> toStrings( Project project )
+    {
+        List<String> strings = new ArrayList<String>();
+
+        for ( Schema schema : project.getSchemaHandler().getSchemas() )
+        {
+            strings.add( schema.getSchemaName() );
+            addStrings( strings, schema.getAttributeTypes() );
+            addStrings( strings, schema.getObjectClasses() );
+            addStrings( strings, schema.getMatchingRules() );
+            addStrings( strings, schema.getSyntaxes() );
+        }
+
+        return strings;
+    }
+
+
+    private static void addStrings( List<String> strings, List<? extends SchemaObject> schemaObjects )
+    {
+        for ( SchemaObject schemaObject : schemaObjects )
+        {
+            strings.add( schemaObject.getSchemaName() + " " + schemaObject.getOid() + " " + schemaObject.getNames() //$NON-NLS-1$ //$NON-NLS-2$
+                + " " + schemaObject.getDescription() ); //$NON-NLS-1$
+        }
+    }
+}
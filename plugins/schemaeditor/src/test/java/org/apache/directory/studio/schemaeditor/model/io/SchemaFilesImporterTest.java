@@ -0,0 +1,159 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.studio.schemaeditor.model.io;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.model.io.SchemaFilesImporter.SchemaFileImport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * Tests the {@link SchemaFilesImporter}, the results must be in the order of the files
+ * and the same as the ones of the file by file import.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaFilesImporterTest
+{
+    @TempDir
+    public File tempDir;
+
+
+    @Test
+    public void testImportXmlSchemaFiles() throws Exception
+    {
+        File malformed = write( "malformed.xml", "<schema name=\"malformed\"><attributetypes>" ); //$NON-NLS-1$ //$NON-NLS-2$
+        File missing = new File( tempDir, "missing.xml" ); //$NON-NLS-1$
+        File[] files = new File[]
+            { schemaFile( "core" ), malformed, schemaFile( "system" ), missing, schemaFile( "cosine" ) }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        List<SchemaFileImport> imports = SchemaFilesImporter.importXmlSchemaFiles( files );
+
+        assertEquals( files.length, imports.size() );
+
+        for ( int i = 0; i < files.length; i++ )
+        {
+            assertEquals( files[i], imports.get( i ).getFile() );
+        }
+
+        assertSchema( "core", imports.get( 0 ) ); //$NON-NLS-1$
+        assertSchema( "system", imports.get( 2 ) ); //$NON-NLS-1$
+        assertSchema( "cosine", imports.get( 4 ) ); //$NON-NLS-1$
+
+        assertNull( imports.get( 1 ).getSchemas() );
+        assertTrue( imports.get( 1 ).getException() instanceof XMLSchemaFileImportException );
+        assertNull( imports.get( 3 ).getSchemas() );
+        assertTrue( imports.get( 3 ).getException() instanceof FileNotFoundException );
+    }
+
+
+    @Test
+    public void testImportOpenLdapSchemaFiles() throws Exception
+    {
+        File valid = write( "valid.schema", //$NON-NLS-1$
+            "attributetype ( 1.3.6.1.4.1.18060.0.4.99.1 NAME 'testAttribute'\n" //$NON-NLS-1$
+                + "\tSYNTAX 1.3.6.1.4.1.1466.115.121.1.15 )\n\n" //$NON-NLS-1$
+                + "objectclass ( 1.3.6.1.4.1.18060.0.4.99.2 NAME 'testObjectClass'\n" //$NON-NLS-1$
+                + "\tSUP top STRUCTURAL MAY testAttribute )\n" ); //$NON-NLS-1$
+        File malformed = write( "malformed.schema", "attributetype ( 1.3.6.1.4.1.18060.0.4.99.3 NAME\n" ); //$NON-NLS-1$ //$NON-NLS-2$
+        File empty = write( "empty.schema", "" ); //$NON-NLS-1$ //$NON-NLS-2$
+        File[] files = new File[]
+            { malformed, valid, empty };
+
+        List<SchemaFileImport> imports = SchemaFilesImporter.importOpenLdapSchemaFiles( files );
+
+        assertEquals( files.length, imports.size() );
+
+        assertEquals( malformed, imports.get( 0 ).getFile() );
+        assertNull( imports.get( 0 ).getSchemas() );
+        assertTrue( imports.get( 0 ).getException() instanceof OpenLdapSchemaFileImportException );
+
+        assertEquals( valid, imports.get( 1 ).getFile() );
+        assertNull( imports.get( 1 ).getException() );
+        assertEquals( 1, imports.get( 1 ).getSchemas().length );
+        Schema schema = imports.get( 1 ).getSchemas()[0];
+        assertEquals( "valid", schema.getSchemaName() ); //$NON-NLS-1$
+        assertNotNull( schema.getAttributeType( "testAttribute" ) ); //$NON-NLS-1$
+        assertNotNull( schema.getObjectClass( "testObjectClass" ) ); //$NON-NLS-1$
+
+        assertEquals( empty, imports.get( 2 ).getFile() );
+        assertNull( imports.get( 2 ).getException() );
+        assertEquals( 0, imports.get( 2 ).getSchemas()[0].getAttributeTypes().size() );
+    }
+
+
+    @Test
+    public void testImportNoFile() throws Exception
+    {
+        assertTrue( SchemaFilesImporter.importXmlSchemaFiles( new File[0] ).isEmpty() );
+    }
+
+
+    /**
+     * Checks that the import gives the same schema as the import of the file on its own.
+     */
+    private static void assertSchema( String name, SchemaFileImport schemaFileImport ) throws Exception
+    {
+        assertNull( schemaFileImport.getException() );
+        assertEquals( 1, schemaFileImport.getSchemas().length );
+
+        Schema schema = schemaFileImport.getSchemas()[0];
+        Schema expected;
+
+        try ( InputStream in = Files.newInputStream( schemaFile( name ).toPath() ) )
+        {
+            expected = XMLSchemaFileImporter.getSchema( in, schemaFile( name ).getAbsolutePath() );
+        }
+
+        assertEquals( name, schema.getSchemaName() );
+        assertEquals( expected.getAttributeTypes().toString(), schema.getAttributeTypes().toString() );
+        assertEquals( expected.getObjectClasses().toString(), schema.getObjectClasses().toString() );
+    }
+
+
+    private static File schemaFile( String name )
+    {
+        return new File( "resources/schemas/apacheds/" + name + ".xml" ); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+
+    private File write( String name, String content ) throws Exception
+    {
+        File file = new File( tempDir, name );
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+
+        return file;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.studio.schemaeditor.model.schemachecker;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * This class tests the incremental checks of the SchemaChecker, by comparing
+ * their results with the ones of a check of the whole schema.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaCheckerTest
+{
+    /** The schema handler */
+    private SchemaHandler schemaHandler;
+
+    /** The schema checker checking the modifications incrementally */
+    private SchemaChecker schemaChecker;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        schemaHandler = new SchemaHandler();
+
+        try ( InputStream in = new FileInputStream( "resources/schemas/apacheds/system.xml" ) ) //$NON-NLS-1$
+        {
+            schemaHandler.addSchema( XMLSchemaFileImporter.getSchema( in, "system.xml" ) ); //$NON-NLS-1$
+        }
+
+        schemaChecker = new SchemaChecker( schemaHandler );
+        schemaChecker.enableModificationsListening();
+        schemaChecker.checkSchema();
+
+        assertTrue( schemaChecker.isIncrementalCheckPossible() );
+        assertTrue( schemaChecker.getErrors().isEmpty() );
+    }
+
+
+    /**
+     * Tests adding and removing attribute types and object classes.
+     */
+    @Test
+    public void testAddAndRemove() throws Exception
+    {
+        AttributeType superior = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "testSuperior", "name" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( superior );
+        checkAndCompare();
+
+        AttributeType subType = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.2", "testSubType", "testSuperior" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( subType );
+        ObjectClass objectClass = createObjectClass( "1.3.6.1.4.1.18060.0.4.99.3", "testObjectClass", "testSubType" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addObjectClass( objectClass );
+        checkAndCompare();
+        assertFalse( schemaChecker.hasErrors( objectClass ) );
+
+        // Removing the superior breaks the sub-type
+        schemaHandler.removeAttributeType( superior );
+        checkAndCompare();
+        assertTrue( schemaChecker.hasErrors( subType ) );
+
+        // Adding it again repairs it
+        schemaHandler.addAttributeType( superior );
+        checkAndCompare();
+        assertFalse( schemaChecker.hasErrors( subType ) );
+
+        // Removing the attribute type breaks the object class using it
+        schemaHandler.removeAttributeType( subType );
+        checkAndCompare();
+        assertTrue( schemaChecker.hasErrors( objectClass ) );
+
+        schemaHandler.removeObjectClass( objectClass );
+        checkAndCompare();
+        assertTrue( schemaChecker.getErrors().isEmpty() );
+    }
+
+
+    /**
+     * Tests modifying attribute types.
+     */
+    @Test
+    public void testModify() throws Exception
+    {
+        AttributeType superior = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "testSuperior", "name" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( superior );
+        AttributeType subType = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.2", "testSubType", "testSuperior" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( subType );
+        checkAndCompare();
+
+        // Renaming the superior breaks the sub-type
+        schemaHandler.modifyAttributeType( superior,
+            createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "testRenamedSuperior", "name" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checkAndCompare();
+        assertFalse( schemaChecker.hasErrors( superior ) );
+        assertTrue( schemaChecker.hasErrors( subType ) );
+
+        // Referencing an unknown superior
+        schemaHandler.modifyAttributeType( subType,
+            createAttributeType( "1.3.6.1.4.1.18060.0.4.99.2", "testSubType", "unknownSuperior" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checkAndCompare();
+        assertTrue( schemaChecker.hasErrors( subType ) );
+
+        // Fixing the sub-type
+        schemaHandler.modifyAttributeType( subType,
+            createAttributeType( "1.3.6.1.4.1.18060.0.4.99.2", "testSubType", "testRenamedSuperior" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checkAndCompare();
+        assertTrue( schemaChecker.getErrors().isEmpty() );
+    }
+
+
+    /**
+     * Tests the warnings of schema objects without names.
+     */
+    @Test
+    public void testWarnings() throws Exception
+    {
+        AttributeType attributeType = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "testAttribute", "name" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( attributeType );
+        checkAndCompare();
+        assertFalse( schemaChecker.hasWarnings( attributeType ) );
+
+        AttributeType modified = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", null, "name" ); //$NON-NLS-1$ //$NON-NLS-2$
+        schemaHandler.modifyAttributeType( attributeType, modified );
+        checkAndCompare();
+        assertTrue( schemaChecker.hasWarnings( attributeType ) );
+
+        schemaHandler.removeAttributeType( attributeType );
+        checkAndCompare();
+        assertFalse( schemaChecker.hasWarnings( attributeType ) );
+    }
+
+
+    /**
+     * Checks the pending modifications and compares the results with the ones
+     * of a new schema checker checking the whole schema.
+     */
+    private void checkAndCompare()
+    {
+        schemaChecker.checkSchema();
+
+        SchemaChecker wholeSchemaChecker = new SchemaChecker( schemaHandler );
+        wholeSchemaChecker.reload();
+        wholeSchemaChecker.checkSchema();
+
+        List<SchemaObject> schemaObjects = new ArrayList<SchemaObject>();
+        schemaObjects.addAll( schemaHandler.getAttributeTypes() );
+        schemaObjects.addAll( schemaHandler.getObjectClasses() );
+
+        for ( SchemaObject schemaObject : schemaObjects )
+        {
+            assertEquals( wholeSchemaChecker.hasErrors( schemaObject ), schemaChecker.hasErrors( schemaObject ),
+                "errors of " + schemaObject.getName() ); //$NON-NLS-1$
+            assertEquals( wholeSchemaChecker.hasWarnings( schemaObject ), schemaChecker.hasWarnings( schemaObject ),
+                "warnings of " + schemaObject.getName() ); //$NON-NLS-1$
+        }
+
+        assertEquals( wholeSchemaChecker.getErrors().isEmpty(), schemaChecker.getErrors().isEmpty() );
+        assertEquals( wholeSchemaChecker.getWarnings().size(), schemaChecker.getWarnings().size() );
+    }
+
+
+    private AttributeType createAttributeType( String oid, String name, String superior )
+    {
+        AttributeType attributeType = new AttributeType( oid );
+        attributeType.setSchemaName( "system" ); //$NON-NLS-1$
+
+        if ( name != null )
+        {
+            attributeType.setNames( name );
+        }
+
+        attributeType.setSuperiorOid( superior );
+
+        return attributeType;
+    }
+
+
+    private ObjectClass createObjectClass( String oid, String name, String mayAttributeType )
+    {
+        ObjectClass objectClass = new ObjectClass( oid );
+        objectClass.setSchemaName( "system" ); //$NON-NLS-1$
+        objectClass.setNames( name );
+        objectClass.setSuperiorOids( Collections.singletonList( "top" ) ); //$NON-NLS-1$
+        objectClass.setMayAttributeTypeOids( Collections.singletonList( mayAttributeType ) );
+
+        return objectClass;
+    }
+}
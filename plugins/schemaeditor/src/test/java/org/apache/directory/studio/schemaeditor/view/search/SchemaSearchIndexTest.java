@@ -0,0 +1,328 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.studio.schemaeditor.view.search;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.SchemaObject;
+import org.apache.directory.studio.schemaeditor.PluginConstants;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter;
+import org.apache.directory.studio.schemaeditor.view.search.SearchPage.SearchInEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * This class tests the SchemaSearchIndex, by comparing its results with the ones
+ * of a scan of all the attribute types and object classes.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaSearchIndexTest
+{
+    /** The searches: literals, prefixes, infixes, wildcards and regular expressions */
+    private static final String[] SEARCH_STRINGS =
+        {
+            "cn", //$NON-NLS-1$
+            "CommonName", //$NON-NLS-1$
+            "c*", //$NON-NLS-1$
+            "person*", //$NON-NLS-1$
+            "2*", //$NON-NLS-1$
+            "*name*", //$NON-NLS-1$
+            "*Name", //$NON-NLS-1$
+            "*ame", //$NON-NLS-1$
+            "*ou*", //$NON-NLS-1$
+            "*1466*", //$NON-NLS-1$
+            "*exact*match*", //$NON-NLS-1$
+            "?n", //$NON-NLS-1$
+            "o?", //$NON-NLS-1$
+            "tele*one?umber", //$NON-NLS-1$
+            "*", //$NON-NLS-1$
+            "", //$NON-NLS-1$
+            "2.5.4.3", //$NON-NLS-1$
+            "2\\.5\\.4\\.\\d+", //$NON-NLS-1$
+            "(cn|sn|ou)", //$NON-NLS-1$
+            "[a-c]n", //$NON-NLS-1$
+            "caseIgnore.*", //$NON-NLS-1$
+            ".*Match", //$NON-NLS-1$
+            "test*", //$NON-NLS-1$
+            "renamed*" //$NON-NLS-1$
+    };
+
+    /** The scopes */
+    private static final int[] SCOPES =
+        {
+            PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_AND_OC,
+            PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_ONLY,
+            PluginConstants.PREFS_SEARCH_PAGE_SCOPE_OC_ONLY
+    };
+
+    /** The schema handler */
+    private SchemaHandler schemaHandler;
+
+    /** The index */
+    private SchemaSearchIndex index;
+
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        schemaHandler = new SchemaHandler();
+        schemaHandler.addSchema( getSchema( "system" ) ); //$NON-NLS-1$
+        schemaHandler.addSchema( getSchema( "core" ) ); //$NON-NLS-1$
+        schemaHandler.addSchema( getSchema( "inetorgperson" ) ); //$NON-NLS-1$
+
+        index = new SchemaSearchIndex( schemaHandler );
+    }
+
+
+    /**
+     * Tests the searches on the schemas the index is built from.
+     */
+    @Test
+    public void testSearch() throws Exception
+    {
+        searchAndCompare();
+
+        assertFalse( index.search( "cn", SearchInEnum.values(), SCOPES[0] ).isEmpty() ); //$NON-NLS-1$
+        assertFalse( index.search( "*name*", SearchInEnum.values(), SCOPES[0] ).isEmpty() ); //$NON-NLS-1$
+        assertFalse( index.search( "(cn|sn|ou)", SearchInEnum.values(), SCOPES[0] ).isEmpty() ); //$NON-NLS-1$
+    }
+
+
+    /**
+     * Tests the searches after adding, modifying and removing attribute types and object classes.
+     */
+    @Test
+    public void testAddModifyAndRemove() throws Exception
+    {
+        // Building the index
+        searchAndCompare();
+
+        AttributeType attributeType = createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "testAttribute", "name" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addAttributeType( attributeType );
+        ObjectClass objectClass = createObjectClass( "1.3.6.1.4.1.18060.0.4.99.2", "testObjectClass", "testAttribute" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.addObjectClass( objectClass );
+        searchAndCompare();
+        assertEquals( 2, index.search( "test*", SearchInEnum.values(), SCOPES[0] ).size() ); //$NON-NLS-1$
+
+        // The old values must not be found anymore
+        schemaHandler.modifyAttributeType( attributeType,
+            createAttributeType( "1.3.6.1.4.1.18060.0.4.99.1", "renamedAttribute", "cn" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        schemaHandler.modifyObjectClass( objectClass,
+            createObjectClass( "1.3.6.1.4.1.18060.0.4.99.2", "renamedObjectClass", "renamedAttribute" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        searchAndCompare();
+        assertTrue( index.search( "test*", SearchInEnum.values(), SCOPES[0] ).isEmpty() ); //$NON-NLS-1$
+        assertEquals( 2, index.search( "renamed*", SearchInEnum.values(), SCOPES[0] ).size() ); //$NON-NLS-1$
+
+        schemaHandler.removeObjectClass( objectClass );
+        searchAndCompare();
+        schemaHandler.removeAttributeType( attributeType );
+        searchAndCompare();
+        assertTrue( index.search( "renamed*", SearchInEnum.values(), SCOPES[0] ).isEmpty() ); //$NON-NLS-1$
+    }
+
+
+    /**
+     * Tests the searches after adding and removing a schema.
+     */
+    @Test
+    public void testAddAndRemoveSchema() throws Exception
+    {
+        // Building the index
+        searchAndCompare();
+
+        Schema cosine = getSchema( "cosine" ); //$NON-NLS-1$
+        schemaHandler.addSchema( cosine );
+        searchAndCompare();
+
+        schemaHandler.removeSchema( cosine );
+        searchAndCompare();
+    }
+
+
+    /**
+     * Runs all the searches, in all the scopes, on all the fields and on each field
+     * alone, and compares the results with the ones of a scan.
+     */
+    private void searchAndCompare()
+    {
+        List<SearchInEnum[]> searchIns = new ArrayList<SearchInEnum[]>();
+        searchIns.add( SearchInEnum.values() );
+
+        for ( SearchInEnum searchIn : SearchInEnum.values() )
+        {
+            searchIns.add( new SearchInEnum[]
+                { searchIn } );
+        }
+
+        for ( String searchString : SEARCH_STRINGS )
+        {
+            for ( int scope : SCOPES )
+            {
+                for ( SearchInEnum[] searchIn : searchIns )
+                {
+                    assertEquals( toOids( scan( searchString, searchIn, scope ) ),
+                        toOids( index.search( searchString, searchIn, scope ) ),
+                        "'" + searchString + "' in " + Arrays.toString( searchIn ) + ", scope " + scope ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Gets the sorted OIDs of the given schema objects.
+     */
+    private static List<String> toOids( List<SchemaObject> schemaObjects )
+    {
+        List<String> oids = new ArrayList<String>();
+
+        for ( SchemaObject schemaObject : schemaObjects )
+        {
+            oids.add( schemaObject.getOid() );
+        }
+
+        Collections.sort( oids );
+
+        return oids;
+    }
+
+
+    /**
+     * Searches the schema objects by checking the pattern against the fields of all of them.
+     */
+    private List<SchemaObject> scan( String searchString, SearchInEnum[] searchIn, int scope )
+    {
+        String computedSearchString = searchString.replaceAll( "\\*", "[\\\\S]*" ); //$NON-NLS-1$ //$NON-NLS-2$
+        computedSearchString = computedSearchString.replaceAll( "\\?", "[\\\\S]" ); //$NON-NLS-1$ //$NON-NLS-2$
+        Pattern pattern = Pattern.compile( computedSearchString, Pattern.CASE_INSENSITIVE );
+        List<SearchInEnum> fields = Arrays.asList( searchIn );
+        List<SchemaObject> searchResults = new ArrayList<SchemaObject>();
+
+        if ( scope != PluginConstants.PREFS_SEARCH_PAGE_SCOPE_OC_ONLY )
+        {
+            for ( AttributeType at : schemaHandler.getAttributeTypes() )
+            {
+                if ( ( fields.contains( SearchInEnum.ALIASES ) && matches( pattern, at.getNames() ) )
+                    || ( fields.contains( SearchInEnum.OID ) && matches( pattern, at.getOid() ) )
+                    || ( fields.contains( SearchInEnum.DESCRIPTION ) && matches( pattern, at.getDescription() ) )
+                    || ( fields.contains( SearchInEnum.SUPERIOR ) && matches( pattern, at.getSuperiorOid() ) )
+                    || ( fields.contains( SearchInEnum.SYNTAX ) && matches( pattern, at.getSyntaxOid() ) )
+                    || ( fields.contains( SearchInEnum.MATCHING_RULES ) && ( matches( pattern, at.getEqualityOid() )
+                        || matches( pattern, at.getOrderingOid() ) || matches( pattern, at.getSubstringOid() ) ) ) )
+                {
+                    searchResults.add( at );
+                }
+            }
+        }
+
+        if ( scope != PluginConstants.PREFS_SEARCH_PAGE_SCOPE_AT_ONLY )
+        {
+            for ( ObjectClass oc : schemaHandler.getObjectClasses() )
+            {
+                if ( ( fields.contains( SearchInEnum.ALIASES ) && matches( pattern, oc.getNames() ) )
+                    || ( fields.contains( SearchInEnum.OID ) && matches( pattern, oc.getOid() ) )
+                    || ( fields.contains( SearchInEnum.DESCRIPTION ) && matches( pattern, oc.getDescription() ) )
+                    || ( fields.contains( SearchInEnum.SUPERIORS ) && matches( pattern, oc.getSuperiorOids() ) )
+                    || ( fields.contains( SearchInEnum.MANDATORY_ATTRIBUTES )
+                        && matches( pattern, oc.getMustAttributeTypeOids() ) )
+                    || ( fields.contains( SearchInEnum.OPTIONAL_ATTRIBUTES )
+                        && matches( pattern, oc.getMayAttributeTypeOids() ) ) )
+                {
+                    searchResults.add( oc );
+                }
+            }
+        }
+
+        return searchResults;
+    }
+
+
+    private static boolean matches( Pattern pattern, List<String> values )
+    {
+        if ( values != null )
+        {
+            for ( String value : values )
+            {
+                if ( matches( pattern, value ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+
+    private static boolean matches( Pattern pattern, String value )
+    {
+        return ( value != null ) && pattern.matcher( value ).matches();
+    }
+
+
+    private static Schema getSchema( String name ) throws Exception
+    {
+        try ( InputStream in = new FileInputStream( "resources/schemas/apacheds/" + name + ".xml" ) ) //$NON-NLS-1$ //$NON-NLS-2$
+        {
+            return XMLSchemaFileImporter.getSchema( in, name + ".xml" ); //$NON-NLS-1$
+        }
+    }
+
+
+    private AttributeType createAttributeType( String oid, String name, String superior )
+    {
+        AttributeType attributeType = new AttributeType( oid );
+        attributeType.setSchemaName( "system" ); //$NON-NLS-1$
+        attributeType.setNames( name );
+        attributeType.setDescription( "A test attribute type" ); //$NON-NLS-1$
+        attributeType.setSuperiorOid( superior );
+
+        return attributeType;
+    }
+
+
+    private ObjectClass createObjectClass( String oid, String name, String mayAttributeType )
+    {
+        ObjectClass objectClass = new ObjectClass( oid );
+        objectClass.setSchemaName( "system" ); //$NON-NLS-1$
+        objectClass.setNames( name );
+        objectClass.setSuperiorOids( Collections.singletonList( "top" ) ); //$NON-NLS-1$
+        objectClass.setMayAttributeTypeOids( Collections.singletonList( mayAttributeType ) );
+
+        return objectClass;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.studio.schemaeditor.view.views;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.ObjectClass;
+import org.apache.directory.api.ldap.model.schema.ObjectClassTypeEnum;
+import org.apache.directory.studio.schemaeditor.PluginConstants;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandler;
+import org.apache.directory.studio.schemaeditor.controller.SchemaHandlerAdapter;
+import org.apache.directory.studio.schemaeditor.model.Schema;
+import org.apache.directory.studio.schemaeditor.model.io.XMLSchemaFileImporter;
+import org.apache.directory.studio.schemaeditor.view.wrappers.AttributeTypeWrapper;
+import org.apache.directory.studio.schemaeditor.view.wrappers.Folder;
+import org.apache.directory.studio.schemaeditor.view.wrappers.ObjectClassWrapper;
+import org.apache.directory.studio.schemaeditor.view.wrappers.SchemaViewRoot;
+import org.apache.directory.studio.schemaeditor.view.wrappers.SchemaWrapper;
+import org.eclipse.jface.preference.PreferenceStore;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+
+/**
+ * Tests the incremental updates of the {@link SchemaViewContentProvider}: after
+ * schemas and schema objects are added, modified and removed, the tree must be
+ * the same as the tree built from scratch from the updated schemas.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SchemaViewContentProviderTest
+{
+    private static final String OID = "1.3.6.1.4.1.18060.0.4.99"; //$NON-NLS-1$
+
+    private PreferenceStore store;
+
+    private SchemaHandler schemaHandler;
+
+    private SchemaViewContentProvider contentProvider;
+
+    private SchemaViewRoot root;
+
+    /** Expands the whole tree after each update if true, shows only the top level nodes otherwise */
+    private boolean expandAll;
+
+
+    private void setup( int presentation, int grouping, boolean expandAll ) throws Exception
+    {
+        store = new PreferenceStore();
+        store.setValue( PluginConstants.PREFS_SCHEMA_VIEW_SCHEMA_PRESENTATION, presentation );
+        store.setValue( PluginConstants.PREFS_SCHEMA_VIEW_GROUPING, grouping );
+        store.setValue( PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY, PluginConstants.PREFS_SCHEMA_VIEW_SORTING_BY_FIRSTNAME );
+        store.setValue( PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER,
+            PluginConstants.PREFS_SCHEMA_VIEW_SORTING_ORDER_ASCENDING );
+
+        schemaHandler = new SchemaHandler();
+
+        for ( String name : new String[]
+            { "system", "core", "cosine", "inetorgperson" } ) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        {
+            schemaHandler.addSchema( readSchema( name ) );
+        }
+
+        contentProvider = new SchemaViewContentProvider( store, schemaHandler );
+        root = new SchemaViewRoot();
+        this.expandAll = expandAll;
+        show();
+
+        // forwarding the updates as the SchemaViewController does
+        schemaHandler.addListener( new SchemaHandlerAdapter()
+        {
+            public void attributeTypeAdded( AttributeType at )
+            {
+                contentProvider.attributeTypeAdded( at );
+                assertNotNull( contentProvider.getWrapper( at ) );
+            }
+
+
+            public void attributeTypeModified( AttributeType at )
+            {
+                contentProvider.attributeTypeModified( at );
+            }
+
+
+            public void attributeTypeRemoved( AttributeType at )
+            {
+                contentProvider.attributeTypeRemoved( at );
+            }
+
+
+            public void objectClassAdded( ObjectClass oc )
+            {
+                contentProvider.objectClassAdded( oc );
+                assertNotNull( contentProvider.getWrapper( oc ) );
+            }
+
+
+            public void objectClassModified( ObjectClass oc )
+            {
+                contentProvider.objectClassModified( oc );
+            }
+
+
+            public void objectClassRemoved( ObjectClass oc )
+            {
+                contentProvider.objectClassRemoved( oc );
+            }
+
+
+            public void schemaAdded( Schema schema )
+            {
+                contentProvider.schemaAdded( schema );
+            }
+
+
+            public void schemaRemoved( Schema schema )
+            {
+                contentProvider.schemaRemoved( schema );
+            }
+        } );
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(
+        { "0, 0, true", "0, 1, true", "1, 0, true", "1, 1, true", "0, 0, false", "0, 1, false", "1, 0, false",
+            "1, 1, false" })
+    public void testAddAttributeTypes( int presentation, int grouping, boolean expandAll ) throws Exception
+    {
+        setup( presentation, grouping, expandAll );
+
+        AttributeType at = createAttributeType( "1", "testAttribute", "name", "cosine" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addAttributeType( at );
+        assertSameTree();
+
+        schemaHandler.addAttributeType( createAttributeType( "2", "testSubAttribute", "testAttribute", "core" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        // the superior is added after its sub attribute type
+        schemaHandler.addAttributeType( createAttributeType( "3", "testOrphanAttribute", "testLateAttribute", "core" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+        schemaHandler.addAttributeType( createAttributeType( "4", "testLateAttribute", "name", "cosine" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(
+        { "0, 0, true", "0, 1, true", "1, 0, true", "1, 1, true", "0, 0, false", "0, 1, false", "1, 0, false",
+            "1, 1, false" })
+    public void testModifyAndRemoveAttributeTypes( int presentation, int grouping, boolean expandAll )
+        throws Exception
+    {
+        setup( presentation, grouping, expandAll );
+
+        AttributeType at = createAttributeType( "1", "testAttribute", "name", "cosine" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addAttributeType( at );
+        AttributeType subAt = createAttributeType( "2", "testSubAttribute", "testAttribute", "cosine" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addAttributeType( subAt );
+        schemaHandler.addAttributeType( createAttributeType( "3", "testSubSubAttribute", "testSubAttribute", "cosine" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        // moved to another superior with its own sub attribute type
+        schemaHandler.modifyAttributeType( subAt, createAttributeType( "2", "testSubAttribute", "cn", "cosine" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        // renamed
+        schemaHandler.modifyAttributeType( subAt, createAttributeType( "2", "aTestSubAttribute", "cn", "cosine" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        schemaHandler.removeAttributeType( at );
+        assertSameTree();
+
+        // removing an attribute type whose sub attribute types stay
+        schemaHandler.removeAttributeType( schemaHandler.getAttributeType( "cn" ) ); //$NON-NLS-1$
+        assertSameTree();
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(
+        { "0, 0, true", "0, 1, true", "1, 0, true", "1, 1, true", "0, 0, false", "0, 1, false", "1, 0, false",
+            "1, 1, false" })
+    public void testObjectClasses( int presentation, int grouping, boolean expandAll ) throws Exception
+    {
+        setup( presentation, grouping, expandAll );
+
+        ObjectClass oc = createObjectClass( "11", "testObjectClass", "person", "cosine" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addObjectClass( oc );
+        ObjectClass subOc = createObjectClass( "12", "testSubObjectClass", "testObjectClass", "core" ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addObjectClass( subOc );
+        assertSameTree();
+
+        schemaHandler.modifyObjectClass( subOc, createObjectClass( "12", "testSubObjectClass", "organization", "core" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        schemaHandler.modifyObjectClass( subOc, createObjectClass( "12", "testSubObjectClass", "testObjectClass", "core" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertSameTree();
+
+        // the sub object class stays
+        schemaHandler.removeObjectClass( oc );
+        assertSameTree();
+
+        schemaHandler.removeObjectClass( schemaHandler.getObjectClass( "organizationalPerson" ) ); //$NON-NLS-1$
+        assertSameTree();
+    }
+
+
+    @ParameterizedTest
+    @CsvSource(
+        { "0, 0, true", "0, 1, true", "1, 0, true", "1, 1, true", "0, 0, false", "0, 1, false", "1, 0, false",
+            "1, 1, false" })
+    public void testSchemas( int presentation, int grouping, boolean expandAll ) throws Exception
+    {
+        setup( presentation, grouping, expandAll );
+
+        Schema schema = new Schema( "test" ); //$NON-NLS-1$
+        schema.addAttributeType( createAttributeType( "1", "testAttribute", "name", "test" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schema.addAttributeType( createAttributeType( "2", "testSubAttribute", "testAttribute", "test" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schema.addObjectClass( createObjectClass( "11", "testObjectClass", "person", "test" ) ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        schemaHandler.addSchema( schema );
+        assertSameTree();
+
+        // the object classes of the removed schema have sub object classes in the other schemas
+        schemaHandler.removeSchema( schemaHandler.getSchema( "inetorgperson" ) ); //$NON-NLS-1$
+        assertSameTree();
+
+        schemaHandler.removeSchema( schema );
+        assertSameTree();
+
+        schemaHandler.addSchema( readSchema( "inetorgperson" ) ); //$NON-NLS-1$
+        assertSameTree();
+    }
+
+
+    /**
+     * Asks the content provider for the nodes the viewer would show.
+     */
+    private void show()
+    {
+        if ( expandAll )
+        {
+            toString( contentProvider, root );
+        }
+        else
+        {
+            contentProvider.getElements( root );
+        }
+    }
+
+
+    /**
+     * Checks that the updated tree is the same as the tree built from the schemas.
+     */
+    private void assertSameTree()
+    {
+        SchemaViewContentProvider newContentProvider = new SchemaViewContentProvider( store, schemaHandler );
+        String expected = toString( newContentProvider, new SchemaViewRoot() );
+
+        // the nodes which were not shown are created from the updated schemas
+        String actual = toString( contentProvider, root );
+        assertEquals( expected, actual );
+
+        if ( !expandAll )
+        {
+            // starting again from a tree with only the top level nodes created
+            root = new SchemaViewRoot();
+            show();
+        }
+    }
+
+
+    /**
+     * Gets the representation of the whole tree under the given node, and checks
+     * the answers of the content provider on each node.
+     */
+    private static String toString( SchemaViewContentProvider contentProvider, Object node )
+    {
+        StringBuilder sb = new StringBuilder();
+        append( sb, contentProvider, node, "" ); //$NON-NLS-1$
+
+        return sb.toString();
+    }
+
+
+    private static void append( StringBuilder sb, SchemaViewContentProvider contentProvider, Object node,
+        String indent )
+    {
+        // asked before the children are created, as the viewer does (the root is the input of the viewer)
+        boolean hasChildren = contentProvider.hasChildren( node );
+        Object[] children = contentProvider.getChildren( node );
+
+        if ( !( node instanceof SchemaViewRoot ) )
+        {
+            assertEquals( children.length > 0, hasChildren, () -> toString( node ) );
+        }
+
+        for ( Object child : children )
+        {
+            assertSame( node, contentProvider.getParent( child ) );
+
+            if ( child instanceof AttributeTypeWrapper )
+            {
+                assertTrue( contentProvider.getWrappers( ( ( AttributeTypeWrapper ) child ).getAttributeType() )
+                    .contains( child ) );
+            }
+            else if ( child instanceof ObjectClassWrapper )
+            {
+                assertTrue( contentProvider.getWrappers( ( ( ObjectClassWrapper ) child ).getObjectClass() )
+                    .contains( child ) );
+            }
+
+            sb.append( indent ).append( toString( child ) ).append( '\n' );
+            append( sb, contentProvider, child, indent + "  " ); //$NON-NLS-1$
+        }
+    }
+
+
+    private static String toString( Object node )
+    {
+        if ( node instanceof Folder )
+        {
+            return "Folder " + ( ( Folder ) node ).getType(); //$NON-NLS-1$
+        }
+        else if ( node instanceof SchemaWrapper )
+        {
+            return "Schema " + ( ( SchemaWrapper ) node ).getSchema().getSchemaName(); //$NON-NLS-1$
+        }
+        else if ( node instanceof AttributeTypeWrapper )
+        {
+            AttributeType at = ( ( AttributeTypeWrapper ) node ).getAttributeType();
+
+            return "AttributeType " + at.getOid() + " " + at.getNames(); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        else if ( node instanceof ObjectClassWrapper )
+        {
+            ObjectClass oc = ( ( ObjectClassWrapper ) node ).getObjectClass();
+
+            return "ObjectClass " + oc.getOid() + " " + oc.getNames(); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        return String.valueOf( node );
+    }
+
+
+    private static AttributeType createAttributeType( String oid, String name, String superior, String schemaName )
+    {
+        AttributeType at = new AttributeType( OID + "." + oid ); //$NON-NLS-1$
+        at.setNames( name );
+        at.setSuperiorOid( superior );
+        at.setSchemaName( schemaName );
+
+        return at;
+    }
+
+
+    private static ObjectClass createObjectClass( String oid, String name, String superior, String schemaName )
+    {
+        ObjectClass oc = new ObjectClass( OID + "." + oid ); //$NON-NLS-1$
+        oc.setNames( name );
+        oc.setSuperiorOids( Collections.singletonList( superior ) );
+        oc.setType( ObjectClassTypeEnum.STRUCTURAL );
+        oc.setMayAttributeTypeOids( Arrays.asList( "description" ) ); //$NON-NLS-1$
+        oc.setSchemaName( schemaName );
+
+        return oc;
+    }
+
+
+    private static Schema readSchema( String name ) throws Exception
+    {
+        try ( InputStream in = new FileInputStream( "resources/schemas/apacheds/" + name + ".xml" ) ) //$NON-NLS-1$ //$NON-NLS-2$
+        {
+            return XMLSchemaFileImporter.getSchema( in, name );
+        }
+    }
+}
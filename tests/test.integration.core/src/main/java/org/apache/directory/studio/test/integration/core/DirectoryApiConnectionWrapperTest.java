@@ -43,6 +43,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.reflect.Field;
 import java.net.ConnectException;
 import java.nio.channels.UnresolvedAddressException;
 import java.util.ArrayList;
@@ -116,6 +117,7 @@ import org.apache.directory.studio.test.integration.junit5.SkipTestIfLdapServerI
 import org.apache.directory.studio.test.integration.junit5.TestData;
 import org.apache.directory.studio.test.integration.junit5.TestFixture;
 import org.apache.directory.studio.test.integration.junit5.TestLdapServer;
+import org.apache.mina.core.session.IoSession;
 import org.apache.mina.util.AvailablePortFinder;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.junit.jupiter.api.AfterAll;
@@ -1602,6 +1604,102 @@ public class DirectoryApiConnectionWrapperTest
     }
 
 
+    /**
+     * Tests that a dropped connection is re-established and bound in background.
+     */
+    @ParameterizedTest
+    @LdapServersSource
+    public void testReconnectDroppedConnection( TestLdapServer ldapServer ) throws Exception
+    {
+        StudioProgressMonitor monitor = getProgressMonitor();
+        getConnectionWrapper( monitor, ldapServer );
+
+        dropConnection();
+        assertTrue( waitForConnected( true ) );
+
+        Entry entry = lookup( USER1_DN.getName(), monitor );
+        assertEquals( USER1_DN, entry.getDn() );
+        assertNull( monitor.getException() );
+    }
+
+
+    /**
+     * Tests that a disconnect stops the background reconnect of a dropped connection.
+     */
+    @ParameterizedTest
+    @LdapServersSource
+    public void testDisconnectStopsReconnect( TestLdapServer ldapServer ) throws Exception
+    {
+        StudioProgressMonitor monitor = getProgressMonitor();
+        getConnectionWrapper( monitor, ldapServer );
+
+        dropConnection();
+        connectionWrapper.disconnect();
+
+        assertFalse( waitForConnected( true ) );
+        assertFalse( connectionWrapper.isConnected() );
+    }
+
+
+    /**
+     * Tests that an operation doesn't re-establish a connection closed by a disconnect.
+     */
+    @ParameterizedTest
+    @LdapServersSource
+    public void testOperationAfterDisconnectDoesNotReconnect( TestLdapServer ldapServer ) throws Exception
+    {
+        StudioProgressMonitor monitor = getProgressMonitor();
+        getConnectionWrapper( monitor, ldapServer );
+        connectionWrapper.disconnect();
+
+        SearchControls searchControls = new SearchControls();
+        searchControls.setSearchScope( SearchControls.OBJECT_SCOPE );
+        StudioSearchResultEnumeration result = connectionWrapper.search( USER1_DN.getName(),
+            TestFixture.OBJECT_CLASS_ALL_FILTER, searchControls, AliasDereferencingMethod.NEVER,
+            ReferralHandlingMethod.IGNORE, null, monitor, null );
+
+        assertNull( result );
+        assertTrue( monitor.errorsReported() );
+        assertFalse( connectionWrapper.isConnected() );
+
+        // an explicit connect re-establishes the connection
+        monitor = getProgressMonitor();
+        connectionWrapper.connect( monitor );
+        connectionWrapper.bind( monitor );
+
+        Entry entry = lookup( USER1_DN.getName(), monitor );
+        assertEquals( USER1_DN, entry.getDn() );
+        assertNull( monitor.getException() );
+    }
+
+
+    /**
+     * Closes the network session of the connection, like a server or network failure.
+     */
+    private void dropConnection() throws Exception
+    {
+        Field ioSessionField = DirectoryApiConnectionWrapper.class.getDeclaredField( "ioSession" );
+        ioSessionField.setAccessible( true );
+        ( ( IoSession ) ioSessionField.get( connectionWrapper ) ).closeNow().awaitUninterruptibly();
+    }
+
+
+    private boolean waitForConnected( boolean connected ) throws InterruptedException
+    {
+        for ( int i = 0; i < 50; i++ )
+        {
+            if ( connectionWrapper.isConnected() == connected )
+            {
+                return true;
+            }
+
+            Thread.sleep( 100 );
+        }
+
+        return false;
+    }
+
+
     @ParameterizedTest
     @LdapServersSource(mode = Mode.All)
     public void testPasswordModifyRequestExtendedOperation_AdminChangesUserPassword( TestLdapServer ldapServer )